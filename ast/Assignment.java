@@ -4,7 +4,9 @@ import environment.Environment;
 
 /**
  * Assignment is a subclass of Statement that supports assigning a value
- * to a variable using the environment setVariable method.
+ * to a variable using the environment setVariable method. An assignment made by
+ * the Parser also carries the symbol ID of the variable's name, and one in a
+ * procedure bound by the Resolver also carries the variable's slot in the frame.
  *
  * @author Juliana Li
  * @version October 17, 2023
@@ -13,6 +15,8 @@ public class Assignment extends Statement
 {
     // instance variables
     private String id;
+    private int symbol;
+    private int slot = -1;
     private Expression exp;
 
     /**
@@ -22,8 +26,22 @@ public class Assignment extends Statement
      * @param exp Expression representing value of the variable
      */
     public Assignment(String id, Expression exp)
+    {
+        this(id, -1, exp);
+    }
+
+    /**
+     * Assignment constructor for construction of an Assignment object with the
+     * symbol ID of the variable's name.
+     *
+     * @param id name of the variable
+     * @param symbol symbol ID of the name, or -1 if it has none
+     * @param exp Expression representing value of the variable
+     */
+    public Assignment(String id, int symbol, Expression exp)
     {
         this.id = id;
+        this.symbol = symbol;
         this.exp = exp;
     }
 
@@ -35,7 +53,25 @@ public class Assignment extends Statement
     @Override
     public void exec(Environment env)
     {
-        env.setVariable(id, exp.eval(env));
+        if (slot >= 0)
+            env.setSlot(slot, symbol, exp.eval(env));
+        else if (symbol >= 0)
+            env.setVariable(symbol, exp.eval(env));
+        else
+            env.setVariable(id, exp.eval(env));
+    }
+
+    /**
+     * This method binds the variable and the expression of the assignment to slots
+     * in the procedure the Resolver is binding.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        slot = r.slot(symbol);
+        exp = exp.resolve(r);
     }
 
     /**
@@ -47,9 +83,36 @@ public class Assignment extends Statement
     public void compile(Emitter e)
     {
         exp.compile(e);
-        if (e.isLocalVariable(id))
-            e.emit("sw $v0 " + e.getOffset(id) + "($sp)");
+        if (symbol >= 0 ? e.isLocalVariable(symbol) : e.isLocalVariable(id))
+            e.emit("sw $v0 " + (symbol >= 0 ? e.getOffset(symbol) : e.getOffset(id)) + "($sp)");
         else
             e.emit("la $t0 var" + id + "\t# variable assignment\nsw $v0 ($t0)");
     }
+
+    /**
+     * This method writes the assignment with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.ASSIGNMENT, this);
+        out.writeName(id);
+        out.writeInt(symbol);
+        exp.write(out);
+    }
+
+    /**
+     * This method moves the position of the assignment and of its expression by a
+     * number of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        exp.movePositions(lines, chars);
+    }
 }
@@ -0,0 +1,333 @@
+package ast;
+import scanner.SourcePosition;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AstReader turns the bytes written by AstWriter back into an AST. It reads from a
+ * ByteBuffer, which may be a file mapped into memory, from its position onward.
+ * Names are read once and then looked up by index, and an expression that was
+ * written once and referred to after that is read back as a single shared node.
+ * Bytes that do not make a well-formed AST raise an IllegalArgumentException.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class AstReader
+{
+    // instance variables
+    private ByteBuffer in;
+    private List<String> names;
+    private List<Expression> expressions;
+    private long lastPosition;
+
+    /**
+     * AstReader constructor that creates a reader of the given bytes.
+     *
+     * @param in the bytes, from their position to their limit
+     */
+    public AstReader(ByteBuffer in)
+    {
+        this.in = in;
+        names = new ArrayList<String>();
+        expressions = new ArrayList<Expression>();
+    }
+
+    /**
+     * This method reads a whole program, which must take up the rest of the bytes.
+     *
+     * @return the program
+     * @throws IllegalArgumentException if the bytes are not a program written by AstWriter
+     */
+    public Program readProgram()
+    {
+        Program program;
+        try
+        {
+            expect(AstWriter.PROGRAM);
+            long position = readPosition();
+            List<String> vars = readNames();
+            int count = readCount();
+            List<ProcedureDeclaration> procedures = new ArrayList<ProcedureDeclaration>(count);
+            for (int i = 0; i < count; i++)
+                procedures.add(readProcedure());
+            program = at(new Program(vars, procedures, readStatement()), position);
+        }
+        catch (RuntimeException e)
+        {
+            throw new IllegalArgumentException("Malformed AST at byte " + in.position(), e);
+        }
+        if (in.hasRemaining())
+            throw new IllegalArgumentException("Malformed AST: " + in.remaining() + " bytes after the program");
+        return program;
+    }
+
+    /**
+     * This method reads a procedure declaration.
+     *
+     * @return the procedure declaration
+     */
+    private ProcedureDeclaration readProcedure()
+    {
+        expect(AstWriter.PROCEDURE);
+        long position = readPosition();
+        String id = readName();
+        int symbol = readInt();
+        List<String> params = readNames();
+        int[] paramSymbols = readInts();
+        List<String> localVars = readNames();
+        int[] localSymbols = readInts();
+        Statement stmt = readStatement();
+        return at(new ProcedureDeclaration(id, symbol, params, paramSymbols, stmt, localVars, localSymbols),
+                position);
+    }
+
+    /**
+     * This method reads a statement, which may be null.
+     *
+     * @return the statement, or null
+     */
+    private Statement readStatement()
+    {
+        byte tag = in.get();
+        if (tag == AstWriter.NULL)
+            return null;
+        long position = readPosition();
+        switch (tag)
+        {
+            case AstWriter.ASSIGNMENT:
+            {
+                String id = readName();
+                int symbol = readInt();
+                return at(new Assignment(id, symbol, readExpression()), position);
+            }
+            case AstWriter.WRITELN:
+                return at(new Writeln(readExpression()), position);
+            case AstWriter.READLN:
+            {
+                String var = readName();
+                return at(new Readln(var, readInt()), position);
+            }
+            case AstWriter.BLOCK:
+            {
+                int count = readCount();
+                ArrayList<Statement> statements = new ArrayList<Statement>(count);
+                for (int i = 0; i < count; i++)
+                    statements.add(readStatement());
+                return at(new Block(statements), position);
+            }
+            case AstWriter.IF:
+            {
+                Expression cond = readExpression();
+                Statement stmt1 = readStatement();
+                return at(new If(cond, stmt1, readStatement()), position);
+            }
+            case AstWriter.WHILE:
+            {
+                Expression cond = readExpression();
+                return at(new While(cond, readStatement()), position);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown statement tag " + tag);
+        }
+    }
+
+    /**
+     * This method reads an expression, or a reference to one read before.
+     *
+     * @return the expression
+     */
+    private Expression readExpression()
+    {
+        byte tag = in.get();
+        if (tag == AstWriter.REFERENCE)
+        {
+            Expression expression = expressions.get(readInt());
+            if (expression == null)
+                throw new IllegalArgumentException("Expression refers to itself");
+            return expression;
+        }
+        // the index is taken before the children are read, as the writer numbered it
+        int index = expressions.size();
+        expressions.add(null);
+        long position = readPosition();
+        Expression expression;
+        switch (tag)
+        {
+            case AstWriter.NUMBER:
+                expression = new Number(readInt());
+                break;
+            case AstWriter.VARIABLE:
+            {
+                String id = readName();
+                expression = new Variable(id, readInt());
+                break;
+            }
+            case AstWriter.BINOP:
+            {
+                String op = readName();
+                Expression exp1 = readExpression();
+                expression = new BinOp(op, exp1, readExpression());
+                break;
+            }
+            case AstWriter.CONDITION:
+            {
+                String relop = readName();
+                Expression expr1 = readExpression();
+                expression = new Condition(relop, expr1, readExpression());
+                break;
+            }
+            case AstWriter.CALL:
+            {
+                String id = readName();
+                int symbol = readInt();
+                int count = readCount();
+                List<Expression> args = new ArrayList<Expression>(count);
+                for (int i = 0; i < count; i++)
+                    args.add(readExpression());
+                expression = new ProcedureCall(id, symbol, args);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown expression tag " + tag);
+        }
+        expression.setPosition(position);
+        expressions.set(index, expression);
+        return expression;
+    }
+
+    /**
+     * This method reads a name, either in full or as the index of a name read before.
+     *
+     * @return the name
+     */
+    private String readName()
+    {
+        int index = readInt();
+        if (index > 0)
+            return names.get(index - 1);
+        int length = readCount();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = (char) readInt();
+        String name = new String(chars);
+        names.add(name);
+        return name;
+    }
+
+    /**
+     * This method reads a list of names.
+     *
+     * @return the names
+     */
+    private List<String> readNames()
+    {
+        int count = readCount();
+        List<String> list = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++)
+            list.add(readName());
+        return list;
+    }
+
+    /**
+     * This method reads an array of ints that may be null.
+     *
+     * @return the array, or null
+     */
+    private int[] readInts()
+    {
+        int length = readInt();
+        if (length < 0)
+            return null;
+        if (length > in.remaining())
+            throw new IllegalArgumentException("Length " + length + " runs past the end");
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++)
+            values[i] = readInt();
+        return values;
+    }
+
+    /**
+     * This method reads the number of items in a list, which cannot be more than the
+     * bytes left, since every item takes at least one byte.
+     *
+     * @return the number of items
+     */
+    private int readCount()
+    {
+        int count = readInt();
+        if (count < 0 || count > in.remaining())
+            throw new IllegalArgumentException("Count " + count + " runs past the end");
+        return count;
+    }
+
+    /**
+     * This method reads a position written as its distance from the position before it.
+     *
+     * @return the packed position
+     */
+    private long readPosition()
+    {
+        int line = SourcePosition.getLine(lastPosition) + readInt();
+        int column = readInt();
+        int offset = SourcePosition.getOffset(lastPosition) + readInt();
+        lastPosition = SourcePosition.pack(line, column, offset);
+        return lastPosition;
+    }
+
+    /**
+     * This method reads an int written as a variable-length integer.
+     *
+     * @return the int
+     */
+    private int readInt()
+    {
+        int value = (int) readLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * This method reads an unsigned variable-length integer.
+     *
+     * @return the long
+     */
+    private long readLong()
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Variable-length integer is too long");
+    }
+
+    /**
+     * This method reads a tag that must be the given one.
+     *
+     * @param tag the tag expected
+     */
+    private void expect(byte tag)
+    {
+        byte found = in.get();
+        if (found != tag)
+            throw new IllegalArgumentException("Expected tag " + tag + " and found " + found);
+    }
+
+    /**
+     * Tags a statement with the position it was read with.
+     *
+     * @param statement the statement
+     * @param position the packed position
+     * @param <T> the type of the statement
+     * @return the statement
+     */
+    private static <T extends Statement> T at(T statement, long position)
+    {
+        statement.setPosition(position);
+        return statement;
+    }
+}
@@ -0,0 +1,314 @@
+package ast;
+import scanner.SourcePosition;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AstWriter turns an AST into a compact array of bytes, which AstReader turns back
+ * into the same AST. Each node writes itself with its write method, as a tag byte
+ * for its class, its packed position, and then its fields and children. Numbers are
+ * written as variable-length integers, so most take a single byte, and positions as
+ * their distance from the position written before them. Every name is
+ * written out in full only the first time it appears, and after that as the index
+ * of its first appearance. An expression node that appears more than once, as the
+ * nodes that a NodeFactory shares do, is written once and then referred to by index,
+ * so the AST that is read back shares the same nodes.
+ *
+ * The layout of the bytes changes whenever a node's fields change, so anything that
+ * stores them should store FORMAT_VERSION with them.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class AstWriter
+{
+    /**
+     * The version of the layout of the bytes, which goes up whenever it changes.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    // tags of the kinds of nodes
+    static final byte NULL = 0;
+    static final byte REFERENCE = 1;
+    static final byte NUMBER = 2;
+    static final byte VARIABLE = 3;
+    static final byte BINOP = 4;
+    static final byte CONDITION = 5;
+    static final byte CALL = 6;
+    static final byte ASSIGNMENT = 7;
+    static final byte WRITELN = 8;
+    static final byte READLN = 9;
+    static final byte BLOCK = 10;
+    static final byte IF = 11;
+    static final byte WHILE = 12;
+    static final byte PROCEDURE = 13;
+    static final byte PROGRAM = 14;
+
+    // instance variables
+    private byte[] bytes;
+    private int size;
+    private Map<String, Integer> names;
+    // open addressing table of the expressions written, by identity, with a null
+    // expression marking an empty slot
+    private Expression[] expressions;
+    private int[] expressionIndices;
+    private int expressionCount;
+    private long lastPosition;
+
+    /**
+     * AstWriter constructor that creates a writer with nothing written yet.
+     */
+    public AstWriter()
+    {
+        bytes = new byte[1024];
+        names = new HashMap<String, Integer>();
+        expressions = new Expression[1024];
+        expressionIndices = new int[1024];
+    }
+
+    /**
+     * This method writes a whole program.
+     *
+     * @param program the program
+     * @return the bytes written so far, including the program
+     */
+    public byte[] writeProgram(Program program)
+    {
+        program.write(this);
+        return toByteArray();
+    }
+
+    /**
+     * This method returns the bytes written so far.
+     *
+     * @return a copy of the bytes written
+     */
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * This method starts writing a statement with its tag and position.
+     *
+     * @param tag the tag of the statement's class
+     * @param statement the statement
+     */
+    void beginStatement(byte tag, Statement statement)
+    {
+        writeByte(tag);
+        writePosition(statement.getPosition());
+    }
+
+    /**
+     * This method starts writing an expression with its tag and position, unless it
+     * has been written before, in which case it writes a reference to it instead.
+     *
+     * @param tag the tag of the expression's class
+     * @param expression the expression
+     * @return true if the caller should go on to write the expression's fields, false
+     *         if a reference was written
+     */
+    boolean beginExpression(byte tag, Expression expression)
+    {
+        int mask = expressions.length - 1;
+        int slot = hash(expression) & mask;
+        while (expressions[slot] != null)
+        {
+            if (expressions[slot] == expression)
+            {
+                writeByte(REFERENCE);
+                writeInt(expressionIndices[slot]);
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        expressions[slot] = expression;
+        expressionIndices[slot] = expressionCount;
+        if (++expressionCount * 2 > expressions.length)
+            growExpressions();
+        writeByte(tag);
+        writePosition(expression.getPosition());
+        return true;
+    }
+
+    /**
+     * This method hashes an expression by its identity.
+     *
+     * @param expression the expression
+     * @return the hash
+     */
+    private static int hash(Expression expression)
+    {
+        int h = System.identityHashCode(expression) * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+
+    /**
+     * This method doubles the table of the expressions written.
+     */
+    private void growExpressions()
+    {
+        Expression[] oldExpressions = expressions;
+        int[] oldIndices = expressionIndices;
+        expressions = new Expression[oldExpressions.length * 2];
+        expressionIndices = new int[expressions.length];
+        int mask = expressions.length - 1;
+        for (int i = 0; i < oldExpressions.length; i++)
+        {
+            if (oldExpressions[i] == null)
+                continue;
+            int slot = hash(oldExpressions[i]) & mask;
+            while (expressions[slot] != null)
+                slot = (slot + 1) & mask;
+            expressions[slot] = oldExpressions[i];
+            expressionIndices[slot] = oldIndices[i];
+        }
+    }
+
+    /**
+     * This method writes a statement that may be null.
+     *
+     * @param statement the statement, or null
+     */
+    void writeStatement(Statement statement)
+    {
+        if (statement == null)
+            writeByte(NULL);
+        else
+            statement.write(this);
+    }
+
+    /**
+     * This method writes a list of statements.
+     *
+     * @param statements the statements
+     */
+    void writeStatements(List<? extends Statement> statements)
+    {
+        writeInt(statements.size());
+        for (Statement statement : statements)
+            writeStatement(statement);
+    }
+
+    /**
+     * This method writes a list of expressions.
+     *
+     * @param list the expressions
+     */
+    void writeExpressions(List<Expression> list)
+    {
+        writeInt(list.size());
+        for (Expression expression : list)
+            expression.write(this);
+    }
+
+    /**
+     * This method writes a name: in full the first time, and after that as the index
+     * of its first appearance. A name is written as 0 followed by its length and
+     * characters, and a repeated name as its index plus 1.
+     *
+     * @param name the name
+     */
+    void writeName(String name)
+    {
+        Integer index = names.get(name);
+        if (index != null)
+        {
+            writeInt(index + 1);
+            return;
+        }
+        names.put(name, names.size());
+        writeInt(0);
+        writeInt(name.length());
+        for (int i = 0; i < name.length(); i++)
+            writeInt(name.charAt(i));
+    }
+
+    /**
+     * This method writes a list of names.
+     *
+     * @param list the names
+     */
+    void writeNames(List<String> list)
+    {
+        writeInt(list.size());
+        for (String name : list)
+            writeName(name);
+    }
+
+    /**
+     * This method writes an array of ints that may be null, as its length, or -1 for
+     * null, followed by its elements.
+     *
+     * @param values the array, or null
+     */
+    void writeInts(int[] values)
+    {
+        if (values == null)
+        {
+            writeInt(-1);
+            return;
+        }
+        writeInt(values.length);
+        for (int value : values)
+            writeInt(value);
+    }
+
+    /**
+     * This method writes a position as the number of lines and chars it is past the
+     * position written before it, and its column, which are all small numbers even
+     * in a large program.
+     *
+     * @param position the packed position
+     */
+    void writePosition(long position)
+    {
+        writeInt(SourcePosition.getLine(position) - SourcePosition.getLine(lastPosition));
+        writeInt(SourcePosition.getColumn(position));
+        writeInt(SourcePosition.getOffset(position) - SourcePosition.getOffset(lastPosition));
+        lastPosition = position;
+    }
+
+    /**
+     * This method writes an int as a variable-length integer. The sign is moved to
+     * the lowest bit so that small negative numbers are short too, and then seven
+     * bits are written to each byte, with the top bit set on every byte but the last.
+     *
+     * @param value the int
+     */
+    void writeInt(int value)
+    {
+        writeLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * This method writes a long as an unsigned variable-length integer, seven bits to
+     * each byte.
+     *
+     * @param value the long
+     */
+    void writeLong(long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            writeByte((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        writeByte((byte) value);
+    }
+
+    /**
+     * This method writes one byte.
+     *
+     * @param b the byte
+     */
+    private void writeByte(byte b)
+    {
+        if (size == bytes.length)
+            bytes = Arrays.copyOf(bytes, size * 2);
+        bytes[size++] = b;
+    }
+}
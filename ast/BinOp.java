@@ -77,4 +77,55 @@ public class BinOp extends Expression
         else // op is mod
             e.emit("div $t0 $v0\nmfhi $v0");
     }
+
+    /**
+     * This method binds the variables of both operands to slots in the procedure the
+     * Resolver is binding.
+     *
+     * @param r the resolver
+     * @return the bound operation, which is a copy if an operand was bound by another procedure
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        Expression copy = r.copyOf(this);
+        if (copy != null)
+            return copy;
+        Expression left = exp1.resolve(r);
+        Expression right = exp2.resolve(r);
+        if (left == exp1 && right == exp2)
+            return this;
+        return r.copied(this, new BinOp(op, left, right));
+    }
+
+    /**
+     * This method writes the binary operation, or a reference to it if it has been
+     * written before, with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        if (out.beginExpression(AstWriter.BINOP, this))
+        {
+            out.writeName(op);
+            exp1.write(out);
+            exp2.write(out);
+        }
+    }
+
+    /**
+     * This method moves the position of the operation and of its operands by a number
+     * of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        exp1.movePositions(lines, chars);
+        exp2.movePositions(lines, chars);
+    }
 }
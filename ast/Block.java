@@ -47,4 +47,45 @@ public class Block extends Statement
         for (Statement stmt : statements)
             stmt.compile(e);
     }
+
+    /**
+     * This method binds the variables of every statement in the block to slots in the
+     * procedure the Resolver is binding.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        for (Statement stmt : statements)
+            if (stmt != null)
+                stmt.resolve(r);
+    }
+
+    /**
+     * This method writes the block and the statements in it with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.BLOCK, this);
+        out.writeStatements(statements);
+    }
+
+    /**
+     * This method moves the position of the block and of every statement in it by a
+     * number of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        for (Statement stmt : statements)
+            if (stmt != null)
+                stmt.movePositions(lines, chars);
+    }
 }
@@ -56,6 +56,35 @@ public class Condition extends Expression
             return (num1 >= num2) ? 1 : 0;
     }
 
+    /**
+     * This method emits the MIPS code to set the register v0 to 1 if the condition is
+     * satisfied and to 0 otherwise, so that a condition can be used as a value. Set
+     * instructions include: seq for =, sne for <>, slt for <, sgt for >, sle for <=,
+     * and sge for >=.
+     *
+     * @param e the emitter object that writes code to the output file
+     */
+    @Override
+    public void compile(Emitter e)
+    {
+        expr1.compile(e);
+        e.emitPush("$v0");
+        expr2.compile(e);
+        e.emitPop("$t0");
+        if (relop.equals("="))
+            e.emit("seq $v0 $t0 $v0");
+        else if (relop.equals("<>"))
+            e.emit("sne $v0 $t0 $v0");
+        else if (relop.equals("<"))
+            e.emit("slt $v0 $t0 $v0");
+        else if (relop.equals(">"))
+            e.emit("sgt $v0 $t0 $v0");
+        else if (relop.equals("<="))
+            e.emit("sle $v0 $t0 $v0");
+        else // relop is >=
+            e.emit("sge $v0 $t0 $v0");
+    }
+
     /**
      * This method emits the MIPS code for a conditional. The condition is negated, so that
      * the branch jumps to the end label if the condition is satisfied, skipping the code
@@ -65,6 +94,7 @@ public class Condition extends Expression
      * @param e the emitter object that writes code to the output file
      * @param label the name of the end label to jump to
      */
+    @Override
     public void compile(Emitter e, String label)
     {
         expr1.compile(e);
@@ -84,4 +114,55 @@ public class Condition extends Expression
         else // relop is >=
             e.emit("blt $t0 $v0 " + label);
     }
+
+    /**
+     * This method binds the variables of both sides to slots in the procedure the
+     * Resolver is binding.
+     *
+     * @param r the resolver
+     * @return the bound comparison, which is a copy if a side was bound by another procedure
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        Expression copy = r.copyOf(this);
+        if (copy != null)
+            return copy;
+        Expression left = expr1.resolve(r);
+        Expression right = expr2.resolve(r);
+        if (left == expr1 && right == expr2)
+            return this;
+        return r.copied(this, new Condition(relop, left, right));
+    }
+
+    /**
+     * This method writes the comparison, or a reference to it if it has been written
+     * before, with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        if (out.beginExpression(AstWriter.CONDITION, this))
+        {
+            out.writeName(relop);
+            expr1.write(out);
+            expr2.write(out);
+        }
+    }
+
+    /**
+     * This method moves the position of the condition and of its operands by a number
+     * of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        expr1.movePositions(lines, chars);
+        expr2.movePositions(lines, chars);
+    }
 }
\ No newline at end of file
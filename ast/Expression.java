@@ -1,6 +1,7 @@
 package ast;
 import emitter.Emitter;
 import environment.Environment;
+import scanner.SourcePosition;
 
 /**
  * Expression is an abstract class for expressions with an abstract method
@@ -11,6 +12,55 @@ import environment.Environment;
  */
 public abstract class Expression
 {
+    // packed line, column, and offset of the start of the expression in the source
+    private long position;
+
+    /**
+     * Records where the expression was found in the source.
+     *
+     * @param position the packed position, as described in scanner.SourcePosition
+     */
+    public void setPosition(long position)
+    {
+        this.position = position;
+    }
+
+    /**
+     * Returns where the expression was found in the source.
+     *
+     * @return the packed position, or 0 if it is not known
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * This method binds the variables of the expression to slots in the frame of the
+     * procedure the Resolver is binding. An expression without variables is returned
+     * as it is.
+     *
+     * @param r the resolver
+     * @return the bound expression, which is a copy if this one is bound by another procedure
+     */
+    public Expression resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * This method moves the position of the expression, and of everything in it, by a
+     * number of lines and chars, as when text is inserted or removed on the lines
+     * before it.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    public void movePositions(int lines, int chars)
+    {
+        position = SourcePosition.move(position, lines, chars);
+    }
+
     /**
      * Abstract method to evaluate the expression
      *
@@ -28,4 +78,26 @@ public abstract class Expression
     {
         throw new RuntimeException("Implement me!!!!!");
     }
+
+    /**
+     * Emits MIPS code that jumps to a label if the expression is false, that is, if
+     * its value is 0, and falls through otherwise. Conditions override this to branch
+     * on the comparison directly.
+     *
+     * @param e the emitter object that writes code to the output file
+     * @param label the name of the label to jump to
+     */
+    public void compile(Emitter e, String label)
+    {
+        compile(e);
+        e.emit("beq $v0 $zero " + label);
+    }
+
+    /**
+     * Abstract method to write the expression with an AstWriter, or a reference
+     * to it if it has been written before; to be implemented
+     *
+     * @param out the writer to write to
+     */
+    public abstract void write(AstWriter out);
 }
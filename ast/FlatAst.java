@@ -0,0 +1,641 @@
+package ast;
+import emitter.Emitter;
+import environment.Environment;
+import java.util.Arrays;
+import scanner.SymbolTable;
+
+/**
+ * FlatAst holds a whole program as parallel arrays instead of one object per node.
+ * Each node is an index into the arrays: its kind, a value, two child indices, and
+ * its packed source position. Nodes that have a list of children, the statements of
+ * a block and the arguments of a call, point into a shared pool of ints that holds
+ * each list as its length followed by its items. Names are kept only as symbol IDs,
+ * and their text is looked up in the scanner's SymbolTable when code is generated.
+ *
+ * A node's fields mean the following for each kind:
+ *   NUMBER     value is the number
+ *   VARIABLE   value is the symbol ID
+ *   BINARY     value is the operator, first and second are the operands
+ *   CALL       value is the symbol ID of the procedure, first is the list of arguments
+ *   ASSIGN     value is the symbol ID of the variable, first is the expression
+ *   WRITELN    first is the expression
+ *   READLN     value is the symbol ID of the variable
+ *   BLOCK      first is the list of statements
+ *   IF         value is the condition, first is the THEN statement, second is the ELSE
+ *              statement or NONE
+ *   WHILE      value is the condition, first is the statement
+ *   PROCEDURE  value is the symbol ID of the name, first is the statement, second is
+ *              the list of parameters, which is followed in the pool by the list of
+ *              local variables
+ *
+ * Nodes are added children first, as the Parser finishes them. A FlatAst runs and
+ * compiles to exactly what the ast.Program built from the same source does.
+ *
+ * It is smaller than a tree of objects that shares nothing, which is what the Parser
+ * builds by default, but about the same size as a tree whose leaves are shared, since
+ * most nodes are leaves; FlatAstBenchmark measures both.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public final class FlatAst
+{
+    // kinds of nodes
+    public static final byte NUMBER = 0;
+    public static final byte VARIABLE = 1;
+    public static final byte BINARY = 2;
+    public static final byte CALL = 3;
+    public static final byte ASSIGN = 4;
+    public static final byte WRITELN = 5;
+    public static final byte READLN = 6;
+    public static final byte BLOCK = 7;
+    public static final byte IF = 8;
+    public static final byte WHILE = 9;
+    public static final byte PROCEDURE = 10;
+
+    // operators of BINARY nodes; EQUAL and the ones after it are comparisons. The
+    // parser's Operator table gives each operator token one of these codes, so a new
+    // operator needs a code here, a case in exec, and its instructions in the tables
+    // that compile indexes by code
+    public static final int ADD = 0;
+    public static final int SUBTRACT = 1;
+    public static final int MULTIPLY = 2;
+    public static final int DIVIDE = 3;
+    public static final int MODULO = 4;
+    public static final int EQUAL = 5;
+    public static final int NOT_EQUAL = 6;
+    public static final int LESS = 7;
+    public static final int GREATER = 8;
+    public static final int LESS_EQUAL = 9;
+    public static final int GREATER_EQUAL = 10;
+
+    // the index of a missing node, such as an IF without an ELSE
+    public static final int NONE = -1;
+
+    private static final String[] ARITHMETIC = {
+        "addu $v0 $t0 $v0", "subu $v0 $t0 $v0", "mult $t0 $v0\nmflo $v0", "div $t0 $v0\nmflo $v0",
+        "div $t0 $v0\nmfhi $v0"
+    };
+    private static final String[] SET = {"seq", "sne", "slt", "sgt", "sle", "sge"};
+    private static final String[] BRANCH_UNLESS = {"bne", "beq", "bge", "ble", "bgt", "blt"};
+
+    // instance variables
+    private final SymbolTable symbols;
+    private byte[] kinds;
+    private int[] values;
+    private int[] firsts;
+    private int[] seconds;
+    private long[] positions;
+    private int count;
+    private int[] pool;
+    private int poolSize;
+    private int vars;
+    private int procedures;
+    private int main;
+    // the PROCEDURE node declared for each symbol ID while the program runs
+    private int[] procedureBySymbol;
+
+    /**
+     * FlatAst constructor that creates an empty tree whose names are in the given table.
+     *
+     * @param symbols the symbol table that the symbol IDs refer to
+     * @param capacity the number of nodes to make room for at first
+     */
+    public FlatAst(SymbolTable symbols, int capacity)
+    {
+        this.symbols = symbols;
+        capacity = Math.max(capacity, 16);
+        kinds = new byte[capacity];
+        values = new int[capacity];
+        firsts = new int[capacity];
+        seconds = new int[capacity];
+        positions = new long[capacity];
+        pool = new int[capacity / 4];
+        vars = addList(new int[0], 0, 0);
+        procedures = vars;
+        main = NONE;
+    }
+
+    /**
+     * This method adds a node.
+     *
+     * @param kind the kind of the node
+     * @param value the value of the node, as described for its kind
+     * @param first the first child or list of the node
+     * @param second the second child or list of the node
+     * @param position the packed source position of the node
+     * @return the index of the new node
+     */
+    public int add(byte kind, int value, int first, int second, long position)
+    {
+        if (count == kinds.length)
+        {
+            int length = Math.max(count * 2, 16);
+            kinds = Arrays.copyOf(kinds, length);
+            values = Arrays.copyOf(values, length);
+            firsts = Arrays.copyOf(firsts, length);
+            seconds = Arrays.copyOf(seconds, length);
+            positions = Arrays.copyOf(positions, length);
+        }
+        kinds[count] = kind;
+        values[count] = value;
+        firsts[count] = first;
+        seconds[count] = second;
+        positions[count] = position;
+        return count++;
+    }
+
+    /**
+     * This method adds a list of node indices or symbol IDs to the pool.
+     *
+     * @param items the array holding the items
+     * @param from the index of the first item
+     * @param length the number of items
+     * @return the index of the list in the pool
+     */
+    public int addList(int[] items, int from, int length)
+    {
+        if (poolSize + length + 1 > pool.length)
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length + 1));
+        int list = poolSize;
+        pool[poolSize++] = length;
+        System.arraycopy(items, from, pool, poolSize, length);
+        poolSize += length;
+        return list;
+    }
+
+    /**
+     * This method shrinks the arrays to fit the nodes and lists added so far, if more
+     * than an eighth of their room is spare, so that a finished tree holds little
+     * spare room without copying a tree whose capacity was estimated well.
+     */
+    public void trim()
+    {
+        if (poolSize < pool.length - pool.length / 8)
+            pool = Arrays.copyOf(pool, poolSize);
+        if (count >= kinds.length - kinds.length / 8)
+            return;
+        kinds = Arrays.copyOf(kinds, count);
+        values = Arrays.copyOf(values, count);
+        firsts = Arrays.copyOf(firsts, count);
+        seconds = Arrays.copyOf(seconds, count);
+        positions = Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * This method sets the parts of the program.
+     *
+     * @param vars the list of symbol IDs of the global variables
+     * @param procedures the list of PROCEDURE nodes
+     * @param main the main statement, or NONE
+     */
+    public void setProgram(int vars, int procedures, int main)
+    {
+        this.vars = vars;
+        this.procedures = procedures;
+        this.main = main;
+    }
+
+    /**
+     * This method returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * This method returns the kind of a node.
+     *
+     * @param node the index of the node
+     * @return the kind of the node
+     */
+    public byte getKind(int node)
+    {
+        return kinds[node];
+    }
+
+    /**
+     * This method returns the value of a node: a number, symbol ID, operator, or
+     * condition, depending on its kind.
+     *
+     * @param node the index of the node
+     * @return the value of the node
+     */
+    public int getValue(int node)
+    {
+        return values[node];
+    }
+
+    /**
+     * This method returns the first child or list of a node.
+     *
+     * @param node the index of the node
+     * @return the first child or list
+     */
+    public int getFirst(int node)
+    {
+        return firsts[node];
+    }
+
+    /**
+     * This method returns the second child or list of a node.
+     *
+     * @param node the index of the node
+     * @return the second child or list, or NONE
+     */
+    public int getSecond(int node)
+    {
+        return seconds[node];
+    }
+
+    /**
+     * This method returns where a node was found in the source.
+     *
+     * @param node the index of the node
+     * @return the packed position, as described in scanner.SourcePosition
+     */
+    public long getPosition(int node)
+    {
+        return positions[node];
+    }
+
+    /**
+     * This method returns the length of a list in the pool.
+     *
+     * @param list the index of the list
+     * @return the number of items in the list
+     */
+    public int getLength(int list)
+    {
+        return pool[list];
+    }
+
+    /**
+     * This method returns an item of a list in the pool.
+     *
+     * @param list the index of the list
+     * @param i the index of the item in the list
+     * @return the item
+     */
+    public int getItem(int list, int i)
+    {
+        return pool[list + 1 + i];
+    }
+
+    /**
+     * This method returns the list of local variables of a procedure, which follows
+     * its list of parameters in the pool.
+     *
+     * @param procedure the index of the PROCEDURE node
+     * @return the index of the list of local variables
+     */
+    public int getLocals(int procedure)
+    {
+        int params = seconds[procedure];
+        return params + 1 + pool[params];
+    }
+
+    /**
+     * This method returns the number of bytes the arrays of the tree take up, which is
+     * what the tree costs the heap apart from the symbol table.
+     *
+     * @return the size of the arrays in bytes
+     */
+    public long getFootprint()
+    {
+        return kinds.length * (1L + 4 + 4 + 4 + 8) + pool.length * 4L;
+    }
+
+    /**
+     * This method runs the program: it declares the procedures and then executes the
+     * main statement.
+     *
+     * @param env environment containing all the variables and procedures for the current scope
+     */
+    public void exec(Environment env)
+    {
+        procedureBySymbol = new int[symbols.size()];
+        Arrays.fill(procedureBySymbol, NONE);
+        for (int i = 0; i < pool[procedures]; i++)
+        {
+            int procedure = getItem(procedures, i);
+            procedureBySymbol[values[procedure]] = procedure;
+        }
+        exec(main, env);
+    }
+
+    /**
+     * This method executes a statement node.
+     *
+     * @param node the index of the statement
+     * @param env environment containing all the variables and procedures for the current scope
+     */
+    private void exec(int node, Environment env)
+    {
+        switch (kinds[node])
+        {
+            case ASSIGN:
+                env.setVariable(values[node], eval(firsts[node], env));
+                break;
+            case WRITELN:
+                System.out.println(eval(firsts[node], env));
+                break;
+            case READLN:
+                java.util.Scanner s = new java.util.Scanner(System.in);
+                env.declareVariable(values[node], Integer.parseInt(s.nextLine()));
+                break;
+            case BLOCK:
+                int list = firsts[node];
+                for (int i = 0; i < pool[list]; i++)
+                    exec(pool[list + 1 + i], env);
+                break;
+            case IF:
+                if (eval(values[node], env) != 0)
+                    exec(firsts[node], env);
+                else if (seconds[node] != NONE)
+                    exec(seconds[node], env);
+                break;
+            case WHILE:
+                while (eval(values[node], env) != 0)
+                    exec(firsts[node], env);
+                break;
+            default:
+                throw new IllegalStateException("node " + node + " is not a statement");
+        }
+    }
+
+    /**
+     * This method evaluates an expression node.
+     *
+     * @param node the index of the expression
+     * @param env environment containing all the variables and procedures for the current scope
+     * @return the value of the expression
+     */
+    private int eval(int node, Environment env)
+    {
+        switch (kinds[node])
+        {
+            case NUMBER:
+                return values[node];
+            case VARIABLE:
+                return env.getVariable(values[node]);
+            case BINARY:
+                int left = eval(firsts[node], env);
+                int right = eval(seconds[node], env);
+                switch (values[node])
+                {
+                    case ADD:
+                        return left + right;
+                    case SUBTRACT:
+                        return left - right;
+                    case MULTIPLY:
+                        return left * right;
+                    case DIVIDE:
+                        return left / right;
+                    case MODULO:
+                        return left % right;
+                    case EQUAL:
+                        return left == right ? 1 : 0;
+                    case NOT_EQUAL:
+                        return left != right ? 1 : 0;
+                    case LESS:
+                        return left < right ? 1 : 0;
+                    case GREATER:
+                        return left > right ? 1 : 0;
+                    case LESS_EQUAL:
+                        return left <= right ? 1 : 0;
+                    default:
+                        return left >= right ? 1 : 0;
+                }
+            case CALL:
+                return call(node, env);
+            default:
+                throw new IllegalStateException("node " + node + " is not an expression");
+        }
+    }
+
+    /**
+     * This method evaluates a procedure call the way ProcedureCall does: the arguments
+     * are evaluated in the caller's environment and bound to the parameters in a new
+     * environment under the global one, along with the local variables and the return
+     * value, which is named by the procedure.
+     *
+     * @param node the index of the CALL node
+     * @param env environment containing all the variables and procedures for the current scope
+     * @return the return value of the procedure
+     */
+    private int call(int node, Environment env)
+    {
+        Environment child = new Environment(env.getGlobal());
+        int procedure = procedureBySymbol[values[node]];
+        if (procedure == NONE)
+            throw new IllegalStateException("no procedure " + symbols.getName(values[node]));
+        int params = seconds[procedure];
+        int args = firsts[node];
+        child.declareVariable(values[procedure], 0);
+        for (int i = 0; i < pool[args]; i++)
+            child.declareVariable(getItem(params, i), eval(getItem(args, i), env));
+        int locals = getLocals(procedure);
+        for (int i = 0; i < pool[locals]; i++)
+            child.declareVariable(getItem(locals, i), 0);
+        exec(firsts[procedure], child);
+        return child.getVariable(values[procedure]);
+    }
+
+    /**
+     * This method writes the MIPS code for the program to a file, exactly as
+     * Program.compile does for the same source.
+     *
+     * @param fileName name of file to write the generated MIPS code to
+     */
+    public void compile(String fileName)
+    {
+        Emitter e = new Emitter(fileName);
+        e.emit("# This program contains MIPS code auto-generated from given PASCAL code.\n" +
+                "# @author Juliana Li\n" +
+                "# @version 1/8/24\n# (:");
+        e.emit(".data\n"+
+                "newLine: .asciiz \"\\n\"\n");
+        for (int i = 0; i < pool[vars]; i++)
+            e.emit("var" + symbols.getName(getItem(vars, i)) + ": .word 0");
+        e.emit(".text\n" +
+                ".globl main\n" +
+                "main: #QTSPIM will automatically look for main\n");
+        compile(main, e);
+        e.emit("li $v0 10\n" +
+                "syscall # halt");
+        for (int i = 0; i < pool[procedures]; i++)
+            compileProcedure(getItem(procedures, i), e);
+    }
+
+    /**
+     * This method emits the MIPS code for a procedure: its label, the pushes of its
+     * local variables, its statement, the pops, and the return.
+     *
+     * @param node the index of the PROCEDURE node
+     * @param e the emitter object that writes code to the output file
+     */
+    private void compileProcedure(int node, Emitter e)
+    {
+        int params = seconds[node];
+        int locals = getLocals(node);
+        e.emit("proc" + symbols.getName(values[node]) + ":\n");
+        for (int i = 0; i < pool[locals]; i++)
+        {
+            e.emit("li $v0 0");
+            e.emitPush("$v0");
+        }
+        e.setProcedureContext(values[node], Arrays.copyOfRange(pool, params + 1, params + 1 + pool[params]),
+                Arrays.copyOfRange(pool, locals + 1, locals + 1 + pool[locals]));
+        compile(firsts[node], e);
+        for (int i = 0; i < pool[locals]; i++)
+            e.emitPop("$v0");
+        e.emit("jr $ra");
+        e.clearProcedureContext();
+    }
+
+    /**
+     * This method emits the MIPS code for a statement node.
+     *
+     * @param node the index of the statement
+     * @param e the emitter object that writes code to the output file
+     */
+    private void compile(int node, Emitter e)
+    {
+        int labelNum;
+        switch (kinds[node])
+        {
+            case ASSIGN:
+                compileExpression(firsts[node], e);
+                if (e.isLocalVariable(values[node]))
+                    e.emit("sw $v0 " + e.getOffset(values[node]) + "($sp)");
+                else
+                    e.emit("la $t0 var" + symbols.getName(values[node]) + "\t# variable assignment\nsw $v0 ($t0)");
+                break;
+            case WRITELN:
+                compileExpression(firsts[node], e);
+                e.emit("move $a0 $v0\nli $v0 1\t # print number \nsyscall");
+                e.printLine();
+                break;
+            case READLN:
+                e.emit("li $v0 5\nsyscall\nsw $v0 var" + symbols.getName(values[node]) + "\t# read user input");
+                e.printLine();
+                break;
+            case BLOCK:
+                int list = firsts[node];
+                for (int i = 0; i < pool[list]; i++)
+                    compile(pool[list + 1 + i], e);
+                break;
+            case IF:
+                labelNum = e.nextLabelID();
+                compileBranch(values[node], e, "endif" + labelNum + "\t# if statement");
+                compile(firsts[node], e);
+                e.emit("j else" + labelNum);
+                e.emit("endif" + labelNum + ":");
+                if (seconds[node] != NONE)
+                    compile(seconds[node], e);
+                e.emit("else" +  labelNum + ":");
+                break;
+            case WHILE:
+                labelNum = e.nextLabelID();
+                e.emit("loop" + labelNum + ":\t # while loop");
+                compileBranch(values[node], e, "endloop" + labelNum);
+                compile(firsts[node], e);
+                e.emit("j loop" + labelNum);
+                e.emit("endloop" + labelNum + ":");
+                break;
+            default:
+                throw new IllegalStateException("node " + node + " is not a statement");
+        }
+    }
+
+    /**
+     * This method emits the MIPS code that leaves the value of an expression node in $v0.
+     *
+     * @param node the index of the expression
+     * @param e the emitter object that writes code to the output file
+     */
+    private void compileExpression(int node, Emitter e)
+    {
+        int symbol = values[node];
+        switch (kinds[node])
+        {
+            case NUMBER:
+                e.emit("li $v0 " + values[node]);
+                break;
+            case VARIABLE:
+                String id = symbols.getName(symbol);
+                if (e.isLocalVariable(symbol))
+                    e.emit("lw $v0 " + e.getOffset(symbol) + "($sp)\t# get local var " + id);
+                else
+                    e.emit("la $t0 var" + id + "\nlw $v0 ($t0)\t# get global var " + id);
+                break;
+            case BINARY:
+                compileOperands(node, e);
+                if (values[node] < EQUAL)
+                    e.emit(ARITHMETIC[values[node]]);
+                else
+                    e.emit(SET[values[node] - EQUAL] + " $v0 $t0 $v0");
+                break;
+            case CALL:
+                int args = firsts[node];
+                e.emitPush("$ra");
+                e.emit("li $v0 0    #return val");
+                e.emitPush("$v0");
+                for (int i = 0; i < pool[args]; i++)
+                {
+                    compileExpression(getItem(args, i), e);
+                    e.emitPush("$v0");
+                }
+                e.emit("jal proc" + symbols.getName(symbol));
+                for (int i = 0; i < pool[args]; i++)
+                    e.emitPop("$v0");
+                e.emitPop("$v0");
+                e.emitPop("$ra");
+                break;
+            default:
+                throw new IllegalStateException("node " + node + " is not an expression");
+        }
+    }
+
+    /**
+     * This method emits the MIPS code that jumps to a label if an expression node is
+     * false. A comparison branches on its operands directly; any other expression is
+     * compared with 0.
+     *
+     * @param node the index of the expression
+     * @param e the emitter object that writes code to the output file
+     * @param label the name of the label to jump to
+     */
+    private void compileBranch(int node, Emitter e, String label)
+    {
+        if (kinds[node] == BINARY && values[node] >= EQUAL)
+        {
+            compileOperands(node, e);
+            e.emit(BRANCH_UNLESS[values[node] - EQUAL] + " $t0 $v0 " + label);
+        }
+        else
+        {
+            compileExpression(node, e);
+            e.emit("beq $v0 $zero " + label);
+        }
+    }
+
+    /**
+     * This method emits the MIPS code that leaves the left operand of a BINARY node in
+     * $t0 and the right one in $v0.
+     *
+     * @param node the index of the BINARY node
+     * @param e the emitter object that writes code to the output file
+     */
+    private void compileOperands(int node, Emitter e)
+    {
+        compileExpression(firsts[node], e);
+        e.emitPush("$v0");
+        compileExpression(seconds[node], e);
+        e.emitPop("$t0");
+    }
+}
@@ -12,17 +12,17 @@ import environment.Environment;
 public class If extends Statement
 {
     // instance variables
-    private Condition cond;
+    private Expression cond;
     private Statement stmt1;
     private Statement stmt2;
 
     /**
      * If constructor to construct an If object with no else.
      *
-     * @param cond condition that if statement must satisfy
+     * @param cond condition that if statement must satisfy, true if it is not 0
      * @param stmt1 statement to execute if condition true
      */
-    public If(Condition cond, Statement stmt1)
+    public If(Expression cond, Statement stmt1)
     {
         this.cond = cond;
         this.stmt1 = stmt1;
@@ -31,11 +31,11 @@ public class If extends Statement
     /**
      * If constructor to construct an If object with an else.
      *
-     * @param cond condition that if statement must satisfy
+     * @param cond condition that if statement must satisfy, true if it is not 0
      * @param stmt1 statement to execute if condition true
      * @param stmt2 statement to execute if condition false
      */
-    public If(Condition cond, Statement stmt1, Statement stmt2)
+    public If(Expression cond, Statement stmt1, Statement stmt2)
     {
         this.cond = cond;
         this.stmt1 = stmt1;
@@ -51,7 +51,7 @@ public class If extends Statement
     @Override
     public void exec(Environment env)
     {
-        if (cond.eval(env) == 1)
+        if (cond.eval(env) != 0)
             stmt1.exec(env);
         else
             if (stmt2 != null)
@@ -76,4 +76,51 @@ public class If extends Statement
             stmt2.compile(e);
         e.emit("else" +  labelNum + ":");
     }
+
+    /**
+     * This method binds the variables of the condition and of both statements to
+     * slots in the procedure the Resolver is binding.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        cond = cond.resolve(r);
+        if (stmt1 != null)
+            stmt1.resolve(r);
+        if (stmt2 != null)
+            stmt2.resolve(r);
+    }
+
+    /**
+     * This method writes the if statement, with a null statement if it has no else with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.IF, this);
+        cond.write(out);
+        out.writeStatement(stmt1);
+        out.writeStatement(stmt2);
+    }
+
+    /**
+     * This method moves the position of the IF statement and of its condition and
+     * statements by a number of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        cond.movePositions(lines, chars);
+        if (stmt1 != null)
+            stmt1.movePositions(lines, chars);
+        if (stmt2 != null)
+            stmt2.movePositions(lines, chars);
+    }
 }
\ No newline at end of file
@@ -44,4 +44,16 @@ public class Number extends Expression
     {
         e.emit("li $v0 " + num);
     }
+
+    /**
+     * This method writes the number, or a reference to it if it has been written
+     * before, with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        if (out.beginExpression(AstWriter.NUMBER, this))
+            out.writeInt(num);
+    }
 }
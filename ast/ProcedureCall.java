@@ -6,7 +6,10 @@ import emitter.Emitter;
 /**
  * ProcedureCall class represents a call to a procedure with optional
  * arguments in the form of Expressions. Its exec method executes the
- * statement of the procedure given the arguments.
+ * statement of the procedure given the arguments. When the procedure was declared
+ * with symbol IDs, its parameters, local variables, and return value are stored in
+ * the new environment by ID, and when it was bound by the Resolver, they are stored
+ * in a frame by slot.
  *
  * @author Juliana Li
  * @version October 20, 2023
@@ -15,6 +18,7 @@ public class ProcedureCall extends Expression
 {
     // instance variables
     private String id;
+    private int symbol;
     private List<Expression> args;
 
     /**
@@ -25,8 +29,22 @@ public class ProcedureCall extends Expression
      * @param args arguments to call the procedure with
      */
     public ProcedureCall(String id, List<Expression> args)
+    {
+        this(id, -1, args);
+    }
+
+    /**
+     * ProcedureCall constructor constructs a ProcedureCall object given its name,
+     * the symbol ID of the name, and its arguments.
+     *
+     * @param id name of the procedure to call
+     * @param symbol symbol ID of the name, or -1 if it has none
+     * @param args arguments to call the procedure with
+     */
+    public ProcedureCall(String id, int symbol, List<Expression> args)
     {
         this.id = id;
+        this.symbol = symbol;
         this.args = args;
     }
 
@@ -39,8 +57,34 @@ public class ProcedureCall extends Expression
     @Override
     public int eval(Environment env)
     {
+        ProcedureDeclaration proc = symbol >= 0 ? env.getProcedure(symbol) : env.getProcedure(id);
+        if (proc.getFrameSize() >= 0)
+        {
+            Environment frame = new Environment(env.getGlobal(), proc.getFrameSize());
+            int[] params = proc.getParamSlots();
+            int[] paramSymbols = proc.getParamSymbols();
+            frame.declareSlot(proc.getReturnSlot(), proc.getSymbol(), 0);
+            for (int i=0; i<args.size(); i++)
+                frame.declareSlot(params[i], paramSymbols[i], args.get(i).eval(env));
+            int[] locals = proc.getLocalSlots();
+            int[] localSymbols = proc.getLocalSymbols();
+            for (int i=0; i<locals.length; i++)
+                frame.declareSlot(locals[i], localSymbols[i], 0);
+            proc.getStatement().exec(frame);
+            return frame.getSlot(proc.getReturnSlot(), proc.getSymbol());
+        }
         Environment child = new Environment(env.getGlobal());
-        ProcedureDeclaration proc = env.getProcedure(id);
+        if (proc.getSymbol() >= 0)
+        {
+            int[] params = proc.getParamSymbols();
+            child.declareVariable(proc.getSymbol(), 0);
+            for (int i=0; i<args.size(); i++)
+                child.declareVariable(params[i], args.get(i).eval(env));
+            for (int local : proc.getLocalSymbols())
+                child.declareVariable(local, 0);
+            proc.getStatement().exec(child);
+            return child.getVariable(proc.getSymbol());
+        }
         List<String> params = proc.getParams();
         child.declareVariable(id, 0);
         for (int i=0; i<args.size(); i++)
@@ -71,10 +115,61 @@ public class ProcedureCall extends Expression
             e.emitPush("$v0");
         }
         e.emit("jal proc" + id);
+        e.addCall(id);
         // pop args from stack
         for (Expression arg : args)
             e.emitPop("$v0");
         e.emitPop("$v0");
         e.emitPop("$ra");
     }
+
+    /**
+     * This method binds the variables of the arguments to slots in the procedure the
+     * Resolver is binding.
+     *
+     * @param r the resolver
+     * @return the bound call, which is a copy if an argument was bound by another procedure
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        Expression copy = r.copyOf(this);
+        if (copy != null)
+            return copy;
+        List<Expression> bound = r.resolve(args);
+        if (bound == args)
+            return this;
+        return r.copied(this, new ProcedureCall(id, symbol, bound));
+    }
+
+    /**
+     * This method writes the procedure call, or a reference to it if it has been
+     * written before, with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        if (out.beginExpression(AstWriter.CALL, this))
+        {
+            out.writeName(id);
+            out.writeInt(symbol);
+            out.writeExpressions(args);
+        }
+    }
+
+    /**
+     * This method moves the position of the call and of its arguments by a number of
+     * lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        for (Expression arg : args)
+            arg.movePositions(lines, chars);
+    }
 }
\ No newline at end of file
@@ -1,12 +1,18 @@
 package ast;
 import java.util.*;
+import java.util.function.Supplier;
 import environment.Environment;
 import emitter.Emitter;
 
 /**
  * ProcedureDeclaration class represents the declaration of a procedure
  * with optional parameters. It has public methods to get the parameters and
- * the statement for the procedure.
+ * the statement for the procedure. A declaration made by the Parser also carries
+ * the symbol IDs of its name, parameters, and local variables. A declaration may be
+ * made before its statement is parsed, with a Supplier that parses the statement the
+ * first time it is needed, so a procedure that is never called is never parsed.
+ * A declaration bound by the Resolver also carries the size of its frame and the
+ * slots of its name, parameters, and local variables.
  *
  * @author Juliana Li
  * @version October 20, 2023
@@ -17,7 +23,18 @@ public class ProcedureDeclaration extends Statement
     private String id;
     private List<String> params;
     private Statement stmt;
+    private Supplier<Statement> body;
     private List<String> localVars;
+    private int symbol;
+    private int[] paramSymbols;
+    private int[] localSymbols;
+    // the frame given by the Resolver, or a frame size of -1 if the procedure is not bound
+    private int frameSize = -1;
+    private int returnSlot;
+    private int[] paramSlots;
+    private int[] localSlots;
+    // the Resolver to bind the statement once it is parsed
+    private Resolver resolver;
 
     /**
      * ProcedureDeclaration constructor constructs a ProcedureDeclaration object
@@ -29,11 +46,53 @@ public class ProcedureDeclaration extends Statement
      * @param localVars local variables of the procedure
      */
     public ProcedureDeclaration(String id, List<String> params, Statement stmt, List<String> localVars)
+    {
+        this(id, -1, params, null, stmt, localVars, null);
+    }
+
+    /**
+     * ProcedureDeclaration constructor constructs a ProcedureDeclaration object
+     * using its name, parameters, statement, and local variables, along with the
+     * symbol IDs of those names.
+     *
+     * @param id name of the procedure
+     * @param symbol symbol ID of the name, or -1 if the names have no IDs
+     * @param params parameters of the procedure
+     * @param paramSymbols symbol IDs of the parameters, in the same order
+     * @param stmt the statement within the procedure
+     * @param localVars local variables of the procedure
+     * @param localSymbols symbol IDs of the local variables, in the same order
+     */
+    public ProcedureDeclaration(String id, int symbol, List<String> params, int[] paramSymbols,
+                                Statement stmt, List<String> localVars, int[] localSymbols)
     {
         this.id = id;
+        this.symbol = symbol;
         this.params = params;
+        this.paramSymbols = paramSymbols;
         this.stmt = stmt;
         this.localVars = localVars;
+        this.localSymbols = localSymbols;
+    }
+
+    /**
+     * ProcedureDeclaration constructor constructs a ProcedureDeclaration object whose
+     * statement has not been parsed yet, from the symbol IDs of its names and a
+     * Supplier that parses the statement.
+     *
+     * @param id name of the procedure
+     * @param symbol symbol ID of the name
+     * @param params parameters of the procedure
+     * @param paramSymbols symbol IDs of the parameters, in the same order
+     * @param body parses and returns the statement within the procedure, called at most once
+     * @param localVars local variables of the procedure
+     * @param localSymbols symbol IDs of the local variables, in the same order
+     */
+    public ProcedureDeclaration(String id, int symbol, List<String> params, int[] paramSymbols,
+                                Supplier<Statement> body, List<String> localVars, int[] localSymbols)
+    {
+        this(id, symbol, params, paramSymbols, (Statement) null, localVars, localSymbols);
+        this.body = body;
     }
 
     /**
@@ -47,15 +106,36 @@ public class ProcedureDeclaration extends Statement
     }
 
     /**
-     * This method returns the statement for the procedure.
+     * This method returns the statement for the procedure, parsing it first if it has
+     * not been parsed yet.
      *
      * @return the Statement object
      */
     public Statement getStatement()
     {
+        if (body != null)
+        {
+            stmt = body.get();
+            body = null;
+            if (resolver != null)
+            {
+                resolver.resolve(this);
+                resolver = null;
+            }
+        }
         return stmt;
     }
 
+    /**
+     * This method checks if the statement for the procedure has been parsed.
+     *
+     * @return true if the statement has been parsed, false if it is still to be parsed
+     */
+    public boolean isParsed()
+    {
+        return body == null;
+    }
+
     /**
      * This method executes the ProcedureDeclaration by setting it in the environment.
      *
@@ -64,6 +144,8 @@ public class ProcedureDeclaration extends Statement
     public void exec(Environment env)
     {
         env.setProcedure(id, this);
+        if (symbol >= 0)
+            env.setProcedure(symbol, this);
     }
 
     /**
@@ -86,6 +168,114 @@ public class ProcedureDeclaration extends Statement
         return localVars;
     }
 
+    /**
+     * This method retrieves the symbol ID of the name of the current procedure.
+     *
+     * @return the symbol ID of the procedure, or -1 if its names have no IDs
+     */
+    public int getSymbol()
+    {
+        return symbol;
+    }
+
+    /**
+     * This method retrieves the symbol IDs of the parameters of the current procedure.
+     *
+     * @return the symbol IDs of the parameters, in order
+     */
+    public int[] getParamSymbols()
+    {
+        return paramSymbols;
+    }
+
+    /**
+     * This method retrieves the symbol IDs of the local variables of the current procedure.
+     *
+     * @return the symbol IDs of the local variables, in order
+     */
+    public int[] getLocalSymbols()
+    {
+        return localSymbols;
+    }
+
+    /**
+     * This method binds the variables of the procedure to slots in its frame.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        r.resolve(this);
+    }
+
+    /**
+     * This method has the procedure bound by a Resolver when its statement is parsed.
+     *
+     * @param r the resolver
+     */
+    void resolveWhenParsed(Resolver r)
+    {
+        resolver = r;
+    }
+
+    /**
+     * This method gives the procedure the frame the Resolver bound it to.
+     *
+     * @param frameSize the number of slots in the frame
+     * @param returnSlot the slot of the procedure's name, which holds the return value
+     * @param paramSlots the slots of the parameters, in order
+     * @param localSlots the slots of the local variables, in order
+     */
+    void setFrame(int frameSize, int returnSlot, int[] paramSlots, int[] localSlots)
+    {
+        this.frameSize = frameSize;
+        this.returnSlot = returnSlot;
+        this.paramSlots = paramSlots;
+        this.localSlots = localSlots;
+    }
+
+    /**
+     * This method retrieves the number of slots in the frame of the current procedure.
+     *
+     * @return the number of slots, or -1 if the procedure is not bound by a Resolver
+     */
+    public int getFrameSize()
+    {
+        return frameSize;
+    }
+
+    /**
+     * This method retrieves the slot of the name of the current procedure, which holds
+     * its return value.
+     *
+     * @return the slot of the name
+     */
+    public int getReturnSlot()
+    {
+        return returnSlot;
+    }
+
+    /**
+     * This method retrieves the slots of the parameters of the current procedure.
+     *
+     * @return the slots of the parameters, in order
+     */
+    public int[] getParamSlots()
+    {
+        return paramSlots;
+    }
+
+    /**
+     * This method retrieves the slots of the local variables of the current procedure.
+     *
+     * @return the slots of the local variables, in order
+     */
+    public int[] getLocalSlots()
+    {
+        return localSlots;
+    }
+
     /**
      * This method emits the MIPS code for a procedure declaration: creates the label,
      * pushes the local variables, compiles the statement, and pops the vars. Finally
@@ -102,10 +292,45 @@ public class ProcedureDeclaration extends Statement
             e.emitPush("$v0");
         }
         e.setProcedureContext(this);
-        stmt.compile(e);
+        getStatement().compile(e);
         for (String var : localVars)
             e.emitPop("$v0");
         e.emit("jr $ra");
         e.clearProcedureContext();
     }
+
+    /**
+     * This method writes the procedure declaration, parsing its statement first if
+     * it has not been parsed yet, with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.PROCEDURE, this);
+        out.writeName(id);
+        out.writeInt(symbol);
+        out.writeNames(params);
+        out.writeInts(paramSymbols);
+        out.writeNames(localVars);
+        out.writeInts(localSymbols);
+        out.writeStatement(getStatement());
+    }
+
+    /**
+     * This method moves the position of the declaration and of its statement, parsing
+     * the statement first if it has not been parsed yet, by a number of lines and
+     * chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        Statement statement = getStatement();
+        if (statement != null)
+            statement.movePositions(lines, chars);
+    }
 }
\ No newline at end of file
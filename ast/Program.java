@@ -19,6 +19,7 @@ public class Program extends Statement
     private List<String> vars;
     private List<ProcedureDeclaration> procedures;
     private Statement stmt;
+    private boolean resolved;
 
     /**
      * Program constructor takes in a list of ProcedureDeclarations and a statement
@@ -38,12 +39,31 @@ public class Program extends Statement
     /**
      * This method executes the program by declaring all the ProcedureDeclarations
      * by setting them in the environment, and then executing the statement, which
-     * may call the procedures.
+     * may call the procedures. The first time the program runs, a Resolver binds the
+     * variables of the procedures to slots, so that calls run in frames.
      *
      * @param env environment containing all the variables and procedures for the current scope
      */
     public void exec(Environment env)
     {
+        exec(env, true);
+    }
+
+    /**
+     * This method executes the program, binding the variables of the procedures to
+     * slots first only if asked to. A program that has been bound stays bound.
+     *
+     * @param env environment containing all the variables and procedures for the current scope
+     * @param bind true to bind the procedures if they are not bound yet, false to run
+     *             them as they are
+     */
+    public void exec(Environment env, boolean bind)
+    {
+        if (bind && !resolved)
+        {
+            new Resolver().resolve(this);
+            resolved = true;
+        }
         for (ProcedureDeclaration p : procedures)
             p.exec(env);
         stmt.exec(env);
@@ -54,6 +74,10 @@ public class Program extends Statement
      * to a given file name: this includes the data section with all the variables,
      * and the .text section with a global main. The procedures are declared and the
      * main statement is compiled, and the file ends with program termination code.
+     * A procedure whose statement has not been parsed yet is only parsed and compiled
+     * if it is reachable, that is, if the code compiled so far calls it; the procedures
+     * are compiled in order, and again from the start whenever compiling one makes
+     * another reachable.
      *
      * @param fileName name of file to write the generated MIPS code to
      */
@@ -73,7 +97,64 @@ public class Program extends Statement
         stmt.compile(e);
         e.emit("li $v0 10\n" +
                 "syscall # halt");
-        for (ProcedureDeclaration p : procedures)
-            p.compile(e);
+        boolean[] compiled = new boolean[procedures.size()];
+        boolean found = true;
+        while (found)
+        {
+            found = false;
+            for (int i = 0; i < compiled.length; i++)
+            {
+                ProcedureDeclaration p = procedures.get(i);
+                if (!compiled[i] && (p.isParsed() || e.isCalled(p.getId())))
+                {
+                    p.compile(e);
+                    compiled[i] = true;
+                    found = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method binds the variables of every procedure to slots in the procedure's
+     * frame. The main statement runs in the global environment and is not bound.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        for (ProcedureDeclaration proc : procedures)
+            r.resolve(proc);
+    }
+
+    /**
+     * This method writes the whole program with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.PROGRAM, this);
+        out.writeNames(vars);
+        out.writeStatements(procedures);
+        out.writeStatement(stmt);
+    }
+
+    /**
+     * This method moves the position of the program and of every procedure and
+     * statement in it by a number of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        for (ProcedureDeclaration proc : procedures)
+            proc.movePositions(lines, chars);
+        if (stmt != null)
+            stmt.movePositions(lines, chars);
     }
 }
@@ -5,7 +5,9 @@ import java.util.*;
 
 /**
  * Readln is a subclass of statement that implements READLN statements
- * to input expressions.
+ * to input expressions. A Readln made by the Parser also carries the symbol ID of
+ * the variable's name, and one in a procedure bound by the Resolver also carries
+ * the variable's slot in the frame.
  *
  * @author Juliana Li
  * @version October 17, 2023
@@ -14,6 +16,8 @@ public class Readln extends Statement
 {
     // instance variables
     private String var;
+    private int symbol;
+    private int slot = -1;
 
     /**
      * Readln constructor constructs a Readln object.
@@ -21,8 +25,21 @@ public class Readln extends Statement
      * @param var the variable name to input the value to
      */
     public Readln(String var)
+    {
+        this(var, -1);
+    }
+
+    /**
+     * Readln constructor constructs a Readln object with the symbol ID of the
+     * variable's name.
+     *
+     * @param var the variable name to input the value to
+     * @param symbol symbol ID of the name, or -1 if it has none
+     */
+    public Readln(String var, int symbol)
     {
         this.var = var;
+        this.symbol = symbol;
     }
 
     /**
@@ -35,7 +52,24 @@ public class Readln extends Statement
     {
         Scanner s = new Scanner(System.in);
         int val = Integer.parseInt(s.nextLine());
-        env.declareVariable(var, val);
+        if (slot >= 0)
+            env.declareSlot(slot, symbol, val);
+        else if (symbol >= 0)
+            env.declareVariable(symbol, val);
+        else
+            env.declareVariable(var, val);
+    }
+
+    /**
+     * This method binds the variable read into to its slot in the procedure the
+     * Resolver is binding.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        slot = r.slot(symbol);
     }
 
     /**
@@ -49,4 +83,16 @@ public class Readln extends Statement
         e.emit("li $v0 5\nsyscall\nsw $v0 var" + var + "\t# read user input");
         e.printLine();
     }
+
+    /**
+     * This method writes the READLN statement with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.READLN, this);
+        out.writeName(var);
+        out.writeInt(symbol);
+    }
 }
@@ -0,0 +1,222 @@
+package ast;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Resolver binds every variable in the procedures of a program to a slot in the
+ * frame of its procedure, so that a call runs in an int array indexed by slot
+ * instead of an Environment that searches for each name. The name of the procedure
+ * takes the first slot, then the parameters and local variables, and then every
+ * other name the body reads, assigns, or reads in, in the order they appear. Names
+ * that are declared more than once share one slot, as they share one variable in an
+ * Environment.
+ *
+ * A name that a procedure does not declare is still given a slot, because whether it
+ * is global is only known when the statement runs: the Environment creates it in the
+ * procedure if the global environment does not have it yet. The frame checks the
+ * slot first and then the global environment, which is already an array indexed by
+ * symbol ID, so globals need no slots of their own. The main statement runs in the
+ * global environment and is not bound.
+ *
+ * Program.exec binds the procedures of a program before it first runs them, and a
+ * procedure that is already bound is not bound again.
+ *
+ * The Parser's NodeFactory may share one Variable, or an expression holding one,
+ * among several procedures. The first procedure to reach a shared Variable binds it,
+ * and every other procedure gets its own copy, and a copy of each shared expression
+ * above it, so no node carries the slot of another frame. A procedure whose statement
+ * has not been parsed yet is bound when it is parsed, and a procedure whose names
+ * have no symbol IDs is not bound at all; both run in an Environment as before.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class Resolver
+{
+    // instance variables
+    // the procedure being bound, and the number of procedures this Resolver has bound
+    private ProcedureDeclaration proc;
+    private int scope;
+    // the slot of each symbol ID in the current procedure, if its mark is the scope
+    private int[] slots;
+    private int[] marks;
+    private int frameSize;
+    private boolean unbound;
+    // the copies made for the current procedure of nodes bound by another
+    private IdentityHashMap<Expression, Expression> copies;
+
+    /**
+     * Resolver constructor to construct a Resolver object.
+     */
+    public Resolver()
+    {
+        slots = new int[64];
+        marks = new int[64];
+        copies = new IdentityHashMap<Expression, Expression>();
+    }
+
+    /**
+     * This method binds the variables of every procedure of a program to slots.
+     *
+     * @param program the program to bind
+     */
+    public void resolve(Program program)
+    {
+        program.resolve(this);
+    }
+
+    /**
+     * This method binds the variables of a procedure to slots, and gives the
+     * procedure its frame. A procedure that has not been parsed yet is bound when it
+     * is parsed, and a procedure that is already bound is left as it is.
+     *
+     * @param proc the procedure to bind
+     */
+    void resolve(ProcedureDeclaration proc)
+    {
+        if (proc.getSymbol() < 0 || proc.getFrameSize() >= 0)
+            return;
+        if (!proc.isParsed())
+        {
+            proc.resolveWhenParsed(this);
+            return;
+        }
+        this.proc = proc;
+        scope++;
+        frameSize = 0;
+        unbound = false;
+        copies.clear();
+        int returnSlot = slot(proc.getSymbol());
+        int[] paramSlots = slots(proc.getParamSymbols());
+        int[] localSlots = slots(proc.getLocalSymbols());
+        Statement stmt = proc.getStatement();
+        if (stmt != null)
+            stmt.resolve(this);
+        if (!unbound)
+            proc.setFrame(frameSize, returnSlot, paramSlots, localSlots);
+        copies.clear();
+        this.proc = null;
+    }
+
+    /**
+     * This method returns the slot of a symbol ID in the current procedure, giving it
+     * the next slot if it has none yet.
+     *
+     * @param symbol symbol ID of the name
+     * @return the slot of the name, or -1 if the name has no symbol ID
+     */
+    int slot(int symbol)
+    {
+        if (symbol < 0)
+        {
+            unbound = true;
+            return -1;
+        }
+        if (symbol >= slots.length)
+        {
+            int length = Math.max(symbol + 1, slots.length * 2);
+            slots = Arrays.copyOf(slots, length);
+            marks = Arrays.copyOf(marks, length);
+        }
+        if (marks[symbol] != scope)
+        {
+            marks[symbol] = scope;
+            slots[symbol] = frameSize++;
+        }
+        return slots[symbol];
+    }
+
+    /**
+     * This method returns the slots of a list of symbol IDs in the current procedure.
+     *
+     * @param symbols the symbol IDs
+     * @return the slot of each, in the same order
+     */
+    private int[] slots(int[] symbols)
+    {
+        int[] result = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++)
+            result[i] = slot(symbols[i]);
+        return result;
+    }
+
+    /**
+     * This method binds a variable to its slot in the current procedure, copying it
+     * first if another procedure has bound it.
+     *
+     * @param var the variable
+     * @return the variable bound to the current procedure, which is var or its copy
+     */
+    Expression resolve(Variable var)
+    {
+        if (var.getSymbol() < 0)
+        {
+            unbound = true;
+            return var;
+        }
+        Expression copy = copies.get(var);
+        if (copy != null)
+            return copy;
+        Variable bound = var;
+        if (var.getScope() != null && var.getScope() != proc)
+        {
+            bound = new Variable(var.getId(), var.getSymbol());
+            bound.setPosition(var.getPosition());
+            copies.put(var, bound);
+        }
+        bound.bind(proc, slot(var.getSymbol()));
+        return bound;
+    }
+
+    /**
+     * This method binds the expressions in a list to the current procedure.
+     *
+     * @param exps the expressions
+     * @return the bound expressions, or exps itself if none of them were copied
+     */
+    List<Expression> resolve(List<Expression> exps)
+    {
+        List<Expression> result = exps;
+        for (int i = 0; i < exps.size(); i++)
+        {
+            Expression exp = exps.get(i).resolve(this);
+            if (exp != exps.get(i))
+            {
+                if (result == exps)
+                    result = new ArrayList<Expression>(exps);
+                result.set(i, exp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the copy made for the current procedure of an expression
+     * shared with another procedure.
+     *
+     * @param exp the shared expression
+     * @return its copy, or null if none has been made
+     */
+    Expression copyOf(Expression exp)
+    {
+        return copies.get(exp);
+    }
+
+    /**
+     * This method records the copy made for the current procedure of an expression
+     * shared with another procedure, so every use of it in the procedure shares the
+     * copy.
+     *
+     * @param exp the shared expression
+     * @param copy its copy
+     * @return the copy
+     */
+    Expression copied(Expression exp, Expression copy)
+    {
+        copy.setPosition(exp.getPosition());
+        copies.put(exp, copy);
+        return copy;
+    }
+}
@@ -1,6 +1,7 @@
 package ast;
 import emitter.Emitter;
 import environment.Environment;
+import scanner.SourcePosition;
 
 /**
  * Statement is an abstract class with an abstract method exec to be implemented
@@ -11,6 +12,52 @@ import environment.Environment;
  */
 public abstract class Statement
 {
+    // packed line, column, and offset of the start of the statement in the source
+    private long position;
+
+    /**
+     * Records where the statement was found in the source.
+     *
+     * @param position the packed position, as described in scanner.SourcePosition
+     */
+    public void setPosition(long position)
+    {
+        this.position = position;
+    }
+
+    /**
+     * Returns where the statement was found in the source.
+     *
+     * @return the packed position, or 0 if it is not known
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * This method binds the variables of the statement to slots in the frame of the
+     * procedure the Resolver is binding. A statement without variables does nothing.
+     *
+     * @param r the resolver
+     */
+    public void resolve(Resolver r)
+    {
+    }
+
+    /**
+     * This method moves the position of the statement, and of everything in it, by a
+     * number of lines and chars, as when text is inserted or removed on the lines
+     * before it.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    public void movePositions(int lines, int chars)
+    {
+        position = SourcePosition.move(position, lines, chars);
+    }
+
     /**
      * Executes the statement; abstract method to be implemented
      *
@@ -27,4 +74,11 @@ public abstract class Statement
     {
         throw new RuntimeException("Implement me!!!!!");
     }
+
+    /**
+     * Abstract method to write the statement with an AstWriter; to be implemented
+     *
+     * @param out the writer to write to
+     */
+    public abstract void write(AstWriter out);
 }
\ No newline at end of file
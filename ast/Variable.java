@@ -4,7 +4,10 @@ import environment.Environment;
 
 /**
  * Variable is a subclass of Expression that represents a variable, returning
- * the value of the variable using the Environment getVariable method.
+ * the value of the variable using the Environment getVariable method. A variable
+ * made by the Parser also carries the symbol ID of its name, which the Environment
+ * and Emitter use instead of the name. A variable in a procedure bound by the
+ * Resolver also carries its slot in the procedure's frame.
  *
  * @author Juliana Li
  * @version October 17, 2023
@@ -13,6 +16,10 @@ public class Variable extends Expression
 {
     // instance variables
     private String id;
+    private int symbol;
+    // the procedure that bound the variable, and its slot there, or -1 if it is not bound
+    private ProcedureDeclaration scope;
+    private int slot = -1;
 
     /**
      * Constructor for Variable class that constructs a Variable object.
@@ -20,8 +27,76 @@ public class Variable extends Expression
      * @param id identifier of the variable
      */
     public Variable(String id)
+    {
+        this(id, -1);
+    }
+
+    /**
+     * Constructor for Variable class that constructs a Variable object with the
+     * symbol ID of its name.
+     *
+     * @param id identifier of the variable
+     * @param symbol symbol ID of the identifier, or -1 if it has none
+     */
+    public Variable(String id, int symbol)
     {
         this.id = id;
+        this.symbol = symbol;
+    }
+
+    /**
+     * This method returns the name of the variable.
+     *
+     * @return the identifier of the variable
+     */
+    public String getId()
+    {
+        return id;
+    }
+
+    /**
+     * This method returns the symbol ID of the variable's name.
+     *
+     * @return the symbol ID, or -1 if the variable has none
+     */
+    public int getSymbol()
+    {
+        return symbol;
+    }
+
+    /**
+     * This method returns the procedure that bound the variable.
+     *
+     * @return the procedure, or null if the variable is not bound
+     */
+    ProcedureDeclaration getScope()
+    {
+        return scope;
+    }
+
+    /**
+     * This method binds the variable to a slot in the frame of a procedure.
+     *
+     * @param scope the procedure
+     * @param slot the slot of the variable in the frame
+     */
+    void bind(ProcedureDeclaration scope, int slot)
+    {
+        this.scope = scope;
+        this.slot = slot;
+    }
+
+    /**
+     * This method binds the variable to its slot in the procedure the Resolver is
+     * binding.
+     *
+     * @param r the resolver
+     * @return the bound variable, which is a copy if this one is bound by another procedure
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        return r.resolve(this);
     }
 
     /**
@@ -33,6 +108,10 @@ public class Variable extends Expression
     @Override
     public int eval(Environment env)
     {
+        if (slot >= 0)
+            return env.getSlot(slot, symbol);
+        if (symbol >= 0)
+            return env.getVariable(symbol);
         return env.getVariable(id);
     }
 
@@ -43,9 +122,25 @@ public class Variable extends Expression
      */
     public void compile(Emitter e)
     {
-        if (e.isLocalVariable(id))
-            e.emit("lw $v0 " + e.getOffset(id) + "($sp)\t# get local var " + id);
+        if (symbol >= 0 ? e.isLocalVariable(symbol) : e.isLocalVariable(id))
+            e.emit("lw $v0 " + (symbol >= 0 ? e.getOffset(symbol) : e.getOffset(id))
+                    + "($sp)\t# get local var " + id);
         else
             e.emit("la $t0 var" + id + "\nlw $v0 ($t0)\t# get global var " + id);
     }
+
+    /**
+     * This method writes the variable, or a reference to it if it has been written
+     * before, with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        if (out.beginExpression(AstWriter.VARIABLE, this))
+        {
+            out.writeName(id);
+            out.writeInt(symbol);
+        }
+    }
 }
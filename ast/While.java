@@ -12,16 +12,16 @@ import environment.Environment;
 public class While extends Statement
 {
     // instance variables
-    private Condition cond;
+    private Expression cond;
     private Statement stmt;
 
     /**
      * While constructor to construct a while object given a condition and statement.
      *
-     * @param cond condition for the while loop
+     * @param cond condition for the while loop, true if it is not 0
      * @param stmt statement to execute
      */
-    public While(Condition cond, Statement stmt)
+    public While(Expression cond, Statement stmt)
     {
         this.cond = cond;
         this.stmt = stmt;
@@ -35,7 +35,7 @@ public class While extends Statement
     @Override
     public void exec(Environment env)
     {
-        while (cond.eval(env) == 1)
+        while (cond.eval(env) != 0)
             stmt.exec(env);
     }
 
@@ -55,4 +55,46 @@ public class While extends Statement
         e.emit("j loop" + labelNum);
         e.emit("endloop" + labelNum + ":");
     }
+
+    /**
+     * This method binds the variables of the condition and of the statement to slots
+     * in the procedure the Resolver is binding.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        cond = cond.resolve(r);
+        if (stmt != null)
+            stmt.resolve(r);
+    }
+
+    /**
+     * This method writes the while loop with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.WHILE, this);
+        cond.write(out);
+        out.writeStatement(stmt);
+    }
+
+    /**
+     * This method moves the position of the WHILE loop and of its condition and
+     * statement by a number of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        cond.movePositions(lines, chars);
+        if (stmt != null)
+            stmt.movePositions(lines, chars);
+    }
 }
@@ -46,4 +46,41 @@ public class Writeln extends Statement
         e.emit("move $a0 $v0\nli $v0 1\t # print number \nsyscall");
         e.printLine();
     }
+
+    /**
+     * This method binds the variables of the expression to slots in the procedure the
+     * Resolver is binding.
+     *
+     * @param r the resolver
+     */
+    @Override
+    public void resolve(Resolver r)
+    {
+        exp = exp.resolve(r);
+    }
+
+    /**
+     * This method writes the WRITELN statement with an AstWriter.
+     *
+     * @param out the writer to write to
+     */
+    public void write(AstWriter out)
+    {
+        out.beginStatement(AstWriter.WRITELN, this);
+        exp.write(out);
+    }
+
+    /**
+     * This method moves the position of the WRITELN and of its expression by a number
+     * of lines and chars.
+     *
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     */
+    @Override
+    public void movePositions(int lines, int chars)
+    {
+        super.movePositions(lines, chars);
+        exp.movePositions(lines, chars);
+    }
 }
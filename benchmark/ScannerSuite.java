@@ -0,0 +1,260 @@
+package benchmark;
+
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import scanner.TokenKind;
+
+/**
+ * ScannerSuite measures the Scanner on every Workload at sizes from 1 KB up to a
+ * given largest size, each generated from the same seed. For each input it reports
+ * the throughput of nextToken() and of nextTokenKind() in tokens and megabytes per
+ * second, how many bytes the scan allocates per token and per second, and how many
+ * garbage collections ran while it was measured. Allocation is read from the
+ * thread's allocation counter, so it counts exactly what the scanning thread
+ * allocated, including copying the String into the Scanner.
+ *
+ * Each input is scanned repeatedly until a warmup period has passed, and then
+ * measured over several rounds, keeping the fastest round.
+ *
+ * If a results file is given and does not exist, the throughputs are saved to it. If
+ * it exists, each throughput is compared with the saved one, and the suite exits
+ * with status 1 if any is slower by more than the tolerance, 10% by default, so that
+ * it can stop a regression in a build. A noisy machine needs a larger tolerance.
+ *
+ * Usage: java benchmark.ScannerSuite [largest size, such as 100M] [seed] [results file]
+ *        [tolerance]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ScannerSuite
+{
+    private static final int[] SIZES = {1 << 10, 64 << 10, 1 << 20, 16 << 20, 100 << 20};
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long ROUND_NANOS = 100_000_000L;
+    private static final int ROUNDS = 5;
+    // keeps the JIT from discarding the work being measured
+    private static long sink;
+
+    /**
+     * Main method that runs the suite and prints one line per input and method.
+     *
+     * @param args the largest size, the seed, the results file, and the fraction a
+     *             throughput may drop before it counts as a regression
+     * @throws IOException if the results file cannot be read or written
+     * @throws ScanErrorException if a generated source cannot be scanned
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException
+    {
+        int largest = args.length > 0 ? parseSize(args[0]) : 100 << 20;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 17;
+        Path results = args.length > 2 ? Paths.get(args[2]) : null;
+        double tolerance = args.length > 3 ? Double.parseDouble(args[3]) : 0.10;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<String, Double> measured = new LinkedHashMap<String, Double>();
+        System.out.printf("%-12s %8s %-14s %10s %9s %12s %10s %4s%n", "workload", "size", "method",
+                "M tokens/s", "MB/s", "alloc B/tok", "alloc MB/s", "GCs");
+        for (Workload workload : Workload.values())
+        {
+            for (int size : SIZES)
+            {
+                if (size > largest)
+                    break;
+                String source = workload.generate(size, seed);
+                for (boolean kindsOnly : new boolean[]{false, true})
+                {
+                    Result result = measure(source, kindsOnly, threads);
+                    String method = kindsOnly ? "nextTokenKind" : "nextToken";
+                    System.out.printf("%-12s %8s %-14s %10.2f %9.1f %12.1f %10.1f %4d%n",
+                            workload.name().toLowerCase(), formatSize(size), method,
+                            result.tokens / result.seconds / 1e6,
+                            (double) source.length() * result.scans / result.seconds / (1 << 20),
+                            (double) result.allocated / result.tokens,
+                            result.allocated / result.seconds / (1 << 20), result.collections);
+                    measured.put(workload.name().toLowerCase() + " " + formatSize(size) + " " + method,
+                            result.tokens / result.seconds);
+                }
+            }
+        }
+        System.out.println("(" + sink + ")");
+        if (results != null && !check(measured, results, tolerance))
+            System.exit(1);
+    }
+
+    /**
+     * The measurements of the fastest round of scanning one input.
+     */
+    private static class Result
+    {
+        private long tokens;
+        private int scans;
+        private double seconds = Double.MAX_VALUE;
+        private long allocated;
+        private long collections;
+    }
+
+    /**
+     * This method warms up and then measures scanning one source.
+     *
+     * @param source the source to scan
+     * @param kindsOnly true to scan with nextTokenKind(), false to scan with nextToken()
+     * @param threads the bean that reports the thread's allocation
+     * @return the measurements of the fastest round
+     * @throws ScanErrorException if the source cannot be scanned
+     */
+    private static Result measure(String source, boolean kindsOnly,
+            com.sun.management.ThreadMXBean threads) throws ScanErrorException
+    {
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd)
+            sink += scan(source, kindsOnly);
+
+        Result best = new Result();
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            long tokens = 0;
+            int scans = 0;
+            long collections = collectionCount();
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long elapsed;
+            do
+            {
+                tokens += scan(source, kindsOnly);
+                scans++;
+                elapsed = System.nanoTime() - start;
+            }
+            while (elapsed < ROUND_NANOS);
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            collections = collectionCount() - collections;
+            double seconds = elapsed / 1e9;
+            if (tokens / seconds > best.tokens / best.seconds)
+            {
+                best.tokens = tokens;
+                best.scans = scans;
+                best.seconds = seconds;
+                best.allocated = allocated;
+                best.collections = collections;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method scans a whole source once.
+     *
+     * @param source the source to scan
+     * @param kindsOnly true to scan with nextTokenKind(), false to scan with nextToken()
+     * @return the number of tokens, counting the end of file
+     * @throws ScanErrorException if the source cannot be scanned
+     */
+    private static long scan(String source, boolean kindsOnly) throws ScanErrorException
+    {
+        Scanner scanner = new Scanner(source);
+        long tokens = 1;
+        if (kindsOnly)
+        {
+            while (scanner.nextTokenKind() != TokenKind.EOF)
+                tokens++;
+        }
+        else
+        {
+            for (sink += scanner.nextToken().length(); scanner.getKind() != TokenKind.EOF;
+                    sink += scanner.nextToken().length())
+                tokens++;
+        }
+        return tokens;
+    }
+
+    /**
+     * This method returns the number of garbage collections so far, over all collectors.
+     *
+     * @return the total number of collections
+     */
+    private static long collectionCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(collector.getCollectionCount(), 0);
+        return count;
+    }
+
+    /**
+     * This method saves the throughputs to the results file if it does not exist, or
+     * compares them with the saved ones if it does.
+     *
+     * @param measured the throughput in tokens per second of each input and method
+     * @param results the results file
+     * @param tolerance the fraction a throughput may drop before it counts as a regression
+     * @return false if any throughput is more than the tolerance below its saved value,
+     *         true otherwise
+     * @throws IOException if the results file cannot be read or written
+     */
+    private static boolean check(Map<String, Double> measured, Path results, double tolerance)
+            throws IOException
+    {
+        if (!Files.exists(results))
+        {
+            List<String> lines = new ArrayList<String>();
+            for (Map.Entry<String, Double> entry : measured.entrySet())
+                lines.add(entry.getKey() + " " + Math.round(entry.getValue()));
+            Files.write(results, lines, StandardCharsets.UTF_8);
+            System.out.println("saved baseline to " + results);
+            return true;
+        }
+        boolean passed = true;
+        for (String line : Files.readAllLines(results, StandardCharsets.UTF_8))
+        {
+            int split = line.lastIndexOf(' ');
+            if (split < 0)
+                continue;
+            Double now = measured.get(line.substring(0, split));
+            double before = Double.parseDouble(line.substring(split + 1));
+            if (now != null && now < before * (1 - tolerance))
+            {
+                System.out.printf("REGRESSION %s: %.2f M tokens/s, was %.2f%n", line.substring(0, split),
+                        now / 1e6, before / 1e6);
+                passed = false;
+            }
+        }
+        System.out.println(passed ? "no regressions against " + results : "regressions against " + results);
+        return passed;
+    }
+
+    /**
+     * This method reads a size such as 512, 64K, or 100M.
+     *
+     * @param size the size, in bytes or with a K or M suffix
+     * @return the number of bytes
+     */
+    private static int parseSize(String size)
+    {
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        if (unit == 'K')
+            return Integer.parseInt(size.substring(0, size.length() - 1)) << 10;
+        if (unit == 'M')
+            return Integer.parseInt(size.substring(0, size.length() - 1)) << 20;
+        return Integer.parseInt(size);
+    }
+
+    /**
+     * This method writes a size with a K or M suffix.
+     *
+     * @param size the number of bytes
+     * @return the size as it is printed
+     */
+    private static String formatSize(int size)
+    {
+        if (size >= 1 << 20)
+            return (size >> 20) + "M";
+        return (size >> 10) + "K";
+    }
+}
@@ -0,0 +1,187 @@
+package benchmark;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * TestPrograms holds what the parser and scanner benchmarks and testers share: finding
+ * and reading the parser test programs, and checking that two ways of building a
+ * program give the same AST or generate the same code. Each benchmark only adds its
+ * own workload and its own checks.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class TestPrograms
+{
+    // where the test programs are when no directory is given, as the tree is checked out under src
+    private static final String DEFAULT_DIRECTORY = "src/parser/parserTest";
+
+    /**
+     * TestPrograms has no instances.
+     */
+    private TestPrograms()
+    {
+    }
+
+    /**
+     * This method returns the directory of test programs named by the first argument of
+     * a benchmark, or the default directory if there are no arguments.
+     *
+     * @param args the arguments of the benchmark
+     * @return the directory of test programs
+     */
+    public static Path directory(String[] args)
+    {
+        return Paths.get(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * This method reads the test programs in the directory named by the first argument
+     * of a benchmark.
+     *
+     * @param args the arguments of the benchmark
+     * @return the text of each program by the name of its file, in order of name
+     * @throws IOException if a program cannot be read
+     */
+    public static Map<String, String> load(String[] args) throws IOException
+    {
+        return load(directory(args));
+    }
+
+    /**
+     * This method reads every .txt file in a directory.
+     *
+     * @param dir the directory of test programs
+     * @return the text of each program by the name of its file, in order of name
+     * @throws IOException if a program cannot be read
+     */
+    public static Map<String, String> load(Path dir) throws IOException
+    {
+        Map<String, String> programs = new TreeMap<String, String>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.txt"))
+        {
+            for (Path file : files)
+                programs.put(file.toString(), new String(Files.readAllBytes(file)));
+        }
+        return programs;
+    }
+
+    /**
+     * This method checks that two ASTs are the same, field by field.
+     *
+     * @param expected the AST that is known to be right
+     * @param actual the AST to check
+     * @param failure what went wrong if they differ, for the failure message, which
+     *                goes on to say where they differ
+     * @throws IllegalAccessException if a field cannot be read
+     */
+    public static void checkSameAst(Object expected, Object actual, String failure)
+            throws IllegalAccessException
+    {
+        String difference = difference(expected, actual);
+        if (difference != null)
+            throw new IllegalStateException(failure + " at " + difference);
+    }
+
+    /**
+     * This method compares two ASTs field by field, including inherited fields such as
+     * positions, without recursion so that it can compare very deep ASTs.
+     *
+     * @param expected the AST that is known to be right
+     * @param actual the AST to check
+     * @return the field of the first difference and its depth in the tree, or null if the
+     *         ASTs are the same
+     * @throws IllegalAccessException if a field cannot be read
+     */
+    public static String difference(Object expected, Object actual) throws IllegalAccessException
+    {
+        Deque<Object[]> work = new ArrayDeque<Object[]>();
+        work.push(new Object[]{expected, actual, "program", 0});
+        while (!work.isEmpty())
+        {
+            Object[] pair = work.pop();
+            Object a = pair[0];
+            Object b = pair[1];
+            String path = pair[2] + " at depth " + pair[3];
+            int depth = (Integer) pair[3] + 1;
+            if (a == null || b == null || a.getClass() != b.getClass())
+            {
+                if (a != b)
+                    return path + ": " + a + " and " + b;
+            }
+            else if (a instanceof List)
+            {
+                List<?> left = (List<?>) a;
+                List<?> right = (List<?>) b;
+                if (left.size() != right.size())
+                    return path + ": " + left.size() + " and " + right.size() + " elements";
+                for (int i = 0; i < left.size(); i++)
+                    work.push(new Object[]{left.get(i), right.get(i), pair[2] + "[" + i + "]", depth});
+            }
+            else if (a instanceof int[])
+            {
+                if (!Arrays.equals((int[]) a, (int[]) b))
+                    return path + ": " + Arrays.toString((int[]) a) + " and " + Arrays.toString((int[]) b);
+            }
+            else if (a.getClass().getPackageName().equals("ast"))
+            {
+                for (Class<?> c = a.getClass(); c != Object.class; c = c.getSuperclass())
+                {
+                    for (Field field : c.getDeclaredFields())
+                    {
+                        if (Modifier.isStatic(field.getModifiers()))
+                            continue;
+                        field.setAccessible(true);
+                        work.push(new Object[]{field.get(a), field.get(b),
+                            c.getSimpleName() + "." + field.getName(), depth});
+                    }
+                }
+            }
+            else if (!a.equals(b))
+                return path + ": " + a + " and " + b;
+        }
+        return null;
+    }
+
+    /**
+     * This method compiles two programs and checks if the generated code is the same.
+     *
+     * @param expected compiles the program that is known to be right to a file
+     * @param actual compiles the program to check to a file
+     * @return true if both generated the same code, false otherwise
+     * @throws IOException if the generated code cannot be written or read
+     */
+    public static boolean compileSame(Compilation expected, Compilation actual) throws IOException
+    {
+        Path expectedFile = Files.createTempFile("expected", ".asm");
+        Path actualFile = Files.createTempFile("actual", ".asm");
+        try
+        {
+            expected.compile(expectedFile.toString());
+            actual.compile(actualFile.toString());
+            return Arrays.equals(Files.readAllBytes(expectedFile), Files.readAllBytes(actualFile));
+        }
+        finally
+        {
+            Files.delete(expectedFile);
+            Files.delete(actualFile);
+        }
+    }
+
+    /**
+     * Compilation compiles a program to MIPS code, as Program.compile does.
+     */
+    public interface Compilation
+    {
+        /**
+         * This method compiles the program.
+         *
+         * @param fileName name of the file to write the generated code to
+         */
+        void compile(String fileName);
+    }
+}
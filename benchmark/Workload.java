@@ -0,0 +1,224 @@
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * Workload names a kind of generated source that stresses one part of the Scanner,
+ * and generates sources of that kind. The same kind, size, and seed always give the
+ * same source, so results from different runs and different machines measure the
+ * same input.
+ *
+ * Every generated source scans without errors: comments are placed in the order the
+ * Scanner skips them, and the source ends with the end of program period.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public enum Workload
+{
+    // mostly names of many lengths, which are hashed and interned
+    IDENTIFIERS,
+    // mostly numbers of up to nine digits, which are decoded as they are scanned
+    NUMBERS,
+    // mostly one and two character operators between short names
+    OPERATORS,
+    // mostly comments and indentation, which are skipped
+    COMMENTS;
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String[] OPERATORS_USED = {
+        "+", "-", "*", "/", "mod", "=", "<>", "<", "<=", ">", ">=", ","
+    };
+    private static final String[] WORDS = {
+        "the", "count", "of", "values", "read", "so", "far", "is", "kept", "in", "total",
+        "and", "checked", "against", "limit", "before", "each", "pass", "over", "input"
+    };
+
+    /**
+     * This method generates a source of this kind.
+     *
+     * @param size the smallest number of characters in the source, not counting the
+     *             final period
+     * @param seed the seed of the random choices
+     * @return the generated source, which is all ASCII
+     */
+    public String generate(int size, long seed)
+    {
+        Random random = new Random(seed);
+        StringBuilder source = new StringBuilder(size + 256);
+        String[] names = names(random, 512);
+        int count = 0;
+        while (source.length() < size)
+        {
+            switch (this)
+            {
+                case IDENTIFIERS:
+                    appendIdentifierStatement(source, random, names);
+                    break;
+                case NUMBERS:
+                    appendNumberStatement(source, random, names);
+                    break;
+                case OPERATORS:
+                    appendOperatorStatement(source, random, names);
+                    break;
+                default:
+                    appendCommentedStatement(source, random, names, count);
+                    break;
+            }
+            count++;
+        }
+        return source.append("\n.\n").toString();
+    }
+
+    /**
+     * This method makes a vocabulary of names from one to sixteen characters long,
+     * with the lengths skewed toward short names as in real programs.
+     *
+     * @param random the source of the names
+     * @param count the number of names
+     * @return the names
+     */
+    private static String[] names(Random random, int count)
+    {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++)
+        {
+            StringBuilder name = new StringBuilder();
+            int length = 1 + Math.min(random.nextInt(6) + random.nextInt(6) + random.nextInt(6), 15);
+            name.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            while (name.length() < length)
+            {
+                if (random.nextInt(4) == 0)
+                    name.append((char) ('0' + random.nextInt(10)));
+                else
+                    name.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            names[i] = name.toString();
+        }
+        return names;
+    }
+
+    /**
+     * This method appends a statement made mostly of names: an assignment, a
+     * procedure call, or an IF around an assignment.
+     *
+     * @param source the builder to append to
+     * @param random the source of the choices
+     * @param names the vocabulary of names
+     */
+    private static void appendIdentifierStatement(StringBuilder source, Random random, String[] names)
+    {
+        switch (random.nextInt(3))
+        {
+            case 0:
+                source.append(pick(random, names)).append(" := ").append(pick(random, names));
+                break;
+            case 1:
+                source.append(pick(random, names)).append(" := ").append(pick(random, names)).append('(')
+                        .append(pick(random, names)).append(", ").append(pick(random, names)).append(')');
+                break;
+            default:
+                source.append("IF ").append(pick(random, names)).append(" THEN ")
+                        .append(pick(random, names)).append(" := ").append(pick(random, names));
+                break;
+        }
+        source.append(";\n");
+    }
+
+    /**
+     * This method appends an assignment of a sum of products of numbers.
+     *
+     * @param source the builder to append to
+     * @param random the source of the numbers
+     * @param names the vocabulary of names
+     */
+    private static void appendNumberStatement(StringBuilder source, Random random, String[] names)
+    {
+        source.append(pick(random, names)).append(" := ");
+        for (int terms = 2 + random.nextInt(6); terms > 0; terms--)
+        {
+            int digits = 1 + random.nextInt(9);
+            source.append(1 + random.nextInt(9));
+            for (int i = 1; i < digits; i++)
+                source.append(random.nextInt(10));
+            if (terms > 1)
+                source.append(random.nextBoolean() ? " + " : " * ");
+        }
+        source.append(";\n");
+    }
+
+    /**
+     * This method appends an assignment of an expression that is mostly operators
+     * and parentheses, written without spaces.
+     *
+     * @param source the builder to append to
+     * @param random the source of the operators
+     * @param names the vocabulary of names
+     */
+    private static void appendOperatorStatement(StringBuilder source, Random random, String[] names)
+    {
+        source.append(names[random.nextInt(26)]).append(":=");
+        for (int terms = 4 + random.nextInt(8); terms > 0; terms--)
+        {
+            if (random.nextInt(3) == 0)
+                source.append("(-");
+            source.append(names[random.nextInt(26)]);
+            if (terms > 1)
+            {
+                String operator = pick(random, OPERATORS_USED);
+                // mod is a word, so it needs spaces around it
+                source.append(operator.equals("mod") ? " mod " : operator);
+                if (random.nextInt(4) == 0)
+                    source.append('(').append(names[random.nextInt(26)]).append(')');
+            }
+            else
+                source.append(')');
+        }
+        source.append(";\n");
+    }
+
+    /**
+     * This method appends an indented statement after // comments and a (* *)
+     * comment, which is the order in which the Scanner skips them.
+     *
+     * @param source the builder to append to
+     * @param random the source of the comment words and indentation
+     * @param names the vocabulary of names
+     * @param count the number of statements before this one
+     */
+    private static void appendCommentedStatement(StringBuilder source, Random random, String[] names, int count)
+    {
+        String indent = " ".repeat(4 * (1 + random.nextInt(6)));
+        for (int lines = random.nextInt(4); lines > 0; lines--)
+            appendWords(source.append(indent).append("// "), random).append('\n');
+        appendWords(source.append(indent).append("(* "), random).append('\n');
+        appendWords(source.append(indent).append("   "), random).append(" *)\n");
+        source.append(indent).append(pick(random, names)).append(" := ").append(count).append(";\n\n");
+    }
+
+    /**
+     * This method appends a line of random words.
+     *
+     * @param source the builder to append to
+     * @param random the source of the words
+     * @return the builder
+     */
+    private static StringBuilder appendWords(StringBuilder source, Random random)
+    {
+        for (int words = 6 + random.nextInt(8); words > 0; words--)
+            source.append(pick(random, WORDS)).append(' ');
+        return source;
+    }
+
+    /**
+     * This method picks a random element of an array.
+     *
+     * @param random the source of the choice
+     * @param choices the array to pick from
+     * @return the element picked
+     */
+    private static String pick(Random random, String[] choices)
+    {
+        return choices[random.nextInt(choices.length)];
+    }
+}
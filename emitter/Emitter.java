@@ -6,7 +6,9 @@ import java.util.*;
 /**
  * Class Emitter includes methods to print MIPS code to the output asm file. Methods include
  * emitting code, printing a newline, pushing to and popping from the stack, and getting the
- * next label number for conditionals.
+ * next label number for conditionals. When the current procedure has symbol IDs, the
+ * stack offsets of its locals are worked out once when it becomes the procedure context
+ * and then looked up by ID.
  *
  * @author Juliana Li
  * @version December 2, 2023
@@ -18,6 +20,10 @@ public class Emitter
 	private int labelNum;
 	private ProcedureDeclaration proc;
 	private int excessStackHeight;
+	private int[] localSymbols;
+	private int[] localOffsets;
+	private int localCount;
+	private Set<String> calledProcedures;
 
 	/**
 	 * This method creates an emitter for writing to a new file with given name.
@@ -36,6 +42,7 @@ public class Emitter
 		}
 		labelNum = 0;
 		proc = null;
+		calledProcedures = new HashSet<String>();
 	}
 
 	/**
@@ -100,8 +107,63 @@ public class Emitter
 	 */
 	public void setProcedureContext(ProcedureDeclaration proc)
 	{
+		excessStackHeight = 0;
+		localCount = 0;
+		if (proc.getSymbol() >= 0)
+			setProcedureContext(proc.getSymbol(), proc.getParamSymbols(), proc.getLocalSymbols());
 		this.proc = proc;
+	}
+
+	/**
+	 * This method makes the procedure with the given symbol IDs the procedure context,
+	 * for a procedure that is only known by its IDs, such as one in a FlatAst.
+	 *
+	 * @param symbol the symbol ID of the procedure's name
+	 * @param params the symbol IDs of the parameters, in order
+	 * @param locals the symbol IDs of the local variables, in order
+	 */
+	public void setProcedureContext(int symbol, int[] params, int[] locals)
+	{
+		proc = null;
 		excessStackHeight = 0;
+		localCount = 0;
+		localSymbols = new int[locals.length + params.length + 1];
+		localOffsets = new int[localSymbols.length];
+		// same search order as getOffset(String): locals from the top of the stack, then params
+		for (int i=locals.length-1; i>=0; i--)
+			addLocal(locals[i], (locals.length - i - 1) * 4);
+		for (int i=params.length-1; i>=0; i--)
+			addLocal(params[i], 4 * locals.length + (params.length - i - 1) * 4);
+		addLocal(symbol, 4 * (locals.length + params.length));
+	}
+
+	/**
+	 * This method records the stack offset of a local name of the current procedure,
+	 * not counting anything pushed since the procedure started.
+	 *
+	 * @param symbol the symbol ID of the local name
+	 * @param offset the offset of the name from the stack pointer
+	 */
+	private void addLocal(int symbol, int offset)
+	{
+		localSymbols[localCount] = symbol;
+		localOffsets[localCount] = offset;
+		localCount++;
+	}
+
+	/**
+	 * This method finds the first recorded local name of the current procedure with
+	 * the given symbol ID.
+	 *
+	 * @param symbol the symbol ID of the name
+	 * @return the index of the name in localSymbols, or -1 if it is not local
+	 */
+	private int findLocal(int symbol)
+	{
+		for (int i=0; i<localCount; i++)
+			if (localSymbols[i] == symbol)
+				return i;
+		return -1;
 	}
 
 	/**
@@ -110,6 +172,36 @@ public class Emitter
 	public void clearProcedureContext()
 	{
 		proc = null;
+		localCount = 0;
+	}
+
+	/**
+	 * This method checks if the variable with the given symbol ID is local to the
+	 * current procedure, meaning it is the procedure's name, a local variable, or a
+	 * parameter.
+	 *
+	 * @param symbol the symbol ID of the variable to check
+	 * @return true if the variable is local, false otherwise
+	 */
+	public boolean isLocalVariable(int symbol)
+	{
+		return findLocal(symbol) >= 0;
+	}
+
+	/**
+	 * This method gets the offset (multiple of 4) for the stack pointer pointing
+	 * to the local variable with the given symbol ID.
+	 *
+	 * @param symbol the symbol ID of the local variable
+	 * @precondition the variable is local to the procedure currently being compiled
+	 * @return the offset of the stack pointer for a given variable
+	 */
+	public int getOffset(int symbol)
+	{
+		int i = findLocal(symbol);
+		if (i < 0)
+			return 0;
+		return excessStackHeight + localOffsets[i];
 	}
 
 	/**
@@ -165,6 +257,29 @@ public class Emitter
 		return 0;
 	}
 
+	/**
+	 * This method records that the code emitted so far calls the procedure with the
+	 * given name.
+	 *
+	 * @param id the name of the procedure called
+	 */
+	public void addCall(String id)
+	{
+		calledProcedures.add(id);
+	}
+
+	/**
+	 * This method checks if the code emitted so far calls the procedure with the
+	 * given name.
+	 *
+	 * @param id the name of the procedure
+	 * @return true if a call to the procedure has been emitted, false otherwise
+	 */
+	public boolean isCalled(String id)
+	{
+		return calledProcedures.contains(id);
+	}
+
 	/**
 	 * This method closes the file and should be called after all calls to emit.
 	 */
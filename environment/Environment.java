@@ -1,4 +1,5 @@
 package environment;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
 import ast.*;
@@ -9,6 +10,19 @@ import ast.*;
  * hierarchy. Environment supports public methods to declare, set, and get variables
  * and procedures.
  *
+ * Variables can also be named by their symbol ID from the scanner's SymbolTable.
+ * The global environment keeps those in arrays indexed by the ID; a procedure
+ * environment, which only holds a handful of names, keeps them in short parallel
+ * arrays of IDs and values. Either way no String is hashed and no value is boxed.
+ * A program should name its variables either always by ID or always by String.
+ *
+ * A procedure whose body has been bound by the ast Resolver runs in a frame instead:
+ * an environment made with the number of slots the Resolver gave the procedure, where
+ * each variable of the body is read and written at its slot in an int array. A slot
+ * that has not been declared or assigned in the frame falls back to the global
+ * environment by symbol ID, just as a name that is not in a procedure environment
+ * does, so the frame behaves exactly like the environment it replaces.
+ *
  * @author Juliana Li
  * @version October 17, 2023
  */
@@ -18,6 +32,14 @@ public class Environment
     private Environment parent;
     private Map<String, Integer> vars;
     private Map<String, ProcedureDeclaration> procs;
+    private ProcedureDeclaration[] procsBySymbol;
+    private int[] symbolIds;
+    private int[] symbolValues;
+    private boolean[] symbolDefined;
+    private int symbolCount;
+    // the values and defined flags of the slots, if this is a procedure frame
+    private int[] frame;
+    private boolean[] frameDefined;
 
     /**
      * Environment constructor to construct an Environment object. Creates a list
@@ -31,6 +53,27 @@ public class Environment
         this.parent = parent;
         vars = new HashMap<String, Integer>();
         procs = new HashMap<String, ProcedureDeclaration>();
+        procsBySymbol = new ProcedureDeclaration[0];
+        symbolValues = new int[parent == null ? 64 : 8];
+        if (parent == null)
+            symbolDefined = new boolean[symbolValues.length];
+        else
+            symbolIds = new int[symbolValues.length];
+        symbolCount = 0;
+    }
+
+    /**
+     * Environment constructor to construct the frame of a procedure whose body has
+     * been bound to slots by the Resolver. A frame holds its variables only by slot.
+     *
+     * @param parent the global environment
+     * @param slots the number of slots of the procedure
+     */
+    public Environment(Environment parent, int slots)
+    {
+        this.parent = parent;
+        frame = new int[slots];
+        frameDefined = new boolean[slots];
     }
 
     /**
@@ -92,6 +135,190 @@ public class Environment
         return 0;
     }
 
+    /**
+     * This method associates the variable with the given symbol ID with the given value.
+     *
+     * @param symbol symbol ID of the variable
+     * @param value value to associate with the variable
+     */
+    public void declareVariable(int symbol, int value)
+    {
+        int slot = findSlot(symbol);
+        if (slot < 0)
+            slot = addSlot(symbol);
+        symbolValues[slot] = value;
+    }
+
+    /**
+     * If the variable with the given symbol ID exists in the current environment, it
+     * is set to the new value. Otherwise, if it exists in the parent environment, it
+     * is set to the new value there. If neither of these are true, a new variable is
+     * created in the current environment and set to the new value.
+     *
+     * @param symbol symbol ID of the variable
+     * @param value the integer given for the variable value
+     */
+    public void setVariable(int symbol, int value)
+    {
+        int slot = findSlot(symbol);
+        if (slot >= 0)
+            symbolValues[slot] = value;
+        else if (parent != null && parent.hasVariable(symbol))
+            parent.setVariable(symbol, value);
+        else
+        {
+            // addSlot may replace symbolValues, so it must run before the array is read
+            slot = addSlot(symbol);
+            symbolValues[slot] = value;
+        }
+    }
+
+    /**
+     * This method checks if the current environment (not including parent
+     * environments) contains the variable with the given symbol ID.
+     *
+     * @param symbol symbol ID of the variable
+     * @return true if variable exists, false otherwise
+     */
+    public boolean hasVariable(int symbol)
+    {
+        return findSlot(symbol) >= 0;
+    }
+
+    /**
+     * This method returns the value of the variable with the given symbol ID. A
+     * variable that does not exist yet is created in the current environment with
+     * the value 0.
+     *
+     * @param symbol symbol ID of the variable
+     * @return the value of the variable
+     */
+    public int getVariable(int symbol)
+    {
+        int slot = findSlot(symbol);
+        if (slot >= 0)
+            return symbolValues[slot];
+        if (parent != null && parent.hasVariable(symbol))
+            return parent.getVariable(symbol);
+        slot = addSlot(symbol);
+        symbolValues[slot] = 0;
+        return 0;
+    }
+
+    /**
+     * This method associates the variable at the given slot of this frame with the
+     * given value. In an environment that is not a frame, the variable is declared by
+     * its symbol ID instead.
+     *
+     * @param slot slot of the variable in the frame
+     * @param symbol symbol ID of the variable
+     * @param value value to associate with the variable
+     */
+    public void declareSlot(int slot, int symbol, int value)
+    {
+        if (frame == null)
+        {
+            declareVariable(symbol, value);
+            return;
+        }
+        frame[slot] = value;
+        frameDefined[slot] = true;
+    }
+
+    /**
+     * If the variable at the given slot of this frame has been declared or assigned,
+     * it is set to the new value. Otherwise, if the global environment has the
+     * variable, it is set there. If neither of these are true, the slot is set to the
+     * new value. In an environment that is not a frame, the variable is set by its
+     * symbol ID instead.
+     *
+     * @param slot slot of the variable in the frame
+     * @param symbol symbol ID of the variable
+     * @param value the integer given for the variable value
+     */
+    public void setSlot(int slot, int symbol, int value)
+    {
+        if (frame == null)
+            setVariable(symbol, value);
+        else if (!frameDefined[slot] && parent.hasVariable(symbol))
+            parent.setVariable(symbol, value);
+        else
+        {
+            frame[slot] = value;
+            frameDefined[slot] = true;
+        }
+    }
+
+    /**
+     * This method returns the value of the variable at the given slot of this frame.
+     * If the slot has not been declared or assigned, the variable of the global
+     * environment is returned if there is one, and otherwise the slot is defined with
+     * the value 0. In an environment that is not a frame, the variable is gotten by
+     * its symbol ID instead.
+     *
+     * @param slot slot of the variable in the frame
+     * @param symbol symbol ID of the variable
+     * @return the value of the variable
+     */
+    public int getSlot(int slot, int symbol)
+    {
+        if (frame == null)
+            return getVariable(symbol);
+        if (frameDefined[slot])
+            return frame[slot];
+        if (parent.hasVariable(symbol))
+            return parent.getVariable(symbol);
+        // a slot holds 0 until it is first defined
+        frameDefined[slot] = true;
+        return 0;
+    }
+
+    /**
+     * This method finds where the value of the variable with the given symbol ID is
+     * stored in this environment.
+     *
+     * @param symbol symbol ID of the variable
+     * @return the index of the value in symbolValues, or -1 if the variable does not exist
+     */
+    private int findSlot(int symbol)
+    {
+        if (symbolDefined != null)
+            return symbol < symbolDefined.length && symbolDefined[symbol] ? symbol : -1;
+        for (int i = 0; i < symbolCount; i++)
+            if (symbolIds[i] == symbol)
+                return i;
+        return -1;
+    }
+
+    /**
+     * This method makes room in this environment for a new variable with the given
+     * symbol ID, growing the arrays if needed.
+     *
+     * @param symbol symbol ID of the variable
+     * @return the index of the new value in symbolValues
+     */
+    private int addSlot(int symbol)
+    {
+        if (symbolDefined != null)
+        {
+            if (symbol >= symbolDefined.length)
+            {
+                int length = Math.max(symbol + 1, symbolDefined.length * 2);
+                symbolDefined = Arrays.copyOf(symbolDefined, length);
+                symbolValues = Arrays.copyOf(symbolValues, length);
+            }
+            symbolDefined[symbol] = true;
+            return symbol;
+        }
+        if (symbolCount == symbolIds.length)
+        {
+            symbolIds = Arrays.copyOf(symbolIds, symbolCount * 2);
+            symbolValues = Arrays.copyOf(symbolValues, symbolCount * 2);
+        }
+        symbolIds[symbolCount] = symbol;
+        return symbolCount++;
+    }
+
     /**
      * This method returns the parent environment if it exists, meaning
      * the environment is the global one. Otherwise it returns the current
@@ -132,4 +359,36 @@ public class Environment
             return procs.get(name);
         return parent.getProcedure(name);
     }
+
+    /**
+     * This method associates the procedure name with the given symbol ID with the
+     * given procedure.
+     *
+     * @param symbol symbol ID of the procedure name
+     * @param proc given ProcedureDeclaration object
+     */
+    public void setProcedure(int symbol, ProcedureDeclaration proc)
+    {
+        if (parent != null)
+        {
+            parent.setProcedure(symbol, proc);
+            return;
+        }
+        if (symbol >= procsBySymbol.length)
+            procsBySymbol = Arrays.copyOf(procsBySymbol, Math.max(symbol + 1, procsBySymbol.length * 2));
+        procsBySymbol[symbol] = proc;
+    }
+
+    /**
+     * This method returns the procedure whose name has the given symbol ID.
+     *
+     * @param symbol symbol ID of the procedure name
+     * @return the ProcedureDeclaration object associated with the given ID
+     */
+    public ProcedureDeclaration getProcedure(int symbol)
+    {
+        if (parent != null)
+            return parent.getProcedure(symbol);
+        return symbol < procsBySymbol.length ? procsBySymbol[symbol] : null;
+    }
 }
@@ -0,0 +1,315 @@
+package parser;
+import ast.AstReader;
+import ast.AstWriter;
+import ast.Program;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * AstCache keeps the parsed ASTs of programs in a directory, so that a program that
+ * is run again is not scanned or parsed again. Each AST is stored, as AstWriter
+ * writes it, in a file named by the SHA-256 hash of the program's source bytes. The
+ * file starts with a header:
+ *
+ *   magic number     4 bytes, "PAST"
+ *   format version   4 bytes, AstWriter.FORMAT_VERSION
+ *   source hash      32 bytes
+ *   AST length       4 bytes
+ *   AST checksum     4 bytes, the CRC-32C of the AST bytes
+ *
+ * A hit maps the file into memory and reads the AST straight from the mapping. A
+ * file with another version, another hash, the wrong length or checksum, or bytes
+ * that do not make an AST is treated as a miss and deleted, and the program is
+ * parsed and stored again. Files are written under a temporary name and then moved
+ * into place, so a reader never sees half a file, even from another process.
+ *
+ * The cache is bounded: after each store, the least recently used files are deleted
+ * until the files in the directory add up to no more than the bound. A hit marks
+ * its file as used by updating its modification time.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class AstCache
+{
+    private static final int MAGIC = 0x50415354;
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = 4 + 4 + HASH_BYTES + 4 + 4;
+    private static final String SUFFIX = ".ast";
+
+    // instance variables
+    private Path directory;
+    private long maxBytes;
+    private int hits;
+    private int misses;
+    private int rejected;
+
+    /**
+     * AstCache constructor that keeps ASTs in the given directory, creating it if
+     * it does not exist.
+     *
+     * @param directory the directory to keep the ASTs in
+     * @param maxBytes the most bytes the files of the cache may add up to
+     * @throws IOException if the directory cannot be created
+     */
+    public AstCache(Path directory, long maxBytes) throws IOException
+    {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * This method returns the AST of a program file, from the cache if it is there,
+     * and otherwise by parsing the file and storing the AST in the cache.
+     *
+     * @param file the program file
+     * @return the Program
+     * @throws IOException if the file or the cache cannot be read or written
+     * @throws ScanErrorException if the program is not in the cache and cannot be scanned
+     */
+    public Program parse(Path file) throws IOException, ScanErrorException
+    {
+        return parse(Files.readAllBytes(file));
+    }
+
+    /**
+     * This method returns the AST of a program, from the cache if it is there, and
+     * otherwise by parsing the program with a Parser and storing the AST in the cache.
+     *
+     * @param source the bytes of the program
+     * @return the Program
+     * @throws IOException if the cache cannot be read or written
+     * @throws ScanErrorException if the program is not in the cache and cannot be scanned
+     */
+    public Program parse(byte[] source) throws IOException, ScanErrorException
+    {
+        byte[] hash = hash(source);
+        Program program = load(hash);
+        if (program != null)
+        {
+            hits++;
+            return program;
+        }
+        misses++;
+        program = new Parser(new Scanner(source)).parseProgram();
+        store(hash, program);
+        return program;
+    }
+
+    /**
+     * This method returns the number of programs found in the cache.
+     *
+     * @return the number of hits
+     */
+    public int getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * This method returns the number of programs that had to be parsed.
+     *
+     * @return the number of misses
+     */
+    public int getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * This method returns the number of files that were deleted because they were
+     * from another version, or corrupt.
+     *
+     * @return the number of files rejected
+     */
+    public int getRejected()
+    {
+        return rejected;
+    }
+
+    /**
+     * This method returns the file that holds, or would hold, the AST of the program
+     * with the given hash.
+     *
+     * @param hash the SHA-256 hash of the program's source
+     * @return the path of the file
+     */
+    Path fileFor(byte[] hash)
+    {
+        StringBuilder name = new StringBuilder(2 * HASH_BYTES + SUFFIX.length());
+        for (byte b : hash)
+            name.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return directory.resolve(name.append(SUFFIX).toString());
+    }
+
+    /**
+     * This method hashes the source of a program.
+     *
+     * @param source the bytes of the program
+     * @return the SHA-256 hash of the bytes
+     */
+    static byte[] hash(byte[] source)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * This method loads the AST of the program with the given hash, if its file is
+     * there and sound. A file that is there but not sound is deleted.
+     *
+     * @param hash the SHA-256 hash of the program's source
+     * @return the Program, or null if it is not in the cache
+     * @throws IOException if the file cannot be read
+     */
+    private Program load(byte[] hash) throws IOException
+    {
+        Path file = fileFor(hash);
+        Program program;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            program = size < HEADER_BYTES || size > Integer.MAX_VALUE ? null
+                    : read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), hash);
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        if (program == null)
+        {
+            rejected++;
+            Files.deleteIfExists(file);
+            return null;
+        }
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        return program;
+    }
+
+    /**
+     * This method checks the header of a stored AST and reads the AST.
+     *
+     * @param buffer the contents of the file
+     * @param hash the hash the file should have been stored under
+     * @return the Program, or null if the file is from another version or is corrupt
+     */
+    private static Program read(ByteBuffer buffer, byte[] hash)
+    {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != AstWriter.FORMAT_VERSION)
+            return null;
+        byte[] stored = new byte[HASH_BYTES];
+        buffer.get(stored);
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (!Arrays.equals(stored, hash) || length != buffer.remaining())
+            return null;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum)
+            return null;
+        try
+        {
+            return new AstReader(buffer).readProgram();
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * This method stores the AST of a program under its hash, and then evicts the
+     * least recently used files if the cache has grown past its bound.
+     *
+     * @param hash the SHA-256 hash of the program's source
+     * @param program the Program
+     * @throws IOException if the file cannot be written
+     */
+    private void store(byte[] hash, Program program) throws IOException
+    {
+        byte[] ast = new AstWriter().writeProgram(program);
+        CRC32C crc = new CRC32C();
+        crc.update(ast);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(AstWriter.FORMAT_VERSION)
+                .put(hash).putInt(ast.length).putInt((int) crc.getValue());
+        ByteBuffer[] buffers = {header.flip(), ByteBuffer.wrap(ast)};
+        Path temp = Files.createTempFile(directory, "ast", ".tmp");
+        try
+        {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE))
+            {
+                while (buffers[1].hasRemaining())
+                    channel.write(buffers);
+            }
+            Files.move(temp, fileFor(hash), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(temp);
+        }
+        evict(fileFor(hash));
+    }
+
+    /**
+     * This method deletes the least recently used files until the files of the cache
+     * add up to no more than its bound. The file just stored is kept even if it is
+     * older than others by the clock's resolution, or larger than the bound by itself.
+     *
+     * @param stored the file just stored
+     * @throws IOException if the directory cannot be listed
+     */
+    private void evict(Path stored) throws IOException
+    {
+        List<Path> files = new ArrayList<Path>();
+        List<long[]> stats = new ArrayList<long[]>();
+        long total = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + SUFFIX))
+        {
+            for (Path file : entries)
+            {
+                try
+                {
+                    long size = Files.size(file);
+                    stats.add(new long[]{Files.getLastModifiedTime(file).toMillis(), size, files.size()});
+                    files.add(file);
+                    total += size;
+                }
+                catch (NoSuchFileException e)
+                {
+                    // another process evicted it first
+                }
+            }
+        }
+        if (total <= maxBytes)
+            return;
+        stats.sort((a, b) -> Long.compare(a[0], b[0]));
+        for (long[] stat : stats)
+        {
+            if (total <= maxBytes)
+                break;
+            Path file = files.get((int) stat[2]);
+            if (!file.equals(stored))
+            {
+                Files.deleteIfExists(file);
+                total -= stat[1];
+            }
+        }
+    }
+}
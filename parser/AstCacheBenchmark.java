@@ -0,0 +1,264 @@
+package parser;
+import ast.AstWriter;
+import ast.Program;
+import benchmark.TestPrograms;
+import scanner.Scanner;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Measures how much sooner a large program is ready to run when its AST is loaded
+ * from an AstCache than when it is scanned and parsed, and how large the cached file
+ * is next to the source.
+ *
+ * Before measuring, it checks that every parser test program and a generated library
+ * come back from the cache as the same AST that Parser builds, with the same nodes
+ * shared, and compile to the same code; that a cached file with a byte flipped,
+ * bytes cut off, or another format version is rejected and replaced by a fresh
+ * parse; and that the cache evicts its least recently used files to stay within its
+ * bound.
+ *
+ * Usage: java parser.AstCacheBenchmark [test directory] [program size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class AstCacheBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    /**
+     * Main benchmark method that checks AstCache and prints the times to parse a large
+     * program and to load it from the cache.
+     *
+     * @param args the parser test directory and the size of the program in megabytes
+     * @throws Exception if a program cannot be read, parsed, cached, or compiled
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        Path cacheDir = Files.createTempDirectory("astcache");
+        try
+        {
+            Map<String, String> files = TestPrograms.load(args);
+            for (Map.Entry<String, String> file : files.entrySet())
+                checkRoundTrip(cacheDir, file.getValue().getBytes(), file.getKey());
+            byte[] library = LazyParserBenchmark.script(LazyParserBenchmark.library(64 << 10),
+                    Integer.MAX_VALUE).getBytes();
+            checkRoundTrip(cacheDir, library, "the generated library");
+            checkSameCode(cacheDir, library);
+            checkRejected(cacheDir, library);
+            checkEviction(cacheDir, library);
+            System.out.println("same AST on " + files.size() + " test programs and the generated library, same code, "
+                    + "corrupt and stale files rejected, and eviction within the bound");
+
+            byte[] source = LazyParserBenchmark.script(LazyParserBenchmark.library(megabytes << 20), 4)
+                    .getBytes();
+            clear(cacheDir);
+            AstCache cache = new AstCache(cacheDir, Long.MAX_VALUE);
+            long parse = Long.MAX_VALUE;
+            long store = Long.MAX_VALUE;
+            long load = Long.MAX_VALUE;
+            for (int i = 0; i < ROUNDS; i++)
+            {
+                long start = System.nanoTime();
+                new Parser(new Scanner(source)).parseProgram();
+                parse = Math.min(parse, System.nanoTime() - start);
+                clear(cacheDir);
+                start = System.nanoTime();
+                cache.parse(source);
+                store = Math.min(store, System.nanoTime() - start);
+                start = System.nanoTime();
+                cache.parse(source);
+                load = Math.min(load, System.nanoTime() - start);
+            }
+            if (cache.getHits() != ROUNDS || cache.getMisses() != ROUNDS)
+                throw new IllegalStateException("cache missed a stored program");
+            System.out.println("program: " + source.length + " bytes, cached AST: " + size(cacheDir) + " bytes");
+            System.out.printf("%-24s %8.1f ms%n", "scan and parse", parse / 1e6);
+            System.out.printf("%-24s %8.1f ms%n", "miss: parse and store", store / 1e6);
+            System.out.printf("%-24s %8.1f ms%n", "hit: load", load / 1e6);
+        }
+        finally
+        {
+            clear(cacheDir);
+            Files.delete(cacheDir);
+        }
+    }
+
+    /**
+     * Stores a program in an empty cache, loads it with another cache over the same
+     * directory, and checks that both give the AST that Parser builds, with the same
+     * nodes shared.
+     *
+     * @param cacheDir the directory of the cache
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws Exception if the program cannot be parsed or cached, or the ASTs cannot
+     *         be compared
+     */
+    private static void checkRoundTrip(Path cacheDir, byte[] source, String name) throws Exception
+    {
+        clear(cacheDir);
+        Program expected = new Parser(new Scanner(source)).parseProgram();
+        AstCache first = new AstCache(cacheDir, Long.MAX_VALUE);
+        first.parse(source);
+        AstCache second = new AstCache(cacheDir, Long.MAX_VALUE);
+        Program actual = second.parse(source);
+        if (first.getMisses() != 1 || second.getHits() != 1)
+            throw new IllegalStateException("cache did not hit on " + name);
+        TestPrograms.checkSameAst(expected, actual, "cached AST differs on " + name);
+        // the bytes include every reference to a shared node, so they match only if
+        // the same nodes are shared
+        if (!Arrays.equals(new AstWriter().writeProgram(expected), new AstWriter().writeProgram(actual)))
+            throw new IllegalStateException("cached AST shares different nodes on " + name);
+    }
+
+    /**
+     * Compiles a program parsed by Parser and loaded from the cache, and checks that
+     * the generated code is the same.
+     *
+     * @param cacheDir the directory of the cache, which holds the program
+     * @param source the program
+     * @throws Exception if the program cannot be parsed, loaded, or compiled
+     */
+    private static void checkSameCode(Path cacheDir, byte[] source) throws Exception
+    {
+        Program expected = new Parser(new Scanner(source)).parseProgram();
+        AstCache cache = new AstCache(cacheDir, Long.MAX_VALUE);
+        Program actual = cache.parse(source);
+        if (!TestPrograms.compileSame(expected::compile, actual::compile) || cache.getHits() != 1)
+            throw new IllegalStateException("cached program compiles differently");
+    }
+
+    /**
+     * Damages the cached file of a program in several ways and checks that each time
+     * the cache rejects the file, parses the program again, and stores a sound file.
+     *
+     * @param cacheDir the directory of the cache, which holds the program
+     * @param source the program
+     * @throws Exception if the program cannot be parsed or cached
+     */
+    private static void checkRejected(Path cacheDir, byte[] source) throws Exception
+    {
+        AstCache cache = new AstCache(cacheDir, Long.MAX_VALUE);
+        Path file = cache.fileFor(AstCache.hash(source));
+        Program expected = new Parser(new Scanner(source)).parseProgram();
+        long size = Files.size(file);
+        // flipped bytes in the middle and at the end of the AST, in the checksum, and
+        // in the hash; then a file cut short, and a file from the next format version
+        long[] flips = {size / 2, size - 1, 44, 12};
+        for (long offset : flips)
+        {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+            {
+                ByteBuffer b = ByteBuffer.allocate(1);
+                channel.read(b, offset);
+                b.put(0, (byte) (b.get(0) ^ 0x10));
+                channel.write(b.rewind(), offset);
+            }
+            checkReparsed(cache, source, expected, "a flipped byte at " + offset);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+        {
+            channel.truncate(size - 3);
+        }
+        checkReparsed(cache, source, expected, "a truncated file");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+        {
+            channel.write(ByteBuffer.allocate(4).putInt(0, AstWriter.FORMAT_VERSION + 1), 4);
+        }
+        checkReparsed(cache, source, expected, "another version");
+        if (cache.getRejected() != flips.length + 2)
+            throw new IllegalStateException("cache rejected " + cache.getRejected() + " files");
+    }
+
+    /**
+     * Loads a program whose cached file has been damaged and checks that the cache
+     * parsed it again, and that the file it stored in its place loads.
+     *
+     * @param cache the cache
+     * @param source the program
+     * @param expected the AST of the program
+     * @param damage what was done to the file, for the failure message
+     * @throws Exception if the program cannot be parsed or cached
+     */
+    private static void checkReparsed(AstCache cache, byte[] source, Program expected, String damage)
+            throws Exception
+    {
+        int misses = cache.getMisses();
+        int hits = cache.getHits();
+        if (TestPrograms.difference(expected, cache.parse(source)) != null || cache.getMisses() != misses + 1)
+            throw new IllegalStateException("cache accepted " + damage);
+        cache.parse(source);
+        if (cache.getHits() != hits + 1)
+            throw new IllegalStateException("cache did not replace the file with " + damage);
+    }
+
+    /**
+     * Stores several programs in a cache bounded to about three of them, and checks
+     * that the files stay within the bound and that the programs used last are kept.
+     *
+     * @param cacheDir the directory of the cache
+     * @param library a program to make the others from
+     * @throws Exception if a program cannot be parsed or cached
+     */
+    private static void checkEviction(Path cacheDir, byte[] library) throws Exception
+    {
+        clear(cacheDir);
+        new AstCache(cacheDir, Long.MAX_VALUE).parse(library);
+        long bound = size(cacheDir) * 3 + size(cacheDir) / 2;
+        AstCache cache = new AstCache(cacheDir, bound);
+        byte[][] programs = new byte[8][];
+        for (int i = 0; i < programs.length; i++)
+        {
+            // a different number of blank lines makes a different source with the same AST size
+            programs[i] = (new String(library) + "\n".repeat(i + 1)).getBytes();
+            cache.parse(programs[i]);
+            if (size(cacheDir) > bound)
+                throw new IllegalStateException("cache grew to " + size(cacheDir) + " of " + bound + " bytes");
+        }
+        int misses = cache.getMisses();
+        cache.parse(programs[programs.length - 1]);
+        if (cache.getMisses() != misses)
+            throw new IllegalStateException("cache evicted the program stored last");
+    }
+
+    /**
+     * This method adds up the sizes of the files in a directory.
+     *
+     * @param dir the directory
+     * @return the total number of bytes
+     * @throws IOException if the directory cannot be listed
+     */
+    private static long size(Path dir) throws IOException
+    {
+        long total = 0;
+        try (Stream<Path> files = Files.list(dir))
+        {
+            for (Path file : (Iterable<Path>) files::iterator)
+                total += Files.size(file);
+        }
+        return total;
+    }
+
+    /**
+     * This method deletes every file in a directory.
+     *
+     * @param dir the directory
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void clear(Path dir) throws IOException
+    {
+        try (Stream<Path> files = Files.list(dir))
+        {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+    }
+}
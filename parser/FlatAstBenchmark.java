@@ -0,0 +1,248 @@
+package parser;
+import ast.FlatAst;
+import ast.Program;
+import benchmark.TestPrograms;
+import environment.Environment;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Compares the FlatAst with the tree of objects that Parser builds, both with no
+ * nodes shared, as Parser builds it by default, and with the leaves shared, on a
+ * large generated program. It reports, for each, how much heap the finished AST keeps
+ * alive, how many bytes parsing allocates in all, how many garbage collections run
+ * while parsing, and the fastest parse time. Before measuring, it checks that both
+ * compile every parser test program and the generated program to the same code, and
+ * that both print the same output when a smaller generated program runs.
+ *
+ * Usage: java parser.FlatAstBenchmark [test directory] [size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class FlatAstBenchmark
+{
+    private static final int ROUNDS = 5;
+    // the fewest characters of source per node in the generated programs, for sizing a FlatAst
+    private static final int NODE_CHARS = 5;
+    // keeps the ASTs being measured alive
+    private static Object kept;
+
+    /**
+     * Main benchmark method that checks both representations agree and prints their
+     * memory use and parse times.
+     *
+     * @param args the parser test directory and the size of the generated program in megabytes
+     * @throws IOException if a test program cannot be read or compiled
+     * @throws ScanErrorException if a program cannot be scanned
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException
+    {
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        for (Map.Entry<String, String> file : TestPrograms.load(args).entrySet())
+            checkSameCode(file.getValue(), file.getKey());
+        checkSameOutput(generate(64 << 10));
+
+        String source = generate(megabytes << 20);
+        checkSameCode(source, "the generated program");
+        System.out.println("program: " + source.length() + " chars, "
+                + new FlatParser(new Scanner(source)).parseFlatProgram(0).size() + " nodes");
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] none = measure(source, NodeFactory.Sharing.NONE, threads);
+        long[] leaves = measure(source, NodeFactory.Sharing.LEAVES, threads);
+        long[] flat = measure(source, null, threads);
+        System.out.printf("%-16s %12s %14s %4s %10s%n", "AST", "retained MB", "allocated MB", "GCs", "parse ms");
+        print("objects, NONE", none);
+        print("objects, LEAVES", leaves);
+        print("flat", flat);
+        compare("NONE", none, flat);
+        compare("LEAVES", leaves, flat);
+    }
+
+    /**
+     * This method prints how the flat AST compares with a tree of objects.
+     *
+     * @param name the sharing of the tree of objects
+     * @param objects the measurements of the tree of objects
+     * @param flat the measurements of the flat AST
+     */
+    private static void compare(String name, long[] objects, long[] flat)
+    {
+        System.out.printf("flat AST against %s: %.2fx less retained, %.2fx less allocated, %.2fx faster parse%n",
+                name, (double) objects[0] / flat[0], (double) objects[1] / flat[1], (double) objects[3] / flat[3]);
+    }
+
+    /**
+     * This method prints one row of measurements.
+     *
+     * @param name the name of the representation
+     * @param result the retained bytes, allocated bytes, collections, and parse nanoseconds
+     */
+    private static void print(String name, long[] result)
+    {
+        System.out.printf("%-16s %12.1f %14.1f %4d %10.1f%n", name, result[0] / (double) (1 << 20),
+                result[1] / (double) (1 << 20), result[2], result[3] / 1e6);
+    }
+
+    /**
+     * This method measures parsing a program into one representation. The retained
+     * heap is the growth in used heap after a full collection while the AST is still
+     * referenced.
+     *
+     * @param source the program
+     * @param sharing the nodes the Parser shares, or null to build a FlatAst
+     * @param threads the bean that reports the thread's allocation
+     * @return the retained bytes, the bytes allocated by one parse, the collections
+     *         during that parse, and the fastest parse time in nanoseconds
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static long[] measure(String source, NodeFactory.Sharing sharing,
+            com.sun.management.ThreadMXBean threads) throws ScanErrorException
+    {
+        kept = null;
+        long before = usedHeap();
+        long collections = collectionCount();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        kept = parse(source, sharing);
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        collections = collectionCount() - collections;
+        long retained = usedHeap() - before;
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            kept = null;
+            long start = System.nanoTime();
+            kept = parse(source, sharing);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        kept = null;
+        return new long[]{retained, allocated, collections, best};
+    }
+
+    /**
+     * This method parses a program into one representation.
+     *
+     * @param source the program
+     * @param sharing the nodes the Parser shares, or null to build a FlatAst
+     * @return the FlatAst or Program
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static Object parse(String source, NodeFactory.Sharing sharing) throws ScanErrorException
+    {
+        if (sharing == null)
+            return new FlatParser(new Scanner(source)).parseFlatProgram(source.length() / NODE_CHARS);
+        return new Parser(new Scanner(source), new NodeFactory(sharing)).parseProgram();
+    }
+
+    /**
+     * This method returns the used heap after collecting garbage.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * This method returns the number of garbage collections so far, over all collectors.
+     *
+     * @return the total number of collections
+     */
+    private static long collectionCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(collector.getCollectionCount(), 0);
+        return count;
+    }
+
+    /**
+     * Compiles a program from both representations and checks that the generated code
+     * is the same.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws IOException if the program cannot be compiled
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkSameCode(String source, String name) throws IOException, ScanErrorException
+    {
+        Program expected = new Parser(new Scanner(source)).parseProgram();
+        FlatAst actual = new FlatParser(new Scanner(source)).parseFlatProgram(0);
+        if (!TestPrograms.compileSame(expected::compile, actual::compile))
+            throw new IllegalStateException("flat AST compiles differently for " + name);
+    }
+
+    /**
+     * Runs a program from both representations and checks that the output is the same.
+     *
+     * @param source the program, which must not read input
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkSameOutput(String source) throws ScanErrorException
+    {
+        PrintStream out = System.out;
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try
+        {
+            System.setOut(new PrintStream(expected));
+            new Parser(new Scanner(source)).parseProgram().exec(new Environment(null));
+            System.setOut(new PrintStream(actual));
+            new FlatParser(new Scanner(source)).parseFlatProgram(0).exec(new Environment(null));
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+        if (expected.size() == 0 || !Arrays.equals(expected.toByteArray(), actual.toByteArray()))
+            throw new IllegalStateException("flat AST runs differently");
+    }
+
+    /**
+     * Generates a program of at least the given size: procedures that compute with
+     * their parameters and locals, and a main block of assignments, conditionals,
+     * bounded loops, calls, and output over a few hundred variables.
+     *
+     * @param size the minimum number of characters in the program
+     * @return the program
+     */
+    private static String generate(int size)
+    {
+        StringBuilder program = new StringBuilder(size + 64).append("VAR i, total;\n");
+        for (int p = 0; p < 16; p++)
+        {
+            String f = "f" + p;
+            program.append("PROCEDURE ").append(f).append("(a, b);\nVAR c;\nBEGIN\n")
+                    .append("c := a * ").append(p + 2).append(" + b - (a mod 7);\n")
+                    .append("IF c > 100 THEN ").append(f).append(" := c mod 97; ELSE ")
+                    .append(f).append(" := -c + 3;\nEND;\n");
+        }
+        program.append("BEGIN\n");
+        for (int i = 0; program.length() < size; i++)
+        {
+            String x = "x" + i % 251;
+            String y = "count" + i % 127;
+            String f = "f" + i % 16;
+            program.append(x).append(" := (").append(y).append(" + ").append(i)
+                    .append(") * 3 - ").append(x).append(" mod 7;\n");
+            program.append("IF ").append(x).append(" >= ").append(y).append(" THEN ")
+                    .append(y).append(" := ").append(y).append(" / 2; ELSE WRITELN(").append(x).append(");\n");
+            program.append("i := 0;\nWHILE i < 3 DO BEGIN ").append(y).append(" := ").append(y)
+                    .append(" + ").append(f).append("(i, ").append(x).append("); i := i + 1; END;\n");
+            program.append("total := total + (").append(y).append(" <> ").append(x).append(");\n");
+        }
+        return program.append("WRITELN(total);\nEND;\n.\n").toString();
+    }
+}
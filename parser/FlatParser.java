@@ -0,0 +1,285 @@
+package parser;
+import scanner.ScanErrorException;
+import scanner.Lexer;
+import scanner.TokenKind;
+import ast.FlatAst;
+import java.util.Arrays;
+
+/**
+ * FlatParser parses the same language as Parser, in the same way, but builds a FlatAst
+ * instead of a tree of objects. Each method returns the index of the node it added
+ * rather than the node itself. The children of a block or call are collected on a
+ * stack of ints while they are parsed and then copied into the FlatAst's pool in one
+ * piece, so no list is allocated for them.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class FlatParser extends Parser
+{
+    // instance variables
+    private FlatAst ast;
+    private int[] items;
+    private int itemCount;
+
+    /**
+     * FlatParser constructor that reads the first token from the lexer.
+     *
+     * @param s Lexer object to tokenize text file
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    public FlatParser(Lexer s) throws ScanErrorException
+    {
+        super(s);
+        items = new int[64];
+    }
+
+    /**
+     * Parses a whole program, made of global variable declarations, procedures, and a
+     * main statement, into a FlatAst, whose arrays are trimmed to fit at the end.
+     *
+     * @param capacity the number of nodes to make room for at first
+     * @return the FlatAst for the program
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    public FlatAst parseFlatProgram(int capacity) throws ScanErrorException
+    {
+        ast = new FlatAst(scan.getSymbolTable(), capacity);
+        int base = itemCount;
+        while (cur == TokenKind.VAR)
+        {
+            eat(cur);
+            push(scan.getSymbol());
+            eat(cur);
+            while (cur != TokenKind.SEMICOLON)
+            {
+                eat(TokenKind.COMMA);
+                push(scan.getSymbol());
+                eat(cur);
+            }
+            eat(TokenKind.SEMICOLON);
+        }
+        int vars = popList(base);
+        while (cur == TokenKind.PROCEDURE)
+            push(parseFlatProcedure());
+        int procedures = popList(base);
+        ast.setProgram(vars, procedures, parseFlatStatement());
+        ast.trim();
+        return ast;
+    }
+
+    /**
+     * Parses a procedure declaration into a PROCEDURE node, whose list of parameters is
+     * followed in the pool by its list of local variables.
+     *
+     * @return the index of the PROCEDURE node
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private int parseFlatProcedure() throws ScanErrorException
+    {
+        long position = scan.getTokenPosition();
+        eat(TokenKind.PROCEDURE);
+        int symbol = scan.getSymbol();
+        eat(cur);
+        eat(TokenKind.LPAREN);
+        int base = itemCount;
+        if (cur != TokenKind.RPAREN)
+        {
+            push(scan.getSymbol());
+            eat(cur);
+        }
+        while (cur == TokenKind.COMMA)
+        {
+            eat(TokenKind.COMMA);
+            push(scan.getSymbol());
+            eat(cur);
+        }
+        eat(TokenKind.RPAREN);
+        eat(TokenKind.SEMICOLON);
+        int params = popList(base);
+        while (cur == TokenKind.VAR)
+        {
+            eat(cur);
+            push(scan.getSymbol());
+            eat(cur);
+            while (cur != TokenKind.SEMICOLON)
+            {
+                eat(TokenKind.COMMA);
+                push(scan.getSymbol());
+                eat(cur);
+            }
+            eat(TokenKind.SEMICOLON);
+        }
+        popList(base);
+        return ast.add(FlatAst.PROCEDURE, symbol, parseFlatStatement(), params, position);
+    }
+
+    /**
+     * Parses a statement: WRITELN, READLN, a BEGIN/END block, an IF with an optional
+     * ELSE, a WHILE, or an assignment.
+     *
+     * @return the index of the statement node, or NONE at the end of file
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private int parseFlatStatement() throws ScanErrorException
+    {
+        long position = scan.getTokenPosition();
+        if (cur == TokenKind.WRITELN)
+        {
+            eat(TokenKind.WRITELN);
+            eat(TokenKind.LPAREN);
+            int num = parseFlatExpression(0);
+            eat(TokenKind.RPAREN);
+            eat(TokenKind.SEMICOLON);
+            return ast.add(FlatAst.WRITELN, 0, num, FlatAst.NONE, position);
+        }
+        if (cur == TokenKind.READLN)
+        {
+            eat(TokenKind.READLN);
+            eat(TokenKind.LPAREN);
+            int symbol = scan.getSymbol();
+            eat(cur);
+            eat(TokenKind.RPAREN);
+            eat(TokenKind.SEMICOLON);
+            return ast.add(FlatAst.READLN, symbol, FlatAst.NONE, FlatAst.NONE, position);
+        }
+        if (cur == TokenKind.BEGIN)
+        {
+            int base = itemCount;
+            eat(TokenKind.BEGIN);
+            while (cur != TokenKind.END)
+                push(parseFlatStatement());
+            eat(TokenKind.END);
+            eat(TokenKind.SEMICOLON);
+            return ast.add(FlatAst.BLOCK, 0, popList(base), FlatAst.NONE, position);
+        }
+        if (cur == TokenKind.IF)
+        {
+            eat(TokenKind.IF);
+            int cond = parseFlatExpression(0);
+            eat(TokenKind.THEN);
+            int stmt1 = parseFlatStatement();
+            int stmt2 = FlatAst.NONE;
+            if (cur == TokenKind.ELSE)
+            {
+                eat(TokenKind.ELSE);
+                stmt2 = parseFlatStatement();
+            }
+            return ast.add(FlatAst.IF, cond, stmt1, stmt2, position);
+        }
+        if (cur == TokenKind.WHILE)
+        {
+            eat(TokenKind.WHILE);
+            int cond = parseFlatExpression(0);
+            eat(TokenKind.DO);
+            return ast.add(FlatAst.WHILE, cond, parseFlatStatement(), FlatAst.NONE, position);
+        }
+        if (cur != TokenKind.EOF)
+        {
+            int symbol = scan.getSymbol();
+            eat(cur);
+            eat(TokenKind.ASSIGN);
+            int val = parseFlatExpression(0);
+            eat(TokenKind.SEMICOLON);
+            return ast.add(FlatAst.ASSIGN, symbol, val, FlatAst.NONE, position);
+        }
+        return FlatAst.NONE;
+    }
+
+    /**
+     * Parses an expression by precedence climbing over the Operator table, as Parser
+     * does, stopping at an operator that binds more loosely than the given precedence.
+     *
+     * @param minPrecedence the lowest precedence of an operator that may be parsed
+     * @return the index of the expression node
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private int parseFlatExpression(int minPrecedence) throws ScanErrorException
+    {
+        int num = parseFlatFactor();
+        Operator op = Operator.of(cur);
+        while (op != null && op.getPrecedence() >= minPrecedence)
+        {
+            long position = scan.getTokenPosition();
+            eat(cur);
+            int right = parseFlatExpression(op.getRightPrecedence());
+            num = ast.add(FlatAst.BINARY, op.getCode(), num, right, position);
+            op = Operator.of(cur);
+        }
+        return num;
+    }
+
+    /**
+     * Parses a factor: an expression in parentheses, a negated factor, a number, a
+     * variable, or a procedure call. A negated factor becomes 0 minus the factor, as
+     * in Parser.
+     *
+     * @return the index of the factor's node
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private int parseFlatFactor() throws ScanErrorException
+    {
+        long position = scan.getTokenPosition();
+        if (cur == TokenKind.LPAREN)
+        {
+            eat(TokenKind.LPAREN);
+            int num = parseFlatExpression(0);
+            eat(TokenKind.RPAREN);
+            return num;
+        }
+        if (cur == TokenKind.MINUS)
+        {
+            eat(TokenKind.MINUS);
+            int zero = ast.add(FlatAst.NUMBER, 0, FlatAst.NONE, FlatAst.NONE, position);
+            int factor = parseFlatFactor();
+            return ast.add(FlatAst.BINARY, FlatAst.SUBTRACT, zero, factor, position);
+        }
+        if (cur == TokenKind.NUMBER)
+        {
+            int num = ast.add(FlatAst.NUMBER, scan.getNumberValue(), FlatAst.NONE, FlatAst.NONE, position);
+            eat(cur);
+            return num;
+        }
+        int symbol = scan.getSymbol();
+        eat(cur);
+        if (cur != TokenKind.LPAREN)
+            return ast.add(FlatAst.VARIABLE, symbol, FlatAst.NONE, FlatAst.NONE, position);
+        eat(TokenKind.LPAREN);
+        int base = itemCount;
+        if (cur != TokenKind.RPAREN)
+            push(parseFlatExpression(0));
+        while (cur == TokenKind.COMMA)
+        {
+            eat(TokenKind.COMMA);
+            push(parseFlatExpression(0));
+        }
+        eat(TokenKind.RPAREN);
+        return ast.add(FlatAst.CALL, symbol, popList(base), FlatAst.NONE, position);
+    }
+
+    /**
+     * Pushes a node index or symbol ID onto the stack of items being collected.
+     *
+     * @param item the item
+     */
+    private void push(int item)
+    {
+        if (itemCount == items.length)
+            items = Arrays.copyOf(items, itemCount * 2);
+        items[itemCount++] = item;
+    }
+
+    /**
+     * Copies the items collected since the given height of the stack into the pool as
+     * one list, and pops them.
+     *
+     * @param base the height of the stack before the items were pushed
+     * @return the index of the list in the pool
+     */
+    private int popList(int base)
+    {
+        int list = ast.addList(items, base, itemCount - base);
+        itemCount = base;
+        return list;
+    }
+}
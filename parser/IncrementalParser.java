@@ -0,0 +1,399 @@
+package parser;
+import ast.ProcedureDeclaration;
+import ast.Program;
+import ast.Statement;
+import scanner.IncrementalLexer;
+import scanner.ScanErrorException;
+import scanner.SourcePosition;
+import scanner.TokenArray;
+import scanner.TokenDelta;
+import scanner.TokenKind;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IncrementalParser keeps the AST of a program that is being edited and brings it up
+ * to date after each edit by parsing again only the PROCEDURE declarations that the
+ * edit changed. Every other ProcedureDeclaration of the new Program is the same
+ * object as in the Program before the edit, so anything kept about a declaration,
+ * keyed on the object, stays valid.
+ *
+ * The program is split into spans of tokens: the global VAR declarations, each
+ * PROCEDURE declaration, and the main statement to the end of file. Each span keeps
+ * its range of tokens, a hash of its text, and the node parsed from it. An
+ * IncrementalLexer rescans only around each edit and reports which run of tokens it
+ * replaced. Spans before the run have the same tokens and positions, and are kept
+ * as they are. So is the span the run starts in, if its text hashes and compares
+ * the same, since the lexer always rescans the token before an edit. Spans after the
+ * run have the same text, moved by the edit, so their nodes are kept and their
+ * positions moved by the same number of lines and chars; one that starts on the
+ * line the edit ends on is parsed again instead, since its columns may have moved.
+ * The tokens between the spans kept are parsed as a run of declarations that must
+ * end exactly where the next span kept starts. If they do not, because the edit
+ * removed an END or opened a declaration, everything from there to the end of file
+ * is parsed again.
+ *
+ * The nodes are made by a NodeFactory that shares nothing, so that each node stands
+ * for one place in the source and can be moved with it. If an edit leaves a program
+ * that cannot be parsed, the error is thrown and getProgram keeps returning the last
+ * program that could be parsed; the edit is kept, and the next edit parses again
+ * everything changed since that program.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class IncrementalParser
+{
+    // instance variables
+    private IncrementalLexer lexer;
+    private NodeFactory nodes;
+    // the tokens and spans of the last program parsed
+    private TokenArray parsed;
+    private List<Span> spans;
+    private Program program;
+    private List<ProcedureDeclaration> reparsed;
+    // how many tokens at the start and at the end no edit has changed since then
+    private boolean edited;
+    private int unchangedPrefix;
+    private int unchangedSuffix;
+
+    /**
+     * IncrementalParser constructor that scans and parses the whole starting source.
+     *
+     * @param text the starting source
+     * @throws ScanErrorException when the source cannot be scanned or parsed
+     */
+    public IncrementalParser(String text) throws ScanErrorException
+    {
+        lexer = new IncrementalLexer(text);
+        nodes = new NodeFactory(NodeFactory.Sharing.NONE);
+        TokenArray tokens = lexer.getTokens();
+        List<Span> parts = new ArrayList<Span>();
+        parseRange(tokens, 0, TokenLexer.NO_FENCE, parts);
+        adopt(tokens, parts, 0, parts.size());
+    }
+
+    /**
+     * This method applies an edit to the source and brings the program up to date.
+     *
+     * @param offset the offset where the edit starts
+     * @param removedLength the number of characters removed at the offset
+     * @param insertedText the text inserted at the offset
+     * @return the edited program
+     * @throws ScanErrorException when the edited source cannot be scanned or parsed;
+     *         if it cannot be scanned, the edit is not applied
+     */
+    public Program edit(int offset, int removedLength, String insertedText) throws ScanErrorException
+    {
+        TokenDelta delta = lexer.edit(offset, removedLength, insertedText);
+        TokenArray tokens = lexer.getTokens();
+        int suffix = tokens.size() - delta.getStart() - delta.getInserted().size();
+        unchangedPrefix = edited ? Math.min(unchangedPrefix, delta.getStart()) : delta.getStart();
+        unchangedSuffix = edited ? Math.min(unchangedSuffix, suffix) : suffix;
+        edited = true;
+        reparse(tokens);
+        return program;
+    }
+
+    /**
+     * This method returns the program as of the last edit that could be parsed.
+     *
+     * @return the program
+     */
+    public Program getProgram()
+    {
+        return program;
+    }
+
+    /**
+     * This method returns the procedure declarations that the last parse built, which
+     * are all those of the program after the first parse, and after an edit those
+     * the edit changed.
+     *
+     * @return the new declarations, in order
+     */
+    public List<ProcedureDeclaration> getReparsed()
+    {
+        return reparsed;
+    }
+
+    /**
+     * This method returns the current tokens of the source.
+     *
+     * @return the tokens, up to but not including the end of file
+     */
+    public TokenArray getTokens()
+    {
+        return lexer.getTokens();
+    }
+
+    /**
+     * This method returns the current text of the source.
+     *
+     * @return the source
+     */
+    public String getText()
+    {
+        return lexer.getText();
+    }
+
+    /**
+     * This method parses again the tokens between the spans that the edits since the
+     * last parse left unchanged, and moves the spans after them.
+     *
+     * @param tokens the current tokens
+     * @throws ScanErrorException when the changed tokens cannot be parsed
+     */
+    private void reparse(TokenArray tokens) throws ScanErrorException
+    {
+        int moved = tokens.size() - parsed.size();
+        int kept = 0;
+        while (kept < spans.size() && isBefore(spans.get(kept)))
+            kept++;
+        // the lexer rescans the token before an edit, which may leave its span unchanged
+        if (kept < spans.size() && spans.get(kept).first < unchangedPrefix
+                && isUnchanged(spans.get(kept), tokens, kept == spans.size() - 1))
+            kept++;
+        int start = kept == 0 ? 0 : spans.get(kept - 1).end();
+        // the global variables are parsed again whenever the range starts the program
+        int after = spans.size();
+        while (after > Math.max(kept, 1) && isMovable(spans.get(after - 1), tokens, moved))
+            after--;
+        if (after < spans.size() && spans.get(after).first + moved < start)
+            start = spans.get(--kept).first;
+
+        List<Span> parts = new ArrayList<Span>(spans.subList(0, kept));
+        int fence = after < spans.size() ? spans.get(after).first + moved : TokenLexer.NO_FENCE;
+        if (kept < spans.size() && !parseRange(tokens, start, fence, parts))
+        {
+            parts.subList(kept, parts.size()).clear();
+            after = spans.size();
+            parseRange(tokens, start, TokenLexer.NO_FENCE, parts);
+        }
+        int firstNew = kept;
+        int endNew = parts.size();
+        for (Span span : spans.subList(after, spans.size()))
+        {
+            span.moveTo(tokens, span.first + moved);
+            parts.add(span);
+        }
+        adopt(tokens, parts, firstNew, endNew);
+    }
+
+    /**
+     * This method decides whether a span lies before every token the edits changed.
+     *
+     * @param span a span of the last program parsed
+     * @return true if the span is unchanged and has not moved
+     */
+    private boolean isBefore(Span span)
+    {
+        // an empty span is only known to be empty if a token after it is unchanged
+        return span.end() <= unchangedPrefix && (span.count > 0 || span.first < unchangedPrefix);
+    }
+
+    /**
+     * This method decides whether a span that starts before the changed tokens but
+     * runs into them still has the same text. Its tokens, if unchanged, start at the
+     * same index, so their text is compared with its old text.
+     *
+     * @param span a span of the last program parsed
+     * @param tokens the current tokens
+     * @param last true if the span is the main statement, which must still run to the
+     *             end of file
+     * @return true if the same tokens with the same text are still at the span
+     */
+    private boolean isUnchanged(Span span, TokenArray tokens, boolean last)
+    {
+        if (span.end() > tokens.size() || last && span.end() != tokens.size())
+            return false;
+        int from = tokens.getOffset(span.first);
+        int to = tokens.getOffset(span.end() - 1) + tokens.getLength(span.end() - 1);
+        int oldFrom = parsed.getOffset(span.first);
+        int oldTo = parsed.getOffset(span.end() - 1) + parsed.getLength(span.end() - 1);
+        return to - from == oldTo - oldFrom && hash(tokens.getSource(), from, to) == span.hash
+                && Arrays.equals(tokens.getSource(), from, to, parsed.getSource(), oldFrom, oldTo);
+    }
+
+    /**
+     * This method decides whether a span lies after every token the edits changed, so
+     * that its tokens and the text between them are unchanged, and whether it can be
+     * moved to its new place by the same number of lines and chars throughout. It
+     * cannot if it starts in a different column, since then the edit ended on its
+     * first line, or if its lines run past the largest line a position can hold.
+     *
+     * @param span a span of the last program parsed
+     * @param tokens the current tokens
+     * @param moved how far the unchanged tokens at the end moved
+     * @return true if the span can be kept and moved
+     */
+    private boolean isMovable(Span span, TokenArray tokens, int moved)
+    {
+        if (span.first < parsed.size() - unchangedSuffix)
+            return false;
+        if (span.count == 0)
+            return true;
+        long first = tokens.getPosition(span.first + moved);
+        long last = tokens.getPosition(span.end() - 1 + moved);
+        int lines = SourcePosition.getLine(first) - SourcePosition.getLine(span.firstPosition);
+        return SourcePosition.getColumn(first) == SourcePosition.getColumn(span.firstPosition)
+                && SourcePosition.getLine(last) == SourcePosition.getLine(span.lastPosition) + lines;
+    }
+
+    /**
+     * This method parses the spans in a range of tokens: the global variables if the
+     * range starts the program, then PROCEDURE declarations, and then the main
+     * statement if the range runs to the end of file.
+     *
+     * @param tokens the current tokens
+     * @param start the index of the first token of the range
+     * @param fence the index of the token after the range, where a declaration must
+     *              end, or NO_FENCE to parse to the end of file
+     * @param into the list to add the spans parsed to
+     * @return true if the range was parsed, false if a declaration did not end at the
+     *         fence
+     * @throws ScanErrorException when the range cannot be parsed
+     */
+    private boolean parseRange(TokenArray tokens, int start, int fence, List<Span> into) throws ScanErrorException
+    {
+        TokenLexer range = new TokenLexer(tokens, start, fence, false);
+        try
+        {
+            Parser parser = new Parser(range, nodes);
+            if (start == 0)
+            {
+                List<String> vars = parser.parseGlobals();
+                into.add(new Span(tokens, 0, range.getIndex(), null, vars));
+            }
+            while (parser.cur == TokenKind.PROCEDURE && range.getIndex() != fence)
+            {
+                int first = range.getIndex();
+                ProcedureDeclaration proc = parser.parseProcedure();
+                into.add(new Span(tokens, first, range.getIndex(), proc, null));
+            }
+            if (fence != TokenLexer.NO_FENCE)
+                return range.getIndex() == fence;
+            int first = range.getIndex();
+            Statement main = parser.parseStatement();
+            into.add(new Span(tokens, first, tokens.size(), main, null));
+            return true;
+        }
+        catch (TokenLexer.OutOfRange e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * This method makes the given spans those of the current program, and builds the
+     * Program from them.
+     *
+     * @param tokens the tokens the spans are in
+     * @param parts the spans, from the global variables to the main statement
+     * @param firstNew the index of the first span that was parsed
+     * @param endNew the index after the last span that was parsed
+     */
+    private void adopt(TokenArray tokens, List<Span> parts, int firstNew, int endNew)
+    {
+        List<ProcedureDeclaration> procedures = new ArrayList<ProcedureDeclaration>(parts.size() - 2);
+        reparsed = new ArrayList<ProcedureDeclaration>();
+        for (int i = 1; i < parts.size() - 1; i++)
+        {
+            ProcedureDeclaration proc = (ProcedureDeclaration) parts.get(i).node;
+            procedures.add(proc);
+            if (i >= firstNew && i < endNew)
+                reparsed.add(proc);
+        }
+        program = new Program(parts.get(0).vars, procedures, parts.get(parts.size() - 1).node);
+        parsed = tokens;
+        spans = parts;
+        edited = false;
+    }
+
+    /**
+     * This method hashes a range of text, with the 64-bit FNV-1a hash.
+     *
+     * @param source the text
+     * @param from the index of the first char
+     * @param to the index after the last char
+     * @return the hash
+     */
+    private static long hash(char[] source, int from, int to)
+    {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++)
+            hash = (hash ^ source[i]) * 0x100000001b3L;
+        return hash;
+    }
+
+    /**
+     * Span is a range of tokens of the program and what was parsed from it: the global
+     * variables, a procedure declaration, or the main statement.
+     */
+    private static class Span
+    {
+        private int first;
+        private int count;
+        private long hash;
+        private long firstPosition;
+        private long lastPosition;
+        private Statement node;
+        private List<String> vars;
+
+        /**
+         * Span constructor that records a range of tokens just parsed.
+         *
+         * @param tokens the tokens
+         * @param first the index of the first token of the span
+         * @param end the index after the last token of the span
+         * @param node the declaration or statement parsed from the span, if any
+         * @param vars the global variables parsed from the span, if any
+         */
+        Span(TokenArray tokens, int first, int end, Statement node, List<String> vars)
+        {
+            this.first = first;
+            count = end - first;
+            this.node = node;
+            this.vars = vars;
+            if (count > 0)
+            {
+                hash = hash(tokens.getSource(), tokens.getOffset(first),
+                        tokens.getOffset(end - 1) + tokens.getLength(end - 1));
+                firstPosition = tokens.getPosition(first);
+                lastPosition = tokens.getPosition(end - 1);
+            }
+        }
+
+        /**
+         * This method returns the index after the last token of the span.
+         *
+         * @return the end of the span
+         */
+        int end()
+        {
+            return first + count;
+        }
+
+        /**
+         * This method moves the span, and the positions of what was parsed from it, to
+         * where its unchanged tokens now start.
+         *
+         * @param tokens the current tokens
+         * @param index the index of the span's first token in the current tokens
+         */
+        void moveTo(TokenArray tokens, int index)
+        {
+            first = index;
+            if (count == 0)
+                return;
+            long position = tokens.getPosition(index);
+            int lines = SourcePosition.getLine(position) - SourcePosition.getLine(firstPosition);
+            int chars = SourcePosition.getOffset(position) - SourcePosition.getOffset(firstPosition);
+            if (node != null && (lines != 0 || chars != 0))
+                node.movePositions(lines, chars);
+            firstPosition = position;
+            lastPosition = SourcePosition.move(lastPosition, lines, chars);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package parser;
+import ast.ProcedureDeclaration;
+import ast.Program;
+import benchmark.TestPrograms;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.Callable;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import scanner.TokenArray;
+
+/**
+ * Measures how much sooner a large program is up to date after an edit to one of its
+ * procedures when IncrementalParser parses again only that procedure, compared to
+ * scanning and parsing the whole program again.
+ *
+ * Before measuring, it applies sequences of random edits to generated programs: edits
+ * that change, insert, and delete characters, insert newlines, insert and delete
+ * whole procedures, and insert comments, including a "(*" right after a comment. Many
+ * leave the program unparsable, and most of those are undone, while the others are
+ * left for the edits after them to build on. After each edit it checks that
+ * IncrementalParser builds the same AST, with the same positions, as a Parser that
+ * parses the tokens of a full scan of the edited text, or raises the same error.
+ * It also checks that an edit inside one procedure builds only that procedure again,
+ * keeping every other declaration as the same object.
+ *
+ * Usage: java parser.IncrementalParserBenchmark [lines in the program]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class IncrementalParserBenchmark
+{
+    private static final int SEQUENCES = 300;
+    private static final int EDITS = 25;
+    private static final int ROUNDS = 20;
+    private static final String MUTATIONS = " ;,)+-:=x7\n";
+    private static final String[] COMMENTS = {"(* note *)", "(**)", "(*", "// note\n"};
+    // enough spare ENDs for every edit of a sequence to make one END into an operand
+    private static final String SPARE = "END; ".repeat(32);
+
+    // how many edits of the random sequences left programs that parsed and that did not
+    private static int parsed;
+    private static int failed;
+
+    /**
+     * Main benchmark method that checks IncrementalParser against Parser and prints
+     * the times to bring a large program up to date after an edit.
+     *
+     * @param args the number of lines in the program
+     * @throws Exception if a program cannot be parsed or the ASTs cannot be compared
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        Random random = new Random(22);
+        for (int i = 0; i < SEQUENCES; i++)
+        {
+            String source = ParallelParserBenchmark.generate(2000 + random.nextInt(6000), random);
+            source = source.substring(0, source.lastIndexOf('.')) + SPARE + ".\n";
+            IncrementalParser parser = new IncrementalParser(source);
+            StringBuilder text = new StringBuilder(source);
+            for (int j = 0; j < EDITS; j++)
+                edit(parser, text, random);
+        }
+        checkReused();
+        System.out.println("same AST after " + parsed + " random edits and same error after " + failed
+                + ", and only the edited procedures built again");
+
+        String source = program(lines, random);
+        IncrementalParser parser = new IncrementalParser(source);
+        int procedures = parser.getReparsed().size();
+        int at = source.indexOf("c := a * ", source.length() / 2) + 9;
+        long incremental = Long.MAX_VALUE;
+        long full = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            // alternately puts in and takes out a digit, so the program stays the same size
+            String digit = String.valueOf(i % 9 + 1);
+            long start = System.nanoTime();
+            if (i % 2 == 0)
+                parser.edit(at, 0, digit);
+            else
+                parser.edit(at, 1, "");
+            incremental = Math.min(incremental, System.nanoTime() - start);
+            if (parser.getReparsed().size() != 1)
+                throw new IllegalStateException("edit built " + parser.getReparsed().size() + " procedures");
+            String edited = parser.getText();
+            start = System.nanoTime();
+            new Parser(new Scanner(edited)).parseProgram();
+            full = Math.min(full, System.nanoTime() - start);
+        }
+        System.out.println("program: " + lines + " lines, " + source.length() + " chars, " + procedures
+                + " procedures");
+        System.out.printf("%-28s %8.2f ms%n", "scan and parse everything", full / 1e6);
+        System.out.printf("%-28s %8.2f ms%n", "IncrementalParser.edit", incremental / 1e6);
+    }
+
+    /**
+     * Chooses a random edit of a program and applies it, and then undoes it most of
+     * the time if it leaves the program unparsable.
+     *
+     * @param parser the incremental parser of the program
+     * @param text the text of the program, which is edited too
+     * @param random the source of the choices
+     * @throws Exception if the ASTs cannot be compared
+     */
+    private static void edit(IncrementalParser parser, StringBuilder text, Random random) throws Exception
+    {
+        int limit = text.lastIndexOf(SPARE);
+        int at;
+        int removed = 0;
+        String inserted = "";
+        int kind = random.nextInt(12);
+        int comment = text.indexOf("*)", random.nextInt(limit));
+        int procedure = text.indexOf("PROCEDURE", random.nextInt(limit));
+        int next = procedure < 0 ? -1 : text.indexOf("PROCEDURE", procedure + 1);
+        if (kind == 0 && procedure >= 0 && procedure < limit)
+        {
+            // a new procedure just before another
+            at = procedure;
+            inserted = "PROCEDURE q" + random.nextInt(1000) + "(a);\nBEGIN\nWRITELN(a);\nEND;\n";
+        }
+        else if (kind == 1 && next >= 0 && next < limit)
+        {
+            // a whole procedure, up to the next one
+            at = procedure;
+            removed = next - procedure;
+        }
+        else if (kind == 10 && comment >= 0 && comment + 2 < limit && !touchesEnd(text, comment + 2, comment + 2))
+        {
+            // a comment, or the start of one, right after a comment
+            at = comment + 2;
+            inserted = COMMENTS[random.nextInt(COMMENTS.length)];
+        }
+        else if (kind >= 10)
+        {
+            // a comment between two characters
+            do
+                at = random.nextInt(limit);
+            while (touchesEnd(text, at, at));
+            inserted = COMMENTS[random.nextInt(COMMENTS.length)];
+        }
+        else
+        {
+            do
+            {
+                at = random.nextInt(limit);
+                removed = kind < 5 ? 0 : 1 + random.nextInt(3);
+            }
+            while (at + removed > limit || touchesEnd(text, at, at + removed));
+            if (kind < 8)
+                inserted = String.valueOf(MUTATIONS.charAt(random.nextInt(MUTATIONS.length())));
+        }
+        // a comment not closed before the spare ENDs would hide the rest of the program, which never parses
+        int close = text.indexOf("*)", at + removed);
+        if (inserted.equals("(*") && (close < 0 || close > limit))
+            inserted = "(* note *)";
+        String removedText = text.substring(at, at + removed);
+        // most edits that break the program are undone, as they would be in an editor
+        if (!edit(parser, text, at, removed, inserted) && random.nextInt(8) > 0)
+            edit(parser, text, at, inserted.length(), removedText);
+    }
+
+    /**
+     * Applies an edit to a program and to its text, and checks that the program is
+     * the one Parser builds from the edited tokens.
+     *
+     * @param parser the incremental parser of the program
+     * @param text the text of the program, which is edited too
+     * @param at the offset where the edit starts
+     * @param removed the number of characters removed at the offset
+     * @param inserted the text inserted at the offset
+     * @return true if both parsers parsed the program, false if both raised an error
+     * @throws Exception if the ASTs cannot be compared
+     */
+    private static boolean edit(IncrementalParser parser, StringBuilder text, int at, int removed, String inserted)
+            throws Exception
+    {
+        Object actual = outcome(() -> parser.edit(at, removed, inserted));
+        text.replace(at, at + removed, inserted);
+        if (!parser.getText().contentEquals(text))
+            throw new IllegalStateException("incremental text differs from the edited text");
+        Object expected = outcome(() -> parse(text.toString(), parser));
+        if (expected instanceof String || actual instanceof String)
+        {
+            if (!expected.equals(actual))
+                throw new IllegalStateException("parsers disagree after an edit at " + at + ": " + expected
+                        + " and " + actual);
+            failed++;
+            return false;
+        }
+        TestPrograms.checkSameAst(expected, actual, "incremental AST differs after an edit at " + at);
+        parsed++;
+        return true;
+    }
+
+    /**
+     * This method decides whether an edit would change or join onto an END, which
+     * could leave a block open to the end of file.
+     *
+     * @param text the text of the program
+     * @param from the offset of the first char edited
+     * @param to the offset after the last char removed
+     * @return true if an END is within one char of the edit
+     */
+    static boolean touchesEnd(StringBuilder text, int from, int to)
+    {
+        int end = text.indexOf("END", Math.max(from - 3, 0));
+        return end >= 0 && end <= to;
+    }
+
+    /**
+     * This method scans the whole text and parses its tokens the way IncrementalParser
+     * parses its own, giving identifiers the symbol IDs of the incremental parser's
+     * symbol table so that the ASTs can be compared.
+     *
+     * @param text the text of the program
+     * @param parser the incremental parser of the program
+     * @return the program
+     * @throws ScanErrorException when the text cannot be scanned or parsed
+     */
+    private static Program parse(String text, IncrementalParser parser) throws ScanErrorException
+    {
+        Scanner scanner = new Scanner(text);
+        scanner.setSymbolTable(parser.getTokens().getSymbolTable());
+        TokenArray tokens = scanner.tokenize();
+        return new Parser(new TokenLexer(tokens, 0, TokenLexer.NO_FENCE, false),
+                new NodeFactory(NodeFactory.Sharing.NONE)).parseProgram();
+    }
+
+    /**
+     * This method runs a parse and returns what came of it.
+     *
+     * @param parse the parse to run
+     * @return the Program, or the class and message of the exception it raised
+     */
+    private static Object outcome(Callable<Program> parse)
+    {
+        try
+        {
+            return parse.call();
+        }
+        catch (Exception e)
+        {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * Edits the statements of one procedure, then adds lines to it, then adds a
+     * procedure, and checks that each edit builds only the procedures it touched and
+     * keeps every other declaration and the main statement as the same objects.
+     *
+     * @throws Exception if the program cannot be parsed or its fields cannot be read
+     */
+    private static void checkReused() throws Exception
+    {
+        IncrementalParser parser = new IncrementalParser(program(2000, new Random(7)));
+        int middle = parser.getText().indexOf("PROCEDURE", parser.getText().length() / 2);
+        checkReused(parser, parser.getText().indexOf("d := 0;", middle), 7, "d := 1;", 1);
+        checkReused(parser, parser.getText().indexOf("WHILE", middle), 0, "\n\n", 1);
+        checkReused(parser, middle, 0, "PROCEDURE extra(a);\nBEGIN\nWRITELN(a);\nEND;\n", 1);
+        checkReused(parser, parser.getText().indexOf("extra(a)"), 0, "   ", 1);
+        checkReused(parser, 0, 0, "\n", 0);
+    }
+
+    /**
+     * Makes an edit and checks that it built the given number of procedures, that
+     * every other procedure and the main statement are the objects they were before
+     * the edit, and that the program is the one Parser builds.
+     *
+     * @param parser the incremental parser
+     * @param offset the offset where the edit starts
+     * @param removed the number of characters removed at the offset
+     * @param inserted the text inserted at the offset
+     * @param built the number of procedures the edit should build
+     * @throws Exception if the program cannot be parsed or its fields cannot be read
+     */
+    private static void checkReused(IncrementalParser parser, int offset, int removed, String inserted, int built)
+            throws Exception
+    {
+        Program before = parser.getProgram();
+        Program after = parser.edit(offset, removed, inserted);
+        Set<ProcedureDeclaration> old = Collections.newSetFromMap(new IdentityHashMap<>());
+        old.addAll(procedures(before));
+        for (ProcedureDeclaration proc : procedures(after))
+            if (!old.contains(proc) && !parser.getReparsed().contains(proc))
+                throw new IllegalStateException("procedure " + proc.getId() + " is neither kept nor built");
+        Field main = Program.class.getDeclaredField("stmt");
+        main.setAccessible(true);
+        if (parser.getReparsed().size() != built || main.get(before) != main.get(after))
+            throw new IllegalStateException("edit at " + offset + " built " + parser.getReparsed().size()
+                    + " procedures and " + (main.get(before) == main.get(after) ? "kept" : "built")
+                    + " the main statement");
+        Program expected = parse(parser.getText(), parser);
+        TestPrograms.checkSameAst(expected, after, "incremental AST differs after an edit at " + offset);
+    }
+
+    /**
+     * This method returns the procedures of a program.
+     *
+     * @param program the program
+     * @return its procedure declarations
+     * @throws ReflectiveOperationException if the procedures cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    private static List<ProcedureDeclaration> procedures(Program program) throws ReflectiveOperationException
+    {
+        Field field = Program.class.getDeclaredField("procedures");
+        field.setAccessible(true);
+        return (List<ProcedureDeclaration>) field.get(program);
+    }
+
+    /**
+     * Generates a program of at least the given number of lines.
+     *
+     * @param lines the minimum number of lines
+     * @param random the source of the choices
+     * @return the program
+     */
+    private static String program(int lines, Random random)
+    {
+        // the generated procedures average about 30 chars a line
+        for (int size = lines * 30; ; size += size / 8)
+        {
+            String source = ParallelParserBenchmark.generate(size, random);
+            if (source.chars().filter(c -> c == '\n').count() >= lines)
+                return source;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package parser;
+import ast.ProcedureDeclaration;
+import ast.Statement;
+import scanner.ScanErrorException;
+import scanner.SourcePosition;
+import scanner.TokenArray;
+import scanner.TokenKind;
+import java.util.List;
+
+/**
+ * LazyParser parses a scanned program as Parser does, except that it leaves the
+ * BEGIN/END statement of each procedure unparsed until the procedure is first used.
+ * The heading and local variables of a procedure are parsed as usual, and its
+ * statement is skipped by matching BEGIN and END tokens in the TokenArray, which
+ * builds nothing. The ProcedureDeclaration remembers the range of tokens the
+ * statement was skipped over, and parses it the first time its statement is asked
+ * for: when a ProcedureCall runs it, or when Program.compile finds it reachable.
+ * A program that declares many procedures but calls few of them starts after
+ * parsing little more than its main statement.
+ *
+ * A procedure whose statement is not a BEGIN/END block, or whose block is not
+ * followed by a semicolon, is parsed right away, so any error in how it ends is
+ * raised where Parser would raise it. An error inside a skipped block is raised
+ * when the block is parsed, and a procedure that is never used is never checked.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class LazyParser extends Parser
+{
+    // instance variables
+    private TokenArray tokens;
+    private TokenLexer lexer;
+
+    /**
+     * LazyParser constructor that parses the given tokens, giving every occurrence
+     * its own node as Parser does by default.
+     *
+     * @param tokens the tokens of the program, which must not change while any
+     *               procedure is still unparsed
+     * @throws ScanErrorException never, since the tokens have already been scanned
+     */
+    public LazyParser(TokenArray tokens) throws ScanErrorException
+    {
+        this(tokens, new NodeFactory(NodeFactory.Sharing.NONE));
+    }
+
+    /**
+     * LazyParser constructor that parses the given tokens and makes its expression
+     * nodes, including those of the statements it parses later, with the given
+     * factory.
+     *
+     * @param tokens the tokens of the program, which must not change while any
+     *               procedure is still unparsed
+     * @param nodes the factory that makes the expression nodes
+     * @throws ScanErrorException never, since the tokens have already been scanned
+     */
+    public LazyParser(TokenArray tokens, NodeFactory nodes) throws ScanErrorException
+    {
+        this(tokens, new TokenLexer(tokens, 0, TokenLexer.NO_FENCE, false), nodes);
+    }
+
+    /**
+     * LazyParser constructor that reads the tokens through the given lexer.
+     *
+     * @param tokens the tokens of the program
+     * @param lexer the lexer over all the tokens
+     * @param nodes the factory that makes the expression nodes
+     * @throws ScanErrorException never, since the tokens have already been scanned
+     */
+    private LazyParser(TokenArray tokens, TokenLexer lexer, NodeFactory nodes) throws ScanErrorException
+    {
+        super(lexer, nodes);
+        this.tokens = tokens;
+        this.lexer = lexer;
+    }
+
+    /**
+     * This method skips the BEGIN/END statement of a procedure and creates a
+     * ProcedureDeclaration that parses the statement when it is first needed. A
+     * statement that cannot be skipped is parsed right away.
+     *
+     * @param id the name of the procedure
+     * @param symbol the symbol ID of the name
+     * @param params the names of the parameters
+     * @param paramSymbols the symbol IDs of the parameters, in the same order
+     * @param localVars the names of the local variables
+     * @param localSymbols the symbol IDs of the local variables, in the same order
+     * @param position the packed position of the PROCEDURE token
+     * @return a ProcedureDeclaration object representing the procedure parsed
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    @Override
+    protected ProcedureDeclaration parseProcedureBody(String id, int symbol, List<String> params,
+            int[] paramSymbols, List<String> localVars, int[] localSymbols, long position)
+            throws ScanErrorException
+    {
+        int begin = lexer.getIndex();
+        int end = cur == TokenKind.BEGIN ? findBlockEnd(begin) : -1;
+        if (end < 0)
+            return super.parseProcedureBody(id, symbol, params, paramSymbols, localVars, localSymbols, position);
+        lexer.seek(end);
+        cur = lexer.nextTokenKind();
+        return at(new ProcedureDeclaration(id, symbol, params, paramSymbols, () -> parseBlock(id, begin, end),
+                localVars, localSymbols), position);
+    }
+
+    /**
+     * This method finds the end of the block that starts at a BEGIN token by counting
+     * the BEGIN and END tokens after it.
+     *
+     * @param begin the index of the BEGIN token
+     * @return the index of the token after the semicolon that follows the matching
+     *         END, or -1 if there is no matching END or it is not followed by a semicolon
+     */
+    private int findBlockEnd(int begin)
+    {
+        int depth = 0;
+        for (int i = begin; i < tokens.size(); i++)
+        {
+            TokenKind kind = tokens.getKind(i);
+            if (kind == TokenKind.BEGIN)
+                depth++;
+            else if (kind == TokenKind.END && --depth == 0)
+                return i + 1 < tokens.size() && tokens.getKind(i + 1) == TokenKind.SEMICOLON ? i + 2 : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * This method parses a block that was skipped, which must end exactly where the
+     * skip ended.
+     *
+     * @param id the name of the procedure the block belongs to
+     * @param begin the index of the BEGIN token
+     * @param end the index of the token after the block's final semicolon
+     * @return the Statement for the block
+     * @throws IllegalArgumentException if the block has an error, or if Parser would
+     *         not have ended it at the END that the skip matched
+     */
+    private Statement parseBlock(String id, int begin, int end)
+    {
+        TokenLexer block = new TokenLexer(tokens, begin, end, false);
+        try
+        {
+            Statement stmt = new Parser(block, nodes).parseStatement();
+            if (block.getIndex() == end)
+                return stmt;
+        }
+        catch (TokenLexer.OutOfRange e)
+        {
+            // the block ran on past its END, which is reported below
+        }
+        catch (ScanErrorException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        throw new IllegalArgumentException("The statement of procedure " + id + " does not end at "
+                + SourcePosition.toString(tokens.getPosition(end - 2)) + ".");
+    }
+}
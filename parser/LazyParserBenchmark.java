@@ -0,0 +1,284 @@
+package parser;
+import ast.ProcedureDeclaration;
+import ast.Program;
+import benchmark.TestPrograms;
+import environment.Environment;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import scanner.TokenArray;
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Measures how much sooner a short script over a large library of procedures starts
+ * when LazyParser leaves the procedures' statements unparsed, compared to Parser with
+ * a Scanner and to Parser reading the same tokens. For each it reports the time to
+ * scan, to parse, and to run the script, and the time to its first result.
+ *
+ * Before measuring, it checks that LazyParser builds the same AST as Parser once every
+ * procedure has been parsed, on the parser test programs and on a generated library;
+ * that a script prints the same output either way; that a program that calls every
+ * procedure compiles to the same code either way; and that when the script calls few
+ * procedures, only those it can reach are compiled, and every procedure the compiled
+ * code calls is among them.
+ *
+ * Usage: java parser.LazyParserBenchmark [test directory] [library size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class LazyParserBenchmark
+{
+    private static final int ROUNDS = 5;
+    // how many procedures of the library the script calls
+    private static final int CALLED = 4;
+
+    /**
+     * Main benchmark method that checks LazyParser against Parser and prints the
+     * startup times of a script over a large library.
+     *
+     * @param args the parser test directory and the size of the library in megabytes
+     * @throws Exception if a program cannot be read, parsed, compiled, or run
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        Map<String, String> files = TestPrograms.load(args);
+        for (Map.Entry<String, String> file : files.entrySet())
+            checkSameAst(file.getValue(), file.getKey());
+        String library = library(64 << 10);
+        checkSameAst(script(library, CALLED), "the generated library");
+        checkSameOutput(script(library, CALLED));
+        checkSameCode(script(library, Integer.MAX_VALUE));
+        int compiled = checkReachable(script(library, CALLED));
+        System.out.println("same AST on " + files.size() + " test programs and the generated library, same output "
+                + "and code, and " + compiled + " of " + count(library) + " procedures compiled when "
+                + CALLED + " are called");
+
+        String source = script(library(megabytes << 20), CALLED);
+        System.out.println("script: " + source.length() + " chars, " + count(source) + " procedures, "
+                + CALLED + " called");
+        System.out.printf("%-16s %8s %8s %8s %12s%n", "parser", "scan ms", "parse ms", "run ms", "first result");
+        for (String parser : new String[]{"Parser/Scanner", "Parser/tokens", "LazyParser"})
+        {
+            long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+            for (int i = 0; i < ROUNDS; i++)
+            {
+                long[] times = run(parser, source);
+                for (int j = 0; j < best.length; j++)
+                    best[j] = Math.min(best[j], times[j]);
+            }
+            System.out.printf("%-16s %8.1f %8.1f %8.1f %12.1f%n", parser, best[0] / 1e6, best[1] / 1e6,
+                    best[2] / 1e6, best[3] / 1e6);
+        }
+    }
+
+    /**
+     * This method scans, parses, and runs a script with one of the parsers, with the
+     * script's output thrown away.
+     *
+     * @param parser the name of the parser
+     * @param source the script
+     * @return the nanoseconds spent scanning, parsing, and running, and in all
+     * @throws ScanErrorException if the script cannot be scanned
+     */
+    private static long[] run(String parser, String source) throws ScanErrorException
+    {
+        long start = System.nanoTime();
+        TokenArray tokens = parser.equals("Parser/Scanner") ? null : new Scanner(source).tokenize();
+        long scanned = System.nanoTime();
+        Program program;
+        if (tokens == null)
+            program = new Parser(new Scanner(source)).parseProgram();
+        else if (parser.equals("Parser/tokens"))
+            program = new Parser(new TokenLexer(tokens, 0, TokenLexer.NO_FENCE, false)).parseProgram();
+        else
+            program = new LazyParser(tokens).parseProgram();
+        long parsed = System.nanoTime();
+        PrintStream out = System.out;
+        try
+        {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            program.exec(new Environment(null));
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+        long ran = System.nanoTime();
+        // the scanning time of Parser with a Scanner is part of its parsing time
+        return new long[]{scanned - start, parsed - scanned, ran - parsed, ran - start};
+    }
+
+    /**
+     * Parses a program with Parser and with LazyParser, sharing no nodes so that every
+     * position can be compared, parses every procedure LazyParser skipped, and checks
+     * that the ASTs are the same.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws Exception if the program cannot be parsed or the ASTs cannot be compared
+     */
+    private static void checkSameAst(String source, String name) throws Exception
+    {
+        TokenArray tokens = new Scanner(source).tokenize();
+        NodeFactory.Sharing none = NodeFactory.Sharing.NONE;
+        Program expected = new Parser(new TokenLexer(tokens, 0, TokenLexer.NO_FENCE, false),
+                new NodeFactory(none)).parseProgram();
+        Program actual = new LazyParser(tokens, new NodeFactory(none)).parseProgram();
+        for (ProcedureDeclaration proc : procedures(actual))
+            proc.getStatement();
+        TestPrograms.checkSameAst(expected, actual, "lazy AST differs on " + name);
+    }
+
+    /**
+     * This method returns the procedures of a program.
+     *
+     * @param program the program
+     * @return its procedure declarations
+     * @throws ReflectiveOperationException if the procedures cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    private static List<ProcedureDeclaration> procedures(Program program) throws ReflectiveOperationException
+    {
+        Field field = Program.class.getDeclaredField("procedures");
+        field.setAccessible(true);
+        return (List<ProcedureDeclaration>) field.get(program);
+    }
+
+    /**
+     * Runs a script parsed by Parser and by LazyParser and checks that the output is
+     * the same.
+     *
+     * @param source the script, which must not read input
+     * @throws ScanErrorException if the script cannot be scanned
+     */
+    private static void checkSameOutput(String source) throws ScanErrorException
+    {
+        PrintStream out = System.out;
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try
+        {
+            System.setOut(new PrintStream(expected));
+            new Parser(new Scanner(source)).parseProgram().exec(new Environment(null));
+            System.setOut(new PrintStream(actual));
+            new LazyParser(new Scanner(source).tokenize()).parseProgram().exec(new Environment(null));
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+        if (expected.size() == 0 || !Arrays.equals(expected.toByteArray(), actual.toByteArray()))
+            throw new IllegalStateException("lazy program runs differently");
+    }
+
+    /**
+     * Compiles a program that calls every procedure, parsed by Parser and by
+     * LazyParser, and checks that the generated code is the same.
+     *
+     * @param source the program
+     * @throws IOException if the program cannot be compiled
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkSameCode(String source) throws IOException, ScanErrorException
+    {
+        Program expected = new Parser(new Scanner(source)).parseProgram();
+        Program actual = new LazyParser(new Scanner(source).tokenize()).parseProgram();
+        if (!TestPrograms.compileSame(expected::compile, actual::compile))
+            throw new IllegalStateException("lazy program compiles differently");
+    }
+
+    /**
+     * Compiles a script parsed by LazyParser and checks that it compiles fewer
+     * procedures than it declares, and that every procedure called in the generated
+     * code is compiled.
+     *
+     * @param source the script
+     * @return the number of procedures compiled
+     * @throws IOException if the script cannot be compiled
+     * @throws ScanErrorException if the script cannot be scanned
+     */
+    private static int checkReachable(String source) throws IOException, ScanErrorException
+    {
+        Path asm = Files.createTempFile("lazy", ".asm");
+        new LazyParser(new Scanner(source).tokenize()).parseProgram().compile(asm.toString());
+        Set<String> labels = new HashSet<String>();
+        Set<String> calls = new HashSet<String>();
+        for (String line : Files.readAllLines(asm))
+        {
+            line = line.trim();
+            if (line.startsWith("proc") && line.endsWith(":"))
+                labels.add(line.substring(0, line.length() - 1));
+            else if (line.startsWith("jal "))
+                calls.add(line.substring(4).trim());
+        }
+        Files.delete(asm);
+        if (!labels.containsAll(calls) || labels.size() >= count(source))
+            throw new IllegalStateException("lazy program compiles the wrong procedures");
+        return labels.size();
+    }
+
+    /**
+     * This method counts the procedures declared in a program.
+     *
+     * @param source the program
+     * @return the number of PROCEDURE keywords
+     */
+    private static int count(String source)
+    {
+        int count = 0;
+        for (int i = source.indexOf("PROCEDURE"); i >= 0; i = source.indexOf("PROCEDURE", i + 1))
+            count++;
+        return count;
+    }
+
+    /**
+     * Generates a library of procedures of at least the given size. Each procedure
+     * loops, tests, and calls the procedure declared just before it, so calling one
+     * makes a short chain of others reachable.
+     *
+     * @param size the minimum number of characters in the library
+     * @return the procedure declarations of the library
+     */
+    static String library(int size)
+    {
+        StringBuilder library = new StringBuilder(size + 256);
+        for (int p = 0; library.length() < size; p++)
+        {
+            String name = "lib" + p;
+            library.append("PROCEDURE ").append(name).append("(n, k);\nVAR i, acc;\nBEGIN\n")
+                    .append("acc := k * ").append(p % 13 + 1).append(";\ni := 0;\n")
+                    .append("WHILE i < n DO BEGIN acc := acc + i * (k mod 5) - ").append(p % 7)
+                    .append("; i := i + 1; END;\n");
+            if (p % 8 != 0)
+                library.append("IF acc > 100 THEN acc := acc - lib").append(p - 1).append("(n - 1, k);\n");
+            library.append("IF acc < 0 THEN ").append(name).append(" := -acc; ELSE BEGIN ")
+                    .append(name).append(" := acc mod 1000; END;\nEND;\n");
+        }
+        return library.toString();
+    }
+
+    /**
+     * Builds a script over a library that calls some of its procedures and prints the
+     * results.
+     *
+     * @param library the procedure declarations of the library
+     * @param called how many procedures to call, spread over the library; at least
+     *               the number of procedures calls every one
+     * @return the script
+     */
+    static String script(String library, int called)
+    {
+        int procedures = count(library);
+        int calls = Math.min(called, procedures);
+        StringBuilder script = new StringBuilder(library.length() + 64 * calls).append("VAR total;\n")
+                .append(library).append("BEGIN\ntotal := 0;\n");
+        for (int i = 0; i < calls; i++)
+            script.append("total := total + lib").append((long) procedures * i / calls).append("(3, ")
+                    .append(i + 2).append(");\n");
+        return script.append("WRITELN(total);\nEND;\n.\n").toString();
+    }
+}
@@ -0,0 +1,252 @@
+package parser;
+import ast.*;
+import ast.Number;
+import java.util.Arrays;
+import scanner.TokenKind;
+
+/**
+ * NodeFactory makes the expression nodes for a Parser, and can share nodes that are
+ * the same instead of making a new one for each occurrence. A shared node evaluates
+ * and compiles the same wherever it appears, but it is not free of state: every node
+ * has the source position of one occurrence, and the Resolver binds a Variable to a
+ * slot in the frame of one procedure. So sharing is something a caller asks for when
+ * it wants a smaller AST and does not need either, and Parser, LazyParser, and
+ * ParallelParser share nothing unless they are given a factory that does. There are
+ * three levels of sharing:
+ *
+ *   NONE      every occurrence gets its own node, with its own position; the default
+ *   LEAVES    one Number per value and one Variable per symbol ID, including the 0
+ *             that a unary minus subtracts from
+ *   SUBTREES  LEAVES, and also one BinOp or Condition per operator and pair of
+ *             children, so a repeated expression such as i + 1 or x < limit is built
+ *             once; a subtree with a procedure call in it is never shared
+ *
+ * Because the children of a shared subtree are themselves shared, two subtrees are
+ * the same exactly when they have the same operator object and the same child
+ * objects, so no subtree is ever compared deeply. A procedure call is never shared,
+ * so a subtree above one is never matched either. A shared node keeps the position
+ * of its first occurrence, so an error or a debugger that reports the position of a
+ * later occurrence reports the first one instead. The Resolver gives each procedure
+ * its own copy of a shared Variable, and of the shared expressions above it, before
+ * binding it. The operators of BinOp and Condition nodes are always the
+ * canonical String constants from the Operator table.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class NodeFactory
+{
+    /**
+     * How much a NodeFactory shares.
+     */
+    public enum Sharing
+    {
+        NONE, LEAVES, SUBTREES
+    }
+
+    // instance variables
+    private final Sharing sharing;
+    // open addressing table of shared numbers, with a null node marking an empty slot
+    private int[] numberValues;
+    private Number[] numbers;
+    private int numberCount;
+    private Variable[] variables;
+    // open addressing table of shared subtrees, keyed by operator and children
+    private Operator[] subtreeOps;
+    private Expression[] subtreeLefts;
+    private Expression[] subtreeRights;
+    private Expression[] subtrees;
+    private int subtreeCount;
+
+    /**
+     * NodeFactory constructor that makes a factory with the given level of sharing.
+     *
+     * @param sharing how much to share
+     */
+    public NodeFactory(Sharing sharing)
+    {
+        this.sharing = sharing;
+        numberValues = new int[64];
+        numbers = new Number[64];
+        variables = new Variable[64];
+        subtreeOps = new Operator[64];
+        subtreeLefts = new Expression[64];
+        subtreeRights = new Expression[64];
+        subtrees = new Expression[64];
+    }
+
+    /**
+     * This method returns how much the factory shares.
+     *
+     * @return the level of sharing
+     */
+    public Sharing getSharing()
+    {
+        return sharing;
+    }
+
+    /**
+     * This method returns a Number node for a value.
+     *
+     * @param value the value of the number
+     * @param position the packed position of the number
+     * @return a new Number, or the shared one for the value
+     */
+    Number number(int value, long position)
+    {
+        if (sharing == Sharing.NONE)
+            return Parser.at(new Number(value), position);
+        int mask = numbers.length - 1;
+        int slot = hash(value) & mask;
+        while (numbers[slot] != null)
+        {
+            if (numberValues[slot] == value)
+                return numbers[slot];
+            slot = (slot + 1) & mask;
+        }
+        Number num = Parser.at(new Number(value), position);
+        numberValues[slot] = value;
+        numbers[slot] = num;
+        if (++numberCount * 2 > numbers.length)
+            growNumbers();
+        return num;
+    }
+
+    /**
+     * This method spreads the bits of a number's value over the hash code, so that
+     * nearby values do not crowd into neighbouring slots.
+     *
+     * @param value the value of a number
+     * @return the hash code
+     */
+    private static int hash(int value)
+    {
+        int h = value * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+
+    /**
+     * This method doubles the table of shared numbers.
+     */
+    private void growNumbers()
+    {
+        int[] oldValues = numberValues;
+        Number[] oldNumbers = numbers;
+        numberValues = new int[oldValues.length * 2];
+        numbers = new Number[oldNumbers.length * 2];
+        int mask = numbers.length - 1;
+        for (int i = 0; i < oldNumbers.length; i++)
+        {
+            if (oldNumbers[i] == null)
+                continue;
+            int slot = hash(oldValues[i]) & mask;
+            while (numbers[slot] != null)
+                slot = (slot + 1) & mask;
+            numberValues[slot] = oldValues[i];
+            numbers[slot] = oldNumbers[i];
+        }
+    }
+
+    /**
+     * This method returns a Variable node for a name.
+     *
+     * @param id the name of the variable
+     * @param symbol the symbol ID of the name
+     * @param position the packed position of the variable
+     * @return a new Variable, or the shared one for the symbol ID
+     */
+    Variable variable(String id, int symbol, long position)
+    {
+        if (sharing == Sharing.NONE || symbol < 0)
+            return Parser.at(new Variable(id, symbol), position);
+        if (symbol >= variables.length)
+            variables = Arrays.copyOf(variables, Math.max(symbol + 1, variables.length * 2));
+        if (variables[symbol] == null)
+            variables[symbol] = Parser.at(new Variable(id, symbol), position);
+        return variables[symbol];
+    }
+
+    /**
+     * This method returns the node for a unary minus, which is 0 minus the factor.
+     *
+     * @param factor the factor being negated
+     * @param position the packed position of the minus sign
+     * @return the node for the negation
+     */
+    Expression negate(Expression factor, long position)
+    {
+        return binary(Operator.of(TokenKind.MINUS), number(0, position), factor, position);
+    }
+
+    /**
+     * This method returns the node for a binary operator applied to two operands.
+     *
+     * @param op the operator
+     * @param left the left operand
+     * @param right the right operand
+     * @param position the packed position of the operator
+     * @return a new node, or the shared one for the operator and operands
+     */
+    Expression binary(Operator op, Expression left, Expression right, long position)
+    {
+        if (sharing != Sharing.SUBTREES || left instanceof ProcedureCall || right instanceof ProcedureCall)
+            return Parser.at(op.build(left, right), position);
+        int mask = subtrees.length - 1;
+        int slot = hash(op, left, right) & mask;
+        while (subtrees[slot] != null)
+        {
+            if (subtreeOps[slot] == op && subtreeLefts[slot] == left && subtreeRights[slot] == right)
+                return subtrees[slot];
+            slot = (slot + 1) & mask;
+        }
+        Expression node = Parser.at(op.build(left, right), position);
+        subtreeOps[slot] = op;
+        subtreeLefts[slot] = left;
+        subtreeRights[slot] = right;
+        subtrees[slot] = node;
+        if (++subtreeCount * 2 > subtrees.length)
+            growSubtrees();
+        return node;
+    }
+
+    /**
+     * This method hashes the identities of an operator and its children.
+     *
+     * @param op the operator
+     * @param left the left operand
+     * @param right the right operand
+     * @return the hash code
+     */
+    private static int hash(Operator op, Expression left, Expression right)
+    {
+        return hash((op.getCode() * 31 + System.identityHashCode(left)) * 31 + System.identityHashCode(right));
+    }
+
+    /**
+     * This method doubles the table of shared subtrees.
+     */
+    private void growSubtrees()
+    {
+        Operator[] oldOps = subtreeOps;
+        Expression[] oldLefts = subtreeLefts;
+        Expression[] oldRights = subtreeRights;
+        Expression[] oldSubtrees = subtrees;
+        int length = oldSubtrees.length * 2;
+        subtreeOps = new Operator[length];
+        subtreeLefts = new Expression[length];
+        subtreeRights = new Expression[length];
+        subtrees = new Expression[length];
+        for (int i = 0; i < oldSubtrees.length; i++)
+        {
+            if (oldSubtrees[i] == null)
+                continue;
+            int slot = hash(oldOps[i], oldLefts[i], oldRights[i]) & (length - 1);
+            while (subtrees[slot] != null)
+                slot = (slot + 1) & (length - 1);
+            subtreeOps[slot] = oldOps[i];
+            subtreeLefts[slot] = oldLefts[i];
+            subtreeRights[slot] = oldRights[i];
+            subtrees[slot] = oldSubtrees[i];
+        }
+    }
+}
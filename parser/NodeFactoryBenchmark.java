@@ -0,0 +1,149 @@
+package parser;
+import ast.Program;
+import benchmark.TestPrograms;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Compares the three levels of NodeFactory sharing on a large generated program in
+ * which, as in most generated code, the same names, constants, and small expressions
+ * repeat throughout. For each level it reports how much heap the finished AST keeps
+ * alive, how many bytes parsing allocates in all, and the fastest parse time. Before
+ * measuring, it checks that every level compiles the parser test programs and the
+ * generated program to the same code.
+ *
+ * Usage: java parser.NodeFactoryBenchmark [test directory] [size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class NodeFactoryBenchmark
+{
+    private static final int ROUNDS = 5;
+    // keeps the AST being measured alive
+    private static Object kept;
+
+    /**
+     * Main benchmark method that checks the levels agree and prints their memory use
+     * and parse times.
+     *
+     * @param args the parser test directory and the size of the generated program in megabytes
+     * @throws IOException if a test program cannot be read or compiled
+     * @throws ScanErrorException if a program cannot be scanned
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException
+    {
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        String source = generate(megabytes << 20);
+        for (Map.Entry<String, String> file : TestPrograms.load(args).entrySet())
+            checkSameCode(file.getValue(), file.getKey());
+        checkSameCode(source, "the generated program");
+
+        System.out.println("program: " + source.length() + " chars");
+        System.out.printf("%-9s %12s %14s %10s%n", "sharing", "retained MB", "allocated MB", "parse ms");
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (NodeFactory.Sharing sharing : NodeFactory.Sharing.values())
+        {
+            kept = null;
+            long before = usedHeap();
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            kept = parse(source, sharing);
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            long retained = usedHeap() - before;
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < ROUNDS; i++)
+            {
+                kept = null;
+                long start = System.nanoTime();
+                kept = parse(source, sharing);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%-9s %12.1f %14.1f %10.1f%n", sharing.name().toLowerCase(),
+                    retained / (double) (1 << 20), allocated / (double) (1 << 20), best / 1e6);
+        }
+    }
+
+    /**
+     * This method parses a program with the given level of sharing.
+     *
+     * @param source the program
+     * @param sharing how much the parser's NodeFactory shares
+     * @return the Program
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static Object parse(String source, NodeFactory.Sharing sharing) throws ScanErrorException
+    {
+        return new Parser(new Scanner(source), new NodeFactory(sharing)).parseProgram();
+    }
+
+    /**
+     * This method returns the used heap after collecting garbage.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Compiles a program with every level of sharing and checks that the generated
+     * code is the same.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws IOException if the program cannot be compiled
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkSameCode(String source, String name) throws IOException, ScanErrorException
+    {
+        Program expected = new Parser(new Scanner(source), new NodeFactory(NodeFactory.Sharing.NONE))
+                .parseProgram();
+        for (NodeFactory.Sharing sharing : NodeFactory.Sharing.values())
+        {
+            Program actual = new Parser(new Scanner(source), new NodeFactory(sharing)).parseProgram();
+            if (!TestPrograms.compileSame(expected::compile, actual::compile))
+                throw new IllegalStateException(sharing + " sharing compiles differently for " + name);
+        }
+    }
+
+    /**
+     * Generates a program of at least the given size in the style of generated code:
+     * a procedure for each of a few dozen operations, called from a block of
+     * assignments, conditionals, and loops over a few hundred variables, so that the
+     * same names, constants, and small expressions appear over and over.
+     *
+     * @param size the minimum number of characters in the program
+     * @return the program
+     */
+    private static String generate(int size)
+    {
+        StringBuilder program = new StringBuilder(size + 64).append("VAR i, total;\n");
+        for (int p = 0; p < 32; p++)
+        {
+            program.append("PROCEDURE op").append(p).append("(a, b);\nBEGIN\n")
+                    .append("IF a > b THEN op").append(p).append(" := a - b * ").append(p % 5 + 1)
+                    .append("; ELSE op").append(p).append(" := -a + b mod 8;\nEND;\n");
+        }
+        program.append("BEGIN\n");
+        for (int i = 0; program.length() < size; i++)
+        {
+            String x = "x" + i % 251;
+            String y = "count" + i % 127;
+            program.append(x).append(" := (").append(y).append(" + ").append(i % 16)
+                    .append(") * 3 - ").append(x).append(" mod 7;\n");
+            program.append("IF ").append(x).append(" >= ").append(y).append(" THEN ")
+                    .append(y).append(" := ").append(y).append(" / 2; ELSE WRITELN(").append(x).append(");\n");
+            program.append("i := 0;\nWHILE i < 4 DO BEGIN total := total + op").append(i % 32).append("(i, ")
+                    .append(x).append(" - 1); i := i + 1; END;\n");
+        }
+        return program.append("WRITELN(total);\nEND;\n.\n").toString();
+    }
+}
@@ -0,0 +1,146 @@
+package parser;
+import ast.BinOp;
+import ast.Condition;
+import ast.Expression;
+import ast.FlatAst;
+import java.util.function.BinaryOperator;
+import scanner.TokenKind;
+
+/**
+ * Operator describes a binary operator for the Parser: how tightly it binds, which
+ * way it groups, and how to build the AST node for it. All the operators are listed
+ * in one table, looked up by the TokenKind of the current token, so adding an
+ * operator or changing its precedence only touches the table.
+ *
+ * Relational operators bind loosest, then + and -, then *, /, and mod, so a
+ * comparison is an ordinary expression whose value is 1 or 0. Every operator
+ * groups to the left. Each operator also has its code in a FlatAst, so that the
+ * FlatParser can use the same table. That ties the table to ast.FlatAst: an operator
+ * added here needs a code there, which FlatAst must run and compile, even if only the
+ * Parser is ever used.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+final class Operator
+{
+    private static final Operator[] TABLE = new Operator[TokenKind.values().length];
+
+    static
+    {
+        define(TokenKind.EQUAL, 1, false, FlatAst.EQUAL,
+                (left, right) -> new Condition("=", left, right));
+        define(TokenKind.NOT_EQUAL, 1, false, FlatAst.NOT_EQUAL,
+                (left, right) -> new Condition("<>", left, right));
+        define(TokenKind.LESS, 1, false, FlatAst.LESS,
+                (left, right) -> new Condition("<", left, right));
+        define(TokenKind.GREATER, 1, false, FlatAst.GREATER,
+                (left, right) -> new Condition(">", left, right));
+        define(TokenKind.LESS_EQUAL, 1, false, FlatAst.LESS_EQUAL,
+                (left, right) -> new Condition("<=", left, right));
+        define(TokenKind.GREATER_EQUAL, 1, false, FlatAst.GREATER_EQUAL,
+                (left, right) -> new Condition(">=", left, right));
+        define(TokenKind.PLUS, 2, false, FlatAst.ADD,
+                (left, right) -> new BinOp("+", left, right));
+        define(TokenKind.MINUS, 2, false, FlatAst.SUBTRACT,
+                (left, right) -> new BinOp("-", left, right));
+        define(TokenKind.TIMES, 3, false, FlatAst.MULTIPLY,
+                (left, right) -> new BinOp("*", left, right));
+        define(TokenKind.DIVIDE, 3, false, FlatAst.DIVIDE,
+                (left, right) -> new BinOp("/", left, right));
+        define(TokenKind.MOD, 3, false, FlatAst.MODULO,
+                (left, right) -> new BinOp("%", left, right));
+    }
+
+    // instance variables
+    private final int precedence;
+    private final boolean rightAssociative;
+    private final int code;
+    private final BinaryOperator<Expression> builder;
+
+    /**
+     * Operator constructor that creates an entry of the table.
+     *
+     * @param precedence how tightly the operator binds; higher binds tighter
+     * @param rightAssociative true if a chain of the operator groups to the right
+     * @param code the operator's code in a FlatAst
+     * @param builder the function that builds the node from the left and right operands
+     */
+    private Operator(int precedence, boolean rightAssociative, int code, BinaryOperator<Expression> builder)
+    {
+        this.precedence = precedence;
+        this.rightAssociative = rightAssociative;
+        this.code = code;
+        this.builder = builder;
+    }
+
+    /**
+     * This method adds an operator to the table.
+     *
+     * @param kind the kind of the operator's token
+     * @param precedence how tightly the operator binds; higher binds tighter
+     * @param rightAssociative true if a chain of the operator groups to the right
+     * @param code the operator's code in a FlatAst
+     * @param builder the function that builds the node from the left and right operands
+     */
+    private static void define(TokenKind kind, int precedence, boolean rightAssociative, int code,
+            BinaryOperator<Expression> builder)
+    {
+        TABLE[kind.ordinal()] = new Operator(precedence, rightAssociative, code, builder);
+    }
+
+    /**
+     * This method looks up the operator for a kind of token.
+     *
+     * @param kind the kind of the current token
+     * @return the operator, or null if the token is not a binary operator
+     */
+    static Operator of(TokenKind kind)
+    {
+        return TABLE[kind.ordinal()];
+    }
+
+    /**
+     * This method returns how tightly the operator binds.
+     *
+     * @return the precedence; higher binds tighter
+     */
+    int getPrecedence()
+    {
+        return precedence;
+    }
+
+    /**
+     * This method returns the lowest precedence an operator in the right operand may
+     * have without ending it: the same precedence for a right associative operator,
+     * and one higher for a left associative one.
+     *
+     * @return the lowest precedence allowed in the right operand
+     */
+    int getRightPrecedence()
+    {
+        return rightAssociative ? precedence : precedence + 1;
+    }
+
+    /**
+     * This method returns the operator's code in a FlatAst.
+     *
+     * @return the code, such as FlatAst.ADD
+     */
+    int getCode()
+    {
+        return code;
+    }
+
+    /**
+     * This method builds the node for the operator applied to two operands.
+     *
+     * @param left the left operand
+     * @param right the right operand
+     * @return the new node
+     */
+    Expression build(Expression left, Expression right)
+    {
+        return builder.apply(left, right);
+    }
+}
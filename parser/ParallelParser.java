@@ -0,0 +1,239 @@
+package parser;
+import ast.Program;
+import ast.ProcedureDeclaration;
+import ast.Statement;
+import scanner.ScanErrorException;
+import scanner.TokenArray;
+import scanner.TokenKind;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelParser parses a scanned program whose PROCEDURE declarations are parsed on
+ * several threads at once. It parses the global variables, then finds every PROCEDURE
+ * token in the TokenArray and splits the declarations into chunks of consecutive
+ * procedures with about the same number of tokens. Each chunk is parsed on a
+ * ForkJoinPool by its own Parser, reading the tokens of the chunk through a lexer
+ * that stops at the PROCEDURE that starts the next chunk, and the last chunk goes on
+ * to parse the main statement. The declarations are then put together in source
+ * order, so the Program is the same as if a single Parser had read the whole stream.
+ *
+ * A chunk cannot always be parsed on its own. The token at a boundary may not really
+ * start a declaration, since a Parser takes any token where it expects a name, and a
+ * chunk with an error in it must report the error exactly where a single Parser
+ * would. A chunk that hits an error, runs past its boundary, or needs a symbol ID
+ * that is not in the symbol table yet is given up on, and everything from the start
+ * of the first such chunk is parsed again sequentially on the calling thread. Errors
+ * are therefore always the ones that a sequential parse of the stream raises, no
+ * matter how the work was scheduled, and the symbol table is never written to by
+ * more than one thread.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ParallelParser
+{
+    // programs with fewer tokens than this per chunk are not worth splitting
+    private static final int MIN_CHUNK = 1 << 14;
+    private static final int NO_FENCE = TokenLexer.NO_FENCE;
+
+    // instance variables
+    private ForkJoinPool pool;
+    private NodeFactory.Sharing sharing;
+    private int minChunk;
+
+    /**
+     * ParallelParser constructor that parses chunks on the given pool, giving every
+     * occurrence its own node as Parser does by default.
+     *
+     * @param pool the pool to parse chunks on
+     */
+    public ParallelParser(ForkJoinPool pool)
+    {
+        this(pool, NodeFactory.Sharing.NONE, MIN_CHUNK);
+    }
+
+    /**
+     * ParallelParser constructor that parses chunks on the given pool with the given
+     * level of sharing and the given smallest chunk. Every chunk has its own
+     * NodeFactory, so nodes are only shared within a chunk, and a shared node has the
+     * position of its first occurrence in its chunk.
+     *
+     * @param pool the pool to parse chunks on
+     * @param sharing how much each chunk's NodeFactory shares
+     * @param minChunk the fewest tokens worth parsing as a chunk of their own
+     */
+    ParallelParser(ForkJoinPool pool, NodeFactory.Sharing sharing, int minChunk)
+    {
+        this.pool = pool;
+        this.sharing = sharing;
+        this.minChunk = minChunk;
+    }
+
+    /**
+     * This method parses a whole program from its tokens.
+     *
+     * @param tokens the tokens of the program, which must not change while it is parsed
+     * @return the Program
+     * @throws ScanErrorException never, since the tokens have already been scanned
+     */
+    public Program parseProgram(TokenArray tokens) throws ScanErrorException
+    {
+        TokenLexer head = new TokenLexer(tokens, 0, NO_FENCE, false);
+        Parser parser = new Parser(head, new NodeFactory(sharing));
+        List<String> vars = parser.parseGlobals();
+        int[] bounds = split(tokens, head.getIndex(),
+                Math.min(pool.getParallelism() * 4, (tokens.size() - head.getIndex()) / minChunk));
+        int chunks = bounds.length - 1;
+        List<ProcedureDeclaration> procs = new ArrayList<ProcedureDeclaration>();
+        if (chunks <= 1)
+            return new Program(vars, procs, parseRest(parser, procs));
+
+        List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+        for (int i = 0; i < chunks; i++)
+        {
+            int start = bounds[i];
+            int fence = i + 1 < chunks ? bounds[i + 1] : NO_FENCE;
+            tasks.add(() -> Chunk.parse(tokens, start, fence, sharing));
+        }
+        List<Future<Chunk>> results = pool.invokeAll(tasks);
+        for (int i = 0; i < chunks; i++)
+        {
+            Chunk chunk = join(results.get(i));
+            if (chunk.failed)
+            {
+                TokenLexer rest = new TokenLexer(tokens, bounds[i], NO_FENCE, false);
+                return new Program(vars, procs, parseRest(new Parser(rest, new NodeFactory(sharing)), procs));
+            }
+            procs.addAll(chunk.procedures);
+            if (i + 1 == chunks)
+                return new Program(vars, procs, chunk.main);
+        }
+        throw new IllegalStateException("no chunks were parsed");
+    }
+
+    /**
+     * This method parses a whole program from its tokens on the calling thread, in the
+     * same way as parseProgram when the program is too small to split.
+     *
+     * @param tokens the tokens of the program
+     * @return the Program
+     * @throws ScanErrorException never, since the tokens have already been scanned
+     */
+    public Program parseSequentially(TokenArray tokens) throws ScanErrorException
+    {
+        return new Parser(new TokenLexer(tokens, 0, NO_FENCE, false), new NodeFactory(sharing)).parseProgram();
+    }
+
+    /**
+     * This method parses the procedures and main statement that a parser is at.
+     *
+     * @param parser the parser, at the first procedure or the main statement
+     * @param procs the list to add the procedures to
+     * @return the main statement
+     * @throws ScanErrorException never, since the tokens have already been scanned
+     */
+    private static Statement parseRest(Parser parser, List<ProcedureDeclaration> procs)
+            throws ScanErrorException
+    {
+        while (parser.cur == TokenKind.PROCEDURE)
+            procs.add(parser.parseProcedure());
+        return parser.parseStatement();
+    }
+
+    /**
+     * This method picks the boundaries of the chunks, each at the first PROCEDURE
+     * token at or past an even share of the tokens after the global variables.
+     *
+     * @param tokens the tokens of the program
+     * @param start the index of the token after the global variables
+     * @param chunks the number of chunks wanted
+     * @return the indexes where chunks start, followed by the number of tokens
+     */
+    private static int[] split(TokenArray tokens, int start, int chunks)
+    {
+        List<Integer> bounds = new ArrayList<Integer>();
+        bounds.add(start);
+        if (start < tokens.size() && tokens.getKind(start) == TokenKind.PROCEDURE)
+        {
+            int at = start;
+            for (int i = 1; i < chunks; i++)
+            {
+                at = Math.max(at + 1, start + (int) ((long) (tokens.size() - start) * i / chunks));
+                while (at < tokens.size() && tokens.getKind(at) != TokenKind.PROCEDURE)
+                    at++;
+                if (at < tokens.size())
+                    bounds.add(at);
+            }
+        }
+        bounds.add(tokens.size());
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+        return result;
+    }
+
+    /**
+     * This method waits for a chunk to be parsed.
+     *
+     * @param result the pending chunk
+     * @return the parsed chunk
+     */
+    private static Chunk join(Future<Chunk> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Chunk is the result of parsing one chunk of procedures on its own.
+     */
+    private static class Chunk
+    {
+        private List<ProcedureDeclaration> procedures = new ArrayList<ProcedureDeclaration>();
+        private Statement main;
+        private boolean failed;
+
+        /**
+         * This method parses the procedures of one chunk, and the main statement too
+         * if it is the last chunk. Anything that goes wrong only marks the chunk as
+         * failed, since the chunk may not have started where a declaration starts.
+         *
+         * @param tokens the tokens of the program
+         * @param start the index of the PROCEDURE that starts the chunk
+         * @param fence the index of the PROCEDURE that starts the next chunk, or
+         *              NO_FENCE for the last chunk
+         * @param sharing how much the chunk's NodeFactory shares
+         * @return the parsed chunk
+         */
+        static Chunk parse(TokenArray tokens, int start, int fence, NodeFactory.Sharing sharing)
+        {
+            Chunk chunk = new Chunk();
+            try
+            {
+                TokenLexer lexer = new TokenLexer(tokens, start, fence, true);
+                Parser parser = new Parser(lexer, new NodeFactory(sharing));
+                while (parser.cur == TokenKind.PROCEDURE && lexer.getIndex() != fence)
+                    chunk.procedures.add(parser.parseProcedure());
+                if (fence == NO_FENCE)
+                    chunk.main = parser.parseStatement();
+                else
+                    chunk.failed = lexer.getIndex() != fence;
+            }
+            catch (Exception | StackOverflowError e)
+            {
+                chunk.failed = true;
+            }
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package parser;
+import ast.Program;
+import benchmark.TestPrograms;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import scanner.TokenArray;
+import java.io.*;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how ParallelParser scales with the number of threads on a large generated
+ * program that is almost all PROCEDURE declarations, compared to a single Parser
+ * reading the same tokens. Before measuring, it checks that ParallelParser, split
+ * into chunks as small as one procedure, builds the same AST as a single Parser on
+ * the parser test programs and on thousands of small generated programs, each with
+ * one character changed at random so that most of them have an error somewhere, and
+ * that it raises exactly the same error whenever the single Parser does. These checks
+ * share no nodes, so that every position can be compared; with sharing, a shared node
+ * has the position of its first occurrence in its own chunk. The large program is
+ * checked by compiling it from every parallel parse to the same code as Parser with a
+ * Scanner compiles it to.
+ *
+ * Usage: java parser.ParallelParserBenchmark [test directory] [size in megabytes] [most threads]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ParallelParserBenchmark
+{
+    private static final int ROUNDS = 5;
+    private static final int MUTANTS = 3000;
+    // characters that a mutation may put in place of another
+    private static final String MUTATIONS = " ;,)+-:=x7";
+
+    /**
+     * Main benchmark method that checks the parallel parser and prints the parse time
+     * and speedup for each thread count from 1 up to the number of processors.
+     *
+     * @param args the parser test directory, the size of the generated program in
+     *             megabytes, and the most threads to try
+     * @throws Exception if a program cannot be read, parsed, or compiled
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int most = args.length > 2 ? Integer.parseInt(args[2]) : cores;
+
+        ForkJoinPool checking = new ForkJoinPool(4);
+        ParallelParser split = new ParallelParser(checking, NodeFactory.Sharing.NONE, 1);
+        Map<String, String> files = TestPrograms.load(args);
+        for (Map.Entry<String, String> file : files.entrySet())
+        {
+            checkSame(split, file.getValue(), file.getKey());
+            checkSameCode(split.parseProgram(new Scanner(file.getValue()).tokenize()), file.getValue());
+        }
+        Random random = new Random(19);
+        int errors = 0;
+        for (int i = 0; i < MUTANTS; i++)
+            if (checkSame(split, mutate(generate(2000, random), random), "mutated program " + i) != null)
+                errors++;
+        checking.shutdown();
+        System.out.println("same result on " + files.size() + " test programs and " + MUTANTS
+                + " mutated programs, " + errors + " of which raised the same error");
+
+        String source = generate(megabytes << 20, new Random(23));
+        TokenArray tokens = new Scanner(source).tokenize();
+        ParallelParser sequentialParser = new ParallelParser(ForkJoinPool.commonPool());
+        Program expected = sequentialParser.parseSequentially(tokens);
+        checkSameCode(expected, source);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            long start = System.nanoTime();
+            expected = sequentialParser.parseSequentially(tokens);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double sequential = best / 1e6;
+        System.out.println("program: " + source.length() + " chars, " + tokens.size() + " tokens, "
+                + cores + " processors");
+        System.out.printf("sequential: %8.1f ms%n", sequential);
+
+        for (int threads = 1; threads <= most; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelParser parser = new ParallelParser(pool);
+            best = Long.MAX_VALUE;
+            for (int i = 0; i < ROUNDS; i++)
+            {
+                long start = System.nanoTime();
+                Program program = parser.parseProgram(tokens);
+                best = Math.min(best, System.nanoTime() - start);
+                if (i == 0)
+                    checkSameCode(program, source);
+            }
+            pool.shutdown();
+            double millis = best / 1e6;
+            System.out.printf("%2d threads: %8.1f ms, speedup %.2fx%n", threads, millis, sequential / millis);
+            if (threads < most && threads * 2 > most)
+                threads = most / 2;
+        }
+    }
+
+    /**
+     * Parses a program with a single Parser and with ParallelParser and checks that
+     * both build the same AST, or both raise the same error.
+     *
+     * @param parser the parallel parser
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @return the error both raised, or null if both parsed the program
+     * @throws Exception if the program cannot be scanned or the ASTs cannot be compared
+     */
+    private static String checkSame(ParallelParser parser, String source, String name) throws Exception
+    {
+        TokenArray tokens;
+        try
+        {
+            tokens = new Scanner(source).tokenize();
+        }
+        catch (ScanErrorException e)
+        {
+            return e.getMessage();
+        }
+        Object expected = outcome(() -> parser.parseSequentially(tokens));
+        Object actual = outcome(() -> parser.parseProgram(tokens));
+        if (expected instanceof String || actual instanceof String)
+        {
+            if (!expected.equals(actual))
+                throw new IllegalStateException("parsers disagree on " + name + ": " + expected + " and " + actual);
+            return (String) expected;
+        }
+        TestPrograms.checkSameAst(expected, actual, "parsers disagree on " + name);
+        return null;
+    }
+
+    /**
+     * This method runs a parse and returns what came of it.
+     *
+     * @param parse the parse to run
+     * @return the Program, or the class and message of the exception it raised
+     */
+    private static Object outcome(Callable<Program> parse)
+    {
+        try
+        {
+            return parse.call();
+        }
+        catch (Exception e)
+        {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * Compiles a program parsed from tokens and the same program parsed by Parser
+     * with a Scanner, and checks that the generated code is the same.
+     *
+     * @param program the program parsed from tokens
+     * @param source the program
+     * @throws IOException if the program cannot be compiled
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkSameCode(Program program, String source) throws IOException, ScanErrorException
+    {
+        Program expected = new Parser(new Scanner(source)).parseProgram();
+        if (!TestPrograms.compileSame(expected::compile, program::compile))
+            throw new IllegalStateException("parsing from tokens compiles differently");
+    }
+
+    /**
+     * Changes one character of a program to another at random, leaving alone the
+     * characters of and next to every END so that no block loses its END. A block
+     * that reaches the end of file makes a Parser loop forever, so the program also
+     * ends with spare ENDs for blocks whose END a mutation made into an operand.
+     *
+     * @param source the program
+     * @param random the source of the choices
+     * @return the changed program
+     */
+    private static String mutate(String source, Random random)
+    {
+        StringBuilder program = new StringBuilder(source.substring(0, source.lastIndexOf('.')));
+        int at = random.nextInt(program.length());
+        for (int end = source.indexOf("END", Math.max(at - 3, 0)); end >= 0 && end <= at + 1;
+                end = source.indexOf("END", Math.max(at - 3, 0)))
+            at = random.nextInt(program.length());
+        program.setCharAt(at, MUTATIONS.charAt(random.nextInt(MUTATIONS.length())));
+        return program.append("END; ".repeat(8)).append(".").toString();
+    }
+
+    /**
+     * Generates a program of at least the given size in which nearly all the source
+     * is PROCEDURE declarations: procedures with three parameters and two locals whose
+     * bodies assign, test, loop over, print, and call each other, and a short main
+     * block that calls some of them.
+     *
+     * @param size the minimum number of characters in the program
+     * @param random the source of the choices
+     * @return the program
+     */
+    static String generate(int size, Random random)
+    {
+        StringBuilder program = new StringBuilder(size + 256).append("VAR total, limit;\n");
+        int procs = 0;
+        while (program.length() < size)
+        {
+            String name = "p" + procs;
+            program.append("PROCEDURE ").append(name).append("(a, b, e);\nVAR c, d;\nBEGIN\n");
+            program.append("c := a * ").append(random.nextInt(100)).append(" + (b mod 7) - ")
+                    .append(random.nextInt(10)).append(" * e;\n");
+            program.append("d := 0;\nWHILE d < ").append(1 + random.nextInt(5))
+                    .append(" DO BEGIN c := c + d * 2; d := d + 1; END;\n");
+            if (procs > 0)
+                program.append("IF c > ").append(random.nextInt(500)).append(" THEN c := c - p")
+                        .append(random.nextInt(procs)).append("(c / 2, b, 1);\n");
+            program.append("IF c >= total THEN ").append(name).append(" := c; ELSE BEGIN WRITELN(c); ")
+                    .append(name).append(" := -c; END;\n");
+            program.append("END;\n");
+            procs++;
+        }
+        program.append("BEGIN\nlimit := 10;\ntotal := 0;\n");
+        for (int i = 0; i < 8; i++)
+            program.append("total := total + p").append(random.nextInt(procs)).append("(limit, 2, 3);\n");
+        return program.append("WRITELN(total);\nEND;\n.\n").toString();
+    }
+}
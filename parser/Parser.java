@@ -1,6 +1,9 @@
 package parser;
+import scanner.Diagnostics;
 import scanner.ScanErrorException;
-import scanner.Scanner;
+import scanner.Lexer;
+import scanner.SourcePosition;
+import scanner.TokenKind;
 import ast.*;
 import ast.Number;
 import java.util.*;
@@ -9,7 +12,28 @@ import java.util.*;
  * Parser is a simple parser that takes an input file of text, uses the scanner class to
  * tokenize it, and parses simple pascal code, supporting basic operations. Parses a program,
  * which contains procedure declarations followed by a single main statement to be executed.
+ * The parser dispatches on the TokenKind of each token, so checking for a keyword or
+ * operator is a single comparison; the text of a token is only read for identifiers and
+ * numbers. Every name in the AST is tagged with the symbol ID the scanner gave it, so
+ * later phases can look names up by ID. Every statement and expression is tagged with
+ * the packed source position of its first token, or of its operator for a binary
+ * operation, so that it can be traced back to a line.
+ * Expression nodes are made by a NodeFactory, which by default gives every occurrence
+ * its own node; a factory that shares numbers, variables, or subtrees can be passed in.
  *
+ * By default the first syntax error stops parsing with an IllegalArgumentException.
+ * After setDiagnostics is called, parseProgram instead records each error, with its
+ * position, in a Diagnostics object and recovers in panic mode: it unwinds to the
+ * nearest statement of a block, skips tokens up to a semicolon, which it eats, or to
+ * an END, PROCEDURE, or the start of a statement, and carries on from there. A block
+ * keeps the statements that parsed and ends at a PROCEDURE or the end of the file if
+ * its END is missing. An error in a VAR or PROCEDURE heading skips to the next
+ * PROCEDURE, or to the main statement, passing over the procedure's block whole. No
+ * error is recorded from the first one until a token is next eaten as expected, so
+ * one mistake does not bring a cascade of others. Parsing stops, returning the
+ * program parsed so far, once the Diagnostics is full. The parser unwinds with one
+ * ScanErrorException made once without a stack trace, so an error costs only its
+ * message.
  *
  * @author Juliana Li
  * @version October 2, 2023
@@ -17,51 +41,145 @@ import java.util.*;
 public class Parser
 {
     // instance variables
-    private Scanner scan;
-    private String cur;
+    protected Lexer scan;
+    protected TokenKind cur;
+    protected NodeFactory nodes;
+    protected Diagnostics diagnostics;
+    // true from a syntax error until a token is next eaten as expected
+    private boolean recovering;
+
+    // thrown to unwind to the nearest place the parser can recover at
+    private static final ScanErrorException SYNTAX_ERROR =
+            new ScanErrorException("Syntax error, recorded in the diagnostics", -1, false);
 
     /**
      * Parser constructor for construction of a Parser object. Takes in
-     * a scanner object to tokenize the text file and sets the current token
-     * to the first token in the scanner. Throws an error if scanning fails.
+     * a lexer, such as a Scanner, to tokenize the text file and sets the current token
+     * to the first token in the lexer. Throws an error if scanning fails. Every
+     * occurrence gets its own node, as by a NodeFactory with NONE sharing.
+     *
+     * @param s Lexer object to tokenize text file
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    public Parser(Lexer s) throws ScanErrorException
+    {
+        this(s, new NodeFactory(NodeFactory.Sharing.NONE));
+    }
+
+    /**
+     * Parser constructor that makes its expression nodes with the given factory, which
+     * decides how much of the AST is shared.
      *
-     * @param s Scanner object to tokenize text file
+     * @param s Lexer object to tokenize text file
+     * @param nodes the factory that makes the expression nodes
      * @throws ScanErrorException when there is an error in tokenization
      */
-    public Parser(Scanner s) throws ScanErrorException
+    public Parser(Lexer s, NodeFactory nodes) throws ScanErrorException
     {
         scan = s;
-        cur = scan.nextToken();
+        this.nodes = nodes;
+        cur = scan.nextTokenKind();
+    }
+
+    /**
+     * This method makes the parser record syntax errors in the given Diagnostics
+     * object and recover from them, instead of throwing at the first one. Passing
+     * null goes back to throwing. The Diagnostics may be shared with the lexer, so
+     * that scanning and syntax errors are listed together and count toward one
+     * limit. Only parseProgram recovers from every error; a parse started another
+     * way raises a ScanErrorException, after recording the error, when the error is
+     * not inside a block.
+     *
+     * @param diagnostics the collector for syntax errors, or null
+     */
+    public void setDiagnostics(Diagnostics diagnostics)
+    {
+        this.diagnostics = diagnostics;
     }
 
     /**
      * Compares the expected argument to the current token and then advances to
-     * the next token if they are equal. Throws a ScanErrorException if current
-     * token does not match expected.
+     * the next token if they are equal. Throws an IllegalArgumentException if current
+     * token does not match expected, naming the line and column of the token found,
+     * or records the error and unwinds if the parser has Diagnostics.
      *
-     * @param expected the expected token
-     * @throws ScanErrorException if current is not the same as expected
+     * @param expected the expected kind of token
+     * @throws ScanErrorException if current is not the same as expected, and the
+     *         error has been recorded
      */
-    private void eat(String expected) throws ScanErrorException
+    protected void eat(TokenKind expected) throws ScanErrorException
     {
-        if (expected.equals(cur))
-            cur = scan.nextToken();
+        if (expected == cur)
+        {
+            cur = scan.nextTokenKind();
+            recovering = false;
+        }
         else
-            throw new IllegalArgumentException("Illegal token - expected " + expected
-                    + " and found " + cur + ".");
+            syntaxError(expected);
     }
 
     /**
-     * Parses a single integer number from a numeric token. Eats the number
-     * and then uses parseInt to convert it from string to integer. Returns
-     * a number object.
+     * This method raises an unexpected token as an IllegalArgumentException, or
+     * records it in the Diagnostics, unless it comes before a token has been eaten
+     * since the last error, and throws the ScanErrorException that unwinds to the
+     * nearest place the parser can recover at.
+     *
+     * @param expected the expected kind of token
+     * @throws ScanErrorException always, if the parser has Diagnostics
+     */
+    private void syntaxError(TokenKind expected) throws ScanErrorException
+    {
+        long position = scan.getTokenPosition();
+        if (diagnostics == null)
+            throw new IllegalArgumentException(describe(expected, position));
+        if (!recovering)
+        {
+            recovering = true;
+            if (diagnostics.isFull())
+                diagnostics.suppress();
+            else
+                diagnostics.report(describe(expected, position), SourcePosition.getOffset(position));
+        }
+        throw SYNTAX_ERROR;
+    }
+
+    /**
+     * This method describes an unexpected token.
+     *
+     * @param expected the expected kind of token
+     * @param position the packed position of the token found
+     * @return the message for the error
+     */
+    private String describe(TokenKind expected, long position)
+    {
+        return "Illegal token - expected " + expected.getSpelling() + " and found " + scan.getLexeme() + " at "
+                + SourcePosition.toString(position) + ".";
+    }
+
+    /**
+     * This method lets a parse recover from an exception, by returning, only if it
+     * is a syntax error that has been recorded and the Diagnostics has room for more.
+     *
+     * @param e the exception
+     * @throws ScanErrorException the exception, if it cannot be recovered from
+     */
+    private void recover(ScanErrorException e) throws ScanErrorException
+    {
+        if (e != SYNTAX_ERROR || diagnostics.isFull())
+            throw e;
+    }
+
+    /**
+     * Parses a single integer number from a numeric token. The scanner has already
+     * decoded the value of the number, so it is read before the number is eaten.
+     * Returns a number object.
      *
      * @return a number representing the number parsed
      * @throws ScanErrorException when there is an error in tokenization
      */
     private Number parseNumber() throws ScanErrorException
     {
-        Number num = new Number(Integer.parseInt(cur));
+        Number num = nodes.number(scan.getNumberValue(), scan.getTokenPosition());
         eat(cur);
         return num;
     }
@@ -79,79 +197,175 @@ public class Parser
      */
     public Statement parseStatement() throws ScanErrorException
     {
+        long position = scan.getTokenPosition();
         Expression num;
-        if (cur.equals("WRITELN"))
+        if (cur == TokenKind.WRITELN)
         {
-            eat("WRITELN");
-            eat("(");
+            eat(TokenKind.WRITELN);
+            eat(TokenKind.LPAREN);
             num = parseExpression();
-            eat(")");
-            eat(";");
-            return new Writeln(num);
+            eat(TokenKind.RPAREN);
+            eat(TokenKind.SEMICOLON);
+            return at(new Writeln(num), position);
         }
-        if (cur.equals("READLN"))
+        if (cur == TokenKind.READLN)
         {
-            eat("READLN");
-            eat("(");
-            String var = cur;
+            eat(TokenKind.READLN);
+            eat(TokenKind.LPAREN);
+            String var = scan.getLexeme();
+            int symbol = scan.getSymbol();
             eat(cur);
-            eat(")");
-            eat(";");
-            return new Readln(var);
+            eat(TokenKind.RPAREN);
+            eat(TokenKind.SEMICOLON);
+            return at(new Readln(var, symbol), position);
         }
-        if (cur.equals("BEGIN"))
+        if (cur == TokenKind.BEGIN)
         {
             ArrayList<Statement> lines = new ArrayList<Statement>();
-            eat("BEGIN");
-            while (!cur.equals("END"))
+            eat(TokenKind.BEGIN);
+            if (diagnostics != null)
+                return at(new Block(parseStatementsRecovering(lines)), position);
+            // a block still open at the end of file fails at the missing END rather than looping
+            while (cur != TokenKind.END && cur != TokenKind.EOF)
                 lines.add(parseStatement());
-            eat("END");
-            eat(";");
-            return new Block(lines);
+            eat(TokenKind.END);
+            eat(TokenKind.SEMICOLON);
+            return at(new Block(lines), position);
         }
-        if (cur.equals("IF"))
+        if (cur == TokenKind.IF)
         {
-            eat("IF");
-            Expression exp1 = parseExpression();
-            String relop = cur;
-            eat(cur);
-            Expression exp2 = parseExpression();
-            Condition cond = new Condition(relop, exp1, exp2);
-            eat("THEN");
+            eat(TokenKind.IF);
+            Expression cond = parseExpression();
+            eat(TokenKind.THEN);
             Statement stmt1 = parseStatement();
-            if (!cur.equals("ELSE"))
-                return new If(cond, stmt1);
+            if (cur != TokenKind.ELSE)
+                return at(new If(cond, stmt1), position);
             else
             {
-                eat("ELSE");
+                eat(TokenKind.ELSE);
                 Statement stmt2 = parseStatement();
-                return new If(cond, stmt1, stmt2);
+                return at(new If(cond, stmt1, stmt2), position);
             }
         }
-        if (cur.equals("WHILE"))
+        if (cur == TokenKind.WHILE)
         {
-            eat("WHILE");
-            Expression exp1 = parseExpression();
-            String relop = cur;
-            eat(cur);
-            Expression exp2 = parseExpression();
-            Condition cond = new Condition(relop, exp1, exp2);
-            eat("DO");
+            eat(TokenKind.WHILE);
+            Expression cond = parseExpression();
+            eat(TokenKind.DO);
             Statement stmt = parseStatement();
-            return new While(cond, stmt);
+            return at(new While(cond, stmt), position);
         }
-        if (!cur.equals("EOF"))
+        if (cur != TokenKind.EOF)
         {
-            String id = cur;
+            String id = scan.getLexeme();
+            int symbol = scan.getSymbol();
             eat(cur);
-            eat(":=");
+            eat(TokenKind.ASSIGN);
             Expression val = parseExpression();
-            eat(";");
-            return new Assignment(id, val);
+            eat(TokenKind.SEMICOLON);
+            return at(new Assignment(id, symbol, val), position);
         }
         return null;
     }
 
+    /**
+     * This method parses the statements of a block and the END and semicolon after
+     * them, recovering from syntax errors. A statement with an error is left out,
+     * and the tokens after it are skipped up to where the next statement can start.
+     * A PROCEDURE or the end of the file ends the block, as a missing END.
+     *
+     * @param lines the list to add the statements to
+     * @return the statements that parsed
+     * @throws ScanErrorException when there is an error in tokenization, or the
+     *         Diagnostics is full
+     */
+    private ArrayList<Statement> parseStatementsRecovering(ArrayList<Statement> lines) throws ScanErrorException
+    {
+        while (cur != TokenKind.END && cur != TokenKind.PROCEDURE && cur != TokenKind.EOF)
+        {
+            try
+            {
+                lines.add(parseStatement());
+            }
+            catch (ScanErrorException e)
+            {
+                recover(e);
+                skipStatement();
+            }
+        }
+        try
+        {
+            eat(TokenKind.END);
+            eat(TokenKind.SEMICOLON);
+        }
+        catch (ScanErrorException e)
+        {
+            recover(e);
+        }
+        return lines;
+    }
+
+    /**
+     * This method skips the rest of a statement that had an error: up to and
+     * including a semicolon, or up to an END, PROCEDURE, the end of the file, or
+     * a token that starts a statement. An identifier starts a statement only if the
+     * next token is :=, which is looked at without moving to it, so an assignment
+     * after a missing semicolon is parsed rather than skipped.
+     *
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private void skipStatement() throws ScanErrorException
+    {
+        while (true)
+        {
+            switch (cur)
+            {
+                case SEMICOLON:
+                    cur = scan.nextTokenKind();
+                    return;
+                case END:
+                case PROCEDURE:
+                case EOF:
+                case BEGIN:
+                case WRITELN:
+                case READLN:
+                case IF:
+                case WHILE:
+                    return;
+                case IDENTIFIER:
+                    if (scan.peek(1) == TokenKind.ASSIGN)
+                        return;
+                    cur = scan.nextTokenKind();
+                    break;
+                default:
+                    cur = scan.nextTokenKind();
+            }
+        }
+    }
+
+    /**
+     * This method skips the rest of a VAR or PROCEDURE declaration that had an error,
+     * up to the next PROCEDURE or the end of the file. A BEGIN/END block on the way
+     * is skipped whole, as the statement of the procedure; once it has been skipped,
+     * or if there is no procedure, a BEGIN starts the main statement.
+     *
+     * @param skipped true if no procedure's statement is left to skip
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private void skipDeclaration(boolean skipped) throws ScanErrorException
+    {
+        int depth = 0;
+        while (cur != TokenKind.EOF
+                && (depth > 0 || cur != TokenKind.PROCEDURE && (cur != TokenKind.BEGIN || !skipped)))
+        {
+            if (cur == TokenKind.BEGIN)
+                depth++;
+            else if (cur == TokenKind.END && depth > 0 && --depth == 0)
+                skipped = true;
+            cur = scan.nextTokenKind();
+        }
+    }
+
     /**
      * Parses and computes a factor, which consists of an expression surrounded by
      * parentheses (expr), a factor preceded by a minus sign -factor, a number num,
@@ -162,102 +376,81 @@ public class Parser
      */
     private Expression parseFactor() throws ScanErrorException
     {
+        long position = scan.getTokenPosition();
         Expression num;
-        if (cur.equals("("))
+        if (cur == TokenKind.LPAREN)
         {
-            eat("(");
+            eat(TokenKind.LPAREN);
             num = parseExpression();
-            eat(")");
+            eat(TokenKind.RPAREN);
         }
-        else if (cur.equals("-"))
+        else if (cur == TokenKind.MINUS)
         {
-            eat("-");
-            num = new BinOp("-", new Number(0), parseFactor());
+            eat(TokenKind.MINUS);
+            num = nodes.negate(parseFactor(), position);
         }
-        else if (cur.charAt(0) >= '0' && cur.charAt(0) <= '9')
+        else if (cur == TokenKind.NUMBER)
             num = parseNumber();
         else
         {
-            String id = cur;
+            String id = scan.getLexeme();
+            int symbol = scan.getSymbol();
             eat(cur);
-            if (cur.equals("("))
+            if (cur == TokenKind.LPAREN)
             {
-                eat("(");
+                eat(TokenKind.LPAREN);
                 List<Expression> args = new ArrayList<Expression>();
-                if (!cur.equals(")"))
+                if (cur != TokenKind.RPAREN)
                     args.add(parseExpression());
-                while (cur.equals(","))
+                while (cur == TokenKind.COMMA)
                 {
-                    eat(",");
+                    eat(TokenKind.COMMA);
                     args.add(parseExpression());
                 }
-                eat(")");
-                num = new ProcedureCall(id, args);
+                eat(TokenKind.RPAREN);
+                num = at(new ProcedureCall(id, symbol, args), position);
             }
             else
-                num = new Variable(id);
+                num = nodes.variable(id, symbol, position);
         }
         return num;
     }
 
     /**
-     * Parses and computes a term, which consists of either a term multiplied
-     * by a factor term*factor, a term divided by a factor term/factor, a term mod
-     * a factor, or a factor. While the operator is *, /, or mod, the method
-     * continuously parses the factors for this term. Returns an Expression
-     * representing this term.
+     * Parses an expression by precedence climbing: a factor followed by any number of
+     * binary operators and their right operands. The operators and their precedences
+     * come from the Operator table, so a whole chain of operators of one precedence
+     * is parsed in a single loop, and each operand costs one table lookup instead of
+     * a call for each precedence level. Comparisons bind loosest, so a condition is
+     * an ordinary expression. Returns an Expression at the end.
      *
-     * @return the Expression representing the term
+     * @return the Expression object for the expression parsed
      * @throws ScanErrorException when there is an error in tokenization
      */
-    private Expression parseTerm() throws ScanErrorException
+    protected Expression parseExpression() throws ScanErrorException
     {
-        Expression num = parseFactor();
-        while (cur.equals("*") || cur.equals("/") || cur.equals("mod"))
-        {
-            if (cur.equals("*"))
-            {
-                eat("*");
-                num = new BinOp("*", num, parseFactor());
-            }
-            else if (cur.equals("/"))
-            {
-                eat("/");
-                num = new BinOp("/", num, parseFactor());
-            }
-            else
-            {
-                eat("mod");
-                num = new BinOp("%", num, parseFactor());
-            }
-        }
-        return num;
+        return parseExpression(0);
     }
 
     /**
-     * Parses and computes an expression, which consists of an expression added
-     * to a term expr+term, an expression subtracted by a term expr-term, or a
-     * term. Continuously parses terms as long as the current operator is + or
-     * -. Returns an Expression at the end.
+     * Parses an expression whose operators all have at least the given precedence.
+     * An operator that binds more loosely ends the expression and is left for the
+     * caller, which is still building the operand to its left.
      *
-     * @return the Expression object for the expression parsed and computed
+     * @param minPrecedence the lowest precedence of an operator that may be parsed
+     * @return the Expression object for the expression parsed
      * @throws ScanErrorException when there is an error in tokenization
      */
-    private Expression parseExpression() throws ScanErrorException
+    private Expression parseExpression(int minPrecedence) throws ScanErrorException
     {
-        Expression num = parseTerm();
-        while (cur.equals("+") || cur.equals("-"))
+        Expression num = parseFactor();
+        Operator op = Operator.of(cur);
+        while (op != null && op.getPrecedence() >= minPrecedence)
         {
-            if (cur.equals("+"))
-            {
-                eat("+");
-                num = new BinOp("+", num, parseTerm());
-            }
-            else
-            {
-                eat("-");
-                num = new BinOp("-", num, parseTerm());
-            }
+            long position = scan.getTokenPosition();
+            eat(cur);
+            num = nodes.binary(op, num, parseExpression(op.getRightPrecedence()), position);
+            op = Operator.of(cur);
         }
         return num;
     }
@@ -272,46 +465,124 @@ public class Parser
      */
     public ProcedureDeclaration parseProcedure() throws ScanErrorException
     {
-        eat("PROCEDURE");
-        String id = cur;
+        long position = scan.getTokenPosition();
+        eat(TokenKind.PROCEDURE);
+        String id = scan.getLexeme();
+        int symbol = scan.getSymbol();
         eat(cur);
-        eat("(");
+        eat(TokenKind.LPAREN);
         List<String> params = new ArrayList<String>();
-        if (!cur.equals(")"))
+        List<Integer> paramSymbols = new ArrayList<Integer>();
+        if (cur != TokenKind.RPAREN)
         {
-            params.add(cur);
+            params.add(scan.getLexeme());
+            paramSymbols.add(scan.getSymbol());
             eat(cur);
         }
-        while (cur.equals(","))
+        while (cur == TokenKind.COMMA)
         {
-            eat(",");
-            params.add(cur);
+            eat(TokenKind.COMMA);
+            params.add(scan.getLexeme());
+            paramSymbols.add(scan.getSymbol());
             eat(cur);
         }
-        eat(")");
-        eat(";");
+        eat(TokenKind.RPAREN);
+        eat(TokenKind.SEMICOLON);
         List<String> localVars = new ArrayList<String>();
-        while (cur.equals("VAR"))
+        List<Integer> localSymbols = new ArrayList<Integer>();
+        while (cur == TokenKind.VAR)
         {
             eat(cur);
-            localVars.add(cur);
+            localVars.add(scan.getLexeme());
+            localSymbols.add(scan.getSymbol());
             eat(cur);
-            while (!cur.equals(";"))
+            while (cur != TokenKind.SEMICOLON)
             {
-                eat(",");
-                localVars.add(cur);
+                eat(TokenKind.COMMA);
+                localVars.add(scan.getLexeme());
+                localSymbols.add(scan.getSymbol());
                 eat(cur);
             }
-            eat(";");
+            eat(TokenKind.SEMICOLON);
         }
-        return new ProcedureDeclaration(id, params, parseStatement(), localVars);
+        return parseProcedureBody(id, symbol, params, toArray(paramSymbols), localVars, toArray(localSymbols),
+                position);
+    }
+
+    /**
+     * This method parses the statement of a procedure whose heading and local variables
+     * have already been parsed, and creates the ProcedureDeclaration object.
+     *
+     * @param id the name of the procedure
+     * @param symbol the symbol ID of the name
+     * @param params the names of the parameters
+     * @param paramSymbols the symbol IDs of the parameters, in the same order
+     * @param localVars the names of the local variables
+     * @param localSymbols the symbol IDs of the local variables, in the same order
+     * @param position the packed position of the PROCEDURE token
+     * @return a ProcedureDeclaration object representing the procedure parsed
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    protected ProcedureDeclaration parseProcedureBody(String id, int symbol, List<String> params,
+            int[] paramSymbols, List<String> localVars, int[] localSymbols, long position)
+            throws ScanErrorException
+    {
+        return at(new ProcedureDeclaration(id, symbol, params, paramSymbols, parseStatement(),
+                localVars, localSymbols), position);
+    }
+
+    /**
+     * Tags a statement with the position it was parsed from.
+     *
+     * @param statement the statement
+     * @param position the packed position of the statement's first token
+     * @param <T> the type of the statement
+     * @return the statement
+     */
+    protected static <T extends Statement> T at(T statement, long position)
+    {
+        statement.setPosition(position);
+        return statement;
+    }
+
+    /**
+     * Tags an expression with the position it was parsed from.
+     *
+     * @param expression the expression
+     * @param position the packed position of the expression's first token or operator
+     * @param <T> the type of the expression
+     * @return the expression
+     */
+    protected static <T extends Expression> T at(T expression, long position)
+    {
+        expression.setPosition(position);
+        return expression;
+    }
+
+    /**
+     * Copies a list of symbol IDs into an array. The IDs are taken from the lexer as
+     * the names are parsed, so the parser never touches the symbol table itself and
+     * works the same with a lexer that scans on another thread.
+     *
+     * @param symbols the symbol IDs of the names
+     * @return the symbol IDs, in the same order
+     */
+    private static int[] toArray(List<Integer> symbols)
+    {
+        int[] array = new int[symbols.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = symbols.get(i);
+        return array;
     }
 
     /**
      * This method parses and returns a whole program consisting of procedures
      * and a statement. Creates a list of ProcedureDeclaration objects and
      * continuously parses and appends the procedures. Returns a program with
-     * the list of a procedures and the parsed statement at the end.
+     * the list of a procedures and the parsed statement at the end. With
+     * Diagnostics, a declaration with an error is left out, and the program
+     * parsed so far is returned if the Diagnostics fills up; the main statement
+     * is null if it could not be parsed.
      *
      * @return the Program object for the parsed program
      * @throws ScanErrorException when there is an error in tokenization
@@ -319,22 +590,87 @@ public class Parser
     public Program parseProgram() throws ScanErrorException
     {
         List<String> vars = new ArrayList<String>();
-        while (cur.equals("VAR"))
+        List<ProcedureDeclaration> procs = new ArrayList<ProcedureDeclaration>();
+        Statement stmt = null;
+        try
+        {
+            try
+            {
+                vars.addAll(parseGlobals());
+            }
+            catch (ScanErrorException e)
+            {
+                recover(e);
+                skipDeclaration(true);
+            }
+            while (cur == TokenKind.PROCEDURE)
+            {
+                try
+                {
+                    procs.add(parseProcedure());
+                }
+                catch (ScanErrorException e)
+                {
+                    recover(e);
+                    skipDeclaration(false);
+                }
+            }
+            stmt = parseStatement();
+        }
+        catch (ScanErrorException e)
+        {
+            if (e != SYNTAX_ERROR)
+                throw e;
+        }
+        return new Program(vars, procs, stmt);
+    }
+
+    /**
+     * This method parses the global variables and procedures of a program, and
+     * returns a ProgramStream that parses the main statement one top-level statement
+     * at a time, so that a long BEGIN/END block can be run as it is parsed instead of
+     * being built whole first. The procedures are made with this parser's NodeFactory,
+     * but the main statement shares no nodes, so that the stream holds nothing of the
+     * statements it has returned.
+     *
+     * @return the ProgramStream of the rest of the program
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    public ProgramStream streamProgram() throws ScanErrorException
+    {
+        List<String> vars = parseGlobals();
+        List<ProcedureDeclaration> procs = new ArrayList<ProcedureDeclaration>();
+        while (cur == TokenKind.PROCEDURE)
+            procs.add(parseProcedure());
+        // a factory that shares keeps every node it has shared, one for each different number in the script
+        if (nodes.getSharing() != NodeFactory.Sharing.NONE)
+            nodes = new NodeFactory(NodeFactory.Sharing.NONE);
+        return new ProgramStream(this, vars, procs);
+    }
+
+    /**
+     * This method parses the VAR declarations at the start of a program and returns
+     * the names of the global variables they declare, in order.
+     *
+     * @return the names of the global variables
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    protected List<String> parseGlobals() throws ScanErrorException
+    {
+        List<String> vars = new ArrayList<String>();
+        while (cur == TokenKind.VAR)
         {
             eat(cur);
-            vars.add(cur);
+            vars.add(scan.getLexeme());
             eat(cur);
-            while (!cur.equals(";"))
+            while (cur != TokenKind.SEMICOLON)
             {
-                eat(",");
-                vars.add(cur);
+                eat(TokenKind.COMMA);
+                vars.add(scan.getLexeme());
                 eat(cur);
             }
-            eat(";");
+            eat(TokenKind.SEMICOLON);
         }
-        List<ProcedureDeclaration> procs = new ArrayList<ProcedureDeclaration>();
-        while (cur.equals("PROCEDURE"))
-            procs.add(parseProcedure());
-        return new Program(vars, procs, parseStatement());
+        return vars;
     }
 }
@@ -0,0 +1,146 @@
+package parser;
+import ast.Program;
+import benchmark.TestPrograms;
+import scanner.PipelinedLexer;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import scanner.TokenKind;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the end to end parse throughput of a large generated program, parsing with
+ * a plain Scanner on the parser's own thread against parsing from a PipelinedLexer that
+ * scans on a second thread. Before timing, each parser test program is parsed both
+ * ways and checked to give the same AST, symbol IDs included, and the same generated
+ * code, and the symbol of every one of its tokens is asked for from a PipelinedLexer
+ * and checked to name the token's text.
+ *
+ * Usage: java parser.PipelinedParserBenchmark [test directory] [size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class PipelinedParserBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    /**
+     * Main benchmark method that checks both paths agree and prints the parse time of each.
+     *
+     * @param args the parser test directory and the size of the generated program in megabytes
+     * @throws IOException if a test program cannot be read or compiled
+     * @throws ScanErrorException if a program cannot be scanned
+     * @throws IllegalAccessException if a field of an AST cannot be read
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException, IllegalAccessException
+    {
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        for (Map.Entry<String, String> file : TestPrograms.load(args).entrySet())
+        {
+            checkSameCode(file.getValue(), file.getKey());
+            checkSymbols(file.getValue(), file.getKey());
+        }
+
+        String source = generate(megabytes << 20);
+        System.out.println("program: " + source.length() + " chars");
+        double sync = Double.MAX_VALUE;
+        double pipelined = Double.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            long start = System.nanoTime();
+            new Parser(new Scanner(source)).parseProgram();
+            sync = Math.min(sync, (System.nanoTime() - start) / 1e9);
+
+            start = System.nanoTime();
+            try (PipelinedLexer lexer = new PipelinedLexer(new Scanner(source)))
+            {
+                new Parser(lexer).parseProgram();
+            }
+            pipelined = Math.min(pipelined, (System.nanoTime() - start) / 1e9);
+        }
+        double size = source.length() / (double) (1 << 20);
+        System.out.printf("synchronous: %8.1f ms, %.1f MB/s%n", sync * 1e3, size / sync);
+        System.out.printf("pipelined:   %8.1f ms, %.1f MB/s, speedup %.2fx%n",
+                pipelined * 1e3, size / pipelined, sync / pipelined);
+    }
+
+    /**
+     * Parses a program with both lexers and checks that the ASTs and the generated
+     * code are the same.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws IOException if the program cannot be compiled
+     * @throws ScanErrorException if the program cannot be scanned
+     * @throws IllegalAccessException if a field of an AST cannot be read
+     */
+    private static void checkSameCode(String source, String name)
+            throws IOException, ScanErrorException, IllegalAccessException
+    {
+        Program expected = new Parser(new Scanner(source)).parseProgram();
+        Program actual;
+        try (PipelinedLexer lexer = new PipelinedLexer(new Scanner(source)))
+        {
+            actual = new Parser(lexer).parseProgram();
+        }
+        TestPrograms.checkSameAst(expected, actual, "pipelined AST differs for " + name);
+        if (!TestPrograms.compileSame(expected::compile, actual::compile))
+            throw new IllegalStateException("pipelined parse differs for " + name);
+    }
+
+    /**
+     * Asks a PipelinedLexer for the symbol of every token of a program while its
+     * scanner thread is still running, and checks once it has stopped that each
+     * symbol names the text of its token.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkSymbols(String source, String name) throws ScanErrorException
+    {
+        List<String> lexemes = new ArrayList<String>();
+        List<Integer> ids = new ArrayList<Integer>();
+        try (PipelinedLexer lexer = new PipelinedLexer(new Scanner(source)))
+        {
+            while (lexer.nextTokenKind() != TokenKind.EOF)
+            {
+                lexemes.add(lexer.getLexeme());
+                ids.add(lexer.getSymbol());
+            }
+            for (int i = 0; i < ids.size(); i++)
+                if (!lexer.getSymbolTable().getName(ids.get(i)).equals(lexemes.get(i)))
+                    throw new IllegalStateException("symbol of token " + i + " of " + name + " is "
+                            + lexer.getSymbolTable().getName(ids.get(i)) + " instead of " + lexemes.get(i));
+        }
+    }
+
+    /**
+     * Generates a program of at least the given size: a single block of assignments,
+     * conditionals, and loops over a few hundred variables, with some comments.
+     *
+     * @param size the minimum number of characters in the program
+     * @return the program
+     */
+    private static String generate(int size)
+    {
+        StringBuilder program = new StringBuilder(size + 64).append("BEGIN\n");
+        for (int i = 0; program.length() < size; i++)
+        {
+            String x = "x" + i % 251;
+            String y = "count" + i % 127;
+            program.append(x).append(" := (").append(y).append(" + ").append(i)
+                    .append(") * 3 - ").append(x).append(" mod 7;\n");
+            program.append("IF ").append(x).append(" >= ").append(y).append(" THEN ")
+                    .append(y).append(" := ").append(y).append(" / 2; ELSE WRITELN(").append(x).append(");\n");
+            program.append("WHILE ").append(y).append(" < 10 DO BEGIN ")
+                    .append(y).append(" := ").append(y).append(" + 1; END;\n");
+            if (i % 8 == 0)
+                program.append("// checkpoint ").append(i).append("\n(* step *)\n");
+        }
+        return program.append("END;\n.\n").toString();
+    }
+}
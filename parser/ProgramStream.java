@@ -0,0 +1,185 @@
+package parser;
+import ast.ProcedureDeclaration;
+import ast.Resolver;
+import ast.Statement;
+import environment.Environment;
+import scanner.ScanErrorException;
+import scanner.TokenKind;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * ProgramStream is a program whose global variables and procedures have been parsed,
+ * but whose main statement is parsed one top-level statement at a time, as it is
+ * asked for. If the main statement is a BEGIN/END block, each statement in the block
+ * is parsed when next is called, and the block itself is never built; otherwise the
+ * main statement is the only one. The stream keeps no statement once it has returned
+ * it, so a caller that runs each statement and drops it, as exec does, runs a script
+ * of millions of statements in the memory one statement takes, and the first
+ * statement runs before the rest of the script has been read.
+ *
+ * The statements are made with a NodeFactory that shares NONE, whatever the parser's
+ * factory shares. A factory that shares keeps every node it has shared, so with LEAVES
+ * sharing it would hold one Number for each different value in the script, and the
+ * memory would grow with the script after all. The procedures are made with the
+ * parser's factory.
+ *
+ * Because the statements run as they are parsed, a syntax error partway through the
+ * block is raised after the statements before it have run, as it is by Parser0. A
+ * block that reaches the end of the file without its END raises an error when the
+ * end is reached, as it does in Parser.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ProgramStream implements Iterator<Statement>
+{
+    // instance variables
+    private Parser parser;
+    private List<String> vars;
+    private List<ProcedureDeclaration> procedures;
+    private boolean block;
+    private boolean done;
+    // the statement parsed by hasNext that next has not returned yet
+    private Statement pending;
+
+    /**
+     * ProgramStream constructor that takes a parser positioned at the main statement
+     * of a program, and eats the BEGIN of the main statement if it is a block.
+     *
+     * @param parser the parser of the program
+     * @param vars the names of the global variables
+     * @param procedures the procedure declarations of the program
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    ProgramStream(Parser parser, List<String> vars, List<ProcedureDeclaration> procedures)
+            throws ScanErrorException
+    {
+        this.parser = parser;
+        this.vars = vars;
+        this.procedures = procedures;
+        if (parser.cur == TokenKind.BEGIN)
+        {
+            parser.eat(TokenKind.BEGIN);
+            block = true;
+        }
+    }
+
+    /**
+     * This method returns the names of the global variables of the program.
+     *
+     * @return the names of the global variables
+     */
+    public List<String> getVars()
+    {
+        return vars;
+    }
+
+    /**
+     * This method returns the procedure declarations of the program.
+     *
+     * @return the procedure declarations
+     */
+    public List<ProcedureDeclaration> getProcedures()
+    {
+        return procedures;
+    }
+
+    /**
+     * This method decides whether the main statement has another top-level statement,
+     * parsing it if it has not been parsed yet. An error in tokenization is raised as
+     * an IllegalStateException, since an Iterator cannot throw a ScanErrorException.
+     *
+     * @return true if there is another statement
+     */
+    @Override
+    public boolean hasNext()
+    {
+        if (pending == null)
+        {
+            try
+            {
+                pending = parseNext();
+            }
+            catch (ScanErrorException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+        return pending != null;
+    }
+
+    /**
+     * This method returns the next top-level statement of the main statement, and
+     * forgets it.
+     *
+     * @return the next statement
+     * @throws NoSuchElementException if the main statement has no more statements
+     */
+    @Override
+    public Statement next()
+    {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        Statement stmt = pending;
+        pending = null;
+        return stmt;
+    }
+
+    /**
+     * This method executes the program as Program.exec does, by binding the
+     * procedures with a Resolver and declaring them in the environment, and then
+     * executing each statement of the main statement as soon as it is parsed, before
+     * the next one is parsed. Only the statements that next has not returned are
+     * executed.
+     *
+     * @param env environment containing all the variables and procedures for the current scope
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    public void exec(Environment env) throws ScanErrorException
+    {
+        Resolver resolver = new Resolver();
+        for (ProcedureDeclaration p : procedures)
+        {
+            p.resolve(resolver);
+            p.exec(env);
+        }
+        Statement stmt = pending;
+        pending = null;
+        if (stmt == null)
+            stmt = parseNext();
+        while (stmt != null)
+        {
+            stmt.exec(env);
+            stmt = parseNext();
+        }
+    }
+
+    /**
+     * This method parses the next top-level statement. When the block of the main
+     * statement ends, it eats the END and semicolon of the block.
+     *
+     * @return the statement, or null if there are no more
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private Statement parseNext() throws ScanErrorException
+    {
+        if (done)
+            return null;
+        if (!block)
+        {
+            done = true;
+            return parser.parseStatement();
+        }
+        if (parser.cur == TokenKind.END || parser.cur == TokenKind.EOF)
+        {
+            done = true;
+            // at the end of the file, this raises the missing END as an error
+            parser.eat(TokenKind.END);
+            parser.eat(TokenKind.SEMICOLON);
+            return null;
+        }
+        return parser.parseStatement();
+    }
+}
@@ -0,0 +1,345 @@
+package parser;
+import ast.Block;
+import ast.ProcedureDeclaration;
+import ast.Program;
+import benchmark.TestPrograms;
+import scanner.Diagnostics;
+import scanner.Scanner;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Measures how much sooner every syntax error of a large program is found when
+ * Parser records the errors in a Diagnostics and recovers from each, compared to
+ * parsing it, fixing the first error, and parsing it again until it parses.
+ *
+ * Before measuring, it checks that a parser with Diagnostics builds the same AST as
+ * one without, and records no error, on every parser test program and on generated
+ * programs. On programs with random characters changed, it checks that the first
+ * error recorded is the one Parser raises, unless it is a block cut short by a
+ * PROCEDURE or the end of the file, that the errors are in order, and that a limit of
+ * one stops the parse at the first. On programs with an error put into many of their
+ * procedures, it checks that each error is recorded once, on its own line, that only
+ * the statements with errors are left out, and that the parse stops at the limit.
+ *
+ * Usage: java parser.RecoveringParserBenchmark [test directory] [lines in the program] [errors]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class RecoveringParserBenchmark
+{
+    private static final int PROGRAMS = 300;
+    private static final int ROUNDS = 5;
+    private static final String MUTATIONS = " ;,)(+-:=x7\n";
+    private static final String STATEMENT = "d := 0;";
+    private static final String BROKEN = "d := 0 0;";
+
+    /**
+     * Main benchmark method that checks recovery from syntax errors and prints the
+     * times to find every error of a large program.
+     *
+     * @param args the parser test directory, the number of lines in the program, and
+     *             the number of errors to put in it
+     * @throws Exception if a program cannot be read or parsed, or the ASTs cannot be
+     *         compared
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int lines = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int errors = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        Map<String, String> files = TestPrograms.load(args);
+        for (Map.Entry<String, String> file : files.entrySet())
+            checkSame(file.getValue(), file.getKey());
+        Random random = new Random(24);
+        int[] outcomes = new int[3];
+        for (int i = 0; i < PROGRAMS; i++)
+        {
+            String source = ParallelParserBenchmark.generate(300 + random.nextInt(3000), random);
+            checkSame(source, "a generated program");
+            outcomes[checkMutated(mutate(source, 1 + random.nextInt(6), random))]++;
+        }
+        for (int i = 1; i <= 4; i++)
+            checkBroken(ParallelParserBenchmark.generate(2000 * i, random), i, random);
+        System.out.println("same AST on " + files.size() + " test programs and " + PROGRAMS + " generated programs; "
+                + "of the programs with changed characters, " + outcomes[0] + " parsed, " + outcomes[1]
+                + " gave the same first error, and " + outcomes[2] + " a block cut short; broken procedures "
+                + "each recorded once");
+
+        String source = ParallelParserBenchmark.generate(lines * 30, random);
+        List<Integer> broken = breakable(source);
+        Collections.shuffle(broken, random);
+        broken = new ArrayList<Integer>(broken.subList(0, Math.min(errors, broken.size())));
+        Collections.sort(broken);
+        String program = breakAt(source, broken);
+        long recovering = Long.MAX_VALUE;
+        long rerun = Long.MAX_VALUE;
+        int found = 0;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            long start = System.nanoTime();
+            Diagnostics diagnostics = new Diagnostics(Integer.MAX_VALUE);
+            Parser parser = new Parser(new Scanner(program));
+            parser.setDiagnostics(diagnostics);
+            parser.parseProgram();
+            recovering = Math.min(recovering, System.nanoTime() - start);
+            found = diagnostics.size();
+            long total = 0;
+            for (int fixed = 0; fixed <= broken.size(); fixed++)
+            {
+                // the errors before this one have been fixed
+                String edited = breakAt(source, broken.subList(fixed, broken.size()));
+                start = System.nanoTime();
+                try
+                {
+                    new Parser(new Scanner(edited)).parseProgram();
+                }
+                catch (IllegalArgumentException e)
+                {
+                    // the next error to fix
+                }
+                total += System.nanoTime() - start;
+            }
+            rerun = Math.min(rerun, total);
+        }
+        if (found != broken.size())
+            throw new IllegalStateException("recorded " + found + " of " + broken.size() + " errors");
+        System.out.println("program: " + program.length() + " chars, " + broken.size() + " errors");
+        System.out.printf("%-34s %10.1f ms%n", "one pass with Diagnostics", recovering / 1e6);
+        System.out.printf("%-34s %10.1f ms%n", "parse, fix first error, repeat", rerun / 1e6);
+    }
+
+    /**
+     * Parses a program with and without Diagnostics, sharing no nodes so that every
+     * position can be compared, and checks that the ASTs are the same and that no
+     * error was recorded.
+     *
+     * @param source the program, which must parse
+     * @param name the name of the program, for the failure message
+     * @throws Exception if the program cannot be parsed or the ASTs cannot be compared
+     */
+    private static void checkSame(String source, String name) throws Exception
+    {
+        NodeFactory.Sharing none = NodeFactory.Sharing.NONE;
+        Program expected = new Parser(new Scanner(source), new NodeFactory(none)).parseProgram();
+        Diagnostics diagnostics = new Diagnostics(8);
+        Parser parser = new Parser(new Scanner(source), new NodeFactory(none));
+        parser.setDiagnostics(diagnostics);
+        String difference = TestPrograms.difference(expected, parser.parseProgram());
+        if (difference != null || diagnostics.getErrorCount() > 0)
+            throw new IllegalStateException("recovering parser differs on " + name + " at " + difference + "\n"
+                    + diagnostics);
+    }
+
+    /**
+     * Parses a program that may have errors with and without Diagnostics. If Parser
+     * parses it, checks that the ASTs are the same and no error is recorded;
+     * otherwise, checks that the first error recorded is the one Parser raised, or
+     * a missing END where Parser carried on into a PROCEDURE or the end of the file,
+     * that the errors are recorded in the order of the source, and that a limit of
+     * one error records just the first and stops.
+     *
+     * @param source the program
+     * @return 0 if the program parsed, 1 if the first errors were the same, and 2 if
+     *         the first error recorded was a block cut short
+     * @throws Exception if the program cannot be parsed or the ASTs cannot be compared
+     */
+    private static int checkMutated(String source) throws Exception
+    {
+        NodeFactory.Sharing none = NodeFactory.Sharing.NONE;
+        Program expected = null;
+        String error = null;
+        try
+        {
+            expected = new Parser(new Scanner(source), new NodeFactory(none)).parseProgram();
+        }
+        catch (IllegalArgumentException e)
+        {
+            error = e.getMessage();
+        }
+        Diagnostics diagnostics = new Diagnostics(Integer.MAX_VALUE);
+        Parser parser = new Parser(new Scanner(source), new NodeFactory(none));
+        parser.setDiagnostics(diagnostics);
+        Program actual = parser.parseProgram();
+        if (error == null)
+        {
+            String difference = TestPrograms.difference(expected, actual);
+            if (difference != null || diagnostics.getErrorCount() > 0)
+                throw new IllegalStateException("recovering parser differs on a program that parses at "
+                        + difference + ":\n" + source);
+            return 0;
+        }
+        if (diagnostics.size() == 0)
+            throw new IllegalStateException("no error recorded for " + error + ":\n" + source);
+        for (int i = 1; i < diagnostics.size(); i++)
+            if (diagnostics.getOffset(i) < diagnostics.getOffset(i - 1))
+                throw new IllegalStateException("errors out of order:\n" + diagnostics);
+        Diagnostics first = new Diagnostics(1);
+        parser = new Parser(new Scanner(source), new NodeFactory(none));
+        parser.setDiagnostics(first);
+        parser.parseProgram();
+        if (first.getErrorCount() != 1 || !first.getMessage(0).equals(diagnostics.getMessage(0)))
+            throw new IllegalStateException("limit of one recorded:\n" + first);
+        if (error.equals(diagnostics.getMessage(0)))
+            return 1;
+        if (diagnostics.getMessage(0).startsWith("Illegal token - expected END and found "))
+            return 2;
+        throw new IllegalStateException("first errors differ: " + error + " and " + diagnostics.getMessage(0)
+                + ":\n" + source);
+    }
+
+    /**
+     * Breaks a statement in some of a program's procedures, and checks that each
+     * error is recorded once, on the line of the broken statement, that the AST keeps
+     * every procedure and leaves out only the broken statements, and that a limit
+     * stops the parse once it is reached.
+     *
+     * @param source the program, which must parse
+     * @param every one procedure in this many is broken
+     * @param random the source of the choices
+     * @throws Exception if the program cannot be parsed or the AST cannot be read
+     */
+    private static void checkBroken(String source, int every, Random random) throws Exception
+    {
+        List<Integer> statements = breakable(source);
+        List<Integer> broken = new ArrayList<Integer>();
+        for (int i = random.nextInt(every); i < statements.size(); i += every)
+            broken.add(statements.get(i));
+        String program = breakAt(source, broken);
+        Diagnostics diagnostics = new Diagnostics(Integer.MAX_VALUE);
+        Parser parser = new Parser(new Scanner(program));
+        parser.setDiagnostics(diagnostics);
+        List<ProcedureDeclaration> expected = procedures(new Parser(new Scanner(source)).parseProgram());
+        List<ProcedureDeclaration> actual = procedures(parser.parseProgram());
+        if (diagnostics.size() != broken.size() || actual.size() != expected.size())
+            throw new IllegalStateException(diagnostics.size() + " errors recorded for " + broken.size()
+                    + " broken statements, and " + actual.size() + " of " + expected.size() + " procedures kept");
+        for (int i = 0; i < broken.size(); i++)
+        {
+            // the broken statements move down by the chars added before them
+            int line = line(program, broken.get(i) + i * (BROKEN.length() - STATEMENT.length()));
+            if (!diagnostics.getMessage(i).endsWith(" at " + line + ":" + (STATEMENT.length() + 1) + "."))
+                throw new IllegalStateException("error " + i + " is not on line " + line + ": "
+                        + diagnostics.getMessage(i));
+        }
+        int missing = 0;
+        for (int i = 0; i < expected.size(); i++)
+            missing += statements(expected.get(i)) - statements(actual.get(i));
+        if (missing != broken.size())
+            throw new IllegalStateException(missing + " statements left out for " + broken.size() + " errors");
+
+        Diagnostics limited = new Diagnostics(broken.size() / 2);
+        parser = new Parser(new Scanner(program));
+        parser.setDiagnostics(limited);
+        int kept = procedures(parser.parseProgram()).size();
+        if (limited.getErrorCount() != limited.size() || !limited.isFull() || kept >= expected.size())
+            throw new IllegalStateException("parse did not stop at " + limited.size() + " errors");
+    }
+
+    /**
+     * This method finds the statement that can be broken in each procedure of a
+     * program.
+     *
+     * @param source the program
+     * @return the offsets of the statements
+     */
+    private static List<Integer> breakable(String source)
+    {
+        List<Integer> offsets = new ArrayList<Integer>();
+        for (int i = source.indexOf(STATEMENT); i >= 0; i = source.indexOf(STATEMENT, i + 1))
+            offsets.add(i);
+        return offsets;
+    }
+
+    /**
+     * This method breaks the statements at the given offsets of a program by putting
+     * a second number after the one assigned.
+     *
+     * @param source the program
+     * @param offsets the offsets of the statements to break, in order
+     * @return the program with the statements broken
+     */
+    private static String breakAt(String source, List<Integer> offsets)
+    {
+        StringBuilder program = new StringBuilder(source.length() + offsets.size() * 2);
+        int last = 0;
+        for (int offset : offsets)
+        {
+            program.append(source, last, offset).append(BROKEN);
+            last = offset + STATEMENT.length();
+        }
+        return program.append(source, last, source.length()).toString();
+    }
+
+    /**
+     * This method changes random characters of a program, but none within one
+     * character of an END, so that no block is left open to the end of the file,
+     * where Parser would never stop.
+     *
+     * @param source the program
+     * @param changes the number of characters to change
+     * @param random the source of the choices
+     * @return the changed program
+     */
+    private static String mutate(String source, int changes, Random random)
+    {
+        StringBuilder text = new StringBuilder(source);
+        for (int i = 0; i < changes; i++)
+        {
+            int at;
+            int removed;
+            do
+            {
+                at = random.nextInt(text.length() - 1);
+                removed = random.nextInt(2);
+            }
+            while (IncrementalParserBenchmark.touchesEnd(text, at, at + removed));
+            text.replace(at, at + removed, String.valueOf(MUTATIONS.charAt(random.nextInt(MUTATIONS.length()))));
+        }
+        return text.toString();
+    }
+
+    /**
+     * This method returns the line of an offset in a program.
+     *
+     * @param source the program
+     * @param offset the offset
+     * @return the line, counting from 1
+     */
+    private static int line(String source, int offset)
+    {
+        int line = 1;
+        for (int i = source.indexOf('\n'); i >= 0 && i < offset; i = source.indexOf('\n', i + 1))
+            line++;
+        return line;
+    }
+
+    /**
+     * This method returns the procedures of a program.
+     *
+     * @param program the program
+     * @return its procedure declarations
+     * @throws ReflectiveOperationException if the procedures cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    private static List<ProcedureDeclaration> procedures(Program program) throws ReflectiveOperationException
+    {
+        Field field = Program.class.getDeclaredField("procedures");
+        field.setAccessible(true);
+        return (List<ProcedureDeclaration>) field.get(program);
+    }
+
+    /**
+     * This method counts the statements in the block of a procedure.
+     *
+     * @param proc the procedure
+     * @return the number of statements in its block
+     * @throws ReflectiveOperationException if the statements cannot be read
+     */
+    private static int statements(ProcedureDeclaration proc) throws ReflectiveOperationException
+    {
+        Field field = Block.class.getDeclaredField("statements");
+        field.setAccessible(true);
+        return ((List<?>) field.get(proc.getStatement())).size();
+    }
+}
@@ -0,0 +1,375 @@
+package parser;
+import ast.ProcedureDeclaration;
+import ast.Program;
+import ast.Resolver;
+import benchmark.TestPrograms;
+import environment.Environment;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import java.io.*;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures how much faster procedures run when the Resolver has bound their
+ * variables to slots in frames, as Program.exec does, compared to running them in
+ * Environments that find each variable by symbol ID. Before measuring, it runs every
+ * parser test program, programs that lean on how an Environment finds variables, and
+ * random generated programs, and checks that each prints the same output, or raises
+ * the same error, bound and not bound: bound with every kind of node sharing and run
+ * twice, bound before its procedures were parsed lazily, and run as a ProgramStream.
+ *
+ * Usage: java parser.ResolverBenchmark [test directory] [calls of the outer procedure]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ResolverBenchmark
+{
+    private static final int PROGRAMS = 300;
+    private static final int ROUNDS = 5;
+    // the input each run reads, so that READLN gives the same value bound and not bound
+    private static final String INPUT = "42\n";
+    private static final String[] NAMES = {"a", "b", "c", "g", "h", "t"};
+
+    private static final String[] CORNERS = {
+        // a name a procedure does not declare is local until the main statement makes it global
+        "VAR g;\nPROCEDURE p(a);\nBEGIN\nt := a + 1;\np := t;\nEND;\n"
+                + "BEGIN\nWRITELN(p(1));\nWRITELN(t);\nWRITELN(p(5));\nWRITELN(t);\nEND;\n.",
+        // a parameter without an argument is read from the global, or made local
+        "PROCEDURE r(a, b);\nBEGIN\nr := a + b;\nb := 7;\nEND;\n"
+                + "BEGIN\nWRITELN(r(1));\nWRITELN(b);\nb := 3;\nWRITELN(r(1));\nWRITELN(b);\nEND;\n.",
+        // a local variable named like a parameter, or like the procedure, is the same variable
+        "PROCEDURE d(a);\nVAR a, d;\nBEGIN\nd := d + a + 1;\nEND;\n"
+                + "PROCEDURE e(e, f);\nVAR f;\nBEGIN\ne := e + f + 1;\nEND;\n"
+                + "BEGIN\nWRITELN(d(5));\nWRITELN(e(5, 6));\nEND;\n.",
+        // recursion, and arguments read in the frame of the caller
+        "PROCEDURE fib(n);\nVAR a;\nBEGIN\nIF n < 2 THEN fib := n; ELSE BEGIN a := fib(n - 1);\n"
+                + "fib := a + fib(n - 2);\nEND;\nEND;\nBEGIN\nWRITELN(fib(15));\nWRITELN(a);\nEND;\n.",
+        // each call has its own frame, whether the name is local or not
+        "PROCEDURE setg(v);\nBEGIN\nh := v;\nEND;\nPROCEDURE useh(v);\nBEGIN\nh := v;\nx := setg(v + 1);\n"
+                + "useh := h;\nEND;\nBEGIN\nWRITELN(useh(1));\nh := 0;\nWRITELN(useh(1));\nWRITELN(h);\nEND;\n.",
+        // READLN declares its variable in the frame even when there is a global of that name
+        "VAR g;\nPROCEDURE rd(a);\nBEGIN\nWRITELN(g);\nREADLN(g);\nrd := g + a;\nEND;\n"
+                + "BEGIN\ng := 1;\nWRITELN(rd(2));\nWRITELN(g);\nEND;\n.",
+        // a name read before it is assigned is made local with the value 0
+        "PROCEDURE z(a);\nBEGIN\nWRITELN(q);\nq := q + a;\nz := q;\nEND;\n"
+                + "BEGIN\nWRITELN(z(4));\nWRITELN(z(4));\nq := 9;\nWRITELN(z(4));\nEND;\n.",
+        // a procedure that is never called
+        "PROCEDURE never(a);\nBEGIN\nnever := a;\nEND;\nBEGIN\nWRITELN(1);\nEND;\n.",
+    };
+
+    /**
+     * Main benchmark method that checks bound and unbound programs run the same, and
+     * prints the times to run a program that calls procedures in loops.
+     *
+     * @param args the parser test directory and the number of calls of the outer procedure
+     * @throws Exception if a program cannot be scanned or its procedures cannot be read
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 1500;
+        Map<String, String> files = TestPrograms.load(args);
+        for (Map.Entry<String, String> file : files.entrySet())
+            checkSame(file.getValue(), file.getKey());
+        for (int i = 0; i < CORNERS.length; i++)
+            checkSame(CORNERS[i], "corner case " + i);
+        Random random = new Random(25);
+        for (int i = 0; i < PROGRAMS; i++)
+            checkSame(generate(random), "generated program " + i);
+        System.out.println("same output bound and not bound for " + files.size() + " test programs, "
+                + CORNERS.length + " corner cases and " + PROGRAMS + " generated programs");
+
+        String source = workload(calls);
+        Program unbound = new Parser(new Scanner(source)).parseProgram();
+        Program bound = new Parser(new Scanner(source)).parseProgram();
+        // bound here only to time the Resolver; exec then finds every procedure bound
+        long start = System.nanoTime();
+        new Resolver().resolve(bound);
+        long resolve = System.nanoTime() - start;
+        if (!run(unbound, false).equals(run(bound, true)))
+            throw new IllegalStateException("the workload runs differently bound");
+        for (ProcedureDeclaration proc : procedures(bound))
+            if (proc.getFrameSize() < 0)
+                throw new IllegalStateException("procedure " + proc.getId() + " was not bound");
+        for (ProcedureDeclaration proc : procedures(unbound))
+            if (proc.getFrameSize() >= 0)
+                throw new IllegalStateException("procedure " + proc.getId() + " was bound");
+        long environments = Long.MAX_VALUE;
+        long frames = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            environments = Math.min(environments, time(unbound, false));
+            frames = Math.min(frames, time(bound, true));
+        }
+        System.out.println("workload: " + calls + " calls of sum, " + (long) calls * (calls + 1) / 2
+                + " calls of gcd");
+        System.out.printf("%-28s %8.1f ms%n", "run in Environments", environments / 1e6);
+        System.out.printf("%-28s %8.1f ms%n", "run in frames", frames / 1e6);
+        System.out.printf("%-28s %8.2f ms%n", "Resolver", resolve / 1e6);
+        System.out.printf("frames: %.2fx faster%n", (double) environments / frames);
+    }
+
+    /**
+     * Runs a program without binding it, and then bound in several ways, and checks
+     * that every run prints the same output or raises the same error.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkSame(String source, String name) throws ScanErrorException
+    {
+        String expected = run(new Parser(new Scanner(source), new NodeFactory(NodeFactory.Sharing.NONE))
+                .parseProgram(), false);
+        for (NodeFactory.Sharing sharing : NodeFactory.Sharing.values())
+        {
+            Program program = new Parser(new Scanner(source), new NodeFactory(sharing)).parseProgram();
+            check(expected, run(program, true), name, "bound with " + sharing + " sharing");
+            check(expected, run(program, true), name, "run again with " + sharing + " sharing");
+        }
+        Program lazy = new LazyParser(new Scanner(source).tokenize()).parseProgram();
+        check(expected, run(lazy, true), name, "bound before it was parsed lazily");
+        check(expected, run(lazy, true), name, "run again after it was parsed lazily");
+        ProgramStream stream = new Parser(new Scanner(source)).streamProgram();
+        check(expected, run(() -> stream.exec(new Environment(null))), name, "bound as a ProgramStream");
+    }
+
+    /**
+     * Checks that a run printed what the unbound run did.
+     *
+     * @param expected the output of the unbound run
+     * @param actual the output of the bound run
+     * @param name the name of the program
+     * @param how how the program was bound
+     */
+    private static void check(String expected, String actual, String name, String how)
+    {
+        if (!expected.equals(actual))
+            throw new IllegalStateException(name + " runs differently " + how + ":\n" + expected + "\n---\n"
+                    + actual);
+    }
+
+    /**
+     * Runs a program in a new global environment, reading INPUT.
+     *
+     * @param program the program
+     * @param bind true to let exec bind the procedures, false to run them unbound
+     * @return what it printed, followed by the exception it raised, if any
+     * @throws ScanErrorException never, since the program is already parsed
+     */
+    private static String run(Program program, boolean bind) throws ScanErrorException
+    {
+        return run(() -> program.exec(new Environment(null), bind));
+    }
+
+    /**
+     * Runs a program, reading INPUT.
+     *
+     * @param execution the run of the program
+     * @return what it printed, followed by the exception it raised, if any
+     * @throws ScanErrorException if a ProgramStream cannot scan the rest of the program
+     */
+    private static String run(Execution execution) throws ScanErrorException
+    {
+        PrintStream out = System.out;
+        InputStream in = System.in;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        String error = "";
+        try
+        {
+            System.setOut(new PrintStream(printed));
+            System.setIn(new ByteArrayInputStream(INPUT.getBytes()));
+            execution.exec();
+        }
+        catch (RuntimeException e)
+        {
+            error = e.getClass().getName() + ": " + e.getMessage();
+        }
+        finally
+        {
+            System.setOut(out);
+            System.setIn(in);
+        }
+        return printed + error;
+    }
+
+    /**
+     * This method times one run of a program, dropping its output.
+     *
+     * @param program the program
+     * @param bind true to let exec bind the procedures, false to run them unbound
+     * @return the nanoseconds the run took
+     */
+    private static long time(Program program, boolean bind)
+    {
+        PrintStream out = System.out;
+        try
+        {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            long start = System.nanoTime();
+            program.exec(new Environment(null), bind);
+            return System.nanoTime() - start;
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * This method returns the procedures of a program.
+     *
+     * @param program the program
+     * @return its procedure declarations
+     * @throws ReflectiveOperationException if the procedures cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    private static List<ProcedureDeclaration> procedures(Program program) throws ReflectiveOperationException
+    {
+        Field field = Program.class.getDeclaredField("procedures");
+        field.setAccessible(true);
+        return (List<ProcedureDeclaration>) field.get(program);
+    }
+
+    /**
+     * Generates a program whose procedures call the ones declared before them, from a
+     * few names that are used as globals, parameters, local variables, and undeclared
+     * names alike, so that the same name is found in different places as the program
+     * runs. Loops count with names used for nothing else, so every program ends.
+     *
+     * @param random the source of the choices
+     * @return the program
+     */
+    private static String generate(Random random)
+    {
+        StringBuilder program = new StringBuilder();
+        if (random.nextBoolean())
+            program.append("VAR ").append(name(random)).append(", ").append(name(random)).append(";\n");
+        int[] arity = new int[1 + random.nextInt(6)];
+        for (int p = 0; p < arity.length; p++)
+        {
+            program.append("PROCEDURE p").append(p).append("(");
+            arity[p] = random.nextInt(3);
+            for (int i = 0; i < arity[p]; i++)
+                program.append(i > 0 ? ", " : "").append(name(random));
+            program.append(");\n");
+            if (random.nextBoolean())
+                program.append("VAR ").append(name(random)).append(";\n");
+            program.append("BEGIN\n");
+            int statements = 1 + random.nextInt(5);
+            for (int i = 0; i < statements; i++)
+                statement(program, random, arity, p, true);
+            program.append("p").append(p).append(" := ").append(expression(random, arity, p, 2))
+                    .append(";\nEND;\n");
+        }
+        program.append("BEGIN\n");
+        int statements = 3 + random.nextInt(8);
+        for (int i = 0; i < statements; i++)
+            statement(program, random, arity, arity.length, false);
+        return program.append("END;\n.\n").toString();
+    }
+
+    /**
+     * Appends a random statement: an assignment, output, a READLN, or a bounded loop.
+     *
+     * @param program the program to append to
+     * @param random the source of the choices
+     * @param arity the number of parameters of each procedure
+     * @param calls the number of procedures the statement may call
+     * @param loop true if the statement may be a loop
+     */
+    private static void statement(StringBuilder program, Random random, int[] arity, int calls, boolean loop)
+    {
+        int kind = random.nextInt(10);
+        if (kind < 5)
+            program.append(name(random)).append(" := ").append(expression(random, arity, calls, 2)).append(";\n");
+        else if (kind < 8)
+            program.append("WRITELN(").append(expression(random, arity, calls, 2)).append(");\n");
+        else if (kind < 9 || !loop)
+            program.append(random.nextInt(8) == 0 ? "READLN(" + name(random) + ");\n"
+                    : "WRITELN(" + name(random) + ");\n");
+        else
+        {
+            program.append("k := 0;\nWHILE k < 3 DO\nBEGIN\n");
+            statement(program, random, arity, 0, false);
+            program.append("k := k + 1;\nEND;\n");
+        }
+    }
+
+    /**
+     * Generates a random expression of names, numbers, and calls. A call mostly has
+     * an argument for each parameter, and sometimes one fewer or one more.
+     *
+     * @param random the source of the choices
+     * @param arity the number of parameters of each procedure
+     * @param calls the number of procedures the expression may call
+     * @param depth how many more levels of operations the expression may have
+     * @return the expression
+     */
+    private static String expression(Random random, int[] arity, int calls, int depth)
+    {
+        int kind = random.nextInt(depth > 0 ? 6 : 3);
+        if (kind == 0)
+            return String.valueOf(random.nextInt(10));
+        if (kind < 3)
+            return name(random);
+        if (kind == 3 && calls > 0)
+        {
+            int callee = random.nextInt(calls);
+            StringBuilder call = new StringBuilder("p").append(callee).append("(");
+            int args = Math.max(arity[callee] + (random.nextInt(8) == 0 ? random.nextInt(3) - 1 : 0), 0);
+            for (int i = 0; i < args; i++)
+                call.append(i > 0 ? ", " : "").append(expression(random, arity, 0, depth - 1));
+            return call.append(")").toString();
+        }
+        String op = random.nextBoolean() ? " + " : " - ";
+        return "(" + expression(random, arity, calls, depth - 1) + op + expression(random, arity, calls, depth - 1)
+                + ")";
+    }
+
+    /**
+     * This method returns one of the names the generated programs share.
+     *
+     * @param random the source of the choices
+     * @return the name
+     */
+    private static String name(Random random)
+    {
+        return NAMES[random.nextInt(NAMES.length)];
+    }
+
+    /**
+     * Generates a program that spends its time calling procedures in loops: sum adds
+     * up the greatest common divisors of its argument with every number up to it.
+     *
+     * @param calls the number of times the main statement calls sum
+     * @return the program
+     */
+    private static String workload(int calls)
+    {
+        return "VAR n, total;\n"
+                + "PROCEDURE gcd(a, b);\nVAR t;\nBEGIN\n"
+                + "WHILE b <> 0 DO BEGIN t := b; b := a mod b; a := t; END;\ngcd := a;\nEND;\n"
+                + "PROCEDURE sum(k);\nVAR i, s;\nBEGIN\ni := 1;\ns := 0;\n"
+                + "WHILE i <= k DO BEGIN s := s + gcd(i, k); i := i + 1; END;\nsum := s;\nEND;\n"
+                + "BEGIN\nn := 1;\ntotal := 0;\n"
+                + "WHILE n <= " + calls + " DO BEGIN total := total + sum(n); n := n + 1; END;\n"
+                + "WRITELN(total);\nEND;\n.\n";
+    }
+
+    /**
+     * Execution is one run of a program, which a ProgramStream may have to scan.
+     */
+    private interface Execution
+    {
+        /**
+         * This method runs the program.
+         *
+         * @throws ScanErrorException if the rest of the program cannot be scanned
+         */
+        void exec() throws ScanErrorException;
+    }
+}
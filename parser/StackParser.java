@@ -0,0 +1,369 @@
+package parser;
+import scanner.ScanErrorException;
+import scanner.Lexer;
+import scanner.TokenKind;
+import ast.*;
+import ast.Number;
+import java.util.*;
+
+/**
+ * StackParser parses the same language as Parser into the same AST, but keeps the
+ * statements and expressions it is in the middle of on stacks in the heap instead of
+ * on the Java call stack. Parser makes one call for each level of BEGIN, IF, and
+ * WHILE nesting and for each parenthesis, unary minus, and procedure call argument,
+ * so a machine-generated program that nests thousands of levels deep overflows the
+ * thread's stack. StackParser handles any depth that fits in the heap.
+ *
+ * Statements are parsed with a stack of Frames, one for each BEGIN, IF, or WHILE
+ * whose body is still being parsed; when a statement is finished it is handed to the
+ * frame on top, which either asks for its next statement or finishes too.
+ * Expressions are parsed by the shunting-yard method with a stack of operands and a
+ * stack of Pending operators, parentheses, unary minuses, and procedure calls,
+ * using the precedences from the Operator table. Declarations and procedures are not
+ * nested, so they are parsed by Parser's methods, which call back into this class
+ * for their statements.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class StackParser extends Parser
+{
+    /**
+     * StackParser constructor that reads the first token from the lexer.
+     *
+     * @param s Lexer object to tokenize text file
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    public StackParser(Lexer s) throws ScanErrorException
+    {
+        super(s);
+    }
+
+    /**
+     * StackParser constructor that makes its expression nodes with the given factory.
+     *
+     * @param s Lexer object to tokenize text file
+     * @param nodes the factory that makes the expression nodes
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    public StackParser(Lexer s, NodeFactory nodes) throws ScanErrorException
+    {
+        super(s, nodes);
+    }
+
+    /**
+     * A BEGIN, IF, or WHILE statement whose body is still being parsed.
+     */
+    private static class Frame
+    {
+        private final TokenKind kind;
+        private final long position;
+        private final Expression cond;
+        private ArrayList<Statement> lines;
+        private Statement stmt1;
+        private boolean inElse;
+
+        /**
+         * Frame constructor that opens a statement.
+         *
+         * @param kind BEGIN, IF, or WHILE
+         * @param position the packed position of the statement's first token
+         * @param cond the condition of an IF or WHILE, or null for a BEGIN
+         */
+        private Frame(TokenKind kind, long position, Expression cond)
+        {
+            this.kind = kind;
+            this.position = position;
+            this.cond = cond;
+        }
+    }
+
+    /**
+     * Parses and returns a statement, without recursion. Simple statements are parsed
+     * directly. A BEGIN, IF, or WHILE pushes a Frame and goes on to the first statement
+     * of its body; each finished statement is then handed to the top frame, which
+     * finishes its own statement once its body is complete. Returns the outermost
+     * statement, or null at the end of file.
+     *
+     * @return a Statement object representing the statement
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    @Override
+    public Statement parseStatement() throws ScanErrorException
+    {
+        List<Frame> frames = new ArrayList<Frame>();
+        while (true)
+        {
+            Statement done = startStatement(frames);
+            if (done == null && cur != TokenKind.EOF)
+                continue;
+            // hand the finished statement to the frames until one needs another statement
+            while (true)
+            {
+                if (frames.isEmpty())
+                    return done;
+                Frame top = frames.get(frames.size() - 1);
+                if (top.kind == TokenKind.BEGIN)
+                {
+                    top.lines.add(done);
+                    if (cur != TokenKind.END)
+                        break;
+                    eat(TokenKind.END);
+                    eat(TokenKind.SEMICOLON);
+                    done = at(new Block(top.lines), top.position);
+                }
+                else if (top.kind == TokenKind.WHILE)
+                    done = at(new While(top.cond, done), top.position);
+                else if (!top.inElse)
+                {
+                    if (cur == TokenKind.ELSE)
+                    {
+                        eat(TokenKind.ELSE);
+                        top.stmt1 = done;
+                        top.inElse = true;
+                        break;
+                    }
+                    done = at(new If(top.cond, done), top.position);
+                }
+                else
+                    done = at(new If(top.cond, top.stmt1, done), top.position);
+                frames.remove(frames.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Starts parsing a statement. A simple statement is parsed completely and
+     * returned. A BEGIN, IF, or WHILE is opened by pushing a Frame, and null is
+     * returned so that the caller goes on to its body; a BEGIN that is empty is
+     * finished at once.
+     *
+     * @param frames the stack of statements whose bodies are being parsed
+     * @return the finished statement, or null if one was opened or the end of file was reached
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    private Statement startStatement(List<Frame> frames) throws ScanErrorException
+    {
+        long position = scan.getTokenPosition();
+        if (cur == TokenKind.WRITELN)
+        {
+            eat(TokenKind.WRITELN);
+            eat(TokenKind.LPAREN);
+            Expression num = parseExpression();
+            eat(TokenKind.RPAREN);
+            eat(TokenKind.SEMICOLON);
+            return at(new Writeln(num), position);
+        }
+        if (cur == TokenKind.READLN)
+        {
+            eat(TokenKind.READLN);
+            eat(TokenKind.LPAREN);
+            String var = scan.getLexeme();
+            int symbol = scan.getSymbol();
+            eat(cur);
+            eat(TokenKind.RPAREN);
+            eat(TokenKind.SEMICOLON);
+            return at(new Readln(var, symbol), position);
+        }
+        if (cur == TokenKind.BEGIN)
+        {
+            eat(TokenKind.BEGIN);
+            if (cur == TokenKind.END)
+            {
+                eat(TokenKind.END);
+                eat(TokenKind.SEMICOLON);
+                return at(new Block(new ArrayList<Statement>()), position);
+            }
+            Frame frame = new Frame(TokenKind.BEGIN, position, null);
+            frame.lines = new ArrayList<Statement>();
+            frames.add(frame);
+            return null;
+        }
+        if (cur == TokenKind.IF || cur == TokenKind.WHILE)
+        {
+            TokenKind kind = cur;
+            eat(kind);
+            Expression cond = parseExpression();
+            eat(kind == TokenKind.IF ? TokenKind.THEN : TokenKind.DO);
+            frames.add(new Frame(kind, position, cond));
+            return null;
+        }
+        if (cur != TokenKind.EOF)
+        {
+            String id = scan.getLexeme();
+            int symbol = scan.getSymbol();
+            eat(cur);
+            eat(TokenKind.ASSIGN);
+            Expression val = parseExpression();
+            eat(TokenKind.SEMICOLON);
+            return at(new Assignment(id, symbol, val), position);
+        }
+        return null;
+    }
+
+    /**
+     * An operator, parenthesis, unary minus, or procedure call that is waiting for
+     * its operands to be parsed.
+     */
+    private static class Pending
+    {
+        // kinds of pending entries
+        private static final int BINARY = 0;
+        private static final int PAREN = 1;
+        private static final int NEGATE = 2;
+        private static final int CALL = 3;
+
+        private final int kind;
+        private final long position;
+        private final Operator op;
+        private final String id;
+        private final int symbol;
+        // for a call, the number of operands on the stack below its arguments
+        private final int base;
+
+        /**
+         * Pending constructor that records an entry.
+         *
+         * @param kind BINARY, PAREN, NEGATE, or CALL
+         * @param position the packed position of the entry's token
+         * @param op the operator of a BINARY entry
+         * @param id the name of the procedure of a CALL entry
+         * @param symbol the symbol ID of the procedure of a CALL entry
+         * @param base the number of operands below the arguments of a CALL entry
+         */
+        private Pending(int kind, long position, Operator op, String id, int symbol, int base)
+        {
+            this.kind = kind;
+            this.position = position;
+            this.op = op;
+            this.id = id;
+            this.symbol = symbol;
+            this.base = base;
+        }
+    }
+
+    /**
+     * Parses an expression without recursion, by the shunting-yard method. Factors are
+     * pushed onto the operand stack; binary operators wait on the pending stack until
+     * an operator that binds no tighter than their right operand arrives, and are then
+     * applied to the top two operands. A '(' or a procedure call waits on the pending
+     * stack until its ')' closes it, and a unary minus waits until the factor after
+     * it is complete. The result is the same tree that Parser builds.
+     *
+     * @return the Expression object for the expression parsed
+     * @throws ScanErrorException when there is an error in tokenization
+     */
+    @Override
+    protected Expression parseExpression() throws ScanErrorException
+    {
+        List<Expression> operands = new ArrayList<Expression>();
+        List<Pending> pending = new ArrayList<Pending>();
+        while (true)
+        {
+            // a factor, after any unary minuses and opening parentheses
+            long position = scan.getTokenPosition();
+            if (cur == TokenKind.MINUS)
+            {
+                eat(TokenKind.MINUS);
+                pending.add(new Pending(Pending.NEGATE, position, null, null, 0, 0));
+                continue;
+            }
+            if (cur == TokenKind.LPAREN)
+            {
+                eat(TokenKind.LPAREN);
+                pending.add(new Pending(Pending.PAREN, position, null, null, 0, 0));
+                continue;
+            }
+            if (cur == TokenKind.NUMBER)
+            {
+                operands.add(nodes.number(scan.getNumberValue(), position));
+                eat(cur);
+            }
+            else
+            {
+                String id = scan.getLexeme();
+                int symbol = scan.getSymbol();
+                eat(cur);
+                if (cur != TokenKind.LPAREN)
+                    operands.add(nodes.variable(id, symbol, position));
+                else
+                {
+                    eat(TokenKind.LPAREN);
+                    pending.add(new Pending(Pending.CALL, position, null, id, symbol, operands.size()));
+                    if (cur != TokenKind.RPAREN)
+                        continue;
+                }
+            }
+
+            // after the factor: close calls and parentheses, and apply operators
+            while (true)
+            {
+                negate(operands, pending);
+                Operator op = Operator.of(cur);
+                reduce(operands, pending, op);
+                if (op != null)
+                {
+                    pending.add(new Pending(Pending.BINARY, scan.getTokenPosition(), op, null, 0, 0));
+                    eat(cur);
+                    break;
+                }
+                if (pending.isEmpty())
+                    return operands.get(0);
+                Pending open = pending.get(pending.size() - 1);
+                if (open.kind == Pending.CALL && cur == TokenKind.COMMA)
+                {
+                    eat(TokenKind.COMMA);
+                    break;
+                }
+                eat(TokenKind.RPAREN);
+                pending.remove(pending.size() - 1);
+                if (open.kind == Pending.CALL)
+                {
+                    List<Expression> args = new ArrayList<Expression>(operands.subList(open.base, operands.size()));
+                    operands.subList(open.base, operands.size()).clear();
+                    operands.add(at(new ProcedureCall(open.id, open.symbol, args), open.position));
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the unary minuses waiting on a factor that has just been completed.
+     *
+     * @param operands the stack of operands, with the factor on top
+     * @param pending the stack of pending entries
+     */
+    private void negate(List<Expression> operands, List<Pending> pending)
+    {
+        while (!pending.isEmpty() && pending.get(pending.size() - 1).kind == Pending.NEGATE)
+        {
+            long position = pending.remove(pending.size() - 1).position;
+            int top = operands.size() - 1;
+            operands.set(top, nodes.negate(operands.get(top), position));
+        }
+    }
+
+    /**
+     * Applies the pending binary operators whose right operand ends before the next
+     * operator: all of them back to the innermost open parenthesis or call if there
+     * is no next operator, or those whose right operand may not contain it otherwise.
+     *
+     * @param operands the stack of operands
+     * @param pending the stack of pending entries
+     * @param next the operator of the current token, or null if it is not an operator
+     */
+    private void reduce(List<Expression> operands, List<Pending> pending, Operator next)
+    {
+        while (!pending.isEmpty())
+        {
+            Pending top = pending.get(pending.size() - 1);
+            if (top.kind != Pending.BINARY
+                    || next != null && next.getPrecedence() >= top.op.getRightPrecedence())
+                return;
+            pending.remove(pending.size() - 1);
+            Expression right = operands.remove(operands.size() - 1);
+            int left = operands.size() - 1;
+            operands.set(left, nodes.binary(top.op, operands.get(left), right, top.position));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package parser;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import ast.Program;
+import benchmark.TestPrograms;
+import java.util.*;
+
+/**
+ * Tests that StackParser builds the same AST as Parser, field by field and including
+ * source positions, on the parser test programs, on random programs that mix every
+ * statement and expression form, and on programs nested 100,000 levels deep in each
+ * form: BEGIN, IF, IF with ELSE, WHILE, parentheses, unary minus, and procedure calls.
+ * For the deep programs, Parser runs on a thread with a very large stack so that it
+ * can build the expected AST, and is also run on an ordinary thread to show that it
+ * overflows there; StackParser always runs on an ordinary thread.
+ *
+ * Usage: java parser.StackParserTester [test directory] [depth] [random programs]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class StackParserTester
+{
+    private static final long LARGE_STACK = 2L << 30;
+
+    /**
+     * Main tester method that runs every comparison and prints a summary.
+     *
+     * @param args the parser test directory, the nesting depth, and the number of random programs
+     * @throws Exception if a program cannot be read or parsed
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        Map<String, String> files = TestPrograms.load(args);
+        for (Map.Entry<String, String> file : files.entrySet())
+            compare(file.getValue(), file.getKey(), false);
+        Random random = new Random(17);
+        for (int i = 0; i < count; i++)
+            compare(randomProgram(random), "random program " + i, false);
+        System.out.println("same AST on " + files.size() + " test programs and " + count + " random programs");
+
+        Map<String, String> deep = new LinkedHashMap<String, String>();
+        deep.put("BEGIN", "BEGIN ".repeat(depth) + "x := 1;" + " END;".repeat(depth));
+        deep.put("IF", "IF x < 1 THEN ".repeat(depth) + "x := 1;");
+        deep.put("IF ELSE", "IF x THEN x := 0; ELSE ".repeat(depth) + "x := 1;");
+        deep.put("WHILE", "WHILE x > 0 DO ".repeat(depth) + "x := x - 1;");
+        deep.put("parentheses", "x := " + "(".repeat(depth) + "x" + " + 1)".repeat(depth) + ";");
+        deep.put("unary minus", "x := " + "-".repeat(depth) + "x;");
+        deep.put("calls", "x := " + "f(1, ".repeat(depth) + "x" + ")".repeat(depth) + ";");
+        for (Map.Entry<String, String> program : deep.entrySet())
+        {
+            String source = "VAR x;\n" + program.getValue() + "\n.";
+            compare(source, program.getKey() + " nested " + depth + " deep", true);
+            System.out.println("same AST for " + program.getKey() + " nested " + depth + " deep; Parser on an "
+                    + "ordinary thread: " + (overflows(source) ? "StackOverflowError" : "no overflow"));
+        }
+    }
+
+    /**
+     * Parses a program with both parsers and checks that the ASTs are the same.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @param deep true to run Parser on a thread with a very large stack
+     * @throws Exception if the program cannot be parsed
+     */
+    private static void compare(String source, String name, boolean deep) throws Exception
+    {
+        Program expected = deep ? parseOnLargeStack(source) : new Parser(new Scanner(source)).parseProgram();
+        Program actual = new StackParser(new Scanner(source)).parseProgram();
+        TestPrograms.checkSameAst(expected, actual, "parsers disagree on " + name);
+    }
+
+    /**
+     * Parses a program with Parser on a thread whose stack is large enough for any of
+     * the deep programs.
+     *
+     * @param source the program
+     * @return the AST
+     * @throws Exception if the program cannot be parsed
+     */
+    private static Program parseOnLargeStack(String source) throws Exception
+    {
+        Program[] result = new Program[1];
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () ->
+        {
+            try
+            {
+                result[0] = new Parser(new Scanner(source)).parseProgram();
+            }
+            catch (Throwable e)
+            {
+                failure[0] = e;
+            }
+        }, "large stack", LARGE_STACK);
+        thread.start();
+        thread.join();
+        if (failure[0] != null)
+            throw new IllegalStateException("Parser failed on a large stack", failure[0]);
+        return result[0];
+    }
+
+    /**
+     * Checks if Parser overflows an ordinary thread's stack on a program.
+     *
+     * @param source the program
+     * @return true if Parser threw a StackOverflowError
+     * @throws InterruptedException if interrupted while waiting for the thread
+     */
+    private static boolean overflows(String source) throws InterruptedException
+    {
+        boolean[] overflowed = new boolean[1];
+        Thread thread = new Thread(() ->
+        {
+            try
+            {
+                new Parser(new Scanner(source)).parseProgram();
+            }
+            catch (StackOverflowError e)
+            {
+                overflowed[0] = true;
+            }
+            catch (ScanErrorException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        return overflowed[0];
+    }
+
+    /**
+     * This method generates a random program with procedures, nested statements, and
+     * nested expressions of every form.
+     *
+     * @param random the source of the choices
+     * @return the program
+     */
+    private static String randomProgram(Random random)
+    {
+        StringBuilder source = new StringBuilder("VAR x, y;\n");
+        for (int procs = random.nextInt(3); procs > 0; procs--)
+        {
+            source.append("PROCEDURE p").append(procs).append("(a, b);\nVAR c;\n");
+            appendStatement(source, random, 4);
+        }
+        appendStatement(source, random, 5);
+        return source.append(".").toString();
+    }
+
+    /**
+     * This method appends a random statement.
+     *
+     * @param source the builder to append to
+     * @param random the source of the choices
+     * @param depth how many more levels the statement may nest
+     */
+    private static void appendStatement(StringBuilder source, Random random, int depth)
+    {
+        switch (depth == 0 ? random.nextInt(3) : random.nextInt(7))
+        {
+            case 0:
+                source.append("x := ");
+                appendExpression(source, random, 4);
+                source.append(";\n");
+                break;
+            case 1:
+                source.append("WRITELN(");
+                appendExpression(source, random, 4);
+                source.append(");\n");
+                break;
+            case 2:
+                source.append("READLN(y);\n");
+                break;
+            case 3:
+                source.append("BEGIN\n");
+                for (int i = random.nextInt(4); i > 0; i--)
+                    appendStatement(source, random, depth - 1);
+                source.append("END;\n");
+                break;
+            case 4:
+                source.append("WHILE ");
+                appendExpression(source, random, 3);
+                source.append(" DO ");
+                appendStatement(source, random, depth - 1);
+                break;
+            default:
+                source.append("IF ");
+                appendExpression(source, random, 3);
+                source.append(" THEN ");
+                appendStatement(source, random, depth - 1);
+                if (random.nextBoolean())
+                {
+                    source.append("ELSE ");
+                    appendStatement(source, random, depth - 1);
+                }
+                break;
+        }
+    }
+
+    /**
+     * This method appends a random expression.
+     *
+     * @param source the builder to append to
+     * @param random the source of the choices
+     * @param depth how many more levels the expression may nest
+     */
+    private static void appendExpression(StringBuilder source, Random random, int depth)
+    {
+        String[] operators = {" + ", " - ", " * ", " / ", " mod ", " = ", " <> ", " < ", " > ", " <= ", " >= "};
+        switch (depth == 0 ? random.nextInt(2) : random.nextInt(6))
+        {
+            case 0:
+                source.append(random.nextInt(100));
+                break;
+            case 1:
+                source.append(random.nextBoolean() ? "x" : "y");
+                break;
+            case 2:
+                source.append('(');
+                appendExpression(source, random, depth - 1);
+                source.append(')');
+                break;
+            case 3:
+                source.append('-');
+                appendExpression(source, random, depth - 1);
+                break;
+            case 4:
+                source.append("p1(");
+                for (int i = random.nextInt(3); i > 0; i--)
+                {
+                    appendExpression(source, random, depth - 1);
+                    if (i > 1)
+                        source.append(", ");
+                }
+                source.append(')');
+                break;
+            default:
+                appendExpression(source, random, depth - 1);
+                source.append(operators[random.nextInt(operators.length)]);
+                appendExpression(source, random, depth - 1);
+                break;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package parser;
+import ast.Block;
+import ast.Program;
+import ast.Statement;
+import benchmark.TestPrograms;
+import environment.Environment;
+import scanner.ScanErrorException;
+import scanner.Scanner;
+import java.io.*;
+import java.lang.ref.Reference;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Measures how a long replay script, one BEGIN/END block of millions of statements,
+ * runs when each statement is run as soon as it is parsed by a ProgramStream,
+ * compared to parsing the whole program before running it: the time to the first
+ * line of output, the total time, and the heap the script holds. The script is
+ * generated as it is read, so that only the parser and interpreter hold any of it.
+ * It also streams a script in which every number is different with a parser that
+ * shares LEAVES, whose heap must not grow either.
+ *
+ * Before measuring, it checks on every parser test program, on generated programs,
+ * and on shorter replay scripts, that the stream gives the same procedures and the
+ * same top-level statements as Parser.parseProgram, with the same positions, and
+ * prints the same output or raises the same error when it runs; that a block with
+ * no END raises an error at the end of the file; and, while measuring, that the heap
+ * the streamed scripts hold does not grow as they run.
+ *
+ * Usage: java parser.StreamingParserBenchmark [test directory] [statements in the script]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class StreamingParserBenchmark
+{
+    private static final int PROGRAMS = 50;
+    private static final int SCRIPTS = 20;
+    // the heap is measured each time this many more lines have been printed
+    private static final int SAMPLE_LINES = 50000;
+    // how much the heap may grow while the streamed script runs, for the collector's slack
+    private static final long GROWTH_BYTES = 2 << 20;
+    private static final String INPUT = "3\n".repeat(64);
+
+    /**
+     * Main benchmark method that checks ProgramStream against Parser and prints the
+     * times and heap to run a long replay script.
+     *
+     * @param args the parser test directory and the number of statements in the script
+     * @throws Exception if a program cannot be read, parsed, or run
+     */
+    public static void main(String[] args) throws Exception
+    {
+        long statements = args.length > 1 ? Long.parseLong(args[1]) : 2000000;
+        Map<String, String> files = TestPrograms.load(args);
+        for (Map.Entry<String, String> file : files.entrySet())
+            checkSame(file.getValue(), file.getKey());
+        Random random = new Random(23);
+        for (int i = 0; i < PROGRAMS; i++)
+            checkSame(ParallelParserBenchmark.generate(500 + random.nextInt(4000), random), "a generated program");
+        for (int i = 0; i < SCRIPTS; i++)
+            checkSame(new String(new Replay(1 + random.nextInt(5000), i).readAllBytes()), "a replay script");
+        checkMissingEnd();
+        System.out.println("same statements and output on " + files.size() + " test programs, " + PROGRAMS
+                + " generated programs, and " + SCRIPTS + " replay scripts, and a missing END raised");
+
+        System.out.println("script: " + statements + " statements");
+        System.out.printf("%-22s %10s %14s %10s%n", "mode", "total ms", "first line ms", "heap MB");
+        // the streamed script runs first, so that the heap it is measured in holds no whole AST
+        Sink streamed = new Sink(true);
+        long start = System.nanoTime();
+        run(streamed, () ->
+        {
+            NodeFactory none = new NodeFactory(NodeFactory.Sharing.NONE);
+            ProgramStream stream = new Parser(new Scanner(new Replay(statements, 0)), none).streamProgram();
+            stream.exec(new Environment(null));
+            // the last sample is taken at the end of the script, with the stream still in use
+            streamed.sample();
+            Reference.reachabilityFence(stream);
+            return null;
+        });
+        long streamTime = System.nanoTime() - start;
+        System.out.printf("%-22s %10.1f %14.1f %10.1f%n", "streamProgram, exec", streamTime / 1e6,
+                (streamed.first - start) / 1e6, streamed.largest / 1048576.0);
+
+        // every number different, which a factory sharing LEAVES would keep one node for each of
+        Sink distinct = new Sink(true);
+        start = System.nanoTime();
+        run(distinct, () ->
+        {
+            NodeFactory leaves = new NodeFactory(NodeFactory.Sharing.LEAVES);
+            ProgramStream stream = new Parser(new Scanner(new Replay(statements, 0, true)), leaves)
+                    .streamProgram();
+            stream.exec(new Environment(null));
+            distinct.sample();
+            Reference.reachabilityFence(stream);
+            return null;
+        });
+        long distinctTime = System.nanoTime() - start;
+        System.out.printf("%-22s %10.1f %14.1f %10.1f%n", "LEAVES, distinct", distinctTime / 1e6,
+                (distinct.first - start) / 1e6, distinct.largest / 1048576.0);
+
+        Sink full = new Sink(false);
+        start = System.nanoTime();
+        Program program = run(full, () -> new Parser(new Scanner(new Replay(statements, 0))).parseProgram());
+        full.sample();
+        run(full, () ->
+        {
+            program.exec(new Environment(null));
+            return null;
+        });
+        long fullTime = System.nanoTime() - start;
+        System.out.printf("%-22s %10.1f %14.1f %10.1f%n", "parseProgram, exec", fullTime / 1e6,
+                (full.first - start) / 1e6, full.largest / 1048576.0);
+        if (streamed.lines != full.lines || streamed.hash != full.hash)
+            throw new IllegalStateException("streamed script prints differently");
+        if (streamed.samples < 2)
+        {
+            System.out.println("same " + full.lines + " lines printed; too few lines to check the streamed heap,"
+                    + " which needs " + SAMPLE_LINES + " or more");
+            return;
+        }
+        checkGrowth(streamed, "streamed script");
+        checkGrowth(distinct, "streamed script with distinct numbers");
+        System.out.println("same " + full.lines + " lines printed; streamed heap ended "
+                + (streamed.last - streamed.smallest) / 1024 + " KB above its smallest of " + streamed.samples
+                + " samples, and " + (distinct.last - distinct.smallest) / 1024 + " KB with distinct numbers");
+    }
+
+    /**
+     * Checks that the heap a streamed script held at its end is not much more than the
+     * least it held along the way. The first samples can still hold garbage from the
+     * checks, so the end is compared with the smallest sample rather than the first.
+     *
+     * @param sink the sink the script printed to, with its samples of the heap
+     * @param name the name of the script, for the failure message
+     */
+    private static void checkGrowth(Sink sink, String name)
+    {
+        if (sink.last - sink.smallest > GROWTH_BYTES)
+            throw new IllegalStateException("heap of the " + name + " grew from " + sink.smallest + " to "
+                    + sink.last + " bytes");
+    }
+
+    /**
+     * Parses a program with Parser and with a ProgramStream, sharing no nodes so that
+     * every position can be compared, and checks that the procedures and top-level
+     * statements are the same. Then runs the program both ways and checks that they
+     * print the same and raise the same error. A program that cannot be parsed must
+     * raise the same error from the stream, whose output may start with what the
+     * statements before the error printed.
+     *
+     * @param source the program
+     * @param name the name of the program, for the failure message
+     * @throws Exception if the ASTs cannot be compared
+     */
+    private static void checkSame(String source, String name) throws Exception
+    {
+        NodeFactory.Sharing none = NodeFactory.Sharing.NONE;
+        ArrayList<Statement> actual = new ArrayList<Statement>();
+        Object streamed = outcome(() ->
+        {
+            ProgramStream stream = new Parser(new Scanner(source), new NodeFactory(none)).streamProgram();
+            stream.forEachRemaining(actual::add);
+            return stream;
+        });
+        Object parsed = outcome(() -> new Parser(new Scanner(source), new NodeFactory(none)).parseProgram());
+        if (parsed instanceof String || streamed instanceof String)
+        {
+            if (!parsed.equals(streamed))
+                throw new IllegalStateException("stream disagrees on " + name + ": " + parsed + " and " + streamed);
+        }
+        else
+        {
+            TestPrograms.checkSameAst(field(parsed, "procedures"), ((ProgramStream) streamed).getProcedures(),
+                    "streamed procedures differ on " + name);
+            TestPrograms.checkSameAst(statements(parsed), actual, "streamed statements differ on " + name);
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        Object ran = run(expected, () ->
+        {
+            new Parser(new Scanner(source)).parseProgram().exec(new Environment(null));
+            return null;
+        });
+        Object streamRan = run(printed, () ->
+        {
+            new Parser(new Scanner(source)).streamProgram().exec(new Environment(null));
+            return null;
+        });
+        String before = expected.toString();
+        String after = printed.toString();
+        if (!Objects.equals(ran, streamRan) || (ran == null ? !before.equals(after) : !after.startsWith(before)))
+            throw new IllegalStateException("streamed program runs differently on " + name + ": " + ran + " and "
+                    + streamRan);
+    }
+
+    /**
+     * Streams a block that reaches the end of the file without its END, and checks
+     * that it raises an error once the statements before the end have run.
+     *
+     * @throws ScanErrorException if the program cannot be scanned
+     */
+    private static void checkMissingEnd() throws ScanErrorException
+    {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        Object error = run(printed, () ->
+        {
+            new Parser(new Scanner("BEGIN\nWRITELN(1);\nWRITELN(2);\n")).streamProgram()
+                    .exec(new Environment(null));
+            return null;
+        });
+        if (!(error instanceof String) || !((String) error).contains("expected END")
+                || !printed.toString().equals("1\n2\n"))
+            throw new IllegalStateException("block without END streamed as " + error);
+    }
+
+    /**
+     * This method runs a parse, or a parse and a run, with System.out sent to the given
+     * stream and System.in reading a few numbers, and returns what came of it.
+     *
+     * @param out the stream to print to
+     * @param task the parse or run
+     * @param <T> the type of what the task returns
+     * @return what the task returned, or the class and message of the exception it raised
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T run(OutputStream out, Callable<T> task)
+    {
+        PrintStream stdout = System.out;
+        InputStream stdin = System.in;
+        try
+        {
+            System.setOut(new PrintStream(out));
+            System.setIn(new ByteArrayInputStream(INPUT.getBytes()));
+            return (T) outcome(task);
+        }
+        finally
+        {
+            System.setOut(stdout);
+            System.setIn(stdin);
+        }
+    }
+
+    /**
+     * This method runs a parse and returns what came of it.
+     *
+     * @param task the parse
+     * @return what the parse returned, or the class and message of the exception it
+     *         raised
+     */
+    private static Object outcome(Callable<?> task)
+    {
+        try
+        {
+            return task.call();
+        }
+        catch (Exception e)
+        {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * This method returns the top-level statements of a program's main statement: the
+     * statements of its block, or the statement by itself if it is not a block.
+     *
+     * @param program the program
+     * @return the top-level statements
+     * @throws ReflectiveOperationException if the fields cannot be read
+     */
+    private static Object statements(Object program) throws ReflectiveOperationException
+    {
+        Object stmt = field(program, "stmt");
+        if (stmt instanceof Block)
+            return field(stmt, "statements");
+        List<Object> statements = new ArrayList<Object>();
+        if (stmt != null)
+            statements.add(stmt);
+        return statements;
+    }
+
+    /**
+     * This method reads a private field of an AST node.
+     *
+     * @param node the node
+     * @param name the name of the field, which is declared by the node's class
+     * @return the value of the field
+     * @throws ReflectiveOperationException if the field cannot be read
+     */
+    private static Object field(Object node, String name) throws ReflectiveOperationException
+    {
+        Field field = node.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(node);
+    }
+
+    /**
+     * A parse or run that may raise any exception, which is what it reports.
+     *
+     * @param <T> the type of what it returns
+     */
+    private interface Callable<T>
+    {
+        /**
+         * This method runs the task.
+         *
+         * @return what the task made
+         * @throws Exception if the task fails
+         */
+        T call() throws Exception;
+    }
+
+    /**
+     * Sink is an output stream that throws away what is printed to it, but counts and
+     * hashes the lines, notes when the first byte came, and can measure the heap in
+     * use every so many lines.
+     */
+    private static class Sink extends OutputStream
+    {
+        // instance variables
+        private boolean sampling;
+        private long first;
+        private long lines;
+        private long hash;
+        private int samples;
+        private long smallest = Long.MAX_VALUE;
+        private long largest;
+        private long last;
+
+        /**
+         * Sink constructor that makes a sink that measures the heap every
+         * SAMPLE_LINES lines if asked to.
+         *
+         * @param sampling true to measure the heap as lines are printed
+         */
+        Sink(boolean sampling)
+        {
+            this.sampling = sampling;
+        }
+
+        /**
+         * This method takes one byte that was printed.
+         *
+         * @param b the byte
+         */
+        @Override
+        public void write(int b)
+        {
+            if (first == 0)
+                first = System.nanoTime();
+            hash = hash * 31 + b;
+            if (b == '\n' && ++lines % SAMPLE_LINES == 0 && sampling)
+                sample();
+        }
+
+        /**
+         * This method collects the garbage and notes the heap in use after it.
+         */
+        void sample()
+        {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            smallest = Math.min(smallest, used);
+            largest = Math.max(largest, used);
+            last = used;
+            samples++;
+        }
+    }
+
+    /**
+     * Replay is an input stream of a replay script: a procedure, and then one BEGIN/END
+     * block of the given number of assignments, conditions, loops, small blocks, and
+     * WRITELNs over a few variables. The script is generated a statement at a time as
+     * it is read, and the same seed gives the same script. The numbers in the
+     * statements are small, or all different if asked for.
+     */
+    private static class Replay extends InputStream
+    {
+        private static final String HEAD = "VAR total, hits;\nPROCEDURE clamp(v, limit);\nBEGIN\n"
+                + "IF v > limit THEN clamp := v mod limit; ELSE clamp := v;\nEND;\n"
+                + "BEGIN\ntotal := 0;\nhits := 0;\nr0 := 0; r1 := 0; r2 := 0; r3 := 0;\n";
+        private static final String TAIL = "WRITELN(total);\nWRITELN(hits);\nEND;\n.\n";
+
+        // instance variables
+        private long remaining;
+        private Random random;
+        private StringBuilder text;
+        private byte[] buffer;
+        private int pos;
+        private boolean ended;
+        // the next number when every number is different, or -1 for small random numbers
+        private int next = -1;
+
+        /**
+         * Replay constructor that makes a script of the given number of statements.
+         *
+         * @param statements the number of statements in the block
+         * @param seed the seed of the choices
+         */
+        Replay(long statements, long seed)
+        {
+            this(statements, seed, false);
+        }
+
+        /**
+         * Replay constructor that makes a script of the given number of statements,
+         * whose numbers may all be different.
+         *
+         * @param statements the number of statements in the block
+         * @param seed the seed of the choices
+         * @param distinct true to make every number different
+         */
+        Replay(long statements, long seed, boolean distinct)
+        {
+            if (distinct)
+                next = 1000;
+            remaining = statements;
+            random = new Random(seed);
+            text = new StringBuilder(256);
+            buffer = HEAD.getBytes();
+        }
+
+        /**
+         * This method reads one byte of the script.
+         *
+         * @return the byte, or -1 at the end of the script
+         */
+        @Override
+        public int read()
+        {
+            if (pos == buffer.length && !fill())
+                return -1;
+            return buffer[pos++];
+        }
+
+        /**
+         * This method reads bytes of the script into an array.
+         *
+         * @param b the array
+         * @param off the index of the first byte to read into
+         * @param len the most bytes to read
+         * @return the number of bytes read, or -1 at the end of the script
+         */
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+                return 0;
+            if (pos == buffer.length && !fill())
+                return -1;
+            int n = Math.min(len, buffer.length - pos);
+            System.arraycopy(buffer, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        /**
+         * This method generates the next statements of the script, or its end.
+         *
+         * @return false if the whole script has been read
+         */
+        private boolean fill()
+        {
+            if (ended)
+                return false;
+            text.setLength(0);
+            for (int i = 0; i < 16 && remaining > 0; i++, remaining--)
+                statement();
+            if (remaining == 0)
+            {
+                text.append(TAIL);
+                ended = true;
+            }
+            buffer = text.toString().getBytes();
+            pos = 0;
+            return true;
+        }
+
+        /**
+         * This method generates one statement, on its own line.
+         */
+        private void statement()
+        {
+            String r = "r" + random.nextInt(4);
+            int n = next < 0 ? random.nextInt(1000) : next++;
+            switch (random.nextInt(6))
+            {
+                case 0:
+                    text.append(r).append(" := clamp(").append(r).append(" + ").append(n).append(", 100000);\n");
+                    break;
+                case 1:
+                    text.append("WRITELN(").append(r).append(" * 3 - ").append(n).append(");\n");
+                    break;
+                case 2:
+                    text.append("IF ").append(r).append(" > ").append(n).append(" THEN total := total + ")
+                            .append(r).append("; ELSE hits := hits + 1;\n");
+                    break;
+                case 3:
+                    text.append("WHILE ").append(r).append(" > 1000 DO ").append(r).append(" := ").append(r)
+                            .append(" / 3;\n");
+                    break;
+                case 4:
+                    text.append("BEGIN ").append(r).append(" := ").append(r).append(" + ").append(n)
+                            .append("; WRITELN(").append(r).append("); END;\n");
+                    break;
+                default:
+                    text.append("total := total mod 1000000 + ").append(r).append(";\n");
+            }
+        }
+    }
+}
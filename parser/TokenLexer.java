@@ -0,0 +1,222 @@
+package parser;
+import scanner.Lexer;
+import scanner.SourcePosition;
+import scanner.SymbolTable;
+import scanner.TokenArray;
+import scanner.TokenKind;
+
+/**
+ * TokenLexer is a Lexer that replays the tokens of a TokenArray from a given index,
+ * so that a Parser can parse any range of a stream that has already been scanned. A
+ * lexer may be fenced: it shows the token at the fence but throws OutOfRange rather
+ * than move past it. A lexer that shares its symbol table with other threads throws
+ * OutOfRange rather than intern a new symbol. Past the last token, it is at the end
+ * of file, which is placed just after the last token.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+class TokenLexer implements Lexer
+{
+    // the fence of a lexer that may read to the end of file
+    static final int NO_FENCE = Integer.MAX_VALUE;
+    // the longest number that always fits in an int
+    private static final int SAFE_DIGITS = 9;
+
+    // instance variables
+    private TokenArray tokens;
+    private int fence;
+    private boolean shared;
+    private int index;
+    private TokenKind kind;
+
+    /**
+     * TokenLexer constructor that creates a lexer just before the given token.
+     *
+     * @param tokens the tokens to replay
+     * @param start the index of the first token to return
+     * @param fence the index of the last token that may be reached, or NO_FENCE
+     * @param shared true if other threads may be reading the symbol table
+     */
+    TokenLexer(TokenArray tokens, int start, int fence, boolean shared)
+    {
+        this.tokens = tokens;
+        this.fence = fence;
+        this.shared = shared;
+        index = start - 1;
+    }
+
+    /**
+     * This method returns the index of the current token.
+     *
+     * @return the index of the current token, or the number of tokens at the end of file
+     */
+    int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * This method moves just before the given token, so that it is the next token
+     * returned.
+     *
+     * @param next the index of the next token
+     */
+    void seek(int next)
+    {
+        index = next - 1;
+    }
+
+    /**
+     * This method moves to the next token and returns its kind.
+     *
+     * @return the kind of the next token
+     * @throws OutOfRange if the current token is at the fence
+     */
+    public TokenKind nextTokenKind()
+    {
+        if (index == fence)
+            throw OutOfRange.INSTANCE;
+        if (index < tokens.size())
+            index++;
+        kind = index < tokens.size() ? tokens.getKind(index) : TokenKind.EOF;
+        return kind;
+    }
+
+    /**
+     * This method returns the kind of a token ahead of the current one without moving
+     * to it.
+     *
+     * @param k how many tokens ahead to look, where 0 is the current token
+     * @return the kind of that token, or EOF past the last token
+     * @throws OutOfRange if the token is past the fence
+     */
+    public TokenKind peek(int k)
+    {
+        if (k < 0)
+            throw new IllegalArgumentException("Cannot look " + k + " tokens back");
+        if (k == 0)
+            return kind;
+        long wanted = (long) index + k;
+        if (wanted > fence)
+            throw OutOfRange.INSTANCE;
+        return wanted < tokens.size() ? tokens.getKind((int) wanted) : TokenKind.EOF;
+    }
+
+    /**
+     * This method returns the kind of the current token.
+     *
+     * @return the kind of the current token
+     */
+    public TokenKind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * This method returns the text of the current token.
+     *
+     * @return the lexeme of the current token
+     */
+    public String getLexeme()
+    {
+        return index < tokens.size() ? tokens.getLexeme(index) : kind.getSpelling();
+    }
+
+    /**
+     * This method returns the offset of the current token in the source.
+     *
+     * @return the offset of the current token, or of the end of the last token at the
+     *         end of file
+     */
+    public int getTokenOffset()
+    {
+        if (index < tokens.size())
+            return tokens.getOffset(index);
+        int last = tokens.size() - 1;
+        return last < 0 ? 0 : tokens.getOffset(last) + tokens.getLength(last);
+    }
+
+    /**
+     * This method returns the number of characters in the current token.
+     *
+     * @return the length of the current token, or 0 at the end of file
+     */
+    public int getTokenLength()
+    {
+        return index < tokens.size() ? tokens.getLength(index) : 0;
+    }
+
+    /**
+     * This method returns the packed position of the current token.
+     *
+     * @return the packed position of the current token
+     */
+    public long getTokenPosition()
+    {
+        if (index < tokens.size())
+            return tokens.getPosition(index);
+        return tokens.getSource() == null ? SourcePosition.UNKNOWN : tokens.getPositionOf(getTokenOffset());
+    }
+
+    /**
+     * This method returns the value of the current number token. A TokenArray does not
+     * record that a number overflowed, so a long number is read again from its text,
+     * which fails in the same way the scanner does.
+     *
+     * @return the value of the number
+     * @throws NumberFormatException if the number does not fit in an int
+     */
+    public int getNumberValue()
+    {
+        if (tokens.getLength(index) > SAFE_DIGITS && tokens.getSource() != null)
+            return Integer.parseInt(tokens.getLexeme(index));
+        return tokens.getValue(index);
+    }
+
+    /**
+     * This method returns the symbol ID of the text of the current token, interning
+     * it if it is not an identifier.
+     *
+     * @return the symbol ID of the current token
+     * @throws OutOfRange if the text would have to be interned while other threads
+     *                    read the symbol table
+     */
+    public int getSymbol()
+    {
+        if (kind == TokenKind.IDENTIFIER)
+            return tokens.getValue(index);
+        if (shared)
+            throw OutOfRange.INSTANCE;
+        return tokens.getSymbolTable().intern(getLexeme());
+    }
+
+    /**
+     * This method returns the symbol table that the symbol IDs refer to.
+     *
+     * @return the symbol table of the tokens
+     */
+    public SymbolTable getSymbolTable()
+    {
+        return tokens.getSymbolTable();
+    }
+
+    /**
+     * OutOfRange is thrown when a range of tokens cannot be parsed on its own. It is
+     * always caught by whoever fenced the lexer, so it carries no message or stack
+     * trace.
+     */
+    static class OutOfRange extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+        private static final OutOfRange INSTANCE = new OutOfRange();
+
+        /**
+         * OutOfRange constructor that creates the exception without a stack trace.
+         */
+        private OutOfRange()
+        {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package scanner;
+
+import java.util.Arrays;
+
+/**
+ * Diagnostics collects the errors found in one pass over a source, each with the
+ * offset in the source where it was found, so that they can all be reported
+ * together instead of stopping at the first one. Only the first few errors, up to
+ * a fixed limit, are kept; later errors are just counted.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class Diagnostics
+{
+    // instance variables
+    private final int limit;
+    private String[] messages;
+    private int[] offsets;
+    private int size;
+    private int suppressed;
+
+    /**
+     * Diagnostics constructor that creates an empty collector which keeps at most
+     * the given number of errors.
+     *
+     * @param limit the largest number of errors to keep
+     */
+    public Diagnostics(int limit)
+    {
+        this.limit = limit;
+        messages = new String[Math.min(limit, 16)];
+        offsets = new int[messages.length];
+        size = 0;
+        suppressed = 0;
+    }
+
+    /**
+     * This method records an error, or only counts it if the limit has been reached.
+     *
+     * @param message the description of the error
+     * @param offset the offset in the source where the error was found
+     */
+    public void report(String message, int offset)
+    {
+        if (size == limit)
+        {
+            suppressed++;
+            return;
+        }
+        if (size == messages.length)
+        {
+            messages = Arrays.copyOf(messages, Math.min(limit, size * 2));
+            offsets = Arrays.copyOf(offsets, messages.length);
+        }
+        messages[size] = message;
+        offsets[size] = offset;
+        size++;
+    }
+
+    /**
+     * This method counts an error that is past the limit without recording it. It
+     * lets callers skip building a message nobody will read.
+     */
+    public void suppress()
+    {
+        suppressed++;
+    }
+
+    /**
+     * This method checks if the limit on recorded errors has been reached.
+     *
+     * @return true if no more errors will be recorded, false otherwise
+     */
+    public boolean isFull()
+    {
+        return size == limit;
+    }
+
+    /**
+     * This method returns the number of errors recorded.
+     *
+     * @return the number of recorded errors
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * This method returns the number of errors found, including those past the limit.
+     *
+     * @return the total number of errors
+     */
+    public int getErrorCount()
+    {
+        return size + suppressed;
+    }
+
+    /**
+     * This method returns the description of a recorded error.
+     *
+     * @param i the index of the error, in the order they were found
+     * @return the description of the error
+     */
+    public String getMessage(int i)
+    {
+        return messages[i];
+    }
+
+    /**
+     * This method returns the offset in the source of a recorded error.
+     *
+     * @param i the index of the error, in the order they were found
+     * @return the offset of the error
+     */
+    public int getOffset(int i)
+    {
+        return offsets[i];
+    }
+
+    /**
+     * This method lists the recorded errors one per line, followed by how many more
+     * were found past the limit.
+     *
+     * @return the errors as text
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < size; i++)
+            text.append("offset ").append(offsets[i]).append(": ").append(messages[i]).append('\n');
+        if (suppressed > 0)
+            text.append(suppressed).append(" more errors not shown\n");
+        return text.toString();
+    }
+}
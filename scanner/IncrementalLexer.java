@@ -0,0 +1,132 @@
+package scanner;
+
+/**
+ * IncrementalLexer keeps the tokens of a source that is being edited and brings them
+ * up to date after each edit by scanning only around the edit, instead of scanning the
+ * whole source again.
+ *
+ * Scanning restarts at the end of the token before the last token that starts before
+ * the edit, since the edit may have lengthened or merged that last token. It cannot
+ * restart at the start of that token: the Scanner skips white space and comments
+ * before a token in one call, and which comments it skips depends on where the call
+ * started, so a token that followed a // comment or a (* *) comment would be scanned
+ * as if nothing came before it, and a "(*" after it read as a new comment. Every call
+ * the Scanner makes starts at the end of the token before, so the end of a token is
+ * the one place a fresh Scanner sees the text the way the full scan did. Scanning then
+ * goes on past the end of the edit until a new token starts exactly where an old token
+ * starts (after moving it by the change in length) and matches it. From that point on
+ * the text is the same as before and so are the tokens, so the rest of the old tokens
+ * are kept. An edit that opens a comment simply scans further, until the comment ends
+ * and the streams agree again.
+ *
+ * Only the scanning is proportional to the size of the edit. Each edit still builds a
+ * new source array and new token arrays, so it also costs a bulk copy of the whole
+ * source and of every token, which is what an edit of a long source mostly spends its
+ * time on.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class IncrementalLexer
+{
+    // instance variables
+    private char[] source;
+    private TokenArray tokens;
+    private SymbolTable symbols;
+
+    /**
+     * IncrementalLexer constructor that scans the whole starting source.
+     *
+     * @param text the starting source
+     * @throws ScanErrorException when a token cannot be scanned
+     */
+    public IncrementalLexer(String text) throws ScanErrorException
+    {
+        source = text.toCharArray();
+        symbols = new SymbolTable();
+        Scanner scanner = new Scanner(source, 0, source.length);
+        scanner.setSymbolTable(symbols);
+        tokens = scanner.tokenize();
+    }
+
+    /**
+     * This method applies an edit to the source and updates the tokens. If the edited
+     * source cannot be scanned, the exception is thrown and neither the source nor the
+     * tokens change.
+     *
+     * @param offset the offset where the edit starts
+     * @param removedLength the number of characters removed at the offset
+     * @param insertedText the text inserted at the offset
+     * @return the change to the token stream
+     * @throws ScanErrorException when a token of the edited source cannot be scanned
+     */
+    public TokenDelta edit(int offset, int removedLength, String insertedText) throws ScanErrorException
+    {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > source.length)
+            throw new IndexOutOfBoundsException("Edit outside of source: " + offset + "+" + removedLength);
+        int shift = insertedText.length() - removedLength;
+        char[] edited = new char[source.length + shift];
+        System.arraycopy(source, 0, edited, 0, offset);
+        insertedText.getChars(0, insertedText.length(), edited, offset);
+        System.arraycopy(source, offset + removedLength, edited, offset + insertedText.length(),
+                source.length - offset - removedLength);
+
+        // with no token before the edit, the edit may be inside a comment opened anywhere before it
+        int before = tokens.findBefore(offset);
+        int start = Math.max(before, 0);
+        int restart = before > 0 ? tokens.getOffset(before - 1) + tokens.getLength(before - 1) : 0;
+        int oldEditEnd = offset + removedLength;
+        int newEditEnd = offset + insertedText.length();
+
+        Scanner scanner = new Scanner(edited, restart, edited.length);
+        scanner.setSymbolTable(symbols);
+        TokenArray inserted = new TokenArray(edited, symbols);
+        int resume = tokens.size();
+        while (scanner.nextTokenKind() != TokenKind.EOF)
+        {
+            int at = scanner.getTokenOffset();
+            if (at >= newEditEnd)
+            {
+                int old = tokens.findBefore(at - shift + 1);
+                if (old >= 0 && tokens.getOffset(old) == at - shift && tokens.getOffset(old) >= oldEditEnd
+                        && tokens.getKind(old) == scanner.getKind()
+                        && tokens.getLength(old) == scanner.getTokenLength()
+                        && tokens.getValue(old) == scanner.getTokenValue())
+                {
+                    resume = old;
+                    break;
+                }
+            }
+            inserted.add(scanner.getKind(), at, scanner.getTokenLength(), scanner.getTokenValue());
+        }
+
+        TokenArray updated = new TokenArray(edited, symbols, start + inserted.size() + tokens.size() - resume);
+        updated.append(tokens, 0, start);
+        updated.append(inserted, 0, inserted.size());
+        updated.append(tokens, resume, tokens.size(), shift);
+        updated.moveLines(tokens, start, resume, offset, removedLength, insertedText.length());
+        source = edited;
+        tokens = updated;
+        return new TokenDelta(start, resume - start, inserted, shift);
+    }
+
+    /**
+     * This method returns the current tokens of the source.
+     *
+     * @return the tokens, up to but not including the end of file
+     */
+    public TokenArray getTokens()
+    {
+        return tokens;
+    }
+
+    /**
+     * This method returns the current text of the source.
+     *
+     * @return the source
+     */
+    public String getText()
+    {
+        return new String(source);
+    }
+}
@@ -0,0 +1,213 @@
+package scanner;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Tests that IncrementalLexer gives the same tokens as scanning the whole edited source,
+ * by making many random edits to random sources made of pieces of the language. The
+ * pieces lean toward comments and the characters that open and close them, since an
+ * edit next to a comment is where restarting the scan in the wrong place goes wrong.
+ * After every edit each token must have the same kind, offset, length, text, and
+ * position as a full scan, and an edit the full scan cannot scan must fail and leave
+ * the lexer as it was. Since the positions are asked for after every edit, the
+ * positions after the next edit come from the lines found before it, moved by the
+ * edit. It also times edits to the middle of a long source.
+ *
+ * Usage: java scanner.IncrementalLexerTester [random edits] [seed]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class IncrementalLexerTester
+{
+    private static final String[] PIECES = {
+        " ", "\n", "\t", "//", "// note\n", "(*", "*)", "(* text *)", "(**)", "*", "(", ")", "/",
+        "<", ">", ":", "=", "<=", ":=", ";", "x", "BEGIN", "END", "IF", "1", "23", "a", "#"
+    };
+    // the number of edits made to each random source before starting a new one
+    private static final int EDITS_PER_SOURCE = 20;
+
+    /**
+     * Main tester method that checks the random edits and prints how long an edit takes.
+     *
+     * @param args the number of random edits and the random seed
+     */
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 17;
+
+        // edits that once restarted the scan at a token that followed a comment
+        check("< 1(**)()", 8, 1, "*23", "example 1");
+        check("BEGIN//(BEGIN<23a\n\n(*", 20, 0, "", "example 2");
+
+        // the Scanner prints the errors it gets past, such as a comment that is not closed
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        Random random = new Random(seed);
+        int edits = 0;
+        while (edits < count)
+        {
+            String text = pieces(random, random.nextInt(30));
+            IncrementalLexer lexer;
+            try
+            {
+                lexer = new IncrementalLexer(text);
+            }
+            catch (ScanErrorException e)
+            {
+                continue;
+            }
+            for (int i = 0; i < EDITS_PER_SOURCE && edits < count; i++, edits++)
+            {
+                int offset = random.nextInt(text.length() + 1);
+                int removed = random.nextInt(Math.min(4, text.length() - offset) + 1);
+                String inserted = pieces(random, random.nextInt(3));
+                text = edit(lexer, text, offset, removed, inserted, "random edit " + edits);
+            }
+        }
+        System.setErr(err);
+        System.out.println("incremental and full scans agree on " + count + " random edits");
+        time();
+    }
+
+    /**
+     * This method makes one edit to a new lexer of a source and checks the tokens.
+     *
+     * @param text the source
+     * @param offset the offset where the edit starts
+     * @param removed the number of characters removed at the offset
+     * @param inserted the text inserted at the offset
+     * @param name the name of the edit, for the failure message
+     */
+    private static void check(String text, int offset, int removed, String inserted, String name)
+    {
+        try
+        {
+            edit(new IncrementalLexer(text), text, offset, removed, inserted, name);
+        }
+        catch (ScanErrorException e)
+        {
+            throw new IllegalStateException(name + ": unexpected exception " + e);
+        }
+    }
+
+    /**
+     * This method makes an edit with an IncrementalLexer and checks its tokens against a
+     * full scan of the edited source.
+     *
+     * @param lexer the lexer of the source
+     * @param text the source
+     * @param offset the offset where the edit starts
+     * @param removed the number of characters removed at the offset
+     * @param inserted the text inserted at the offset
+     * @param name the name of the edit, for the failure message
+     * @return the source after the edit, or the source before it if the edit failed
+     */
+    private static String edit(IncrementalLexer lexer, String text, int offset, int removed,
+            String inserted, String name)
+    {
+        String edited = text.substring(0, offset) + inserted + text.substring(offset + removed);
+        String describe = name + ": edit(" + offset + ", " + removed + ", \"" + inserted + "\") of \""
+                + text.replace("\n", "\\n") + "\"";
+        TokenArray expected;
+        try
+        {
+            expected = new IncrementalLexer(edited).getTokens();
+        }
+        catch (ScanErrorException e)
+        {
+            expected = null;
+        }
+        try
+        {
+            lexer.edit(offset, removed, inserted);
+        }
+        catch (ScanErrorException e)
+        {
+            if (expected != null)
+                throw new IllegalStateException(describe + ": unexpected exception " + e);
+            if (!lexer.getText().equals(text))
+                throw new IllegalStateException(describe + ": the failed edit changed the source");
+            return text;
+        }
+        if (expected == null)
+            throw new IllegalStateException(describe + ": no exception, but the full scan fails");
+        TokenArray actual = lexer.getTokens();
+        if (!lexer.getText().equals(edited))
+            throw new IllegalStateException(describe + ": the source is \"" + lexer.getText() + "\"");
+        for (int i = 0; i < Math.max(expected.size(), actual.size()); i++)
+        {
+            if (i >= expected.size() || i >= actual.size()
+                    || actual.getKind(i) != expected.getKind(i)
+                    || actual.getOffset(i) != expected.getOffset(i)
+                    || actual.getLength(i) != expected.getLength(i)
+                    || !actual.getLexeme(i).equals(expected.getLexeme(i))
+                    || actual.getPosition(i) != expected.getPosition(i))
+                throw new IllegalStateException(describe + ": token " + i + " is "
+                        + describe(actual, i) + " instead of " + describe(expected, i));
+        }
+        return edited;
+    }
+
+    /**
+     * This method times single character edits to the middle of a long source, which
+     * scan only a few tokens but copy the whole source and token arrays.
+     */
+    private static void time()
+    {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 4 << 20)
+            text.append("BEGIN x := x + 1; (* step *) WRITELN(x); END;\n");
+        try
+        {
+            IncrementalLexer lexer = new IncrementalLexer(text.toString());
+            int edits = 200;
+            long start = System.nanoTime();
+            for (int i = 0; i < edits; i++)
+            {
+                lexer.edit(text.length() / 2, 0, "y");
+                lexer.edit(text.length() / 2, 1, "");
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("edit of a %d KB source: %.1f us%n", text.length() >> 10,
+                    nanos / 1e3 / (2 * edits));
+        }
+        catch (ScanErrorException e)
+        {
+            throw new IllegalStateException("unexpected exception " + e);
+        }
+    }
+
+    /**
+     * This method joins random pieces of the language.
+     *
+     * @param random the source of random choices
+     * @param count the number of pieces
+     * @return the pieces joined
+     */
+    private static String pieces(Random random, int count)
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++)
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+        return text.toString();
+    }
+
+    /**
+     * This method describes a token of a token array.
+     *
+     * @param tokens the tokens
+     * @param i the index of the token
+     * @return the kind, text, and source range of the token, or "missing" if there is none
+     */
+    private static String describe(TokenArray tokens, int i)
+    {
+        if (i >= tokens.size())
+            return "missing";
+        return tokens.getKind(i) + " \"" + tokens.getLexeme(i) + "\" at " + tokens.getOffset(i)
+                + "+" + tokens.getLength(i) + " (" + SourcePosition.toString(tokens.getPosition(i)) + ")";
+    }
+}
@@ -0,0 +1,90 @@
+package scanner;
+
+/**
+ * Lexer is a source of tokens for the Parser. It moves through the tokens one at a
+ * time and describes the current token by its kind, its text, its place in the source,
+ * and, for numbers and identifiers, its value or symbol ID.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public interface Lexer
+{
+    /**
+     * This method moves to the next token and returns its kind. Once the end of file
+     * is reached, every further call returns EOF.
+     *
+     * @return the kind of the next token
+     * @throws ScanErrorException when the next token cannot be scanned
+     */
+    TokenKind nextTokenKind() throws ScanErrorException;
+
+    /**
+     * This method returns the kind of a token ahead of the current one without moving
+     * to it, so that a parser can choose between two rules that start alike. peek(0)
+     * is the kind of the current token.
+     *
+     * @param k how many tokens ahead to look
+     * @return the kind of that token, or EOF if the input ends before it
+     * @throws ScanErrorException when a token up to it cannot be scanned
+     */
+    TokenKind peek(int k) throws ScanErrorException;
+
+    /**
+     * This method returns the kind of the current token.
+     *
+     * @return the kind of the current token
+     */
+    TokenKind getKind();
+
+    /**
+     * This method returns the text of the current token.
+     *
+     * @return the lexeme of the current token
+     */
+    String getLexeme();
+
+    /**
+     * This method returns the offset of the current token in the source.
+     *
+     * @return the offset of the first character of the current token
+     */
+    int getTokenOffset();
+
+    /**
+     * This method returns the number of characters in the current token.
+     *
+     * @return the length of the current token
+     */
+    int getTokenLength();
+
+    /**
+     * This method returns the line, column, and offset of the current token, packed
+     * into a long as described in SourcePosition.
+     *
+     * @return the packed position of the current token
+     */
+    long getTokenPosition();
+
+    /**
+     * This method returns the value of the current number token.
+     *
+     * @return the value of the number
+     * @throws NumberFormatException if the number does not fit in an int
+     */
+    int getNumberValue();
+
+    /**
+     * This method returns the symbol ID of the text of the current token.
+     *
+     * @return the symbol ID of the current token
+     */
+    int getSymbol();
+
+    /**
+     * This method returns the symbol table that the symbol IDs refer to.
+     *
+     * @return the symbol table
+     */
+    SymbolTable getSymbolTable();
+}
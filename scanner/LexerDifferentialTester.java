@@ -0,0 +1,186 @@
+package scanner;
+
+import benchmark.TestPrograms;
+import java.io.*;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests that PascalLexer and Scanner give the same tokens, by running both on the
+ * parser test programs and on many random inputs made of pieces of the language,
+ * including comments, operators that share a first character, keywords with a
+ * letter changed, numbers too big for an int, and characters no rule matches.
+ * Every token must have the same kind, offset, length, text, and value, and both
+ * lexers must report the same errors.
+ *
+ * PascalLexer's tables are built by hand rather than generated from PascalLexer.flex,
+ * so the tester also reads every keyword and operator rule of the specification and
+ * checks that PascalLexer scans its text as the kind the rule returns.
+ *
+ * Usage: java scanner.LexerDifferentialTester [test directory] [random inputs] [seed]
+ *        [specification]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class LexerDifferentialTester
+{
+    private static final String[] PIECES = {
+        " ", "  ", "\t", "\n", "\r\n", "\n  ", "//", "// note\n", "(*", "*)", "(* text *)", "**)", "(**)",
+        "(", ")", "*", "/", "<", ">", ":", "=", "<=", "<>", ">=", ":=", "+", "-", "%", ",", ";", ".",
+        "x", "count", "a1b2", "BEGIN", "END", "WRITELN", "READLN", "IF", "THEN", "ELSE", "WHILE", "DO",
+        "PROCEDURE", "VAR", "mod", "BEGINS", "EN", "Mod", "md", "0", "42", "007", "2147483647",
+        "2147483648", "99999999999", "#", "?", "\u00e9", "{", "!"
+    };
+    // a rule of the specification that returns a token for one literal text
+    private static final Pattern LITERAL_RULE =
+            Pattern.compile("^\\s*\"([^\"]+)\"\\s+\\{ return token\\(TokenKind\\.(\\w+)\\); \\}", Pattern.MULTILINE);
+
+    /**
+     * Main tester method that compares the lexers and prints how many inputs agreed.
+     *
+     * @param args the parser test directory, the number of random inputs, the random seed,
+     *             and the path of PascalLexer.flex
+     * @throws IOException if a test program or the specification cannot be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Path dir = TestPrograms.directory(args);
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 17;
+        Path spec = args.length > 3 ? Paths.get(args[3])
+                : dir.resolve("../../scanner/PascalLexer.flex").normalize();
+
+        int rules = checkSpecification(new String(Files.readAllBytes(spec)));
+
+        Map<String, String> files = TestPrograms.load(dir);
+        for (Map.Entry<String, String> file : files.entrySet())
+            compare(file.getValue(), file.getKey());
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++)
+        {
+            StringBuilder input = new StringBuilder();
+            for (int pieces = random.nextInt(40); pieces > 0; pieces--)
+                input.append(PIECES[random.nextInt(PIECES.length)]);
+            compare(input.toString(), "random input " + i);
+        }
+        System.out.println("lexers agree on " + files.size() + " test programs and " + count + " random inputs");
+        System.out.println("PascalLexer matches " + rules + " literal rules of " + spec);
+    }
+
+    /**
+     * This method scans the text of every literal rule of the specification with
+     * PascalLexer and checks that it is one token of the kind the rule returns.
+     *
+     * @param spec the text of PascalLexer.flex
+     * @return the number of rules checked
+     */
+    private static int checkSpecification(String spec)
+    {
+        int rules = 0;
+        Matcher rule = LITERAL_RULE.matcher(spec);
+        while (rule.find())
+        {
+            String text = rule.group(1);
+            TokenKind kind = TokenKind.valueOf(rule.group(2));
+            PascalLexer lexer = new PascalLexer(text);
+            try
+            {
+                if (lexer.nextTokenKind() != kind || lexer.getTokenLength() != text.length()
+                        || lexer.nextTokenKind() != TokenKind.EOF)
+                    fail("the specification", text, "PascalLexer does not scan it as one " + kind);
+            }
+            catch (ScanErrorException e)
+            {
+                fail("the specification", text, "unexpected exception " + e);
+            }
+            rules++;
+        }
+        if (rules == 0)
+            throw new IllegalStateException("no literal rules found in the specification");
+        return rules;
+    }
+
+    /**
+     * Scans an input with both lexers and checks that they agree.
+     *
+     * @param input the input to scan
+     * @param name the name of the input, for the failure message
+     */
+    private static void compare(String input, String name)
+    {
+        Scanner expected = new Scanner(input);
+        PascalLexer actual = new PascalLexer(input);
+        Diagnostics expectedErrors = new Diagnostics(8);
+        Diagnostics actualErrors = new Diagnostics(8);
+        expected.setDiagnostics(expectedErrors);
+        actual.setDiagnostics(actualErrors);
+        try
+        {
+            for (int i = 0; ; i++)
+            {
+                TokenKind kind = expected.nextTokenKind();
+                if (actual.nextTokenKind() != kind
+                        || actual.getTokenOffset() != expected.getTokenOffset()
+                        || actual.getTokenLength() != expected.getTokenLength()
+                        || !actual.getLexeme().equals(expected.getLexeme())
+                        || kind == TokenKind.NUMBER && valueOf(actual) != valueOf(expected))
+                    fail(name, input, "token " + i + " is " + describe(actual) + " instead of " + describe(expected));
+                if (kind == TokenKind.EOF)
+                    break;
+            }
+        }
+        catch (ScanErrorException e)
+        {
+            fail(name, input, "unexpected exception " + e);
+        }
+        if (!expectedErrors.toString().equals(actualErrors.toString()))
+            fail(name, input, "errors are\n" + actualErrors + "\ninstead of\n" + expectedErrors);
+    }
+
+    /**
+     * This method returns the value of the current number token of a lexer.
+     *
+     * @param lexer the lexer
+     * @return the value of the number, or Long.MIN_VALUE if it does not fit in an int
+     */
+    private static long valueOf(Lexer lexer)
+    {
+        try
+        {
+            return lexer.getNumberValue();
+        }
+        catch (NumberFormatException e)
+        {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * This method describes the current token of a lexer.
+     *
+     * @param lexer the lexer
+     * @return the kind, text, and source range of the current token
+     */
+    private static String describe(Lexer lexer)
+    {
+        return lexer.getKind() + " \"" + lexer.getLexeme() + "\" at " + lexer.getTokenOffset()
+                + "+" + lexer.getTokenLength();
+    }
+
+    /**
+     * This method stops the test with a description of the input the lexers disagreed on.
+     *
+     * @param name the name of the input
+     * @param input the input
+     * @param reason how the lexers disagreed
+     */
+    private static void fail(String name, String input, String reason)
+    {
+        throw new IllegalStateException("lexers disagree on " + name + ": " + reason
+                + "\ninput: \"" + input.replace("\n", "\\n") + "\"");
+    }
+}
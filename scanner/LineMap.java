@@ -0,0 +1,215 @@
+package scanner;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * LineMap records the offset at which each line of a source starts, and turns
+ * offsets into packed SourcePositions by looking up the line that holds them.
+ *
+ * Newlines only appear in white space and comments, so a lexer records a line start
+ * whenever it skips a newline one character at a time, and hands each run of white
+ * space or comment it skips in bulk to addLineStarts, which searches it for newlines,
+ * with the TextSkipper if it is long. No counter is kept for every character, and since tokens
+ * never span a line, the current token is always on the last line recorded.
+ *
+ * A lexer that only ever asks for the position of its current token can make a map
+ * that keeps just the start of the last line and a count of the lines before it, so
+ * the map stays the same size however long the source is.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+class LineMap
+{
+    private static final TextSkipper SKIPPER = new TextSkipper();
+    // ranges shorter than this, like the white space between tokens, are searched one character at a time
+    private static final int SEARCH_THRESHOLD = 64;
+
+    // instance variables
+    private int[] starts;
+    private int size;
+    private boolean keepAll;
+    // lines whose starts were not kept, when only the last line is kept
+    private int dropped;
+
+    /**
+     * LineMap constructor that creates a map whose first line starts at the given
+     * offset, and which keeps the start of every line.
+     *
+     * @param start the offset of the first character of the source
+     */
+    LineMap(int start)
+    {
+        this(start, true);
+    }
+
+    /**
+     * LineMap constructor that creates a map whose first line starts at the given
+     * offset. A map that keeps only the last line can only give the positions of
+     * offsets on that line.
+     *
+     * @param start the offset of the first character of the source
+     * @param keepAll true to keep the start of every line, false to keep only the last
+     */
+    LineMap(int start, boolean keepAll)
+    {
+        starts = new int[keepAll ? 64 : 1];
+        starts[0] = start;
+        size = 1;
+        this.keepAll = keepAll;
+    }
+
+    /**
+     * This method records that a line starts at the given offset, which must come
+     * after every line start recorded before it.
+     *
+     * @param start the offset of the first character of the line
+     */
+    void addLineStart(int start)
+    {
+        if (!keepAll)
+        {
+            starts[0] = start;
+            dropped++;
+            return;
+        }
+        if (size == starts.length)
+            starts = Arrays.copyOf(starts, size * 2);
+        starts[size++] = start;
+    }
+
+    /**
+     * This method records the lines that start after the newlines in a range of text.
+     *
+     * @param s the source
+     * @param from the index of the first character of the range
+     * @param to the index just past the last character of the range
+     */
+    void addLineStarts(char[] s, int from, int to)
+    {
+        if (to - from < SEARCH_THRESHOLD)
+        {
+            for (int i = from; i < to; i++)
+                if (s[i] == '\n')
+                    addLineStart(i + 1);
+            return;
+        }
+        for (int i = SKIPPER.find(s, from, to, '\n'); i < to; i = SKIPPER.find(s, i + 1, to, '\n'))
+            addLineStart(i + 1);
+    }
+
+    /**
+     * This method records the lines that start after the newlines in a range of UTF-8
+     * text.
+     *
+     * @param s the source
+     * @param from the index of the first byte of the range
+     * @param to the index just past the last byte of the range
+     */
+    void addLineStarts(ByteBuffer s, int from, int to)
+    {
+        if (to - from < SEARCH_THRESHOLD)
+        {
+            for (int i = from; i < to; i++)
+                if (s.get(i) == '\n')
+                    addLineStart(i + 1);
+            return;
+        }
+        for (int i = SKIPPER.find(s, from, to, '\n'); i < to; i = SKIPPER.find(s, i + 1, to, '\n'))
+            addLineStart(i + 1);
+    }
+
+    /**
+     * This method makes the map of a source after an edit from the map of the source
+     * before it: the lines that start before the edit are kept, the lines of the
+     * inserted text are found, and the lines after the edit are moved by the change in
+     * length, so the text outside the edit is not searched again. This map must keep
+     * the start of every line.
+     *
+     * @param offset the offset where the edit starts
+     * @param removed the number of characters removed at the offset
+     * @param s the source after the edit
+     * @param inserted the number of characters inserted at the offset
+     * @return the map of the edited source
+     */
+    LineMap splice(int offset, int removed, char[] s, int inserted)
+    {
+        // a line starts after a newline, so one starting at or before the offset follows a kept newline
+        int keep = linesUpTo(offset);
+        int resume = linesUpTo(offset + removed);
+        LineMap map = new LineMap(starts[0]);
+        map.starts = Arrays.copyOf(starts, Math.max(keep + size - resume + 16, 1));
+        map.size = keep;
+        map.addLineStarts(s, offset, offset + inserted);
+        int shift = inserted - removed;
+        if (map.size + size - resume > map.starts.length)
+            map.starts = Arrays.copyOf(map.starts, map.size + size - resume);
+        for (int i = resume; i < size; i++)
+            map.starts[map.size++] = starts[i] + shift;
+        return map;
+    }
+
+    /**
+     * This method returns the line that holds an offset. The map must keep the start
+     * of every line.
+     *
+     * @param offset the offset in the source
+     * @return the index of the line, counting from 0
+     */
+    int lineOf(int offset)
+    {
+        return Math.max(linesUpTo(offset) - 1, 0);
+    }
+
+    /**
+     * This method counts the kept lines that start at or before an offset.
+     *
+     * @param offset the offset in the source
+     * @return the number of lines
+     */
+    private int linesUpTo(int offset)
+    {
+        int line = Arrays.binarySearch(starts, 0, size, offset);
+        return line >= 0 ? line + 1 : -line - 1;
+    }
+
+    /**
+     * This method returns the number of lines recorded.
+     *
+     * @return the number of lines
+     */
+    int size()
+    {
+        return dropped + size;
+    }
+
+    /**
+     * This method returns the offset at which a line starts.
+     *
+     * @param line the index of the line, counting from 0, which must be kept
+     * @return the offset of the first character of the line
+     */
+    int getStart(int line)
+    {
+        return starts[line - dropped];
+    }
+
+    /**
+     * This method returns the position of an offset. The lines up to the offset must
+     * already have been recorded. Offsets on the last recorded line, which is where
+     * a lexer's current token is, are found without a search; earlier offsets are
+     * found by a binary search of the line starts, so they must be on lines that are
+     * kept.
+     *
+     * @param offset the offset in the source
+     * @return the packed position of the offset
+     */
+    long position(int offset)
+    {
+        int line = size - 1;
+        if (offset < starts[line])
+            line = lineOf(offset);
+        return SourcePosition.pack(dropped + line + 1, offset - starts[line] + 1, offset);
+    }
+}
@@ -0,0 +1,205 @@
+package scanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelLexer scans a large source on several threads at once. It splits the source
+ * into chunks just after statement terminators (';'), scans every chunk on a
+ * ForkJoinPool with its own Scanner, and joins the chunks back together into one
+ * TokenArray that is identical to scanning the whole source with a single Scanner.
+ *
+ * A split point is only safe if it is not inside a // or (* *) comment, which cannot
+ * be known without scanning everything before it. So each chunk is scanned as if it
+ * started outside a comment, and when a chunk turns out to end inside a comment, the
+ * source is scanned once, sequentially, from the start of that chunk until a token
+ * ends exactly at the start of a later chunk, whose own scan is then used. A comment
+ * that spans many chunks is therefore scanned only once more. Scanning errors are
+ * handled by rescanning the rest of the source sequentially, so that they are raised
+ * exactly where a single Scanner would raise them.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ParallelLexer
+{
+    // sources shorter than this many chars per chunk are not worth splitting
+    private static final int MIN_CHUNK = 1 << 16;
+
+    // instance variables
+    private ForkJoinPool pool;
+
+    /**
+     * ParallelLexer constructor that scans chunks on the given pool.
+     *
+     * @param pool the pool to scan chunks on
+     */
+    public ParallelLexer(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * This method scans a whole source and returns its tokens.
+     *
+     * @param source the source to scan
+     * @return the tokens of the source, up to but not including the end of file
+     * @throws ScanErrorException when a token cannot be scanned
+     */
+    public TokenArray tokenize(char[] source) throws ScanErrorException
+    {
+        int[] bounds = split(source, Math.min(pool.getParallelism() * 4, source.length / MIN_CHUNK));
+        int chunks = bounds.length - 1;
+        if (chunks <= 1)
+            return new Scanner(source, 0, source.length).tokenize();
+
+        List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+        for (int i = 0; i < chunks; i++)
+        {
+            int start = bounds[i];
+            int end = bounds[i + 1];
+            tasks.add(() -> Chunk.scan(source, start, end));
+        }
+        List<Future<Chunk>> results = pool.invokeAll(tasks);
+
+        TokenArray tokens = new TokenArray(source, new SymbolTable());
+        int i = 0;
+        while (i < chunks)
+        {
+            Chunk chunk = join(results.get(i));
+            if (chunk.endedInComment)
+            {
+                // the chunks the comment runs into are scanned again with it, once
+                i = scanPast(source, bounds, i, tokens);
+                if (i < 0)
+                    return tokens;
+                continue;
+            }
+            if (chunk.errors.getErrorCount() > 0)
+            {
+                Scanner rest = new Scanner(source, bounds[i], source.length);
+                rest.setSymbolTable(tokens.getSymbolTable());
+                TokenArray tail = rest.tokenize();
+                tokens.append(tail, 0, tail.size());
+                return tokens;
+            }
+            tokens.append(chunk.tokens, 0, chunk.tokens.size());
+            if (chunk.foundEndOfProgram)
+                return tokens;
+            i++;
+        }
+        return tokens;
+    }
+
+    /**
+     * This method scans the source sequentially from the start of a chunk that ended
+     * inside a comment, adding each token, until a token ends exactly at the start of
+     * a later chunk. That chunk started outside a comment, so its own scan is right.
+     *
+     * @param source the whole source
+     * @param bounds the offsets where chunks start, followed by the length of the source
+     * @param i the index of the chunk that ended inside a comment
+     * @param tokens the tokens scanned so far, which the new tokens are added to
+     * @return the index of the chunk to carry on from, or -1 if the input ended first
+     * @throws ScanErrorException when a token cannot be scanned
+     */
+    private static int scanPast(char[] source, int[] bounds, int i, TokenArray tokens) throws ScanErrorException
+    {
+        int chunks = bounds.length - 1;
+        int next = i + 1;
+        Scanner scanner = new Scanner(source, bounds[i], source.length);
+        scanner.setSymbolTable(tokens.getSymbolTable());
+        while (scanner.nextTokenKind() != TokenKind.EOF)
+        {
+            int end = scanner.getTokenOffset() + scanner.getTokenLength();
+            tokens.add(scanner.getKind(), scanner.getTokenOffset(), scanner.getTokenLength(),
+                    scanner.getTokenValue());
+            while (next < chunks && bounds[next] < end)
+                next++;
+            if (next < chunks && bounds[next] == end)
+                return next;
+        }
+        return -1;
+    }
+
+    /**
+     * This method picks the boundaries of the chunks, each just after a ';' at or past
+     * an even share of the source.
+     *
+     * @param source the source to split
+     * @param chunks the number of chunks wanted
+     * @return the offsets where chunks start, followed by the length of the source
+     */
+    private static int[] split(char[] source, int chunks)
+    {
+        List<Integer> bounds = new ArrayList<Integer>();
+        bounds.add(0);
+        for (int i = 1; i < chunks; i++)
+        {
+            int at = Math.max((int) ((long) source.length * i / chunks), bounds.get(bounds.size() - 1));
+            while (at < source.length && source[at] != ';')
+                at++;
+            if (at + 1 < source.length && at + 1 > bounds.get(bounds.size() - 1))
+                bounds.add(at + 1);
+        }
+        bounds.add(source.length);
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+        return result;
+    }
+
+    /**
+     * This method waits for a chunk to be scanned.
+     *
+     * @param result the pending chunk
+     * @return the scanned chunk
+     */
+    private static Chunk join(Future<Chunk> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Chunk is the result of scanning one chunk of the source on its own.
+     */
+    private static class Chunk
+    {
+        private TokenArray tokens;
+        private Diagnostics errors;
+        private boolean endedInComment;
+        private boolean foundEndOfProgram;
+
+        /**
+         * This method scans one chunk of the source, collecting any errors instead of
+         * raising them, since the chunk may not have started where a token starts.
+         *
+         * @param source the whole source
+         * @param start the offset of the first character of the chunk
+         * @param end the offset just past the last character of the chunk
+         * @return the scanned chunk
+         * @throws ScanErrorException never, since errors are collected
+         */
+        static Chunk scan(char[] source, int start, int end) throws ScanErrorException
+        {
+            Chunk chunk = new Chunk();
+            Scanner scanner = new Scanner(source, start, end);
+            chunk.errors = new Diagnostics(1);
+            scanner.setDiagnostics(chunk.errors);
+            chunk.tokens = scanner.tokenize();
+            chunk.endedInComment = scanner.endedInComment();
+            chunk.foundEndOfProgram = scanner.foundEndOfProgram();
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package scanner;
+
+import benchmark.TestPrograms;
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how ParallelLexer scales with the number of threads on the parser test
+ * programs repeated up to a given size, compared to scanning with a single Scanner.
+ * Every parallel result is checked against the sequential one, as is the result for
+ * the same source with a (* *) comment opened near the start that runs across every
+ * chunk, and one with a // comment in each chunk.
+ *
+ * Checking the comments holds the source, the two commented copies, and several token
+ * arrays at once, so the corpus is cut down to what fits in the maximum heap, and a
+ * corpus of the full size needs a -Xmx of a little over 40 bytes per character,
+ * which the benchmark prints when it cuts the corpus.
+ *
+ * Usage: java [-Xmx...] scanner.ParallelLexerBenchmark [corpus directory] [size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ParallelLexerBenchmark
+{
+    private static final int ROUNDS = 5;
+    // the most heap the benchmark needs per character of the corpus, at its peak
+    private static final int BYTES_PER_CHAR = 40;
+
+    /**
+     * Main benchmark method that prints the scanning time and speedup for each
+     * thread count from 1 up to the number of processors.
+     *
+     * @param args the corpus directory and the size of the scaled-up source in megabytes
+     * @throws IOException if the corpus cannot be read
+     * @throws ScanErrorException if the corpus cannot be scanned
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException
+    {
+        Path dir = TestPrograms.directory(args);
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        // the heap a JVM can use is somewhat less than its -Xmx, hence the advice of 9/8 of the need
+        long fits = Runtime.getRuntime().maxMemory() / BYTES_PER_CHAR;
+        if (fits < (long) megabytes << 20)
+            System.out.printf("cut the corpus to %d MB to fit a %d MB heap; run with -Xmx%dm for %d MB%n",
+                    fits >> 20, Runtime.getRuntime().maxMemory() >> 20, (long) megabytes * BYTES_PER_CHAR * 9 / 8,
+                    megabytes);
+        char[] source = ScannerBenchmark.scaleCorpus(dir, (int) Math.min(fits, (long) megabytes << 20))
+                .toCharArray();
+        System.out.println("corpus: " + source.length + " chars from " + dir);
+
+        TokenArray expected = null;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            long start = System.nanoTime();
+            expected = new Scanner(source, 0, source.length).tokenize();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double sequential = best / 1e6;
+        System.out.printf("sequential: %8.1f ms, %d tokens%n", sequential, expected.size());
+        checkComments(source);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelLexer lexer = new ParallelLexer(pool);
+            best = Long.MAX_VALUE;
+            for (int i = 0; i < ROUNDS; i++)
+            {
+                long start = System.nanoTime();
+                TokenArray tokens = lexer.tokenize(source);
+                best = Math.min(best, System.nanoTime() - start);
+                if (!tokens.equals(expected))
+                    throw new IllegalStateException("parallel tokens differ with " + threads + " threads");
+            }
+            pool.shutdown();
+            double millis = best / 1e6;
+            System.out.printf("%2d threads: %8.1f ms, speedup %.2fx%n", threads, millis, sequential / millis);
+            if (threads < cores && threads * 2 > cores)
+                threads = cores / 2;
+        }
+    }
+
+    /**
+     * Checks that ParallelLexer gives the same tokens as a single Scanner when a
+     * comment runs from near the start of the source across every chunk, and when
+     * a // comment starts in every chunk.
+     *
+     * @param source the source to put comments into
+     * @throws ScanErrorException if a source cannot be scanned
+     */
+    private static void checkComments(char[] source) throws ScanErrorException
+    {
+        String text = new String(source);
+        int start = text.indexOf(';') + 1;
+        int end = text.lastIndexOf(';', text.length() - 2);
+        String spanning = text.substring(0, start) + "(*" + text.substring(start, end).replace("*)", "**")
+                + "*)" + text.substring(end);
+        StringBuilder lines = new StringBuilder(text);
+        for (int at = lines.indexOf(";", 1 << 16); at >= 0; at = lines.indexOf(";", at + (1 << 16)))
+            lines.insert(at + 1, "// ;;;");
+        for (String commented : new String[]{spanning, lines.toString()})
+        {
+            char[] chars = commented.toCharArray();
+            ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            TokenArray tokens = new ParallelLexer(pool).tokenize(chars);
+            pool.shutdown();
+            if (!tokens.equals(new Scanner(chars, 0, chars.length).tokenize()))
+                throw new IllegalStateException("parallel tokens differ with comments across chunks");
+        }
+    }
+}
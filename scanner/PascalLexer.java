@@ -0,0 +1,664 @@
+package scanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PascalLexer is a table-driven DFA scanner for the specification in PascalLexer.flex.
+ * It gives exactly the same tokens, offsets, values, and errors as Scanner, but finds
+ * each token by following a transition table one character at a time, with the
+ * longest match winning, instead of by hand-written branches. Keywords are paths in
+ * the automaton, so no keyword lookup is needed once an identifier is matched.
+ *
+ * The tables use the layout JFlex generates: every character maps to a character
+ * class, the transitions are one flat array indexed by state and class, and every
+ * state has an action that says whether it accepts and what it does. They are not
+ * generated by JFlex but built by hand, from the rules of the specification, when
+ * the class is loaded, so the build does not depend on JFlex. LexerDifferentialTester
+ * checks the keyword and operator rules of the specification against these tables.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class PascalLexer implements Lexer
+{
+    // lexical states, one for each step of skipping Scanner does before a token
+    private static final int INITIAL = 0;
+    private static final int LINE_COMMENT_SEEN = 1;
+    private static final int SKIPPED = 2;
+    private static final int COMMENT = 3;
+
+    // actions of accepting states other than returning a token, whose action is its kind's ordinal
+    private static final int NONE = -1;
+    private static final int SKIP = -2;
+    private static final int END_LINE_COMMENT = -3;
+    private static final int SKIP_TO_SKIPPED = -4;
+    private static final int OPEN_COMMENT = -5;
+    private static final int END_OF_PROGRAM = -6;
+
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String DIGITS = "0123456789";
+    private static final String WHITE_SPACE = " \t\r\n";
+
+    // character class of each ASCII character; class 0 is every character no rule names
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    private static final int CLASS_COUNT;
+    // next state by state * CLASS_COUNT + class, or -1 if there is none
+    private static final int[] TRANSITIONS;
+    private static final int[] ACTIONS;
+    private static final int[] START_STATES = new int[COMMENT + 1];
+
+    static
+    {
+        int classes = 1;
+        for (String group : new String[]{" \t\r", "\n", DIGITS})
+        {
+            for (char c : group.toCharArray())
+                CHAR_CLASSES[c] = (byte) classes;
+            classes++;
+        }
+        for (char c : "/(*)<>:=+-%,;.".toCharArray())
+            CHAR_CLASSES[c] = (byte) classes++;
+        // letters that appear in a keyword need their own class to follow its path
+        for (TokenKind k : KINDS)
+            if (isKeyword(k))
+                for (char c : k.getSpelling().toCharArray())
+                    if (CHAR_CLASSES[c] == 0)
+                        CHAR_CLASSES[c] = (byte) classes++;
+        for (char c : LETTERS.toCharArray())
+            if (CHAR_CLASSES[c] == 0)
+                CHAR_CLASSES[c] = (byte) classes;
+        CLASS_COUNT = classes + 1;
+
+        Builder b = new Builder();
+        for (int s = INITIAL; s <= COMMENT; s++)
+            START_STATES[s] = b.state(NONE);
+
+        int comment = START_STATES[COMMENT];
+        int commentStar = b.state(NONE);
+        b.edgeAll(comment, comment);
+        b.edge(comment, "*", commentStar);
+        b.edgeAll(commentStar, comment);
+        b.edge(commentStar, ")", b.state(SKIP_TO_SKIPPED));
+
+        int lineComment = b.state(END_LINE_COMMENT);
+        b.edgeAll(lineComment, lineComment);
+        b.edge(lineComment, "\n", b.state(END_LINE_COMMENT));
+        int openComment = b.state(OPEN_COMMENT);
+
+        int identifier = b.state(TokenKind.IDENTIFIER.ordinal());
+        b.edge(identifier, LETTERS + DIGITS, identifier);
+        int number = b.state(TokenKind.NUMBER.ordinal());
+        b.edge(number, DIGITS, number);
+        Map<String, Integer> keywordStates = new HashMap<String, Integer>();
+        for (TokenKind k : KINDS)
+            if (isKeyword(k))
+                addKeyword(b, keywordStates, k, identifier);
+
+        int less = b.state(TokenKind.LESS.ordinal());
+        b.edge(less, "=", b.state(TokenKind.LESS_EQUAL.ordinal()));
+        b.edge(less, ">", b.state(TokenKind.NOT_EQUAL.ordinal()));
+        int greater = b.state(TokenKind.GREATER.ordinal());
+        b.edge(greater, "=", b.state(TokenKind.GREATER_EQUAL.ordinal()));
+        int colon = b.state(TokenKind.COLON.ordinal());
+        b.edge(colon, "=", b.state(TokenKind.ASSIGN.ordinal()));
+        int divide = b.state(TokenKind.DIVIDE.ordinal());
+        int lparen = b.state(TokenKind.LPAREN.ordinal());
+        // in the first two states "//" and "(*" start comments instead
+        int slash = b.state(TokenKind.DIVIDE.ordinal());
+        b.edge(slash, "/", lineComment);
+        int paren = b.state(TokenKind.LPAREN.ordinal());
+        b.edge(paren, "*", openComment);
+
+        int[] whiteSpace = {b.state(SKIP), b.state(SKIP_TO_SKIPPED), b.state(SKIP)};
+        for (int s = INITIAL; s <= SKIPPED; s++)
+        {
+            int start = START_STATES[s];
+            b.edge(whiteSpace[s], WHITE_SPACE, whiteSpace[s]);
+            b.edge(start, WHITE_SPACE, whiteSpace[s]);
+            b.edge(start, LETTERS, identifier);
+            for (Map.Entry<String, Integer> e : keywordStates.entrySet())
+                if (e.getKey().length() == 1)
+                    b.edge(start, e.getKey(), e.getValue());
+            b.edge(start, DIGITS, number);
+            b.edge(start, "<", less);
+            b.edge(start, ">", greater);
+            b.edge(start, ":", colon);
+            b.edge(start, "/", s == SKIPPED ? divide : slash);
+            b.edge(start, "(", s == SKIPPED ? lparen : paren);
+            b.edge(start, "*", b.state(TokenKind.TIMES.ordinal()));
+            b.edge(start, ")", b.state(TokenKind.RPAREN.ordinal()));
+            b.edge(start, "=", b.state(TokenKind.EQUAL.ordinal()));
+            b.edge(start, "+", b.state(TokenKind.PLUS.ordinal()));
+            b.edge(start, "-", b.state(TokenKind.MINUS.ordinal()));
+            b.edge(start, "%", b.state(TokenKind.PERCENT.ordinal()));
+            b.edge(start, ",", b.state(TokenKind.COMMA.ordinal()));
+            b.edge(start, ";", b.state(TokenKind.SEMICOLON.ordinal()));
+            b.edge(start, ".", b.state(END_OF_PROGRAM));
+        }
+        TRANSITIONS = b.transitions();
+        ACTIONS = b.actions();
+    }
+
+    // instance variables
+    private char[] source;
+    private int pos;
+    private int end;
+    private int lexicalState;
+    private int commentStart;
+    private TokenKind kind;
+    private int tokenOffset;
+    private int tokenLength;
+    private int numberValue;
+    private boolean numberOverflow;
+    private int symbol;
+    private SymbolTable symbols;
+    private Diagnostics diagnostics;
+    private LineMap lines;
+    // the tokens peek scanned ahead of the current one, which nextTokenKind takes first
+    private ArrayList<ScannedToken> ahead;
+
+    /**
+     * PascalLexer constructor that scans a given string.
+     *
+     * @param text the string to scan
+     */
+    public PascalLexer(String text)
+    {
+        this(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * PascalLexer constructor that scans part of a char array, which is not copied.
+     *
+     * @param source the array holding the source
+     * @param start the offset of the first character to scan
+     * @param end the offset just past the last character to scan
+     */
+    public PascalLexer(char[] source, int start, int end)
+    {
+        this.source = source;
+        pos = start;
+        this.end = end;
+        lines = new LineMap(start);
+        lexicalState = INITIAL;
+        symbols = new SymbolTable();
+        symbol = -1;
+    }
+
+    /**
+     * This method checks if a kind of token is a keyword.
+     *
+     * @param k the kind of token
+     * @return true if the kind is spelled with letters, false otherwise
+     */
+    private static boolean isKeyword(TokenKind k)
+    {
+        return k != TokenKind.EOF && k.getSpelling() != null && Scanner.isLetter(k.getSpelling().charAt(0));
+    }
+
+    /**
+     * This method adds the path of a keyword to the automaton. Each prefix of the
+     * keyword gets its own state, which leads on to the identifier state for any
+     * other letter or digit, and the state of the whole keyword returns the keyword.
+     *
+     * @param b the automaton being built
+     * @param states the states of the keyword prefixes added so far
+     * @param keyword the kind of the keyword
+     * @param identifier the state of an identifier that is not a keyword
+     */
+    private static void addKeyword(Builder b, Map<String, Integer> states, TokenKind keyword, int identifier)
+    {
+        String spelling = keyword.getSpelling();
+        int previous = -1;
+        for (int i = 1; i <= spelling.length(); i++)
+        {
+            String prefix = spelling.substring(0, i);
+            Integer state = states.get(prefix);
+            if (state == null)
+            {
+                state = b.state(TokenKind.IDENTIFIER.ordinal());
+                b.edge(state, LETTERS + DIGITS, identifier);
+                states.put(prefix, state);
+            }
+            if (previous >= 0)
+                b.edge(previous, prefix.substring(i - 1), state);
+            previous = state;
+        }
+        b.accept(previous, keyword.ordinal());
+    }
+
+    /**
+     * This method moves to the next token and returns its kind. Once the end of file
+     * or the end of program period is reached, every further call returns EOF.
+     *
+     * @return the kind of the next token
+     * @throws ScanErrorException when a character is not recognized and errors are not
+     *                            being collected
+     */
+    public TokenKind nextTokenKind() throws ScanErrorException
+    {
+        if (ahead != null && !ahead.isEmpty())
+            return restore(ahead.remove(0));
+        return scanToken();
+    }
+
+    /**
+     * This method returns the kind of a token ahead of the current one without moving
+     * to it. The tokens up to it are scanned and kept until nextTokenKind reaches them,
+     * and the current token is left as it was.
+     *
+     * @param k how many tokens ahead to look, where 0 is the current token
+     * @return the kind of that token, which is EOF past the end of file
+     * @throws ScanErrorException when a character is not recognized and errors are not
+     *                            being collected
+     */
+    public TokenKind peek(int k) throws ScanErrorException
+    {
+        if (k < 0)
+            throw new IllegalArgumentException("Cannot look " + k + " tokens back");
+        if (k == 0)
+            return kind;
+        if (ahead == null)
+            ahead = new ArrayList<ScannedToken>();
+        if (ahead.size() < k)
+        {
+            ScannedToken current = save();
+            try
+            {
+                TokenKind last = ahead.isEmpty() ? kind : ahead.get(ahead.size() - 1).kind;
+                while (ahead.size() < k && last != TokenKind.EOF)
+                {
+                    last = scanToken();
+                    ahead.add(save());
+                }
+            }
+            finally
+            {
+                restore(current);
+            }
+        }
+        return k <= ahead.size() ? ahead.get(k - 1).kind : TokenKind.EOF;
+    }
+
+    /**
+     * This method records the current token for peek. Its text and position are found
+     * from its offset, since the source and every line start are kept.
+     *
+     * @return the current token
+     */
+    private ScannedToken save()
+    {
+        return new ScannedToken(kind, null, tokenOffset, tokenLength, 0, numberValue, numberOverflow, symbol);
+    }
+
+    /**
+     * This method makes a token recorded by save the current token again. The place
+     * where scanning goes on is not moved back.
+     *
+     * @param token the token recorded
+     * @return the kind of the token
+     */
+    private TokenKind restore(ScannedToken token)
+    {
+        kind = token.kind;
+        tokenOffset = token.offset;
+        tokenLength = token.length;
+        numberValue = token.numberValue;
+        numberOverflow = token.numberOverflow;
+        symbol = token.symbol;
+        return kind;
+    }
+
+    /**
+     * This method scans the next token from the source for nextTokenKind and peek.
+     *
+     * @return the kind of the token scanned
+     * @throws ScanErrorException when a character is not recognized and errors are not
+     *                            being collected
+     */
+    private TokenKind scanToken() throws ScanErrorException
+    {
+        if (kind == TokenKind.EOF)
+            return kind;
+        while (true)
+        {
+            int start = pos;
+            int state = START_STATES[lexicalState];
+            int accepted = -1;
+            int acceptedEnd = start;
+            for (int at = start; at < end; )
+            {
+                char c = source[at++];
+                state = TRANSITIONS[state * CLASS_COUNT + (c < 128 ? CHAR_CLASSES[c] : 0)];
+                if (state < 0)
+                    break;
+                if (ACTIONS[state] != NONE)
+                {
+                    accepted = state;
+                    acceptedEnd = at;
+                }
+            }
+            if (accepted < 0)
+            {
+                if (lexicalState == COMMENT)
+                {
+                    reportComment();
+                    lines.addLineStarts(source, pos, end);
+                    pos = end;
+                }
+                if (pos == end)
+                    return setToken(TokenKind.EOF, pos, 0);
+                // unrecognized character
+                String message = "Character not recognized: " + source[pos];
+                if (diagnostics == null)
+                    throw new ScanErrorException(message);
+                if (diagnostics.isFull())
+                    diagnostics.suppress();
+                else
+                    diagnostics.report(message, pos);
+                pos++;
+                lexicalState = INITIAL;
+                continue;
+            }
+            pos = acceptedEnd;
+            int action = ACTIONS[accepted];
+            if (action >= 0)
+            {
+                lexicalState = INITIAL;
+                TokenKind k = setToken(KINDS[action], start, pos - start);
+                if (k == TokenKind.IDENTIFIER)
+                    symbol = symbols.intern(source, start, pos - start);
+                else if (k == TokenKind.NUMBER)
+                    decodeNumber();
+                return k;
+            }
+            // white space and comments are the only text that can hold a newline
+            lines.addLineStarts(source, start, pos);
+            switch (action)
+            {
+                case END_LINE_COMMENT:
+                    lexicalState = LINE_COMMENT_SEEN;
+                    break;
+                case SKIP_TO_SKIPPED:
+                    lexicalState = SKIPPED;
+                    break;
+                case OPEN_COMMENT:
+                    commentStart = start;
+                    lexicalState = COMMENT;
+                    break;
+                case END_OF_PROGRAM:
+                    pos = start;
+                    return setToken(TokenKind.EOF, start, 0);
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * This method reports a (* *) comment that is still open at the end of the input,
+     * the way Scanner does: to the diagnostics if errors are being collected, or by
+     * printing it otherwise.
+     */
+    private void reportComment()
+    {
+        ScanErrorException e = new ScanErrorException("Comment not closed", commentStart, diagnostics == null);
+        if (diagnostics != null)
+            diagnostics.report(e.getMessage(), commentStart);
+        else
+            e.printStackTrace();
+    }
+
+    /**
+     * This method decodes the value of the current number token, saturating at the
+     * largest int as Scanner does.
+     */
+    private void decodeNumber()
+    {
+        long value = 0;
+        numberOverflow = false;
+        for (int i = tokenOffset; i < tokenOffset + tokenLength; i++)
+        {
+            value = value * 10 + (source[i] - '0');
+            if (value > Integer.MAX_VALUE)
+            {
+                numberOverflow = true;
+                value = Integer.MAX_VALUE;
+            }
+        }
+        numberValue = (int) value;
+    }
+
+    /**
+     * This method records the kind and the source range of the token just matched.
+     *
+     * @param k the kind of the token
+     * @param start the offset of the token
+     * @param length the number of characters in the token
+     * @return the kind of the token
+     */
+    private TokenKind setToken(TokenKind k, int start, int length)
+    {
+        kind = k;
+        tokenOffset = start;
+        tokenLength = length;
+        symbol = -1;
+        return k;
+    }
+
+    /**
+     * This method scans the rest of the source into a TokenArray, stopping at the end
+     * of file or the end of program period.
+     *
+     * @return the tokens, not including the end of file
+     * @throws ScanErrorException when a character is not recognized and errors are not
+     *                            being collected
+     */
+    public TokenArray tokenize() throws ScanErrorException
+    {
+        TokenArray tokens = new TokenArray(source, symbols);
+        while (nextTokenKind() != TokenKind.EOF)
+            tokens.add(kind, tokenOffset, tokenLength,
+                    kind == TokenKind.NUMBER ? numberValue : kind == TokenKind.IDENTIFIER ? symbol : 0);
+        return tokens;
+    }
+
+    /**
+     * This method returns the kind of the current token.
+     *
+     * @return the kind of the current token
+     */
+    public TokenKind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * This method returns the text of the current token.
+     *
+     * @return the lexeme of the current token
+     */
+    public String getLexeme()
+    {
+        if (kind == TokenKind.IDENTIFIER)
+            return symbols.getName(symbol);
+        if (kind == TokenKind.NUMBER)
+            return new String(source, tokenOffset, tokenLength);
+        return kind.getSpelling();
+    }
+
+    /**
+     * This method returns the offset of the current token in the source.
+     *
+     * @return the offset of the first character of the current token
+     */
+    public int getTokenOffset()
+    {
+        return tokenOffset;
+    }
+
+    /**
+     * This method returns the number of characters in the current token.
+     *
+     * @return the length of the current token
+     */
+    public int getTokenLength()
+    {
+        return tokenLength;
+    }
+
+    /**
+     * This method returns the line, column, and offset of the current token, from the
+     * line starts recorded as white space and comments were skipped.
+     *
+     * @return the packed position of the current token
+     */
+    public long getTokenPosition()
+    {
+        return lines.position(tokenOffset);
+    }
+
+    /**
+     * This method returns the value of the current number token.
+     *
+     * @return the value of the number
+     * @throws NumberFormatException if the number does not fit in an int
+     */
+    public int getNumberValue()
+    {
+        if (numberOverflow)
+            throw new NumberFormatException("For input string: \"" + getLexeme() + "\"");
+        return numberValue;
+    }
+
+    /**
+     * This method returns the symbol ID of the text of the current token.
+     *
+     * @return the symbol ID of the current token
+     */
+    public int getSymbol()
+    {
+        if (symbol < 0)
+            symbol = symbols.intern(getLexeme());
+        return symbol;
+    }
+
+    /**
+     * This method returns the symbol table that identifiers are interned in.
+     *
+     * @return the symbol table of the lexer
+     */
+    public SymbolTable getSymbolTable()
+    {
+        return symbols;
+    }
+
+    /**
+     * This method sets the symbol table that identifiers are interned in.
+     *
+     * @param table the symbol table to use
+     */
+    public void setSymbolTable(SymbolTable table)
+    {
+        symbols = table;
+    }
+
+    /**
+     * This method makes the lexer collect errors in the given Diagnostics and keep
+     * scanning, instead of stopping at the first unrecognized character.
+     *
+     * @param diagnostics the object to collect errors in
+     */
+    public void setDiagnostics(Diagnostics diagnostics)
+    {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Builder collects the states and transitions of the automaton while it is built.
+     */
+    private static class Builder
+    {
+        private int[] transitions = new int[64 * CLASS_COUNT];
+        private int[] actions = new int[64];
+        private int count;
+
+        /**
+         * This method adds a state with no transitions.
+         *
+         * @param action the action of the state, or NONE if it does not accept
+         * @return the new state
+         */
+        int state(int action)
+        {
+            if (count == actions.length)
+            {
+                actions = Arrays.copyOf(actions, count * 2);
+                transitions = Arrays.copyOf(transitions, count * 2 * CLASS_COUNT);
+            }
+            Arrays.fill(transitions, count * CLASS_COUNT, (count + 1) * CLASS_COUNT, -1);
+            actions[count] = action;
+            return count++;
+        }
+
+        /**
+         * This method sets the action of a state.
+         *
+         * @param state the state
+         * @param action the new action of the state
+         */
+        void accept(int state, int action)
+        {
+            actions[state] = action;
+        }
+
+        /**
+         * This method adds a transition on each of the given characters, replacing any
+         * transition their classes already had.
+         *
+         * @param from the state the transition leaves
+         * @param chars the characters of the transition
+         * @param to the state the transition enters
+         */
+        void edge(int from, String chars, int to)
+        {
+            for (char c : chars.toCharArray())
+                transitions[from * CLASS_COUNT + CHAR_CLASSES[c]] = to;
+        }
+
+        /**
+         * This method adds a transition on every character.
+         *
+         * @param from the state the transition leaves
+         * @param to the state the transition enters
+         */
+        void edgeAll(int from, int to)
+        {
+            Arrays.fill(transitions, from * CLASS_COUNT, (from + 1) * CLASS_COUNT, to);
+        }
+
+        /**
+         * This method returns the finished transition table.
+         *
+         * @return the transitions, indexed by state * CLASS_COUNT + class
+         */
+        int[] transitions()
+        {
+            return Arrays.copyOf(transitions, count * CLASS_COUNT);
+        }
+
+        /**
+         * This method returns the finished actions.
+         *
+         * @return the action of each state
+         */
+        int[] actions()
+        {
+            return Arrays.copyOf(actions, count);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package scanner;
+
+import benchmark.TestPrograms;
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Compares the scanning throughput of the table-driven PascalLexer with the
+ * hand-written Scanner on the parser test programs repeated up to a given size.
+ *
+ * Usage: java scanner.PascalLexerBenchmark [corpus directory] [size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class PascalLexerBenchmark
+{
+    private static final int ROUNDS = 7;
+
+    /**
+     * Main benchmark method that prints the best scanning time of each lexer.
+     *
+     * @param args the corpus directory and the size of the scaled-up source in megabytes
+     * @throws IOException if the corpus cannot be read
+     * @throws ScanErrorException if the corpus cannot be scanned
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException
+    {
+        Path dir = TestPrograms.directory(args);
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        char[] source = ScannerBenchmark.scaleCorpus(dir, megabytes << 20).toCharArray();
+        System.out.println("corpus: " + source.length + " chars from " + dir);
+
+        long scanner = Long.MAX_VALUE;
+        long table = Long.MAX_VALUE;
+        int tokens = 0;
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            long start = System.nanoTime();
+            TokenArray expected = new Scanner(source, 0, source.length).tokenize();
+            scanner = Math.min(scanner, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            TokenArray actual = new PascalLexer(source, 0, source.length).tokenize();
+            table = Math.min(table, System.nanoTime() - start);
+            if (!actual.equals(expected))
+                throw new IllegalStateException("PascalLexer tokens differ from Scanner");
+            tokens = actual.size();
+        }
+        report("Scanner", scanner, tokens, source.length);
+        report("PascalLexer", table, tokens, source.length);
+        System.out.printf("ratio:       %.2fx%n", (double) scanner / table);
+    }
+
+    /**
+     * Prints the throughput of one lexer.
+     *
+     * @param name the name of the lexer
+     * @param nanos the best time to scan the corpus
+     * @param tokens the number of tokens in the corpus
+     * @param chars the number of characters in the corpus
+     */
+    private static void report(String name, long nanos, int tokens, int chars)
+    {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-12s %8.1f ms, %.1f M tokens/s, %.1f MB/s%n", name + ":", nanos / 1e6,
+                tokens / seconds / 1e6, chars / seconds / (1 << 20));
+    }
+}
@@ -0,0 +1,410 @@
+package scanner;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PipelinedLexer runs a Scanner on its own thread, so that scanning and parsing happen
+ * at the same time on different cores. The scanner thread writes each token into a
+ * fixed-size ring buffer and the parser reads the tokens back out of it in order.
+ * It only pays off with a core to spare: on a single core the two threads take turns
+ * and every token is copied through the ring, so parsing is slower than with a plain
+ * Scanner, as PipelinedParserBenchmark shows.
+ *
+ * The ring has exactly one writer and one reader, so it needs no locks: the writer
+ * publishes how many tokens it has written (the tail) and the reader publishes how
+ * many slots it is done with (the head), each with a release store that the other
+ * side reads with an acquire load. The reader only looks at the tail when it has used
+ * up every token it knew about, and only hands back slots in batches, so the two
+ * threads rarely touch each other's counter. When the ring is full the scanner thread
+ * waits for the parser to catch up, so memory stays bounded however large the input is.
+ *
+ * A scanning error is handed to the parser when it reaches the token that failed, so
+ * the parser sees the same tokens and the same exception as with a plain Scanner.
+ *
+ * Only one thread adds to the symbol table at a time, so the table needs no lock.
+ * While the scanner thread runs, only it interns: the Scanner interns each identifier
+ * as it is scanned, exactly as it does without the pipeline, so an identifier gets
+ * the same symbol ID as from a plain Scanner, and the ring holds that ID as the value
+ * of the token. The text of any other token is only interned if the parser asks for
+ * its symbol, which is rare: getSymbol hands the text to the scanner thread, which
+ * interns it between tokens, or interns it on the parser thread once the scanner
+ * thread has stopped.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class PipelinedLexer implements Lexer, AutoCloseable
+{
+    private static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(PipelinedLexer.class, "head", long.class);
+            TAIL = lookup.findVarHandle(PipelinedLexer.class, "tail", long.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // instance variables
+    private final Scanner scanner;
+    private final SymbolTable symbols;
+    private final int mask;
+    private final int releaseBatch;
+    private final byte[] kinds;
+    // the value of a number or the symbol ID of an identifier, as in a TokenArray
+    private final int[] values;
+    // packed positions, which hold the offsets too
+    private final long[] positions;
+    private final int[] lengths;
+    private final boolean[] overflows;
+    private final String[] lexemes;
+    private final Thread thread;
+    // written by the parser: the number of slots the scanner may reuse
+    private long head;
+    // written by the scanner: the number of tokens in the ring so far
+    private long tail;
+    private volatile boolean done;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    // text the parser wants interned, which the scanner thread clears once it is
+    private volatile String request;
+    private volatile int answer;
+    // used only by the scanner thread
+    private long knownHead;
+    // used only by the parser thread
+    private long knownTail;
+    private long index;
+    private int slot;
+    private TokenKind kind;
+
+    /**
+     * PipelinedLexer constructor that starts scanning on a new daemon thread with a
+     * ring of the default size.
+     *
+     * @param scanner the scanner to run, which must not be used by anything else
+     */
+    public PipelinedLexer(Scanner scanner)
+    {
+        this(scanner, DEFAULT_CAPACITY, task ->
+        {
+            Thread thread = new Thread(task, "scanner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * PipelinedLexer constructor that starts scanning on a thread made by the given
+     * factory, which may make platform or virtual threads.
+     *
+     * @param scanner the scanner to run, which must not be used by anything else
+     * @param capacity the number of tokens the ring holds, rounded up to a power of two
+     * @param threads the factory for the scanner thread
+     */
+    public PipelinedLexer(Scanner scanner, int capacity, ThreadFactory threads)
+    {
+        if (capacity < 2 || capacity > 1 << 30)
+            throw new IllegalArgumentException("Bad ring capacity: " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.scanner = scanner;
+        symbols = scanner.getSymbolTable();
+        mask = size - 1;
+        releaseBatch = Math.max(size >> 3, 1);
+        kinds = new byte[size];
+        values = new int[size];
+        positions = new long[size];
+        lengths = new int[size];
+        overflows = new boolean[size];
+        lexemes = new String[size];
+        index = -1;
+        thread = threads.newThread(this::produce);
+        thread.start();
+    }
+
+    /**
+     * This method runs on the scanner thread and writes tokens into the ring until the
+     * end of file, a scanning error, or close().
+     */
+    private void produce()
+    {
+        try
+        {
+            long next = 0;
+            TokenKind scanned;
+            do
+            {
+                scanned = scanner.nextTokenKind();
+                for (int attempt = 0; next - knownHead > mask; attempt++)
+                {
+                    if (closed)
+                        return;
+                    serve();
+                    knownHead = (long) HEAD.getAcquire(this);
+                    if (next - knownHead > mask)
+                        idle(attempt);
+                }
+                int at = (int) next & mask;
+                kinds[at] = (byte) scanned.ordinal();
+                values[at] = scanner.getTokenValue();
+                positions[at] = scanner.getTokenPosition();
+                lengths[at] = scanner.getTokenLength();
+                overflows[at] = scanner.hasNumberOverflow();
+                lexemes[at] = scanned == TokenKind.IDENTIFIER || scanned == TokenKind.NUMBER
+                        ? scanner.getLexeme() : null;
+                TAIL.setRelease(this, ++next);
+                serve();
+            }
+            while (scanned != TokenKind.EOF);
+        }
+        catch (Throwable e)
+        {
+            failure = e;
+        }
+        finally
+        {
+            serve();
+            done = true;
+        }
+    }
+
+    /**
+     * This method runs on the scanner thread and interns the text the parser asked
+     * for in getSymbol, if there is any.
+     */
+    private void serve()
+    {
+        String text = request;
+        if (text != null)
+        {
+            answer = symbols.intern(text);
+            request = null;
+        }
+    }
+
+    /**
+     * This method waits until the token with the given index is in the ring.
+     *
+     * @param wanted the index of the token
+     * @return true if the token is in the ring, false if the scanner stopped before it
+     * @throws ScanErrorException if the scanner stopped because of a scanning error
+     */
+    private boolean await(long wanted) throws ScanErrorException
+    {
+        if (wanted < knownTail)
+            return true;
+        // the scanner may be waiting for room, so hand back every slot before waiting
+        if (index > head)
+            HEAD.setRelease(this, index);
+        for (int attempt = 0; ; attempt++)
+        {
+            knownTail = (long) TAIL.getAcquire(this);
+            if (wanted < knownTail)
+                return true;
+            if (done)
+            {
+                knownTail = (long) TAIL.getAcquire(this);
+                if (wanted < knownTail)
+                    return true;
+                Throwable e = failure;
+                if (e instanceof ScanErrorException)
+                    throw (ScanErrorException) e;
+                if (e instanceof RuntimeException)
+                    throw (RuntimeException) e;
+                if (e instanceof Error)
+                    throw (Error) e;
+                if (e != null)
+                    throw new IllegalStateException(e);
+                return false;
+            }
+            idle(attempt);
+        }
+    }
+
+    /**
+     * This method backs off while waiting for the other thread: first by spinning,
+     * then by yielding, then by sleeping briefly.
+     *
+     * @param attempt the number of times the caller has already waited
+     */
+    private static void idle(int attempt)
+    {
+        if (attempt < 64)
+            Thread.onSpinWait();
+        else if (attempt < 128)
+            Thread.yield();
+        else
+            LockSupport.parkNanos(10_000);
+    }
+
+    /**
+     * This method moves to the next token and returns its kind. Once the end of file
+     * is reached, every further call returns EOF.
+     *
+     * @return the kind of the next token
+     * @throws ScanErrorException when the scanner could not scan the next token
+     */
+    public TokenKind nextTokenKind() throws ScanErrorException
+    {
+        if (kind == TokenKind.EOF)
+            return kind;
+        long next = index + 1;
+        if (!await(next))
+            throw new IllegalStateException("Lexer is closed");
+        index = next;
+        slot = (int) next & mask;
+        kind = KINDS[kinds[slot]];
+        if (next - head >= releaseBatch)
+            HEAD.setRelease(this, next);
+        return kind;
+    }
+
+    /**
+     * This method returns the kind of a token ahead of the current one without moving
+     * to it. peek(0) is the kind of the current token.
+     *
+     * @param k how many tokens ahead to look, less than the size of the ring
+     * @return the kind of that token, or EOF if the input ends before it
+     * @throws ScanErrorException when the scanner could not scan a token up to it
+     */
+    public TokenKind peek(int k) throws ScanErrorException
+    {
+        if (k < 0 || k > mask)
+            throw new IllegalArgumentException("Cannot look " + k + " tokens ahead");
+        if (k == 0 || kind == TokenKind.EOF)
+            return kind;
+        long wanted = index + k;
+        if (!await(wanted))
+            return TokenKind.EOF;
+        return KINDS[kinds[(int) wanted & mask]];
+    }
+
+    /**
+     * This method returns the kind of the current token.
+     *
+     * @return the kind of the current token
+     */
+    public TokenKind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * This method returns the text of the current token.
+     *
+     * @return the lexeme of the current token
+     */
+    public String getLexeme()
+    {
+        String lexeme = lexemes[slot];
+        return lexeme != null ? lexeme : kind.getSpelling();
+    }
+
+    /**
+     * This method returns the offset of the current token in the source.
+     *
+     * @return the offset of the first character of the current token
+     */
+    public int getTokenOffset()
+    {
+        return SourcePosition.getOffset(positions[slot]);
+    }
+
+    /**
+     * This method returns the number of characters in the current token.
+     *
+     * @return the length of the current token
+     */
+    public int getTokenLength()
+    {
+        return lengths[slot];
+    }
+
+    /**
+     * This method returns the line, column, and offset of the current token, which
+     * the scanner thread found when it scanned the token.
+     *
+     * @return the packed position of the current token
+     */
+    public long getTokenPosition()
+    {
+        return positions[slot];
+    }
+
+    /**
+     * This method returns the value of the current number token.
+     *
+     * @return the value of the number
+     * @throws NumberFormatException if the number does not fit in an int
+     */
+    public int getNumberValue()
+    {
+        if (overflows[slot])
+            throw new NumberFormatException("For input string: \"" + getLexeme() + "\"");
+        return values[slot];
+    }
+
+    /**
+     * This method returns the symbol ID of the text of the current token. The ID of an
+     * identifier was found when it was scanned. The text of any other token is interned
+     * now, by the scanner thread between two tokens while it is running, so the
+     * parser waits for it, or else on this thread.
+     *
+     * @return the symbol ID of the current token
+     */
+    public int getSymbol()
+    {
+        if (kind == TokenKind.IDENTIFIER)
+            return values[slot];
+        String text = getLexeme();
+        if (done)
+            return symbols.intern(text);
+        request = text;
+        for (int attempt = 0; ; attempt++)
+        {
+            if (request == null)
+                return answer;
+            if (done)
+            {
+                // the scanner thread serves a last time before it stops, so it is done with the table
+                if (request == null)
+                    return answer;
+                request = null;
+                return symbols.intern(text);
+            }
+            idle(attempt);
+        }
+    }
+
+    /**
+     * This method returns the symbol table that the symbol IDs refer to. The scanner
+     * thread adds to it without a lock, so it must only be read once nextTokenKind has
+     * returned EOF.
+     *
+     * @return the symbol table
+     */
+    public SymbolTable getSymbolTable()
+    {
+        return symbols;
+    }
+
+    /**
+     * This method stops the scanner thread if it has not reached the end of file yet,
+     * as when the parser gives up on a syntax error.
+     */
+    public void close()
+    {
+        closed = true;
+    }
+}
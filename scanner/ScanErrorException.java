@@ -11,12 +11,15 @@ package scanner;
  */
 public class ScanErrorException extends Exception
 {
+    private final int offset;
+
     /**
      * default constructor for ScanErrorObjects
      */
     public ScanErrorException()
     {
         super();
+        offset = -1;
     }
     /**
      * Constructor for ScanErrorObjects that includes a reason for the error
@@ -25,5 +28,30 @@ public class ScanErrorException extends Exception
     public ScanErrorException(String reason)
     {
         super(reason);
+        offset = -1;
+    }
+
+    /**
+     * Constructor for ScanErrorObjects that includes a reason for the error and
+     * where in the source it was found. Filling in the stack trace can be skipped
+     * when the exception is only used to report an error that will be collected,
+     * which makes it much cheaper to create.
+     * @param reason the message describing the error
+     * @param offset the offset in the source where the error was found, or -1 if unknown
+     * @param stackTrace true to fill in the stack trace, false to skip it
+     */
+    public ScanErrorException(String reason, int offset, boolean stackTrace)
+    {
+        super(reason, null, false, stackTrace);
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the offset in the source where the error was found.
+     * @return the offset of the error, or -1 if unknown
+     */
+    public int getOffset()
+    {
+        return offset;
     }
 }
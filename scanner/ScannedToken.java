@@ -0,0 +1,51 @@
+package scanner;
+
+/**
+ * ScannedToken holds a token that a lexer scanned ahead of its current token for
+ * peek, with everything the Lexer methods tell about it, since scanning on has
+ * overwritten the lexer's own fields. When nextTokenKind reaches the token, the lexer
+ * copies it back into its fields instead of scanning.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+final class ScannedToken
+{
+    // instance variables
+    final TokenKind kind;
+    // the text and packed position of the token, which a lexer that keeps its whole
+    // source and every line start finds again from the offset instead
+    final String lexeme;
+    final int offset;
+    final int length;
+    final long position;
+    final int numberValue;
+    final boolean numberOverflow;
+    // the symbol ID of an identifier, or -1 if the token is not interned yet
+    final int symbol;
+
+    /**
+     * ScannedToken constructor that records a token.
+     *
+     * @param kind the kind of the token
+     * @param lexeme the text of the token, or null if it is found from the offset
+     * @param offset the offset of the token in the source
+     * @param length the number of characters in the token
+     * @param position the packed position of the token, or 0 if it is found from the offset
+     * @param numberValue the value of a number
+     * @param numberOverflow true if a number was too large for an int
+     * @param symbol the symbol ID of an identifier, or -1
+     */
+    ScannedToken(TokenKind kind, String lexeme, int offset, int length, long position, int numberValue,
+            boolean numberOverflow, int symbol)
+    {
+        this.kind = kind;
+        this.lexeme = lexeme;
+        this.offset = offset;
+        this.length = length;
+        this.position = position;
+        this.numberValue = numberValue;
+        this.numberOverflow = numberOverflow;
+        this.symbol = symbol;
+    }
+}
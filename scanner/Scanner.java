@@ -1,6 +1,17 @@
 package scanner;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Scanner is a simple scanner for Compilers and Interpreters lab exercise 1
@@ -9,13 +20,125 @@ import java.io.*;
  *
  * Usage:
  * Scanner takes an input file of text, reads characters one by one, tokenizes
- * these characters, and returns them in the nextToken() function.
+ * these characters, and returns them in the nextToken() function. The
+ * nextTokenKind() function scans the same tokens but returns their TokenKind,
+ * with the text of the token available from getLexeme().
+ *
+ * A scanner built from a String or a Path keeps the whole source in a char array
+ * and walks it with an index, instead of reading it through a Reader one call
+ * per character.
+ *
+ * A scanner built from a byte[] or a ByteBuffer of UTF-8 text scans the bytes
+ * themselves, without decoding them to chars first. Every character the language
+ * accepts is ASCII, and the bytes of a non-ASCII UTF-8 character are never ASCII,
+ * so bytes can be classified directly and comments skipped byte by byte; a non-ASCII
+ * character is only decoded to name it in an error message. Offsets of tokens are
+ * then byte offsets. A scanner built from a Path scans this way when the default
+ * charset is UTF-8.
+ *
+ * Each token is recorded as an offset and a length into the source rather than as
+ * a new String, and numbers are decoded while they are scanned, so that the scan
+ * loop itself does not allocate. getLexeme() only builds a String for identifiers
+ * and numbers when it is asked for one.
+ *
+ * Identifiers are interned in a SymbolTable as they are scanned, which gives each
+ * distinct name a dense integer ID. Scanners can share one table by calling
+ * setSymbolTable before scanning.
+ *
+ * Every token has a position that packs its line, column, and offset into one long
+ * (see SourcePosition). Lines are not counted character by character: the scanner
+ * records where each line starts in a LineMap as it skips the white space or comment
+ * holding the newline, which it already looks at, and a position is only packed when
+ * getTokenPosition asks for one. Only the current token's position is ever asked for,
+ * and peek packs the position of each token it scans ahead before moving on, so the
+ * map keeps just the start of the last line, and scanning a long stream takes no more
+ * memory than scanning a short one.
+ *
+ * By default a bad character stops scanning with a ScanErrorException. After
+ * setDiagnostics is called, errors are recorded with their offsets in a Diagnostics
+ * object instead, without stack traces, and scanning carries on to the end of the
+ * input.
  */
-public class Scanner
+public class Scanner implements Lexer
 {
     private BufferedReader in;
+    private char[] buf;
+    private ByteBuffer bytes;
+    private int pos;
+    private int limit;
     private char currentChar;
     private boolean eof;
+    private TokenKind kind;
+    private String lexeme;
+    private int tokenOffset;
+    private int tokenLength;
+    private int numberValue;
+    private SymbolTable symbols;
+    private Diagnostics diagnostics;
+    private boolean unclosedComment;
+    private int symbol;
+    private boolean numberOverflow;
+    private LineMap lines;
+    // the tokens peek scanned ahead of the current one, which nextTokenKind takes first
+    private ArrayList<ScannedToken> ahead;
+    // the position of the current token, if it was taken from the tokens scanned ahead
+    private long aheadPosition;
+    private boolean fromAhead;
+    // characters of the current token when reading from a stream, which has no buffer to point into
+    private char[] text;
+    private int textLength;
+    private static final TokenKind[] KEYWORDS;
+
+    // character classes, looked up in CHAR_CLASSES by character code
+    private static final byte DIGIT = 1;
+    private static final byte LETTER = 2;
+    private static final byte WHITE_SPACE = 4;
+    private static final byte OPERAND = 8;
+    private static final byte LONG_OPERAND = 16;
+    private static final byte[] CHAR_CLASSES = new byte[128];
+
+    // keywords stored by a collision-free hash of their first char, last char, and length
+    private static final int KEYWORD_TABLE_SIZE = 32;
+    private static final TokenKind[] KEYWORD_TABLE = new TokenKind[KEYWORD_TABLE_SIZE];
+    private static final int KEYWORD_MULTIPLIER;
+
+    // files at least this many bytes long are memory-mapped instead of read into the heap
+    private static final long MAP_THRESHOLD = 1 << 16;
+
+    // finds the ends of white space and comments in a buffer
+    private static final TextSkipper SKIPPER = new TextSkipper();
+
+    static
+    {
+        for (char c = '0'; c <= '9'; c++)
+            CHAR_CLASSES[c] |= DIGIT;
+        for (char c = 'a'; c <= 'z'; c++)
+        {
+            CHAR_CLASSES[c] |= LETTER;
+            CHAR_CLASSES[c - 'a' + 'A'] |= LETTER;
+        }
+        for (char c : new char[]{' ', '\t', '\r', '\n'})
+            CHAR_CLASSES[c] |= WHITE_SPACE;
+        for (char c : new char[]{'=', '+', '-', '*', '/', '%', '(', ')', '<', '>', ','})
+            CHAR_CLASSES[c] |= OPERAND;
+        for (char c : new char[]{'<', '>', ':'})
+            CHAR_CLASSES[c] |= LONG_OPERAND;
+
+        List<TokenKind> keywords = new ArrayList<TokenKind>();
+        for (TokenKind k : TokenKind.values())
+            if (k.getSpelling() != null && isLetter(k.getSpelling().charAt(0)) && k != TokenKind.EOF)
+                keywords.add(k);
+        KEYWORDS = keywords.toArray(new TokenKind[0]);
+
+        KEYWORD_MULTIPLIER = findKeywordMultiplier();
+        for (TokenKind k : KEYWORDS)
+        {
+            String spelling = k.getSpelling();
+            KEYWORD_TABLE[keywordHash(spelling.charAt(0), spelling.charAt(spelling.length() - 1),
+                    spelling.length(), KEYWORD_MULTIPLIER)] = k;
+        }
+    }
+
     /**
      * Scanner constructor for construction of a scanner that
      * uses an InputStream object for input.
@@ -27,7 +150,11 @@ public class Scanner
     public Scanner(InputStream inStream)
     {
         in = new BufferedReader(new InputStreamReader(inStream));
+        text = new char[16];
+        pos = -1;
+        lines = new LineMap(0, false);
         eof = false;
+        symbols = new SymbolTable();
         getNextChar();
     }
 
@@ -40,8 +167,106 @@ public class Scanner
      */
     public Scanner(String inString)
     {
-        in = new BufferedReader(new StringReader(inString));
+        buf = inString.toCharArray();
+        pos = -1;
+        lines = new LineMap(0, false);
+        limit = buf.length;
+        eof = false;
+        symbols = new SymbolTable();
+        getNextChar();
+    }
+
+    /**
+     * Scanner constructor for constructing a scanner that scans a whole file.
+     * Small files are read in a single call; larger files are memory-mapped. If the
+     * default charset is UTF-8 the bytes are scanned directly; otherwise they are
+     * decoded once into a char array that the scanner walks with an index.
+     * Usage: Scanner lex = new Scanner(Paths.get(<file name>));
+     * @param path the path of the file to scan
+     * @throws IOException if the file cannot be read
+     */
+    public Scanner(Path path) throws IOException
+    {
+        ByteBuffer source;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD)
+                source = ByteBuffer.wrap(Files.readAllBytes(path));
+            else
+                source = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        symbols = new SymbolTable();
+        eof = false;
+        if (Charset.defaultCharset().equals(StandardCharsets.UTF_8))
+        {
+            startBytes(source);
+            return;
+        }
+        CharBuffer chars = Charset.defaultCharset().decode(source);
+        buf = chars.array();
+        pos = chars.arrayOffset() + chars.position() - 1;
+        limit = chars.arrayOffset() + chars.limit();
+        lines = new LineMap(pos + 1, false);
+        getNextChar();
+    }
+
+    /**
+     * Scanner constructor for constructing a scanner that scans UTF-8 bytes without
+     * decoding them.
+     * Usage: Scanner lex = new Scanner(Files.readAllBytes(<path>));
+     * @param source the bytes to scan
+     */
+    public Scanner(byte[] source)
+    {
+        this(ByteBuffer.wrap(source));
+    }
+
+    /**
+     * Scanner constructor for constructing a scanner that scans the remaining UTF-8
+     * bytes of a buffer, such as a memory-mapped file, without decoding them. Offsets
+     * of tokens are indices into the whole buffer.
+     * @param source the bytes to scan, from its position up to its limit
+     */
+    public Scanner(ByteBuffer source)
+    {
+        symbols = new SymbolTable();
         eof = false;
+        startBytes(source);
+    }
+
+    /**
+     * This method sets up the scanner to walk a buffer of bytes and reads the first
+     * character. The characters of numbers and identifiers are copied out as they are
+     * scanned, the same way as when reading from a stream.
+     *
+     * @param source the bytes to scan, from its position up to its limit
+     */
+    private void startBytes(ByteBuffer source)
+    {
+        bytes = source;
+        text = new char[16];
+        pos = source.position() - 1;
+        limit = source.limit();
+        lines = new LineMap(pos + 1, false);
+        getNextChar();
+    }
+
+    /**
+     * Scanner constructor for constructing a scanner that scans part of a char
+     * array in place. Offsets of tokens are offsets into the whole array.
+     * @param source the array holding the source
+     * @param start the index of the first character to scan
+     * @param end the index just past the last character to scan
+     */
+    Scanner(char[] source, int start, int end)
+    {
+        buf = source;
+        pos = start - 1;
+        limit = end;
+        lines = new LineMap(start, false);
+        eof = false;
+        symbols = new SymbolTable();
         getNextChar();
     }
 
@@ -52,9 +277,35 @@ public class Scanner
      */
     private void getNextChar()
     {
+        if (buf != null)
+        {
+            if (pos + 1 < limit)
+                currentChar = buf[++pos];
+            else
+            {
+                pos = limit;
+                eof = true;
+                currentChar = (char) -1;
+            }
+            return;
+        }
+        if (bytes != null)
+        {
+            if (pos + 1 < limit)
+                currentChar = (char) (bytes.get(++pos) & 0xff);
+            else
+            {
+                pos = limit;
+                eof = true;
+                currentChar = (char) -1;
+            }
+            return;
+        }
         try
         {
             int nextChar = in.read();
+            if (!eof)
+                pos++;
             if (nextChar == -1)
                 eof = true;
             currentChar = (char) nextChar;
@@ -65,6 +316,90 @@ public class Scanner
         }
     }
 
+    /**
+     * This method moves to the given index of the buffer and reads the character
+     * there, or reaches the end of file if the index is the limit.
+     *
+     * @param index the index to move to
+     */
+    private void moveTo(int index)
+    {
+        pos = index - 1;
+        getNextChar();
+    }
+
+    /**
+     * This method skips white space, recording the lines that start in it. A single
+     * white space character is skipped on its own; a longer run in a buffer is skipped
+     * in bulk by the TextSkipper.
+     */
+    private void skipWhiteSpace()
+    {
+        while (isWhiteSpace(currentChar))
+        {
+            if (currentChar == '\n')
+                lines.addLineStart(pos + 1);
+            getNextChar();
+            if (isWhiteSpace(currentChar))
+            {
+                if (buf != null)
+                {
+                    int end = SKIPPER.skipWhiteSpace(buf, pos, limit);
+                    lines.addLineStarts(buf, pos, end);
+                    moveTo(end);
+                }
+                else if (bytes != null)
+                {
+                    int end = SKIPPER.skipWhiteSpace(bytes, pos, limit);
+                    lines.addLineStarts(bytes, pos, end);
+                    moveTo(end);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method skips the body of a (* *) comment in a buffer, starting at the '*'
+     * that opens it, and moves to the character after the comment. After the opening
+     * "(*", the comment is read as single characters other than '*', and pairs of a
+     * '*' and the character after it, until a pair is "*)". So a "*)" only closes the
+     * comment if its '*' is not the second half of an earlier pair, which is the case
+     * when it comes an even number of places into its run of '*'s. The lines that
+     * start inside the comment are recorded.
+     *
+     * @param commentOffset the offset of the '(' that opened the comment
+     * @throws ScanErrorException if the comment is not closed before the end of file
+     */
+    private void skipComment(int commentOffset) throws ScanErrorException
+    {
+        int start = pos + 1;
+        int from = start;
+        while (true)
+        {
+            int end = buf != null ? SKIPPER.findCommentEnd(buf, from, limit)
+                    : SKIPPER.findCommentEnd(bytes, from, limit);
+            int run = end;
+            while (run > from && (buf != null ? buf[run - 1] : bytes.get(run - 1)) == '*')
+                run--;
+            if (end == limit || (end - run) % 2 == 0)
+            {
+                if (buf != null)
+                    lines.addLineStarts(buf, start, end);
+                else
+                    lines.addLineStarts(bytes, start, end);
+                if (end == limit)
+                {
+                    moveTo(limit);
+                    unclosedComment = true;
+                    throw error("Comment not closed", commentOffset);
+                }
+                moveTo(end + 2);
+                return;
+            }
+            from = end + 2;
+        }
+    }
+
     /**
      * This method compares a parameter character with the current character and then advances
      * to the next character.
@@ -77,8 +412,8 @@ public class Scanner
         if (currentChar == expected)
             getNextChar();
         else
-            throw new ScanErrorException("Illegal character - expected " + expected +
-                    " and found " + currentChar + ".");
+            throw error("Illegal character - expected " + expected +
+                    " and found " + currentChar + ".", pos);
     }
 
     /**
@@ -100,7 +435,7 @@ public class Scanner
      */
     public static boolean isDigit(char c)
     {
-        return c >= '0' && c <= '9';
+        return c < 128 && (CHAR_CLASSES[c] & DIGIT) != 0;
     }
 
     /**
@@ -111,7 +446,7 @@ public class Scanner
      */
     public static boolean isLetter(char c)
     {
-        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        return c < 128 && (CHAR_CLASSES[c] & LETTER) != 0;
     }
 
     /**
@@ -123,7 +458,7 @@ public class Scanner
      */
     public static boolean isWhiteSpace(char c)
     {
-        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+        return c < 128 && (CHAR_CLASSES[c] & WHITE_SPACE) != 0;
     }
 
     /**
@@ -135,11 +470,7 @@ public class Scanner
      */
     public static boolean isOperand(char c)
     {
-        char[] operands = new char[]{'=', '+', '-', '*', '/', '%', '(', ')', '<', '>', ','};
-        for (char oper : operands)
-            if (c == oper)
-                return true;
-        return false;
+        return c < 128 && (CHAR_CLASSES[c] & OPERAND) != 0;
     }
 
     /**
@@ -151,97 +482,218 @@ public class Scanner
      */
     public static boolean isLongOperand(char c)
     {
-        char[] operands = new char[]{'<', '>', ':'};
-        for (char oper : operands)
-            if (c == oper)
-                return true;
-        return false;
+        return c < 128 && (CHAR_CLASSES[c] & LONG_OPERAND) != 0;
     }
 
     /**
-     * This method continuously scans digits and concatenates them into a number,
-     * or throws an error if a number is not found.
+     * This method continuously scans digits and decodes them into the value of
+     * the number, or throws an error if a number is not found.
      *
-     * @return a string representing a number made up of one or more digits
      * @throws ScanErrorException when the scanned characters are not a number
      */
-    private String scanNumber() throws ScanErrorException
+    private void scanNumber() throws ScanErrorException
     {
-        String number = "";
+        startToken();
+        long value = 0;
         boolean isNumber = false;
+        numberOverflow = false;
         while (isDigit(currentChar))
         {
             isNumber = true;
-            number += currentChar;
-            if (hasNext())
-                eat(currentChar);
-            else
-                return number;
+            value = value * 10 + (currentChar - '0');
+            if (value > Integer.MAX_VALUE)
+            {
+                numberOverflow = true;
+                value = Integer.MAX_VALUE;
+            }
+            takeChar();
         }
         if (!isNumber)
-            throw new ScanErrorException("Not a number");
-        return number;
+            throw error("Not a number", pos);
+        numberValue = (int) value;
+        endToken();
     }
 
     /**
      * This method scans a letter and then continuously scans letters or digits
-     * and concatenates them into an identifier, or throws an error if a letter
-     * is not found as the first digit.
+     * to make up an identifier, or throws an error if a letter is not found as
+     * the first digit.
      *
-     * @return a string representing an identifier
      * @throws ScanErrorException when an identifier is not found
      */
-    private String scanIdentifier() throws ScanErrorException
+    private void scanIdentifier() throws ScanErrorException
     {
-        String identifier = "";
-        if (isLetter(currentChar))
-            identifier += currentChar;
-        else
-            throw new ScanErrorException("Not an identifier");
-        if (hasNext())
-            eat(currentChar);
-        else
-            return identifier;
+        startToken();
+        if (!isLetter(currentChar))
+            throw error("Not an identifier", pos);
+        takeChar();
         while (isLetter(currentChar) || isDigit(currentChar))
-        {
-            identifier += currentChar;
-            if (hasNext())
-                eat(currentChar);
-            else
-                return identifier;
-        }
-        return identifier;
+            takeChar();
+        endToken();
     }
 
     /**
-     * This method scans an operand and returns it, or throws an error if an
+     * This method scans an operand and returns its kind, or throws an error if an
      * operand is not found.
      *
-     * @return a string representing an operand
+     * @return the kind of the operand
      * @throws ScanErrorException when the scanned character is not an operand
      */
-    private String scanOperand() throws ScanErrorException
+    private TokenKind scanOperand() throws ScanErrorException
     {
-        String operand = "" + currentChar;
+        char first = currentChar;
         // special operators
-        if (isLongOperand(currentChar))
+        if (isLongOperand(first))
         {
             if (hasNext())
                 eat(currentChar);
-            if ((operand.equals("<") && currentChar == '=') || (operand.equals(">") && currentChar == '=') ||
-                    (operand.equals("<") && currentChar == '>') || (operand.equals(":") && currentChar == '=')) {
-                operand += currentChar;
+            if (first == '<' && currentChar == '=')
+            {
                 eat(currentChar);
+                return TokenKind.LESS_EQUAL;
             }
-            return operand;
+            if (first == '<' && currentChar == '>')
+            {
+                eat(currentChar);
+                return TokenKind.NOT_EQUAL;
+            }
+            if (first == '>' && currentChar == '=')
+            {
+                eat(currentChar);
+                return TokenKind.GREATER_EQUAL;
+            }
+            if (first == ':' && currentChar == '=')
+            {
+                eat(currentChar);
+                return TokenKind.ASSIGN;
+            }
+            return first == '<' ? TokenKind.LESS : first == '>' ? TokenKind.GREATER : TokenKind.COLON;
         }
-        if (isOperand(currentChar))
+        if (isOperand(first))
         {
             if (hasNext())
                 eat(currentChar);
-            return operand;
+            switch (first)
+            {
+                case '=': return TokenKind.EQUAL;
+                case '+': return TokenKind.PLUS;
+                case '-': return TokenKind.MINUS;
+                case '*': return TokenKind.TIMES;
+                case '/': return TokenKind.DIVIDE;
+                case '%': return TokenKind.PERCENT;
+                case '(': return TokenKind.LPAREN;
+                case ')': return TokenKind.RPAREN;
+                default: return TokenKind.COMMA;
+            }
+        }
+        throw error("Not an operand: " + first, pos);
+    }
+
+    /**
+     * This method marks the current character as the first character of a number
+     * or identifier.
+     */
+    private void startToken()
+    {
+        tokenOffset = pos;
+        textLength = 0;
+    }
+
+    /**
+     * This method adds the current character to the number or identifier being
+     * scanned and advances to the next character. Characters only need to be
+     * copied when reading from a stream; otherwise the token is just a range of
+     * the source buffer.
+     *
+     * @throws ScanErrorException if the character cannot be eaten
+     */
+    private void takeChar() throws ScanErrorException
+    {
+        if (buf == null)
+        {
+            if (textLength == text.length)
+                text = Arrays.copyOf(text, text.length * 2);
+            text[textLength++] = currentChar;
+        }
+        eat(currentChar);
+    }
+
+    /**
+     * This method records the length of the number or identifier just scanned.
+     */
+    private void endToken()
+    {
+        tokenLength = pos - tokenOffset;
+    }
+
+    /**
+     * This method finds the keyword spelled by the identifier just scanned. The
+     * identifier is hashed to the one slot of the keyword table it could occupy,
+     * and only the keyword in that slot is compared against it.
+     *
+     * @return the kind of the keyword, or IDENTIFIER if the identifier is not a keyword
+     */
+    private TokenKind keywordKind()
+    {
+        char[] chars = buf != null ? buf : text;
+        int start = buf != null ? tokenOffset : 0;
+        TokenKind k = KEYWORD_TABLE[keywordHash(chars[start], chars[start + tokenLength - 1],
+                tokenLength, KEYWORD_MULTIPLIER)];
+        if (k == null)
+            return TokenKind.IDENTIFIER;
+        String spelling = k.getSpelling();
+        if (spelling.length() != tokenLength)
+            return TokenKind.IDENTIFIER;
+        for (int i = 0; i < tokenLength; i++)
+            if (spelling.charAt(i) != chars[start + i])
+                return TokenKind.IDENTIFIER;
+        return k;
+    }
+
+    /**
+     * This method hashes a word by its first character, last character, and length
+     * into a slot of the keyword table.
+     *
+     * @param first the first character of the word
+     * @param last the last character of the word
+     * @param length the length of the word
+     * @param multiplier the multiplier that mixes the three together
+     * @return the slot of the keyword table for the word
+     */
+    private static int keywordHash(char first, char last, int length, int multiplier)
+    {
+        return ((first * multiplier + last) * multiplier + length) & (KEYWORD_TABLE_SIZE - 1);
+    }
+
+    /**
+     * This method searches for the smallest multiplier for which keywordHash gives
+     * every keyword its own slot, so that the keyword table is a perfect hash.
+     *
+     * @return the multiplier for keywordHash
+     * @throws IllegalStateException if no multiplier separates the keywords
+     */
+    private static int findKeywordMultiplier()
+    {
+        for (int multiplier = 1; multiplier < 1 << 16; multiplier++)
+        {
+            boolean[] used = new boolean[KEYWORD_TABLE_SIZE];
+            boolean perfect = true;
+            for (TokenKind k : KEYWORDS)
+            {
+                String spelling = k.getSpelling();
+                int slot = keywordHash(spelling.charAt(0), spelling.charAt(spelling.length() - 1),
+                        spelling.length(), multiplier);
+                if (used[slot])
+                {
+                    perfect = false;
+                    break;
+                }
+                used[slot] = true;
+            }
+            if (perfect)
+                return multiplier;
         }
-        throw new ScanErrorException("Not an operand: " + operand);
+        throw new IllegalStateException("No perfect hash for the keywords");
     }
 
     /**
@@ -255,38 +707,157 @@ public class Scanner
      */
     public String nextToken() throws ScanErrorException
     {
-        if (hasNext())
+        nextTokenKind();
+        return getLexeme();
+    }
+
+    /**
+     * This method scans the next token exactly like nextToken, but returns the kind
+     * of the token instead of its text, so that callers can dispatch on keywords and
+     * operators without comparing strings. The text of the token is available from
+     * getLexeme() until the next token is scanned.
+     *
+     * @return the kind of the token scanned: number, identifier, keyword, operand,
+     * or end of file
+     * @throws ScanErrorException when one of the scan functions does not find
+     * a number/identifier/operand, respectively
+     */
+    public TokenKind nextTokenKind() throws ScanErrorException
+    {
+        if (ahead != null && !ahead.isEmpty())
+            return restore(ahead.remove(0));
+        return scanToken();
+    }
+
+    /**
+     * This method returns the kind of a token ahead of the current one without moving
+     * to it. The tokens up to it are scanned and kept, with their positions, until
+     * nextTokenKind reaches them, and the current token is left as it was.
+     *
+     * @param k how many tokens ahead to look, where 0 is the current token
+     * @return the kind of that token, which is EOF past the end of file
+     * @throws ScanErrorException when a token up to it cannot be scanned
+     */
+    public TokenKind peek(int k) throws ScanErrorException
+    {
+        if (k < 0)
+            throw new IllegalArgumentException("Cannot look " + k + " tokens back");
+        if (k == 0)
+            return kind;
+        if (ahead == null)
+            ahead = new ArrayList<ScannedToken>();
+        if (ahead.size() < k)
         {
-            while (isWhiteSpace(currentChar))
-                eat(currentChar);
+            ScannedToken current = save();
+            try
+            {
+                TokenKind last = ahead.isEmpty() ? kind : ahead.get(ahead.size() - 1).kind;
+                while (ahead.size() < k && last != TokenKind.EOF)
+                {
+                    last = scanToken();
+                    ahead.add(save());
+                }
+            }
+            finally
+            {
+                restore(current);
+            }
+        }
+        return k <= ahead.size() ? ahead.get(k - 1).kind : TokenKind.EOF;
+    }
+
+    /**
+     * This method records the current token for peek, packing its position while its
+     * line is still the last one recorded.
+     *
+     * @return the current token
+     */
+    private ScannedToken save()
+    {
+        String text = kind == TokenKind.NUMBER || kind == TokenKind.IDENTIFIER ? getLexeme() : lexeme;
+        return new ScannedToken(kind, text, tokenOffset, tokenLength, getTokenPosition(), numberValue,
+                numberOverflow, symbol);
+    }
+
+    /**
+     * This method makes a token recorded by save the current token again. The place
+     * where scanning goes on is not moved back.
+     *
+     * @param token the token recorded
+     * @return the kind of the token
+     */
+    private TokenKind restore(ScannedToken token)
+    {
+        kind = token.kind;
+        lexeme = token.lexeme;
+        tokenOffset = token.offset;
+        tokenLength = token.length;
+        numberValue = token.numberValue;
+        numberOverflow = token.numberOverflow;
+        symbol = token.symbol;
+        aheadPosition = token.position;
+        fromAhead = true;
+        return kind;
+    }
+
+    /**
+     * This method scans the next token from the input for nextTokenKind and peek.
+     *
+     * @return the kind of the token scanned
+     * @throws ScanErrorException when one of the scan functions does not find
+     * a number/identifier/operand, respectively
+     */
+    private TokenKind scanToken() throws ScanErrorException
+    {
+        while (hasNext())
+        {
+            skipWhiteSpace();
             try
             {
                 // comments
                 while (currentChar == '/')
                 {
+                    int slashOffset = pos;
                     if (hasNext())
                         eat(currentChar);
                     if (currentChar == '/')
                     {
+                        if (buf != null)
+                            moveTo(SKIPPER.find(buf, pos, limit, '\n'));
+                        else if (bytes != null)
+                            moveTo(SKIPPER.find(bytes, pos, limit, '\n'));
                         while (currentChar != '\n' && hasNext())
                             eat(currentChar);
+                        if (!hasNext())
+                            unclosedComment = true;
+                        else
+                            lines.addLineStart(pos + 1);
                         eat(currentChar);
                     }
                     else
-                        return "/";
+                        return setToken(TokenKind.DIVIDE, slashOffset);
                 }
 
                 // pascal multiline comments
                 if (currentChar == '(')
                 {
+                    int commentOffset = pos;
                     if (hasNext())
                         eat(currentChar);
-                    if (currentChar == '*')
+                    if (currentChar == '*' && (buf != null || bytes != null))
+                        skipComment(commentOffset);
+                    else if (currentChar == '*')
                     {
                         while (true)
                         {
-                            if (hasNext())
-                                eat(currentChar);
+                            if (!hasNext())
+                            {
+                                unclosedComment = true;
+                                throw error("Comment not closed", commentOffset);
+                            }
+                            if (currentChar == '\n')
+                                lines.addLineStart(pos + 1);
+                            eat(currentChar);
                             if (currentChar == '*')
                             {
                                 if (hasNext())
@@ -301,36 +872,300 @@ public class Scanner
                         }
                     }
                     else
-                        return "(";
+                        return setToken(TokenKind.LPAREN, commentOffset);
                 }
-                while (isWhiteSpace(currentChar))
-                    eat(currentChar);
+                skipWhiteSpace();
                 // digits, letters, operands
                 if (isDigit(currentChar))
-                    return scanNumber();
+                {
+                    scanNumber();
+                    return setToken(TokenKind.NUMBER, tokenOffset);
+                }
                 if (isLetter(currentChar))
-                    return scanIdentifier();
+                {
+                    scanIdentifier();
+                    TokenKind k = setToken(keywordKind(), tokenOffset);
+                    if (k == TokenKind.IDENTIFIER)
+                    {
+                        symbol = symbols.intern(buf != null ? buf : text, buf != null ? tokenOffset : 0,
+                                tokenLength);
+                        lexeme = symbols.getName(symbol);
+                    }
+                    return k;
+                }
+                int start = pos;
                 if (isOperand(currentChar) || isLongOperand(currentChar))
-                    return scanOperand();
+                    return setToken(scanOperand(), start);
                 // end of line
                 if (currentChar == ';')
                 {
                     eat(currentChar);
-                    return ";";
+                    return setToken(TokenKind.SEMICOLON, start);
                 }
             }
             catch (ScanErrorException e)
             {
-                e.printStackTrace();
+                if (diagnostics != null)
+                    diagnostics.report(e.getMessage(), e.getOffset() >= 0 ? e.getOffset() : pos);
+                else
+                    e.printStackTrace();
             }
             if (currentChar == '.')
                 eof = true;
             if (eof)
-                return "EOF";
+                return setToken(TokenKind.EOF, pos);
             // unrecognized character
-            throw new ScanErrorException("Character not recognized: " + currentChar);
+            if (diagnostics == null)
+                throw new ScanErrorException("Character not recognized: " + currentCharText());
+            if (diagnostics.isFull())
+                diagnostics.suppress();
+            else
+                diagnostics.report("Character not recognized: " + currentCharText(), pos);
+            getNextChar();
+            // skip the rest of a UTF-8 character as well
+            if (bytes != null)
+                while (!eof && (currentChar & 0xC0) == 0x80)
+                    getNextChar();
         }
         // if no tokens to return, return end of file
-        return "EOF";
+        return setToken(TokenKind.EOF, pos);
+    }
+
+    /**
+     * This method returns the current character as text for an error message. When
+     * scanning bytes, a non-ASCII character is decoded from its UTF-8 bytes here,
+     * which is the only place bytes are ever decoded.
+     *
+     * @return the current character
+     */
+    private String currentCharText()
+    {
+        if (bytes == null || currentChar < 128 || eof)
+            return String.valueOf(currentChar);
+        ByteBuffer character = bytes.duplicate();
+        character.limit(Math.min(limit, pos + 4)).position(pos);
+        String decoded = StandardCharsets.UTF_8.decode(character).toString();
+        return decoded.substring(0, Character.charCount(decoded.codePointAt(0)));
+    }
+
+    /**
+     * This method makes the exception for a scanning error. When errors are being
+     * collected in a Diagnostics object, the exception is only used to get back to
+     * nextTokenKind, so it is made without filling in a stack trace.
+     *
+     * @param reason the description of the error
+     * @param offset the offset in the source where the error was found
+     * @return the exception to throw
+     */
+    private ScanErrorException error(String reason, int offset)
+    {
+        return new ScanErrorException(reason, offset, diagnostics == null);
+    }
+
+    /**
+     * This method records the kind and the source range of the token just scanned.
+     * The text of keywords, operands, and end of file is their fixed spelling; the
+     * text of numbers and identifiers is left to be built by getLexeme() if it is
+     * needed.
+     *
+     * @param k the kind of the token
+     * @param start the offset of the first character of the token
+     * @return the kind of the token
+     */
+    private TokenKind setToken(TokenKind k, int start)
+    {
+        kind = k;
+        tokenOffset = start;
+        tokenLength = pos - start;
+        lexeme = k.getSpelling();
+        symbol = -1;
+        fromAhead = false;
+        return k;
+    }
+
+    /**
+     * This method returns the kind of the token most recently scanned.
+     *
+     * @return the kind of the current token
+     */
+    public TokenKind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * This method returns the text of the token most recently scanned. The text of
+     * a number or identifier is only turned into a String the first time it is asked
+     * for.
+     *
+     * @return the text of the current token
+     */
+    public String getLexeme()
+    {
+        if (lexeme == null)
+        {
+            if (buf != null)
+                lexeme = new String(buf, tokenOffset, tokenLength);
+            else
+                lexeme = new String(text, 0, textLength);
+        }
+        return lexeme;
+    }
+
+    /**
+     * This method returns the offset in the source of the first character of the
+     * token most recently scanned.
+     *
+     * @return the offset of the current token
+     */
+    public int getTokenOffset()
+    {
+        return tokenOffset;
+    }
+
+    /**
+     * This method returns the number of characters in the token most recently
+     * scanned.
+     *
+     * @return the length of the current token
+     */
+    public int getTokenLength()
+    {
+        return tokenLength;
+    }
+
+    /**
+     * This method returns the line, column, and offset of the token most recently
+     * scanned, packed into a long. The token is on the last line recorded, so the
+     * line is found without a search, unless peek has scanned past it, in which case
+     * the position packed before that is returned.
+     *
+     * @return the packed position of the current token
+     */
+    public long getTokenPosition()
+    {
+        if (fromAhead)
+            return aheadPosition;
+        return lines.position(tokenOffset);
+    }
+
+    /**
+     * This method returns the value of the number most recently scanned, which was
+     * decoded while its digits were scanned.
+     *
+     * @return the value of the current number token
+     * @throws NumberFormatException if the number does not fit in an int
+     */
+    public int getNumberValue()
+    {
+        if (numberOverflow)
+            throw new NumberFormatException("For input string: \"" + getLexeme() + "\"");
+        return numberValue;
+    }
+
+    /**
+     * This method returns the symbol ID of the token most recently scanned. Identifiers
+     * are interned while they are scanned; any other token is interned by its text
+     * the first time its symbol is asked for.
+     *
+     * @return the ID of the current token in the symbol table
+     */
+    public int getSymbol()
+    {
+        if (symbol < 0)
+            symbol = symbols.intern(getLexeme());
+        return symbol;
+    }
+
+    /**
+     * This method returns the symbol table that identifiers are interned in.
+     *
+     * @return the symbol table of the scanner
+     */
+    public SymbolTable getSymbolTable()
+    {
+        return symbols;
+    }
+
+    /**
+     * This method replaces the symbol table that identifiers are interned in, so
+     * that several scanners can give the same identifier the same ID.
+     *
+     * @param table the symbol table to use
+     */
+    public void setSymbolTable(SymbolTable table)
+    {
+        symbols = table;
+    }
+
+    /**
+     * This method makes the scanner record errors in the given Diagnostics object and
+     * skip past them, instead of throwing or printing them. Passing null goes back
+     * to throwing.
+     *
+     * @param diagnostics the collector for scanning errors, or null
+     */
+    public void setDiagnostics(Diagnostics diagnostics)
+    {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * This method scans the rest of the input and returns its tokens, up to but
+     * not including the end of file.
+     *
+     * @return the remaining tokens
+     * @throws ScanErrorException when a token cannot be scanned
+     */
+    public TokenArray tokenize() throws ScanErrorException
+    {
+        TokenArray tokens = new TokenArray(buf, symbols);
+        while (nextTokenKind() != TokenKind.EOF)
+            tokens.add(kind, tokenOffset, tokenLength, getTokenValue());
+        return tokens;
+    }
+
+    /**
+     * This method returns the value of the current token as it is stored in a
+     * TokenArray: the value of a number, the symbol ID of an identifier, or 0.
+     *
+     * @return the value of the current token
+     */
+    int getTokenValue()
+    {
+        if (kind == TokenKind.NUMBER)
+            return numberValue;
+        return kind == TokenKind.IDENTIFIER ? symbol : 0;
+    }
+
+    /**
+     * This method checks if the current number token was too large for an int.
+     *
+     * @return true if the number overflowed, false otherwise
+     */
+    boolean hasNumberOverflow()
+    {
+        return kind == TokenKind.NUMBER && numberOverflow;
+    }
+
+    /**
+     * This method checks if the input ended in the middle of a // or (* *) comment.
+     *
+     * @return true if a comment was still open at the end of the input, false otherwise
+     */
+    boolean endedInComment()
+    {
+        return unclosedComment;
+    }
+
+    /**
+     * This method checks if scanning stopped at the period that ends a program,
+     * rather than at the end of the input.
+     *
+     * @return true if the end of program period was found, false otherwise
+     */
+    boolean foundEndOfProgram()
+    {
+        return eof && pos < limit && currentChar == '.';
     }
 }
@@ -0,0 +1,235 @@
+package scanner;
+
+import benchmark.TestPrograms;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Measures the speed of the Scanner on the parser test programs, repeated until the
+ * source reaches a given size. It times whole scans in tokens and megabytes per
+ * second, times asking for the position of every token against scanning alone,
+ * times scanning UTF-8 bytes directly against decoding them to a String first, and
+ * times the table-driven character classification against the linear
+ * search over operand arrays that it replaced.
+ *
+ * Usage: java scanner.ScannerBenchmark [corpus directory] [size in megabytes]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class ScannerBenchmark
+{
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    // keeps the JIT from discarding the work being measured
+    private static long sink;
+
+    /**
+     * Main benchmark method that builds the scaled-up corpus and prints the results.
+     *
+     * @param args the corpus directory and the size of the scaled-up source in megabytes
+     * @throws IOException if the corpus cannot be read
+     * @throws ScanErrorException if the corpus cannot be scanned
+     */
+    public static void main(String[] args) throws IOException, ScanErrorException
+    {
+        Path dir = TestPrograms.directory(args);
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        String source = scaleCorpus(dir, megabytes << 20);
+        System.out.println("corpus: " + source.length() + " chars from " + dir);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            sink += scan(new Scanner(source));
+        long tokens = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            tokens += scan(new Scanner(source));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("scan:            %.1f M tokens/s, %.1f MB/s%n",
+                tokens / seconds / 1e6, (double) source.length() * MEASURED_ROUNDS / seconds / (1 << 20));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            sink += scanWithPositions(new Scanner(source));
+        double alone = 0;
+        double positioned = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+        {
+            start = System.nanoTime();
+            sink += scan(new Scanner(source));
+            alone += (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            sink += scanWithPositions(new Scanner(source));
+            positioned += (System.nanoTime() - start) / 1e9;
+        }
+        System.out.printf("scan + position: %.1f MB/s, %.1f%% of scan alone%n",
+                (double) source.length() * MEASURED_ROUNDS / positioned / (1 << 20), 100 * alone / positioned);
+
+        byte[] utf8 = source.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+        {
+            sink += scan(new Scanner(new String(utf8, StandardCharsets.UTF_8)));
+            sink += scan(new Scanner(utf8));
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            sink += scan(new Scanner(new String(utf8, StandardCharsets.UTF_8)));
+        double decoded = (System.nanoTime() - start) / 1e9;
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            sink += scan(new Scanner(utf8));
+        double direct = (System.nanoTime() - start) / 1e9;
+        double scanned = (double) utf8.length * MEASURED_ROUNDS / (1 << 20);
+        System.out.printf("decode + scan:   %.1f MB/s%n", scanned / decoded);
+        System.out.printf("scan bytes:      %.1f MB/s, speedup %.2fx%n", scanned / direct, decoded / direct);
+
+        char[] chars = source.toCharArray();
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+        {
+            sink += classifyWithTable(chars);
+            sink += classifyWithSearch(chars);
+        }
+        double table = timeClassification(chars, true);
+        double search = timeClassification(chars, false);
+        System.out.printf("classify table:  %.1f M chars/s%n", chars.length / table / 1e6);
+        System.out.printf("classify search: %.1f M chars/s%n", chars.length / search / 1e6);
+        System.out.printf("speedup:         %.2fx%n", search / table);
+        System.out.println("(" + sink + ")");
+    }
+
+    /**
+     * Concatenates the test programs in a directory, without their end of program
+     * periods, until the text reaches the given size, and ends it with a period.
+     *
+     * @param dir the directory of test programs
+     * @param size the minimum number of characters in the result
+     * @return the scaled-up source
+     * @throws IOException if a program cannot be read
+     */
+    public static String scaleCorpus(Path dir, int size) throws IOException
+    {
+        List<String> programs = new ArrayList<String>();
+        for (String text : TestPrograms.load(dir).values())
+        {
+            String program = text.trim();
+            if (program.endsWith("."))
+                program = program.substring(0, program.length() - 1);
+            programs.add(program);
+        }
+        Collections.sort(programs);
+        StringBuilder corpus = new StringBuilder(size + 64);
+        while (corpus.length() < size)
+            for (String program : programs)
+                corpus.append(program).append('\n');
+        return corpus.append(".\n").toString();
+    }
+
+    /**
+     * Scans the whole source and counts its tokens.
+     *
+     * @param scanner the scanner of the source
+     * @return the number of tokens before the end of file
+     * @throws ScanErrorException if the source cannot be scanned
+     */
+    private static long scan(Scanner scanner) throws ScanErrorException
+    {
+        long tokens = 0;
+        while (scanner.nextTokenKind() != TokenKind.EOF)
+            tokens++;
+        return tokens;
+    }
+
+    /**
+     * Scans the whole source, asking for the position of every token.
+     *
+     * @param scanner the scanner of the source
+     * @return the sum of the lines of the tokens before the end of file
+     * @throws ScanErrorException if the source cannot be scanned
+     */
+    private static long scanWithPositions(Scanner scanner) throws ScanErrorException
+    {
+        long lines = 0;
+        while (scanner.nextTokenKind() != TokenKind.EOF)
+            lines += SourcePosition.getLine(scanner.getTokenPosition());
+        return lines;
+    }
+
+    /**
+     * Times several rounds of classifying every character of the source.
+     *
+     * @param chars the characters to classify
+     * @param useTable true to use the Scanner's tables, false to use the linear search
+     * @return the average seconds per round
+     */
+    private static double timeClassification(char[] chars, boolean useTable)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            sink += useTable ? classifyWithTable(chars) : classifyWithSearch(chars);
+        return (System.nanoTime() - start) / 1e9 / MEASURED_ROUNDS;
+    }
+
+    /**
+     * Classifies every character the way nextTokenKind does, using the Scanner.
+     *
+     * @param chars the characters to classify
+     * @return a checksum of the classes found
+     */
+    private static long classifyWithTable(char[] chars)
+    {
+        long sum = 0;
+        for (char c : chars)
+        {
+            if (Scanner.isWhiteSpace(c))
+                sum += 1;
+            else if (Scanner.isDigit(c))
+                sum += 2;
+            else if (Scanner.isLetter(c))
+                sum += 3;
+            else if (Scanner.isOperand(c) || Scanner.isLongOperand(c))
+                sum += 4;
+        }
+        return sum;
+    }
+
+    /**
+     * Classifies every character the way nextTokenKind used to, building and
+     * searching an array of operands for every check.
+     *
+     * @param chars the characters to classify
+     * @return a checksum of the classes found
+     */
+    private static long classifyWithSearch(char[] chars)
+    {
+        long sum = 0;
+        for (char c : chars)
+        {
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n')
+                sum += 1;
+            else if (c >= '0' && c <= '9')
+                sum += 2;
+            else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))
+                sum += 3;
+            else if (searchOperands(c, new char[]{'=', '+', '-', '*', '/', '%', '(', ')', '<', '>', ','})
+                    || searchOperands(c, new char[]{'<', '>', ':'}))
+                sum += 4;
+        }
+        return sum;
+    }
+
+    /**
+     * Searches an array of operands for a character.
+     *
+     * @param c the character to look for
+     * @param operands the operands to search
+     * @return true if the character is one of the operands, false otherwise
+     */
+    private static boolean searchOperands(char c, char[] operands)
+    {
+        for (char oper : operands)
+            if (c == oper)
+                return true;
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+package scanner;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Measures how fast white space and comments are skipped on a generated source that
+ * is mostly comments and indentation: banner comments, runs of // comments, and
+ * deeply indented statements. It times the TextSkipper searches alone, and then
+ * whole scans of the source as chars and as UTF-8 bytes, which skip in bulk, against
+ * a scan of the same bytes from a stream, which skips one character at a time.
+ *
+ * Usage: java scanner.SkipperBenchmark [size in megabytes] [seed]
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class SkipperBenchmark
+{
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final String[] WORDS = {
+        "the", "count", "of", "values", "read", "so", "far", "is", "kept", "in", "total",
+        "and", "checked", "against", "limit", "before", "each", "pass", "over", "input"
+    };
+    // keeps the JIT from discarding the work being measured
+    private static long sink;
+
+    /**
+     * Main benchmark method that generates the source and prints the results.
+     *
+     * @param args the size of the source in megabytes and the random seed
+     * @throws ScanErrorException if the source cannot be scanned
+     */
+    public static void main(String[] args) throws ScanErrorException
+    {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 17;
+        String source = commentHeavySource(megabytes << 20, new Random(seed));
+        char[] chars = source.toCharArray();
+        byte[] utf8 = source.getBytes(StandardCharsets.UTF_8);
+        TextSkipper skipper = new TextSkipper();
+        System.out.println("source: " + chars.length + " chars");
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            sink += skipAll(skipper, chars);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            sink += skipAll(skipper, chars);
+        double skipTime = (System.nanoTime() - start) / 1e9 / MEASURED_ROUNDS;
+        System.out.printf("skip:         %.1f MB/s%n", megabytesPer(chars.length, skipTime));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+        {
+            sink += new Scanner(chars, 0, chars.length).tokenize().size();
+            sink += new Scanner(utf8).tokenize().size();
+            sink += new Scanner(new ByteArrayInputStream(utf8)).tokenize().size();
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            sink += new Scanner(chars, 0, chars.length).tokenize().size();
+        double charTime = (System.nanoTime() - start) / 1e9 / MEASURED_ROUNDS;
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            sink += new Scanner(utf8).tokenize().size();
+        double byteTime = (System.nanoTime() - start) / 1e9 / MEASURED_ROUNDS;
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            sink += new Scanner(new ByteArrayInputStream(utf8)).tokenize().size();
+        double streamTime = (System.nanoTime() - start) / 1e9 / MEASURED_ROUNDS;
+        System.out.printf("scan chars:   %.1f MB/s%n", megabytesPer(chars.length, charTime));
+        System.out.printf("scan bytes:   %.1f MB/s%n", megabytesPer(utf8.length, byteTime));
+        System.out.printf("scan stream:  %.1f MB/s, bytes %.2fx faster%n",
+                megabytesPer(utf8.length, streamTime), streamTime / byteTime);
+        System.out.println("(" + sink + ")");
+    }
+
+    /**
+     * This method generates a source in which most characters are comments or
+     * indentation. Each statement is preceded by // comments and one (* *) comment,
+     * which is the order in which the Scanner skips them.
+     *
+     * @param size the number of characters to generate
+     * @param random the source of the comment words and nesting depths
+     * @return the generated source
+     */
+    static String commentHeavySource(int size, Random random)
+    {
+        StringBuilder source = new StringBuilder(size + 1024);
+        source.append("(* ").append("=".repeat(72)).append(" *)\n");
+        int count = 0;
+        while (source.length() < size)
+        {
+            String indent = " ".repeat(4 * (1 + random.nextInt(6)));
+            for (int lines = random.nextInt(4); lines > 0; lines--)
+                appendWords(source.append(indent).append("// "), random).append('\n');
+            appendWords(source.append(indent).append("(* "), random).append('\n');
+            appendWords(source.append(indent).append("   "), random).append(" *)\n");
+            source.append(indent).append("x").append(count % 97).append(" := x")
+                    .append(count % 89).append(" + ").append(count).append(";\n\n");
+            count++;
+        }
+        return source.append("END;\n.").toString();
+    }
+
+    /**
+     * This method appends a line of random words.
+     *
+     * @param source the builder to append to
+     * @param random the source of the words
+     * @return the builder
+     */
+    private static StringBuilder appendWords(StringBuilder source, Random random)
+    {
+        for (int words = 6 + random.nextInt(8); words > 0; words--)
+            source.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        return source;
+    }
+
+    /**
+     * This method walks through the source using only the skipper's searches: it skips
+     * white space, skips // comments to the end of the line and (* *) comments to
+     * their "*)", and steps over any other character one at a time.
+     *
+     * @param skipper the skipper to use
+     * @param s the source
+     * @return the number of comments skipped
+     */
+    private static long skipAll(TextSkipper skipper, char[] s)
+    {
+        long comments = 0;
+        int i = 0;
+        while (i < s.length)
+        {
+            i = skipper.skipWhiteSpace(s, i, s.length);
+            if (i + 1 < s.length && s[i] == '/' && s[i + 1] == '/')
+            {
+                i = skipper.find(s, i + 2, s.length, '\n');
+                comments++;
+            }
+            else if (i + 1 < s.length && s[i] == '(' && s[i + 1] == '*')
+            {
+                i = skipper.findCommentEnd(s, i + 2, s.length) + 2;
+                comments++;
+            }
+            else
+                i++;
+        }
+        return comments;
+    }
+
+    /**
+     * This method converts a number of characters and a time into a throughput.
+     *
+     * @param chars the number of characters
+     * @param seconds the time taken to go through them once
+     * @return the throughput in megabytes per second
+     */
+    private static double megabytesPer(long chars, double seconds)
+    {
+        return chars / seconds / (1 << 20);
+    }
+}
@@ -0,0 +1,109 @@
+package scanner;
+
+/**
+ * SourcePosition packs the place of a token in its source into a single long, so
+ * that tokens and AST nodes can carry a position without an object for each one.
+ * The low 32 bits hold the offset, the next 20 bits the line, and the top 12 bits
+ * the column. Lines and columns start at 1 and stop growing at the largest value
+ * their bits can hold; the offset is always exact. The position 0, with line 0,
+ * stands for an unknown position.
+ *
+ * Columns count chars, or bytes when the source is scanned as UTF-8 bytes, the same
+ * as offsets do.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public final class SourcePosition
+{
+    public static final long UNKNOWN = 0;
+
+    private static final int LINE_BITS = 20;
+    private static final int COLUMN_BITS = 12;
+    private static final int MAX_LINE = (1 << LINE_BITS) - 1;
+    private static final int MAX_COLUMN = (1 << COLUMN_BITS) - 1;
+
+    /**
+     * SourcePosition is never instantiated; it only has static methods.
+     */
+    private SourcePosition()
+    {
+    }
+
+    /**
+     * This method packs a line, column, and offset into a position.
+     *
+     * @param line the line, starting at 1
+     * @param column the column, starting at 1
+     * @param offset the offset in the source
+     * @return the packed position
+     */
+    public static long pack(int line, int column, int offset)
+    {
+        return (long) Math.min(column, MAX_COLUMN) << (32 + LINE_BITS)
+                | (long) Math.min(line, MAX_LINE) << 32
+                | offset & 0xffffffffL;
+    }
+
+    /**
+     * This method moves a position by a number of lines and chars, as when text is
+     * inserted or removed before it on an earlier line. The column stays the same.
+     *
+     * @param position the packed position
+     * @param lines the number of lines to move by
+     * @param chars the number of chars to move by
+     * @return the moved position, or the same position if it is unknown
+     */
+    public static long move(long position, int lines, int chars)
+    {
+        if (getLine(position) == 0)
+            return position;
+        return pack(getLine(position) + lines, getColumn(position), getOffset(position) + chars);
+    }
+
+    /**
+     * This method returns the line of a position.
+     *
+     * @param position the packed position
+     * @return the line, starting at 1, or 0 if the position is unknown
+     */
+    public static int getLine(long position)
+    {
+        return (int) (position >>> 32) & MAX_LINE;
+    }
+
+    /**
+     * This method returns the column of a position.
+     *
+     * @param position the packed position
+     * @return the column, starting at 1
+     */
+    public static int getColumn(long position)
+    {
+        return (int) (position >>> (32 + LINE_BITS));
+    }
+
+    /**
+     * This method returns the offset of a position.
+     *
+     * @param position the packed position
+     * @return the offset in the source
+     */
+    public static int getOffset(long position)
+    {
+        return (int) position;
+    }
+
+    /**
+     * This method describes a position the way error messages show it.
+     *
+     * @param position the packed position
+     * @return the line and column separated by a colon, or "unknown position"
+     */
+    public static String toString(long position)
+    {
+        if (getLine(position) == 0)
+            return "unknown position";
+        return getLine(position) + ":" + getColumn(position);
+    }
+}
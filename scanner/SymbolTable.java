@@ -0,0 +1,154 @@
+package scanner;
+
+import java.util.Arrays;
+
+/**
+ * SymbolTable gives each distinct identifier a dense integer ID, starting at 0, the
+ * first time it is seen, and returns the same ID and the same String object for
+ * every later occurrence. Identifiers can be looked up straight from a range of a
+ * char array, so looking up a name that is already in the table allocates nothing.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class SymbolTable
+{
+    // instance variables
+    private String[] names;
+    private int[] hashes;
+    private int count;
+    // open addressing table of symbol IDs plus one, with 0 marking an empty slot
+    private int[] slots;
+
+    /**
+     * SymbolTable constructor that creates an empty table.
+     */
+    public SymbolTable()
+    {
+        names = new String[64];
+        hashes = new int[64];
+        slots = new int[128];
+        count = 0;
+    }
+
+    /**
+     * This method returns the ID of the identifier in the given range of a char
+     * array, adding it to the table if it has not been seen before.
+     *
+     * @param chars the array holding the identifier
+     * @param start the index of the first character of the identifier
+     * @param length the number of characters in the identifier
+     * @return the ID of the identifier
+     */
+    public int intern(char[] chars, int start, int length)
+    {
+        int hash = 0;
+        for (int i = start; i < start + length; i++)
+            hash = 31 * hash + chars[i];
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0)
+        {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(names[id], chars, start, length))
+                return id;
+            slot = (slot + 1) & mask;
+        }
+        return add(new String(chars, start, length), hash, slot);
+    }
+
+    /**
+     * This method returns the ID of the given identifier, adding it to the table if
+     * it has not been seen before.
+     *
+     * @param name the identifier
+     * @return the ID of the identifier
+     */
+    public int intern(String name)
+    {
+        return intern(name.toCharArray(), 0, name.length());
+    }
+
+    /**
+     * This method returns the identifier with the given ID. Every ID maps to a
+     * single String object.
+     *
+     * @param id the ID of the identifier
+     * @return the identifier
+     */
+    public String getName(int id)
+    {
+        return names[id];
+    }
+
+    /**
+     * This method returns the number of distinct identifiers in the table, which
+     * is one more than the largest ID given out.
+     *
+     * @return the number of identifiers
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * This method checks if a String has the same characters as a range of a char array.
+     *
+     * @param name the String to compare
+     * @param chars the array holding the range
+     * @param start the index of the first character of the range
+     * @param length the number of characters in the range
+     * @return true if they are the same, false otherwise
+     */
+    private static boolean matches(String name, char[] chars, int start, int length)
+    {
+        if (name.length() != length)
+            return false;
+        for (int i = 0; i < length; i++)
+            if (name.charAt(i) != chars[start + i])
+                return false;
+        return true;
+    }
+
+    /**
+     * This method adds a new identifier to the table in the given empty slot, and
+     * grows the table when it becomes half full.
+     *
+     * @param name the new identifier
+     * @param hash the hash of the identifier
+     * @param slot the empty slot found for the identifier
+     * @return the ID given to the identifier
+     */
+    private int add(String name, int hash, int slot)
+    {
+        if (count == names.length)
+        {
+            names = Arrays.copyOf(names, count * 2);
+            hashes = Arrays.copyOf(hashes, count * 2);
+        }
+        int id = count++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (count * 2 > slots.length)
+            rehash();
+        return id;
+    }
+
+    /**
+     * This method doubles the number of slots and puts every ID back into the table.
+     */
+    private void rehash()
+    {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < count; id++)
+        {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package scanner;
+
+import java.util.Arrays;
+
+/**
+ * TokenArray holds a whole stream of scanned tokens in parallel arrays: the kind of
+ * each token, its offset and length in the source, and its value, which is the
+ * decoded value of a number, the symbol ID of an identifier, or 0 for anything else.
+ * Keeping tokens in flat arrays instead of one object per token keeps large token
+ * streams compact and lets them be split and joined cheaply.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class TokenArray
+{
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    // instance variables
+    private char[] source;
+    private SymbolTable symbols;
+    private byte[] kinds;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] values;
+    private int size;
+    // the lines of the source and the line of each token, found when a position is first asked for
+    private LineMap lines;
+    private volatile int[] tokenLines;
+
+    /**
+     * TokenArray constructor that creates an empty token stream.
+     *
+     * @param source the source the tokens were scanned from, or null if it was not kept
+     * @param symbols the table that the symbol IDs of identifiers refer to
+     */
+    public TokenArray(char[] source, SymbolTable symbols)
+    {
+        this(source, symbols, 64);
+    }
+
+    /**
+     * TokenArray constructor that creates an empty token stream with room for the
+     * given number of tokens.
+     *
+     * @param source the source the tokens were scanned from, or null if it was not kept
+     * @param symbols the table that the symbol IDs of identifiers refer to
+     * @param capacity the number of tokens to make room for
+     */
+    public TokenArray(char[] source, SymbolTable symbols, int capacity)
+    {
+        this.source = source;
+        this.symbols = symbols;
+        capacity = Math.max(capacity, 1);
+        kinds = new byte[capacity];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        values = new int[capacity];
+        size = 0;
+    }
+
+    /**
+     * This method adds a token to the end of the stream.
+     *
+     * @param kind the kind of the token
+     * @param offset the offset of the token in the source
+     * @param length the number of characters in the token
+     * @param value the value of a number, the symbol ID of an identifier, or 0
+     */
+    public void add(TokenKind kind, int offset, int length, int value)
+    {
+        if (size == kinds.length)
+            grow(size + 1);
+        kinds[size] = (byte) kind.ordinal();
+        offsets[size] = offset;
+        lengths[size] = length;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * This method adds some of the tokens of another stream to the end of this one.
+     * The identifiers of the other stream are given IDs in this stream's symbol table,
+     * in the order they first appear, so the result is the same as if all the
+     * tokens had been scanned into this stream's table.
+     *
+     * @param other the stream to copy tokens from
+     * @param from the index of the first token to copy
+     * @param to the index just past the last token to copy
+     */
+    public void append(TokenArray other, int from, int to)
+    {
+        append(other, from, to, 0);
+    }
+
+    /**
+     * This method adds some of the tokens of another stream to the end of this one,
+     * moving their offsets by the given amount, as when text before them has been
+     * inserted or removed. Identifiers are given IDs in this stream's symbol table
+     * as in append(other, from, to).
+     *
+     * @param other the stream to copy tokens from
+     * @param from the index of the first token to copy
+     * @param to the index just past the last token to copy
+     * @param shift the amount to add to each offset
+     */
+    public void append(TokenArray other, int from, int to, int shift)
+    {
+        grow(size + to - from);
+        if (other.symbols == symbols)
+        {
+            // the same symbol IDs, so the tokens copy over as they are, array by array
+            System.arraycopy(other.kinds, from, kinds, size, to - from);
+            System.arraycopy(other.offsets, from, offsets, size, to - from);
+            System.arraycopy(other.lengths, from, lengths, size, to - from);
+            System.arraycopy(other.values, from, values, size, to - from);
+            if (shift != 0)
+            {
+                for (int i = size; i < size + to - from; i++)
+                    offsets[i] += shift;
+            }
+            size += to - from;
+            return;
+        }
+        int[] idMap = new int[other.symbols.size()];
+        for (int i = from; i < to; i++)
+        {
+            int value = other.values[i];
+            if (other.kinds[i] == TokenKind.IDENTIFIER.ordinal())
+            {
+                if (idMap[value] == 0)
+                    idMap[value] = symbols.intern(other.symbols.getName(value)) + 1;
+                value = idMap[value] - 1;
+            }
+            kinds[size] = other.kinds[i];
+            offsets[size] = other.offsets[i] + shift;
+            lengths[size] = other.lengths[i];
+            values[size] = value;
+            size++;
+        }
+    }
+
+    /**
+     * This method makes sure the arrays have room for at least the given number of tokens.
+     *
+     * @param capacity the number of tokens to make room for
+     */
+    private void grow(int capacity)
+    {
+        if (capacity <= kinds.length)
+            return;
+        int length = Math.max(capacity, kinds.length * 2);
+        kinds = Arrays.copyOf(kinds, length);
+        offsets = Arrays.copyOf(offsets, length);
+        lengths = Arrays.copyOf(lengths, length);
+        values = Arrays.copyOf(values, length);
+    }
+
+    /**
+     * This method returns the number of tokens in the stream.
+     *
+     * @return the number of tokens
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * This method returns the kind of a token.
+     *
+     * @param i the index of the token
+     * @return the kind of the token
+     */
+    public TokenKind getKind(int i)
+    {
+        return KINDS[kinds[i]];
+    }
+
+    /**
+     * This method returns the offset of a token in the source.
+     *
+     * @param i the index of the token
+     * @return the offset of the first character of the token
+     */
+    public int getOffset(int i)
+    {
+        return offsets[i];
+    }
+
+    /**
+     * This method returns the number of characters in a token.
+     *
+     * @param i the index of the token
+     * @return the length of the token
+     */
+    public int getLength(int i)
+    {
+        return lengths[i];
+    }
+
+    /**
+     * This method returns the value of a token: the value of a number, the symbol ID
+     * of an identifier, or 0 for any other kind of token.
+     *
+     * @param i the index of the token
+     * @return the value of the token
+     */
+    public int getValue(int i)
+    {
+        return values[i];
+    }
+
+    /**
+     * This method returns the text of a token. Keywords and operands have their
+     * fixed spelling, identifiers their interned name, and numbers the text they
+     * were written with if the source was kept.
+     *
+     * @param i the index of the token
+     * @return the text of the token
+     */
+    public String getLexeme(int i)
+    {
+        TokenKind kind = getKind(i);
+        if (kind == TokenKind.IDENTIFIER)
+            return symbols.getName(values[i]);
+        if (kind != TokenKind.NUMBER)
+            return kind.getSpelling();
+        if (source != null)
+            return new String(source, offsets[i], lengths[i]);
+        return Integer.toString(values[i]);
+    }
+
+    /**
+     * This method returns the packed position of a token. The lines of the source, and
+     * the line of every token, are found the first time a position is asked for, so a
+     * stream whose positions are never needed never pays for them, and after that a
+     * position takes no search and the stream can be read by several threads at once.
+     *
+     * @param i the index of the token
+     * @return the packed position of the token, or SourcePosition.UNKNOWN if the
+     *         source was not kept
+     */
+    public long getPosition(int i)
+    {
+        if (source == null)
+            return SourcePosition.UNKNOWN;
+        int[] lineOf = tokenLines;
+        if (lineOf == null || lineOf.length < size)
+            lineOf = findLines();
+        int line = lineOf[i];
+        return SourcePosition.pack(line + 1, offsets[i] - lines.getStart(line) + 1, offsets[i]);
+    }
+
+    /**
+     * This method returns the packed position of an offset in the source.
+     *
+     * @param offset the offset in the source
+     * @return the packed position of the offset, or SourcePosition.UNKNOWN if the
+     *         source was not kept
+     */
+    public long getPositionOf(int offset)
+    {
+        if (source == null)
+            return SourcePosition.UNKNOWN;
+        if (tokenLines == null || tokenLines.length < size)
+            findLines();
+        return lines.position(offset);
+    }
+
+    /**
+     * This method finds the line starts of the source and the line of every token,
+     * once for the tokens there are so far.
+     *
+     * @return the index of the line of each token
+     */
+    private synchronized int[] findLines()
+    {
+        if (tokenLines != null && tokenLines.length >= size)
+            return tokenLines;
+        LineMap map = new LineMap(0);
+        map.addLineStarts(source, 0, source.length);
+        int[] lineOf = new int[size];
+        int line = 0;
+        for (int i = 0; i < size; i++)
+        {
+            while (line + 1 < map.size() && map.getStart(line + 1) <= offsets[i])
+                line++;
+            lineOf[i] = line;
+        }
+        lines = map;
+        tokenLines = lineOf;
+        return lineOf;
+    }
+
+    /**
+     * This method gives this stream the lines of the stream it was edited from, if
+     * that stream had found them, so that the positions of an edited source are not
+     * found again by searching the whole source. This stream must hold the tokens of
+     * the old stream before the edited ones, then the new tokens, then the tokens of the
+     * old stream after the edited ones, moved by the change in length. The lines of the
+     * old tokens before the edit are kept, the new tokens are looked up, and the lines
+     * of the old tokens after the edit are moved by the number of lines the edit added.
+     *
+     * @param old the stream before the edit
+     * @param start the index of the first token that was replaced
+     * @param resume the index in the old stream of the first token kept after the edit
+     * @param offset the offset where the edit starts
+     * @param removed the number of characters removed at the offset
+     * @param inserted the number of characters inserted at the offset
+     */
+    void moveLines(TokenArray old, int start, int resume, int offset, int removed, int inserted)
+    {
+        int[] oldLines = old.tokenLines;
+        if (source == null || oldLines == null || oldLines.length < old.size)
+            return;
+        LineMap map = old.lines.splice(offset, removed, source, inserted);
+        int[] lineOf = new int[size];
+        System.arraycopy(oldLines, 0, lineOf, 0, start);
+        int end = size - (old.size - resume);
+        for (int i = start; i < end; i++)
+            lineOf[i] = map.lineOf(offsets[i]);
+        int added = map.size() - old.lines.size();
+        System.arraycopy(oldLines, resume, lineOf, end, old.size - resume);
+        if (added != 0)
+        {
+            for (int i = end; i < size; i++)
+                lineOf[i] += added;
+        }
+        lines = map;
+        tokenLines = lineOf;
+    }
+
+    /**
+     * This method finds the last token that starts before the given offset.
+     *
+     * @param offset the offset in the source
+     * @return the index of the last token starting before the offset, or -1 if there is none
+     */
+    public int findBefore(int offset)
+    {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            if (offsets[mid] < offset)
+                low = mid + 1;
+            else
+                high = mid - 1;
+        }
+        return high;
+    }
+
+    /**
+     * This method returns the source the tokens were scanned from.
+     *
+     * @return the source, or null if it was not kept
+     */
+    public char[] getSource()
+    {
+        return source;
+    }
+
+    /**
+     * This method returns the table that the symbol IDs of identifiers refer to.
+     *
+     * @return the symbol table
+     */
+    public SymbolTable getSymbolTable()
+    {
+        return symbols;
+    }
+
+    /**
+     * This method checks if another stream has exactly the same tokens, with the same
+     * kinds, source ranges, and values.
+     *
+     * @param other the object to compare with
+     * @return true if the streams have the same tokens, false otherwise
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (!(other instanceof TokenArray))
+            return false;
+        TokenArray tokens = (TokenArray) other;
+        return size == tokens.size
+                && Arrays.equals(kinds, 0, size, tokens.kinds, 0, size)
+                && Arrays.equals(offsets, 0, size, tokens.offsets, 0, size)
+                && Arrays.equals(lengths, 0, size, tokens.lengths, 0, size)
+                && Arrays.equals(values, 0, size, tokens.values, 0, size);
+    }
+
+    /**
+     * This method returns a hash code that agrees with equals.
+     *
+     * @return the hash code of the tokens
+     */
+    @Override
+    public int hashCode()
+    {
+        int hash = size;
+        for (int i = 0; i < size; i++)
+            hash = 31 * hash + 31 * kinds[i] + offsets[i];
+        return hash;
+    }
+}
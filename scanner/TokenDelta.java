@@ -0,0 +1,75 @@
+package scanner;
+
+/**
+ * TokenDelta describes how the token stream of a source changed after an edit: a run
+ * of old tokens starting at some index was replaced by a run of new tokens, and every
+ * token after the run kept its kind and value but had its offset moved by the length
+ * of the inserted text minus the length of the removed text.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public class TokenDelta
+{
+    // instance variables
+    private int start;
+    private int removed;
+    private TokenArray inserted;
+    private int shift;
+
+    /**
+     * TokenDelta constructor that records one change to a token stream.
+     *
+     * @param start the index of the first token replaced
+     * @param removed the number of old tokens replaced
+     * @param inserted the new tokens that replaced them
+     * @param shift the amount the offsets of the tokens after them moved
+     */
+    public TokenDelta(int start, int removed, TokenArray inserted, int shift)
+    {
+        this.start = start;
+        this.removed = removed;
+        this.inserted = inserted;
+        this.shift = shift;
+    }
+
+    /**
+     * This method returns the index of the first token that was replaced.
+     *
+     * @return the index of the first changed token
+     */
+    public int getStart()
+    {
+        return start;
+    }
+
+    /**
+     * This method returns the number of old tokens that were replaced.
+     *
+     * @return the number of removed tokens
+     */
+    public int getRemovedCount()
+    {
+        return removed;
+    }
+
+    /**
+     * This method returns the new tokens that replaced the old ones.
+     *
+     * @return the inserted tokens
+     */
+    public TokenArray getInserted()
+    {
+        return inserted;
+    }
+
+    /**
+     * This method returns how far the offsets of the tokens after the change moved.
+     *
+     * @return the change in offset of the following tokens
+     */
+    public int getShift()
+    {
+        return shift;
+    }
+}
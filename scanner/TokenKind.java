@@ -0,0 +1,74 @@
+package scanner;
+
+/**
+ * TokenKind enumerates every kind of token the Scanner can produce: keywords,
+ * operators, identifiers, numbers, and the end of file marker. Keywords and
+ * operators carry their fixed spelling, so a token's text never has to be
+ * compared character by character to find out what it is.
+ *
+ * @author Juliana Li
+ * @version October 17, 2026
+ */
+public enum TokenKind
+{
+    EOF("EOF"),
+    NUMBER(null),
+    IDENTIFIER(null),
+
+    // keywords
+    BEGIN("BEGIN"),
+    END("END"),
+    WRITELN("WRITELN"),
+    READLN("READLN"),
+    IF("IF"),
+    THEN("THEN"),
+    ELSE("ELSE"),
+    WHILE("WHILE"),
+    DO("DO"),
+    PROCEDURE("PROCEDURE"),
+    VAR("VAR"),
+    MOD("mod"),
+
+    // operators and punctuation
+    PLUS("+"),
+    MINUS("-"),
+    TIMES("*"),
+    DIVIDE("/"),
+    PERCENT("%"),
+    LPAREN("("),
+    RPAREN(")"),
+    COMMA(","),
+    SEMICOLON(";"),
+    COLON(":"),
+    ASSIGN(":="),
+    EQUAL("="),
+    NOT_EQUAL("<>"),
+    LESS("<"),
+    GREATER(">"),
+    LESS_EQUAL("<="),
+    GREATER_EQUAL(">=");
+
+    // instance variables
+    private final String spelling;
+
+    /**
+     * TokenKind constructor that remembers the fixed spelling of the kind.
+     *
+     * @param spelling the text of the token, or null if the text varies
+     */
+    TokenKind(String spelling)
+    {
+        this.spelling = spelling;
+    }
+
+    /**
+     * This method returns the fixed spelling of this kind of token, or null for
+     * identifiers and numbers, whose text depends on the source.
+     *
+     * @return the spelling of the token kind
+     */
+    public String getSpelling()
+    {
+        return spelling;
+    }
+}